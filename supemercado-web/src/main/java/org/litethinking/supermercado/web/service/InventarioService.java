@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -134,7 +135,7 @@ public class InventarioService {
      * @return a list of products not in inventory
      */
     public List<ProductoDto> obtenerProductosSinInventario() {
-        List<ProductoDto> todosLosProductos = productoService.obtenerTodosLosProductos();
+        List<ProductoDto> todosLosProductos = new ArrayList<>(productoService.obtenerTodosLosProductos());
         List<InventarioDto> todoElInventario = obtenerTodoElInventario();
         
         // Remove products that are already in inventory
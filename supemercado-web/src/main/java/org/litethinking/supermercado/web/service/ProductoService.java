@@ -3,11 +3,15 @@ package org.litethinking.supermercado.web.service;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +24,11 @@ public class ProductoService {
 
     private final RestTemplate restTemplate;
     private final String apiBaseUrl;
+    /**
+     * The last list received with its ETag, replaced as a whole so readers never pair one list with the
+     * ETag of another.
+     */
+    private volatile ListaConEtag ultimaLista;
 
     @Autowired
     public ProductoService(RestTemplate restTemplate, String apiBaseUrl) {
@@ -29,18 +38,36 @@ public class ProductoService {
 
     /**
      * Get all products.
+     * The request carries the ETag of the last list received, and a 304 answer reuses that list.
+     * No lock is held during the call, so concurrent callers may both fetch the list; the last one stored wins.
      *
      * @return a list of all products
      */
     public List<ProductoDto> obtenerTodosLosProductos() {
         try {
+            ListaConEtag anterior = ultimaLista;
+            HttpHeaders headers = new HttpHeaders();
+            if (anterior != null) {
+                headers.setIfNoneMatch(anterior.etag());
+            }
             ResponseEntity<List<ProductoDto>> response = restTemplate.exchange(
                     apiBaseUrl + "/productos",
                     HttpMethod.GET,
-                    null,
+                    new HttpEntity<>(headers),
                     new ParameterizedTypeReference<List<ProductoDto>>() {}
             );
-            return response.getBody();
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && anterior != null) {
+                return anterior.productos();
+            }
+            List<ProductoDto> cuerpo = response.getBody();
+            if (cuerpo == null) {
+                ultimaLista = null;
+                return null;
+            }
+            List<ProductoDto> productos = Collections.unmodifiableList(new ArrayList<>(cuerpo));
+            String etag = response.getHeaders().getETag();
+            ultimaLista = etag == null ? null : new ListaConEtag(etag, productos);
+            return productos;
         } catch (Exception e) {
             // Log the error
             e.printStackTrace();
@@ -125,4 +152,7 @@ public class ProductoService {
             return Collections.emptyList();
         }
     }
-}
\ No newline at end of file
+
+    private record ListaConEtag(String etag, List<ProductoDto> productos) {
+    }
+}
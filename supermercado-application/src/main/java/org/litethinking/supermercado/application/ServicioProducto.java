@@ -1,10 +1,15 @@
 package org.litethinking.supermercado.application;
 
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.litethinking.supermercado.shareddto.supermercado.PrecioConImpuestoDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoEncontradoDto;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service interface for Producto operations.
@@ -43,6 +48,13 @@ public interface ServicioProducto {
      */
     List<ProductoDto> obtenerTodosLosProductos();
 
+    /**
+     * Export all products one at a time, in id order, without loading the catalog in memory.
+     *
+     * @param consumidor receives each product
+     */
+    void exportarProductos(Consumer<ProductoDto> consumidor);
+
     /**
      * Delete a product by its id.
      *
@@ -74,4 +86,72 @@ public interface ServicioProducto {
      * @return the product if found, empty otherwise
      */
     Optional<ProductoDto> obtenerProductoPorCodigoBarras(String codigoBarras);
+
+    /**
+     * Get one page of the products matching every filter given. Null filters are not applied.
+     *
+     * @param nombre a fragment of the name, case-insensitive
+     * @param categoria the category
+     * @param precioMinimo the minimum price, inclusive
+     * @param precioMaximo the maximum price, inclusive
+     * @param codigoBarras the barcode
+     * @param pagina the page number, starting at 0
+     * @param tamano the page size
+     * @param ordenarPor the field to sort by: id, nombre, precio or categoria
+     * @param direccion asc or desc
+     * @return the page of products with the totals over every page
+     * @throws IllegalArgumentException if a filter, the paging or the sorting is not valid
+     */
+    PaginaProductosDto obtenerPaginaDeProductos(String nombre, String categoria, BigDecimal precioMinimo,
+                                                BigDecimal precioMaximo, String codigoBarras, Integer pagina,
+                                                Integer tamano, String ordenarPor, String direccion);
+
+    /**
+     * Search products by free text over their name, description and category.
+     *
+     * @param texto the words to search for
+     * @param limite the maximum number of products, 20 if null
+     * @return the products found, most relevant first
+     * @throws IllegalArgumentException if the text is blank or the limit is not valid
+     */
+    List<ProductoEncontradoDto> buscarProductos(String texto, Integer limite);
+
+    /**
+     * Get one page of the products in a price range, cheapest first. Null bounds and a null category
+     * are not applied, so the first page of a category gives its cheapest products.
+     *
+     * @param precioMinimo the minimum price, inclusive
+     * @param precioMaximo the maximum price, inclusive
+     * @param categoria the category
+     * @param pagina the page number, starting at 0
+     * @param tamano the page size
+     * @return the page of products with the totals over every page
+     * @throws IllegalArgumentException if the price range or the paging is not valid
+     */
+    PaginaProductosDto obtenerPaginaPorPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria,
+                                              Integer pagina, Integer tamano);
+
+    /**
+     * Count the products in a price range. Null bounds and a null category are not applied.
+     *
+     * @param precioMinimo the minimum price, inclusive
+     * @param precioMaximo the maximum price, inclusive
+     * @param categoria the category
+     * @return how many products are in the range
+     * @throws IllegalArgumentException if the price range is not valid
+     */
+    long contarProductosPorPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria);
+
+    /**
+     * Compute tax-inclusive prices for a list of product IDs, a category, or the whole catalog when
+     * neither is given. Every price matches the per-product calculation, rounded HALF_UP to two decimals.
+     *
+     * @param tasaImpuesto the tax rate, e.g. 0.19 for 19%
+     * @param categoria the category
+     * @param productoIds the product IDs; unknown IDs are left out
+     * @return the prices, computed as the stream is consumed
+     * @throws IllegalArgumentException if the rate is not valid or both a category and IDs are given
+     */
+    Stream<PrecioConImpuestoDto> calcularPreciosConImpuesto(BigDecimal tasaImpuesto, String categoria,
+                                                            List<Long> productoIds);
 }
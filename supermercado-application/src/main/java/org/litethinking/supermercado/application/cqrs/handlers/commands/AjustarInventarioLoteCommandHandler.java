@@ -0,0 +1,116 @@
+package org.litethinking.supermercado.application.cqrs.handlers.commands;
+
+import org.litethinking.supermercado.domain.model.inventario.AjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.ResultadoAjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.shareddto.cqrs.commands.AjustarInventarioLoteCommand;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.AjusteInventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResultadoAjusteInventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResultadoLoteAjustesDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handler for AjustarInventarioLoteCommand.
+ * This class is responsible for applying a batch of relative stock adjustments, e.g. a goods receipt,
+ * in one transaction instead of one findById + save per inventory record.
+ */
+@Component
+public class AjustarInventarioLoteCommandHandler {
+
+    static final int LIMITE_AJUSTES = 5000;
+
+    private final RepositorioInventarioPort repositorioInventarioPort;
+
+    public AjustarInventarioLoteCommandHandler(RepositorioInventarioPort repositorioInventarioPort) {
+        this.repositorioInventarioPort = repositorioInventarioPort;
+    }
+
+    /**
+     * Handle the command to adjust a batch of inventory records.
+     * Malformed lines are reported without reaching the database; the rest are applied in the order received.
+     * A line that adds units without a fechaReposicion is stamped with today's date.
+     * The tipo of a line is the cause logged in the stock movement history; sales cannot be logged here.
+     *
+     * @param command the command with the adjustments
+     * @return the totals and one result per adjustment, in the same order
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public ResultadoLoteAjustesDto handle(AjustarInventarioLoteCommand command) {
+        List<AjusteInventarioDto> ajustes = command.ajustes();
+        if (ajustes == null || ajustes.isEmpty()) {
+            throw new IllegalArgumentException("El lote de ajustes no puede estar vacío");
+        }
+        if (ajustes.size() > LIMITE_AJUSTES) {
+            throw new IllegalArgumentException("El lote admite como máximo " + LIMITE_AJUSTES + " ajustes");
+        }
+
+        ResultadoAjusteInventarioDto[] resultados = new ResultadoAjusteInventarioDto[ajustes.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<AjusteStock> ajustesValidos = new ArrayList<>();
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < ajustes.size(); i++) {
+            AjusteInventarioDto ajuste = ajustes.get(i);
+            String error = validarAjuste(ajuste);
+            if (error != null) {
+                resultados[i] = new ResultadoAjusteInventarioDto(i, false, ajuste == null ? null : ajuste.productoId(), null, error);
+                continue;
+            }
+            LocalDate fechaReposicion = ajuste.fechaReposicion() == null && ajuste.delta() > 0 ? hoy : ajuste.fechaReposicion();
+            indicesValidos.add(i);
+            ajustesValidos.add(ajuste.tipo() == null
+                    ? new AjusteStock(ajuste.productoId(), ajuste.delta(), fechaReposicion)
+                    : new AjusteStock(ajuste.productoId(), ajuste.delta(), fechaReposicion, tipo(ajuste)));
+        }
+
+        if (!ajustesValidos.isEmpty()) {
+            List<ResultadoAjusteStock> aplicados = repositorioInventarioPort.ajustarStockEnLote(ajustesValidos);
+            for (int i = 0; i < aplicados.size(); i++) {
+                int indice = indicesValidos.get(i);
+                ResultadoAjusteStock resultado = aplicados.get(i);
+                resultados[indice] = new ResultadoAjusteInventarioDto(indice, resultado.aplicado(),
+                        resultado.productoId(), resultado.cantidad(), resultado.error());
+            }
+        }
+
+        int exitosos = (int) Arrays.stream(resultados).filter(ResultadoAjusteInventarioDto::exitoso).count();
+        return new ResultadoLoteAjustesDto(ajustes.size(), exitosos, ajustes.size() - exitosos, Arrays.asList(resultados));
+    }
+
+    private static String validarAjuste(AjusteInventarioDto ajuste) {
+        if (ajuste == null) {
+            return "El ajuste no puede ser nulo";
+        }
+        if (ajuste.productoId() == null) {
+            return "El id del producto es obligatorio";
+        }
+        if (ajuste.delta() == null) {
+            return "El delta es obligatorio";
+        }
+        if (ajuste.tipo() != null) {
+            TipoMovimientoStock tipo = tipo(ajuste);
+            if (tipo == null || tipo == TipoMovimientoStock.VENTA) {
+                return "El tipo debe ser RECEPCION, AJUSTE o DEVOLUCION";
+            }
+            if (tipo != TipoMovimientoStock.AJUSTE && ajuste.delta() <= 0) {
+                return "Una " + (tipo == TipoMovimientoStock.RECEPCION ? "recepción" : "devolución")
+                        + " debe sumar unidades";
+            }
+        }
+        return null;
+    }
+
+    private static TipoMovimientoStock tipo(AjusteInventarioDto ajuste) {
+        try {
+            return TipoMovimientoStock.valueOf(ajuste.tipo().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
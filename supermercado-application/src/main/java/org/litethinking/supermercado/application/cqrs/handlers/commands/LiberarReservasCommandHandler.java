@@ -0,0 +1,37 @@
+package org.litethinking.supermercado.application.cqrs.handlers.commands;
+
+import org.litethinking.supermercado.application.mapper.InventarioMapper;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.commands.LiberarReservasCommand;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ReservaStockDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for LiberarReservasCommand.
+ * This class is responsible for giving the units reserved by an abandoned cart back to the other tills.
+ */
+@Component
+public class LiberarReservasCommandHandler {
+
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
+
+    public LiberarReservasCommandHandler(RepositorioReservaStockPort repositorioReservaStockPort) {
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
+    }
+
+    /**
+     * Handle the command to release every reservation of a cart.
+     *
+     * @param command the command with the cart id
+     * @return the released reservations, empty if the cart had none
+     */
+    public List<ReservaStockDto> handle(LiberarReservasCommand command) {
+        return repositorioReservaStockPort.liberar(command.carritoId())
+                .stream()
+                .map(InventarioMapper::toReservaDto)
+                .collect(Collectors.toList());
+    }
+}
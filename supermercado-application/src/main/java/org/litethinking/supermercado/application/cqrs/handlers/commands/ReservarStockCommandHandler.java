@@ -0,0 +1,72 @@
+package org.litethinking.supermercado.application.cqrs.handlers.commands;
+
+import org.litethinking.supermercado.application.mapper.InventarioMapper;
+import org.litethinking.supermercado.domain.exception.StockInsuficienteException;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.commands.ReservarStockCommand;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ReservaStockDto;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Handler for ReservarStockCommand.
+ * This class is responsible for holding units of a product for a cart while it checks out, so a slow till
+ * cannot lose scarce stock to another one. The reservation is confirmed when the cart's sale is saved.
+ */
+@Component
+public class ReservarStockCommandHandler {
+
+    static final int DURACION_POR_DEFECTO_SEGUNDOS = 15 * 60;
+    static final int DURACION_MAXIMA_SEGUNDOS = 2 * 60 * 60;
+
+    private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
+
+    public ReservarStockCommandHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                       RepositorioReservaStockPort repositorioReservaStockPort) {
+        this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
+    }
+
+    /**
+     * Handle the command to reserve units of a product for a cart.
+     * A new reservation of the same product for the same cart replaces the previous one.
+     * The stock is read by the reservation repository under its lock, so a sale that commits meanwhile
+     * cannot leave the reservation counting on units it already sold.
+     *
+     * @param command the command with the cart, the product, the units and the duration
+     * @return the created reservation
+     * @throws IllegalArgumentException if a field is missing or out of range, or the product has no inventory
+     * @throws StockInsuficienteException if the stock not reserved by other carts does not cover the units
+     */
+    public ReservaStockDto handle(ReservarStockCommand command) {
+        if (command.carritoId() == null || command.carritoId().isBlank()) {
+            throw new IllegalArgumentException("El id del carrito es obligatorio");
+        }
+        if (command.productoId() == null) {
+            throw new IllegalArgumentException("El id del producto es obligatorio");
+        }
+        if (command.unidades() == null || command.unidades() <= 0) {
+            throw new IllegalArgumentException("Las unidades a reservar deben ser mayores que cero");
+        }
+        int segundos = command.segundos() == null ? DURACION_POR_DEFECTO_SEGUNDOS : command.segundos();
+        if (segundos <= 0 || segundos > DURACION_MAXIMA_SEGUNDOS) {
+            throw new IllegalArgumentException("La duración de la reserva debe estar entre 1 y "
+                    + DURACION_MAXIMA_SEGUNDOS + " segundos");
+        }
+
+        return repositorioReservaStockPort.reservar(command.carritoId(), command.productoId(), command.unidades(),
+                        () -> cantidadEnStock(command.productoId()), Duration.ofSeconds(segundos))
+                .map(InventarioMapper::toReservaDto)
+                .orElseThrow(() -> new StockInsuficienteException(command.productoId(), command.unidades()));
+    }
+
+    private int cantidadEnStock(Long productoId) {
+        Inventario inventario = repositorioInventarioPort.findByProductoId(productoId)
+                .orElseThrow(() -> new IllegalArgumentException("No hay inventario para el producto " + productoId));
+        return inventario.getCantidad() == null ? 0 : inventario.getCantidad();
+    }
+}
@@ -3,12 +3,13 @@ package org.litethinking.supermercado.application.cqrs.handlers.queries;
 import org.litethinking.supermercado.application.mapper.InventarioMapper;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetAllInventariosQuery;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Handler for GetAllInventariosQuery.
@@ -18,9 +19,12 @@ import java.util.stream.Collectors;
 public class GetAllInventariosQueryHandler {
 
     private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
 
-    public GetAllInventariosQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+    public GetAllInventariosQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                          RepositorioReservaStockPort repositorioReservaStockPort) {
         this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
     }
 
     /**
@@ -31,8 +35,22 @@ public class GetAllInventariosQueryHandler {
      */
     public List<InventarioDto> handle(GetAllInventariosQuery query) {
         List<Inventario> inventarios = repositorioInventarioPort.findAll();
-        return inventarios.stream()
-                .map(InventarioMapper::toDto)
-                .collect(Collectors.toList());
+        return InventarioMapper.toDtos(inventarios,
+                repositorioReservaStockPort.unidadesReservadas(InventarioMapper.productoIds(inventarios)));
     }
-}
\ No newline at end of file
+
+    /**
+     * Handle the query to get all inventory records one at a time, in id order, without loading the
+     * whole inventory in memory. The reserved units are looked up per record.
+     *
+     * @param query the query to get all inventory records
+     * @param consumidor receives each inventory DTO
+     */
+    public void handle(GetAllInventariosQuery query, Consumer<InventarioDto> consumidor) {
+        repositorioInventarioPort.recorrerInventarios(inventario -> {
+            Long productoId = inventario.getProducto() == null ? null : inventario.getProducto().getId();
+            int reservadas = productoId == null ? 0 : repositorioReservaStockPort.unidadesReservadas(productoId);
+            consumidor.accept(InventarioMapper.toDto(inventario, reservadas));
+        });
+    }
+}
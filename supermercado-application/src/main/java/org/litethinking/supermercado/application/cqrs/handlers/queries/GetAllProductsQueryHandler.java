@@ -7,6 +7,7 @@ import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -33,4 +34,15 @@ public class GetAllProductsQueryHandler {
                 .map(ProductoMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Handle the query to retrieve all products one at a time, in id order, without loading the
+     * whole catalog in memory.
+     *
+     * @param query the query to get all products
+     * @param consumidor receives each product
+     */
+    public void handle(GetAllProductsQuery query, Consumer<ProductoDto> consumidor) {
+        repositorioProductoPort.recorrerProductos(producto -> consumidor.accept(ProductoMapper.toDto(producto)));
+    }
+}
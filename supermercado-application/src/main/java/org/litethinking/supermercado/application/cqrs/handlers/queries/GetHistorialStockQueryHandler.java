@@ -0,0 +1,62 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.domain.model.inventario.HistorialStock;
+import org.litethinking.supermercado.domain.model.inventario.MovimientoStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioMovimientoStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetHistorialStockQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.HistorialStockDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.MovimientoStockDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Handler for GetHistorialStockQuery.
+ * This class is responsible for processing the query to get the stock movements of a product in an interval.
+ */
+@Component
+public class GetHistorialStockQueryHandler {
+
+    static final int LIMITE_MAXIMO = 1000;
+
+    private final RepositorioMovimientoStockPort repositorioMovimientoStockPort;
+
+    public GetHistorialStockQueryHandler(RepositorioMovimientoStockPort repositorioMovimientoStockPort) {
+        this.repositorioMovimientoStockPort = repositorioMovimientoStockPort;
+    }
+
+    /**
+     * Handle the query to get the stock history of a product.
+     *
+     * @param query the query with the product, the interval and the maximum number of movements
+     * @return the stock at both ends of the interval and the movements in between, oldest first
+     * @throws IllegalArgumentException if the interval is missing or reversed, or the limit is out of range
+     */
+    public HistorialStockDto handle(GetHistorialStockQuery query) {
+        if (query.productoId() == null || query.desde() == null || query.hasta() == null) {
+            throw new IllegalArgumentException("El producto y las fechas desde y hasta son obligatorios");
+        }
+        if (query.desde().isAfter(query.hasta())) {
+            throw new IllegalArgumentException("La fecha desde no puede ser posterior a la fecha hasta");
+        }
+        if (query.limite() < 1 || query.limite() > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        HistorialStock historial = repositorioMovimientoStockPort.findHistorial(
+                query.productoId(), query.desde(), query.hasta(), query.limite());
+        List<MovimientoStockDto> movimientos = historial.movimientos().stream()
+                .map(GetHistorialStockQueryHandler::toDto)
+                .toList();
+        Integer cantidadFinal = movimientos.isEmpty()
+                ? historial.cantidadInicial()
+                : movimientos.get(movimientos.size() - 1).cantidadResultante();
+        return new HistorialStockDto(query.productoId(), query.desde(), query.hasta(),
+                historial.cantidadInicial(), cantidadFinal, historial.truncado(), movimientos);
+    }
+
+    private static MovimientoStockDto toDto(MovimientoStock movimiento) {
+        return new MovimientoStockDto(movimiento.id(), movimiento.tipo().name(), movimiento.delta(),
+                movimiento.cantidadResultante(), movimiento.instante(), movimiento.motivo());
+    }
+}
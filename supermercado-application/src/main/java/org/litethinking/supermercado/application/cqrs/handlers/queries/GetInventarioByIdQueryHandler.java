@@ -3,6 +3,7 @@ package org.litethinking.supermercado.application.cqrs.handlers.queries;
 import org.litethinking.supermercado.application.mapper.InventarioMapper;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetInventarioByIdQuery;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.springframework.stereotype.Component;
@@ -17,9 +18,12 @@ import java.util.Optional;
 public class GetInventarioByIdQueryHandler {
 
     private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
 
-    public GetInventarioByIdQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+    public GetInventarioByIdQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                          RepositorioReservaStockPort repositorioReservaStockPort) {
         this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
     }
 
     /**
@@ -30,6 +34,7 @@ public class GetInventarioByIdQueryHandler {
      */
     public Optional<InventarioDto> handle(GetInventarioByIdQuery query) {
         Optional<Inventario> inventarioOptional = repositorioInventarioPort.findById(query.id());
-        return inventarioOptional.map(InventarioMapper::toDto);
+        return inventarioOptional.map(inventario -> InventarioMapper.toDto(inventario,
+                repositorioReservaStockPort.unidadesReservadas(inventario.getProducto().getId())));
     }
 }
\ No newline at end of file
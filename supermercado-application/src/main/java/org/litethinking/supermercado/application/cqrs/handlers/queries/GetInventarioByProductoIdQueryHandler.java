@@ -1,9 +1,9 @@
 package org.litethinking.supermercado.application.cqrs.handlers.queries;
 
 import org.litethinking.supermercado.application.mapper.InventarioMapper;
-import org.litethinking.supermercado.domain.model.Producto;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetInventarioByProductoIdQuery;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.springframework.stereotype.Component;
@@ -18,9 +18,12 @@ import java.util.Optional;
 public class GetInventarioByProductoIdQueryHandler {
 
     private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
 
-    public GetInventarioByProductoIdQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+    public GetInventarioByProductoIdQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                                  RepositorioReservaStockPort repositorioReservaStockPort) {
         this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
     }
 
     /**
@@ -30,10 +33,8 @@ public class GetInventarioByProductoIdQueryHandler {
      * @return the inventory DTO if found, empty otherwise
      */
     public Optional<InventarioDto> handle(GetInventarioByProductoIdQuery query) {
-        Producto producto = Producto.builder()
-                .id(query.productoId())
-                .build();
-        Optional<Inventario> inventarioOptional = repositorioInventarioPort.findByProducto(producto);
-        return inventarioOptional.map(InventarioMapper::toDto);
+        Optional<Inventario> inventarioOptional = repositorioInventarioPort.findByProductoId(query.productoId());
+        return inventarioOptional.map(inventario -> InventarioMapper.toDto(inventario,
+                repositorioReservaStockPort.unidadesReservadas(inventario.getProducto().getId())));
     }
 }
\ No newline at end of file
@@ -3,12 +3,12 @@ package org.litethinking.supermercado.application.cqrs.handlers.queries;
 import org.litethinking.supermercado.application.mapper.InventarioMapper;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetInventariosByUbicacionQuery;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Handler for GetInventariosByUbicacionQuery.
@@ -18,9 +18,12 @@ import java.util.stream.Collectors;
 public class GetInventariosByUbicacionQueryHandler {
 
     private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
 
-    public GetInventariosByUbicacionQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+    public GetInventariosByUbicacionQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                                  RepositorioReservaStockPort repositorioReservaStockPort) {
         this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
     }
 
     /**
@@ -31,8 +34,7 @@ public class GetInventariosByUbicacionQueryHandler {
      */
     public List<InventarioDto> handle(GetInventariosByUbicacionQuery query) {
         List<Inventario> inventarios = repositorioInventarioPort.findByUbicacion(query.ubicacion());
-        return inventarios.stream()
-                .map(InventarioMapper::toDto)
-                .collect(Collectors.toList());
+        return InventarioMapper.toDtos(inventarios,
+                repositorioReservaStockPort.unidadesReservadas(InventarioMapper.productoIds(inventarios)));
     }
 }
\ No newline at end of file
@@ -3,12 +3,12 @@ package org.litethinking.supermercado.application.cqrs.handlers.queries;
 import org.litethinking.supermercado.application.mapper.InventarioMapper;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetInventariosConBajoStockQuery;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Handler for GetInventariosConBajoStockQuery.
@@ -18,9 +18,12 @@ import java.util.stream.Collectors;
 public class GetInventariosConBajoStockQueryHandler {
 
     private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
 
-    public GetInventariosConBajoStockQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+    public GetInventariosConBajoStockQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                                   RepositorioReservaStockPort repositorioReservaStockPort) {
         this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
     }
 
     /**
@@ -31,8 +34,7 @@ public class GetInventariosConBajoStockQueryHandler {
      */
     public List<InventarioDto> handle(GetInventariosConBajoStockQuery query) {
         List<Inventario> inventarios = repositorioInventarioPort.findBajoStock();
-        return inventarios.stream()
-                .map(InventarioMapper::toDto)
-                .collect(Collectors.toList());
+        return InventarioMapper.toDtos(inventarios,
+                repositorioReservaStockPort.unidadesReservadas(InventarioMapper.productoIds(inventarios)));
     }
 }
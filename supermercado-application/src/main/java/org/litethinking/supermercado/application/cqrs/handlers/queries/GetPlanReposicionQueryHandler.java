@@ -0,0 +1,63 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.application.service.inventario.PlanificadorReposicion;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioVentaPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetPlanReposicionQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.PlanReposicionDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Handler for GetPlanReposicionQuery.
+ * This class is responsible for processing the query to get the replenishment plan.
+ * The units sold are summed by the database; the planning itself runs on the common fork-join pool.
+ */
+@Component
+public class GetPlanReposicionQueryHandler {
+
+    static final int MAXIMO_DIAS = 365;
+
+    private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioVentaPort repositorioVentaPort;
+    private final PlanificadorReposicion planificador = new PlanificadorReposicion(ForkJoinPool.commonPool());
+
+    public GetPlanReposicionQueryHandler(RepositorioInventarioPort repositorioInventarioPort,
+                                         RepositorioVentaPort repositorioVentaPort) {
+        this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioVentaPort = repositorioVentaPort;
+    }
+
+    /**
+     * Handle the query to get the replenishment plan.
+     *
+     * @param query the query with the sales window and the target days of cover
+     * @return the plan with the reorder suggestions, most urgent first
+     * @throws IllegalArgumentException if a number of days is outside 1..365
+     */
+    public PlanReposicionDto handle(GetPlanReposicionQuery query) {
+        validarDias(query.diasVentana(), "La ventana de ventas");
+        validarDias(query.diasCobertura(), "La cobertura objetivo");
+
+        LocalDateTime hasta = LocalDateTime.now();
+        LocalDateTime desde = hasta.minusDays(query.diasVentana());
+        List<PosicionStock> posiciones = repositorioInventarioPort.findPosicionesStock();
+        List<UnidadesVendidasProducto> vendidas = repositorioVentaPort.findUnidadesVendidasPorProductoDesde(desde);
+
+        PlanificadorReposicion.Resultado resultado =
+                planificador.planificar(posiciones, vendidas, query.diasVentana(), query.diasCobertura());
+        return new PlanReposicionDto(desde, hasta, query.diasVentana(), query.diasCobertura(),
+                posiciones.size(), resultado.unidadesSugeridas(), resultado.sugerencias());
+    }
+
+    private static void validarDias(int dias, String descripcion) {
+        if (dias < 1 || dias > MAXIMO_DIAS) {
+            throw new IllegalArgumentException(descripcion + " debe estar entre 1 y " + MAXIMO_DIAS + " días");
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package org.litethinking.supermercado.application.cqrs.handlers.queries;
 
 import org.litethinking.supermercado.application.mapper.ProductoMapper;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.domain.model.producto.OrdenProducto;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
 import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByFilterQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
  * Handler for GetProductsByFilterQuery.
  * This class is responsible for processing the query to retrieve products by various filters.
+ * Every filter given is combined into one database query; a barcode on its own goes through the
+ * barcode lookup, and no filter at all returns every product.
  */
 @Component
 public class GetProductsByFilterQueryHandler {
 
+    private static final int TAMANO_POR_DEFECTO = 20;
+    private static final int TAMANO_MAXIMO = 1000;
+
     private final RepositorioProductoPort repositorioProductoPort;
 
     public GetProductsByFilterQueryHandler(RepositorioProductoPort repositorioProductoPort) {
@@ -26,33 +36,90 @@ public class GetProductsByFilterQueryHandler {
      * Handle the query to retrieve products by various filters.
      *
      * @param query the query with filter parameters
-     * @return the list of products matching the filters
+     * @return the list of products matching every filter
+     * @throws IllegalArgumentException if the price range is inverted
      */
     public List<ProductoDto> handle(GetProductsByFilterQuery query) {
-        // If codigoBarras is provided, search by that specific field
-        if (query.codigoBarras() != null && !query.codigoBarras().isEmpty()) {
-            return repositorioProductoPort.findByCodigoBarras(query.codigoBarras())
+        FiltroProducto filtro = toFiltro(query);
+
+        if (filtro.soloCodigoBarras()) {
+            return repositorioProductoPort.findByCodigoBarras(filtro.codigoBarras())
                     .map(producto -> List.of(ProductoMapper.toDto(producto)))
                     .orElse(List.of());
         }
 
-        // If categoria is provided, search by category
-        if (query.categoria() != null && !query.categoria().isEmpty()) {
-            return repositorioProductoPort.findByCategoria(query.categoria()).stream()
+        if (filtro.estaVacio()) {
+            return repositorioProductoPort.findAll().stream()
                     .map(ProductoMapper::toDto)
                     .collect(Collectors.toList());
         }
 
-        // If price range is provided, search by price range
-        if (query.precioMinimo() != null && query.precioMaximo() != null) {
-            return repositorioProductoPort.findByPrecioBetween(query.precioMinimo(), query.precioMaximo()).stream()
-                    .map(ProductoMapper::toDto)
-                    .collect(Collectors.toList());
-        }
-
-        // If no specific filter is provided, return all products
-        return repositorioProductoPort.findAll().stream()
+        return repositorioProductoPort.findByFiltro(filtro).stream()
                 .map(ProductoMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Handle the query to retrieve one page of the products matching every filter.
+     * The page defaults to the first one, the size to 20 and the order to ascending id.
+     *
+     * @param query the query with filter, paging and sorting parameters
+     * @return the page of products with the totals over every page
+     * @throws IllegalArgumentException if the price range, the page, the size, the sort field or the direction is not valid
+     */
+    public PaginaProductosDto handlePagina(GetProductsByFilterQuery query) {
+        FiltroProducto filtro = toFiltro(query);
+        int pagina = query.pagina() == null ? 0 : query.pagina();
+        int tamano = query.tamano() == null ? TAMANO_POR_DEFECTO : query.tamano();
+        if (pagina < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+
+        PaginaProductos resultado = repositorioProductoPort.findPaginaByFiltro(filtro, pagina, tamano,
+                toOrden(query.ordenarPor()), esDescendente(query.direccion()));
+        return new PaginaProductosDto(
+                resultado.productos().stream().map(ProductoMapper::toDto).collect(Collectors.toList()),
+                pagina,
+                tamano,
+                resultado.totalElementos(),
+                (int) ((resultado.totalElementos() + tamano - 1) / tamano));
+    }
+
+    private static FiltroProducto toFiltro(GetProductsByFilterQuery query) {
+        if (query.precioMinimo() != null && query.precioMaximo() != null
+                && query.precioMinimo().compareTo(query.precioMaximo()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor que el precio máximo");
+        }
+        return new FiltroProducto(recortar(query.nombre()), recortar(query.categoria()),
+                query.precioMinimo(), query.precioMaximo(), recortar(query.codigoBarras()));
+    }
+
+    private static OrdenProducto toOrden(String ordenarPor) {
+        if (ordenarPor == null || ordenarPor.isBlank()) {
+            return OrdenProducto.ID;
+        }
+        try {
+            return OrdenProducto.valueOf(ordenarPor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("No se puede ordenar por: " + ordenarPor
+                    + ". Use id, nombre, precio o categoria");
+        }
+    }
+
+    private static boolean esDescendente(String direccion) {
+        if (direccion == null || direccion.isBlank() || direccion.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direccion.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("La dirección debe ser asc o desc: " + direccion);
+    }
+
+    private static String recortar(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+}
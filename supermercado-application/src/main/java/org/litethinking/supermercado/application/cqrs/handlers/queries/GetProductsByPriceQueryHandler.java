@@ -0,0 +1,85 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.application.mapper.ProductoMapper;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByPriceQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for GetProductsByPriceQuery.
+ * This class is responsible for processing the query to retrieve products by price, cheapest first.
+ * The first page of a category with no price bounds gives its cheapest products.
+ */
+@Component
+public class GetProductsByPriceQueryHandler {
+
+    private static final int TAMANO_POR_DEFECTO = 20;
+    private static final int TAMANO_MAXIMO = 1000;
+
+    private final RepositorioProductoPort repositorioProductoPort;
+
+    public GetProductsByPriceQueryHandler(RepositorioProductoPort repositorioProductoPort) {
+        this.repositorioProductoPort = repositorioProductoPort;
+    }
+
+    /**
+     * Handle the query to retrieve one page of the products in a price range.
+     * The page defaults to the first one and the size to 20.
+     *
+     * @param query the query with the price range, the category and the paging parameters
+     * @return the page of products, cheapest first, with the totals over every page
+     * @throws IllegalArgumentException if the price range, the page or the size is not valid
+     */
+    public PaginaProductosDto handle(GetProductsByPriceQuery query) {
+        validarRango(query.precioMinimo(), query.precioMaximo());
+        int pagina = query.pagina() == null ? 0 : query.pagina();
+        int tamano = query.tamano() == null ? TAMANO_POR_DEFECTO : query.tamano();
+        if (pagina < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+
+        PaginaProductos resultado = repositorioProductoPort.findPaginaByPrecio(query.precioMinimo(),
+                query.precioMaximo(), recortar(query.categoria()), pagina, tamano);
+        return new PaginaProductosDto(
+                resultado.productos().stream().map(ProductoMapper::toDto).collect(Collectors.toList()),
+                pagina,
+                tamano,
+                resultado.totalElementos(),
+                (int) ((resultado.totalElementos() + tamano - 1) / tamano));
+    }
+
+    /**
+     * Handle the query to count the products in a price range. Paging parameters are ignored.
+     *
+     * @param query the query with the price range and the category
+     * @return how many products are in the range
+     * @throws IllegalArgumentException if the price range is not valid
+     */
+    public long handleConteo(GetProductsByPriceQuery query) {
+        validarRango(query.precioMinimo(), query.precioMaximo());
+        return repositorioProductoPort.countByPrecio(query.precioMinimo(), query.precioMaximo(),
+                recortar(query.categoria()));
+    }
+
+    private static void validarRango(BigDecimal precioMinimo, BigDecimal precioMaximo) {
+        if ((precioMinimo != null && precioMinimo.signum() < 0)
+                || (precioMaximo != null && precioMaximo.signum() < 0)) {
+            throw new IllegalArgumentException("Los precios no pueden ser negativos");
+        }
+        if (precioMinimo != null && precioMaximo != null && precioMinimo.compareTo(precioMaximo) > 0) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor que el precio máximo");
+        }
+    }
+
+    private static String recortar(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+}
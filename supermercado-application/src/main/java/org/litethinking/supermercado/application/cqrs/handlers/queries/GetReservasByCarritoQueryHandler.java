@@ -0,0 +1,37 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.application.mapper.InventarioMapper;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetReservasByCarritoQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ReservaStockDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for GetReservasByCarritoQuery.
+ * This class is responsible for processing the query to get the live stock reservations of a cart.
+ */
+@Component
+public class GetReservasByCarritoQueryHandler {
+
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
+
+    public GetReservasByCarritoQueryHandler(RepositorioReservaStockPort repositorioReservaStockPort) {
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
+    }
+
+    /**
+     * Handle the query to get the reservations of a cart.
+     *
+     * @param query the query with the cart id
+     * @return the live reservations of the cart, ordered by product
+     */
+    public List<ReservaStockDto> handle(GetReservasByCarritoQuery query) {
+        return repositorioReservaStockPort.findByCarritoId(query.carritoId())
+                .stream()
+                .map(InventarioMapper::toReservaDto)
+                .collect(Collectors.toList());
+    }
+}
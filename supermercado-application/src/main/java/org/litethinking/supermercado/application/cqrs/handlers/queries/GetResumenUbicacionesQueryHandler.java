@@ -0,0 +1,40 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetResumenUbicacionesQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResumenUbicacionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for GetResumenUbicacionesQuery.
+ * This class is responsible for processing the query to get the inventory totals of every location.
+ */
+@Component
+public class GetResumenUbicacionesQueryHandler {
+
+    private final RepositorioInventarioPort repositorioInventarioPort;
+
+    public GetResumenUbicacionesQueryHandler(RepositorioInventarioPort repositorioInventarioPort) {
+        this.repositorioInventarioPort = repositorioInventarioPort;
+    }
+
+    /**
+     * Handle the query to get the inventory totals of every location.
+     *
+     * @param query the query to get the per-location summary
+     * @return one summary DTO per location
+     */
+    public List<ResumenUbicacionDto> handle(GetResumenUbicacionesQuery query) {
+        return repositorioInventarioPort.findResumenPorUbicacion().stream()
+                .map(resumen -> new ResumenUbicacionDto(
+                        resumen.ubicacion(),
+                        resumen.registros(),
+                        resumen.unidades(),
+                        resumen.valor(),
+                        resumen.bajoStock()))
+                .collect(Collectors.toList());
+    }
+}
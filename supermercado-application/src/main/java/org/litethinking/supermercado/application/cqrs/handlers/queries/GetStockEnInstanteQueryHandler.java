@@ -0,0 +1,37 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.domain.ports.output.RepositorioMovimientoStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetStockEnInstanteQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.StockEnInstanteDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Handler for GetStockEnInstanteQuery.
+ * This class is responsible for processing the query to get the stock a product had at a given instant.
+ */
+@Component
+public class GetStockEnInstanteQueryHandler {
+
+    private final RepositorioMovimientoStockPort repositorioMovimientoStockPort;
+
+    public GetStockEnInstanteQueryHandler(RepositorioMovimientoStockPort repositorioMovimientoStockPort) {
+        this.repositorioMovimientoStockPort = repositorioMovimientoStockPort;
+    }
+
+    /**
+     * Handle the query to get the stock of a product at an instant.
+     *
+     * @param query the query with the product and the instant
+     * @return the stock at that instant, or empty if the product had no stock movements until then
+     * @throws IllegalArgumentException if the product or the instant are missing
+     */
+    public Optional<StockEnInstanteDto> handle(GetStockEnInstanteQuery query) {
+        if (query.productoId() == null || query.instante() == null) {
+            throw new IllegalArgumentException("El producto y el instante son obligatorios");
+        }
+        return repositorioMovimientoStockPort.findCantidadEn(query.productoId(), query.instante())
+                .map(cantidad -> new StockEnInstanteDto(query.productoId(), query.instante(), cantidad));
+    }
+}
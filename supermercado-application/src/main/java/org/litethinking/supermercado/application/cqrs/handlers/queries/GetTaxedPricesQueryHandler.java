@@ -0,0 +1,57 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.domain.model.producto.CalculadoraImpuesto;
+import org.litethinking.supermercado.domain.model.producto.PreciosEnCentavos;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetTaxedPricesQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PrecioConImpuestoDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Handler for GetTaxedPricesQuery.
+ * This class is responsible for processing the query to compute tax-inclusive prices in batch.
+ * The prices are read once as columns of cents and the tax is applied in integer arithmetic with
+ * {@link CalculadoraImpuesto}, which gives the same result as the per-product calculation.
+ */
+@Component
+public class GetTaxedPricesQueryHandler {
+
+    public static final int MAXIMO_IDS = 10000;
+
+    private final RepositorioProductoPort repositorioProductoPort;
+
+    public GetTaxedPricesQueryHandler(RepositorioProductoPort repositorioProductoPort) {
+        this.repositorioProductoPort = repositorioProductoPort;
+    }
+
+    /**
+     * Handle the query to compute tax-inclusive prices. The arguments are checked and the prices are read
+     * before returning; each price is computed as the returned stream is consumed.
+     *
+     * @param query the query with the tax rate and the products to price
+     * @return the prices, in the order of the IDs given or cheapest first for a category or the catalog
+     * @throws IllegalArgumentException if the rate is null or negative, both a category and IDs are given,
+     *                                  or there are too many IDs
+     */
+    public Stream<PrecioConImpuestoDto> handle(GetTaxedPricesQuery query) {
+        CalculadoraImpuesto calculadora = CalculadoraImpuesto.de(query.tasaImpuesto());
+        String categoria = query.categoria() == null || query.categoria().isBlank() ? null : query.categoria().trim();
+        if (categoria != null && query.productoIds() != null) {
+            throw new IllegalArgumentException("Indique una categoría o una lista de ids, no ambas");
+        }
+        if (query.productoIds() != null && query.productoIds().size() > MAXIMO_IDS) {
+            throw new IllegalArgumentException("No se pueden pedir más de " + MAXIMO_IDS + " productos a la vez");
+        }
+
+        PreciosEnCentavos precios = repositorioProductoPort.findPreciosEnCentavos(categoria, query.productoIds());
+        long[] ids = precios.productoIds();
+        long[] centavos = precios.centavos();
+        return IntStream.range(0, precios.tamano())
+                .mapToObj(i -> new PrecioConImpuestoDto(ids[i], BigDecimal.valueOf(centavos[i], 2),
+                        BigDecimal.valueOf(calculadora.aplicar(centavos[i]), 2)));
+    }
+}
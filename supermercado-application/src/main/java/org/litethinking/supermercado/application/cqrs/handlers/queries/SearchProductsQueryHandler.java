@@ -0,0 +1,48 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.litethinking.supermercado.application.mapper.ProductoMapper;
+import org.litethinking.supermercado.domain.ports.output.BuscadorProductosPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.SearchProductsQuery;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoEncontradoDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handler for SearchProductsQuery.
+ * This class is responsible for processing the free-text search over product names, descriptions and categories.
+ */
+@Component
+public class SearchProductsQueryHandler {
+
+    private static final int LIMITE_POR_DEFECTO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final BuscadorProductosPort buscadorProductosPort;
+
+    public SearchProductsQueryHandler(BuscadorProductosPort buscadorProductosPort) {
+        this.buscadorProductosPort = buscadorProductosPort;
+    }
+
+    /**
+     * Handle the query to search products by free text.
+     *
+     * @param query the query with the text to search and the maximum number of results
+     * @return the products found, most relevant first
+     * @throws IllegalArgumentException if the text is blank or the limit is not between 1 and 100
+     */
+    public List<ProductoEncontradoDto> handle(SearchProductsQuery query) {
+        if (query.texto() == null || query.texto().isBlank()) {
+            throw new IllegalArgumentException("El texto de búsqueda no puede estar vacío");
+        }
+        int limite = query.limite() == null ? LIMITE_POR_DEFECTO : query.limite();
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        return buscadorProductosPort.buscar(query.texto(), limite).stream()
+                .map(encontrado -> new ProductoEncontradoDto(ProductoMapper.toDto(encontrado.producto()),
+                        encontrado.relevancia()))
+                .collect(Collectors.toList());
+    }
+}
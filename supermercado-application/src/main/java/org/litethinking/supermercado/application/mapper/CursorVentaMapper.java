@@ -0,0 +1,55 @@
+package org.litethinking.supermercado.application.mapper;
+
+import org.litethinking.supermercado.domain.model.venta.CursorVenta;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Mapper for converting between CursorVenta and the opaque token handed to API clients.
+ * The token is the URL-safe Base64 of "fechaVenta|id".
+ */
+public class CursorVentaMapper {
+
+    private static final char SEPARADOR = '|';
+
+    /**
+     * Converts a cursor to its token.
+     *
+     * @param cursor the cursor to convert
+     * @return the token, or null if the cursor is null
+     */
+    public static String toToken(CursorVenta cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        String valor = cursor.fechaVenta().toString() + SEPARADOR + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts a token back to its cursor.
+     *
+     * @param token the token received from the client
+     * @return the cursor, or null if the token is null or blank
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static CursorVenta fromToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+            }
+            return new CursorVenta(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + token, e);
+        }
+    }
+}
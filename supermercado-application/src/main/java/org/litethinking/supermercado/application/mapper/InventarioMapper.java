@@ -1,7 +1,15 @@
 package org.litethinking.supermercado.application.mapper;
 
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.model.inventario.ReservaStock;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ReservaStockDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Mapper for converting between Inventario domain model and InventarioDto.
@@ -30,6 +38,72 @@ public class InventarioMapper {
         );
     }
 
+    /**
+     * Converts an Inventario domain model to an InventarioDto with the units carts have reserved.
+     *
+     * @param inventario the domain model to convert
+     * @param unidadesReservadas the units of the product reserved by carts
+     * @return the corresponding DTO, with the units still available to sell
+     */
+    public static InventarioDto toDto(Inventario inventario, int unidadesReservadas) {
+        if (inventario == null) {
+            return null;
+        }
+
+        Integer cantidad = inventario.getCantidad();
+        return new InventarioDto(
+            inventario.getId(),
+            ProductoMapper.toDto(inventario.getProducto()),
+            cantidad,
+            inventario.getStockMinimo(),
+            inventario.getStockMaximo(),
+            inventario.getFechaUltimaReposicion(),
+            inventario.getUbicacion(),
+            unidadesReservadas,
+            cantidad == null ? null : Math.max(cantidad - unidadesReservadas, 0)
+        );
+    }
+
+    /**
+     * Converts a list of Inventario domain models to InventarioDtos with the units carts have reserved.
+     *
+     * @param inventarios the domain models to convert
+     * @param reservadasPorProducto the reserved units per product id; products without reservations may be missing
+     * @return the corresponding DTOs, in the same order
+     */
+    public static List<InventarioDto> toDtos(List<Inventario> inventarios, Map<Long, Integer> reservadasPorProducto) {
+        return inventarios.stream()
+            .map(inventario -> toDto(inventario, reservadasPorProducto.getOrDefault(productoId(inventario), 0)))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Collects the product ids of a list of Inventario domain models.
+     *
+     * @param inventarios the domain models
+     * @return the ids of their products
+     */
+    public static Set<Long> productoIds(List<Inventario> inventarios) {
+        return inventarios.stream()
+            .map(InventarioMapper::productoId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    }
+
+    private static Long productoId(Inventario inventario) {
+        return inventario.getProducto() == null ? null : inventario.getProducto().getId();
+    }
+
+    /**
+     * Converts a ReservaStock domain model to a ReservaStockDto.
+     *
+     * @param reserva the domain model to convert
+     * @return the corresponding DTO
+     */
+    public static ReservaStockDto toReservaDto(ReservaStock reserva) {
+        return new ReservaStockDto(reserva.carritoId(), reserva.productoId(), reserva.unidades(), reserva.vence());
+    }
+
     /**
      * Converts an InventarioDto to an Inventario domain model.
      *
@@ -1,8 +1,10 @@
 package org.litethinking.supermercado.application.mapper;
 
 import org.litethinking.supermercado.domain.model.venta.ItemVenta;
+import org.litethinking.supermercado.domain.model.venta.ResumenVentaDiario;
 import org.litethinking.supermercado.domain.model.venta.Venta;
 import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentaDiarioDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 
 import java.util.List;
@@ -108,4 +110,24 @@ public class VentaMapper {
             .subtotal(dto.subtotal())
             .build();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Converts a ResumenVentaDiario domain model to a ResumenVentaDiarioDto.
+     *
+     * @param resumen the domain model to convert
+     * @return the corresponding DTO
+     */
+    public static ResumenVentaDiarioDto toResumenDiarioDto(ResumenVentaDiario resumen) {
+        if (resumen == null) {
+            return null;
+        }
+        
+        return new ResumenVentaDiarioDto(
+            resumen.fecha(),
+            resumen.metodoPago(),
+            resumen.cantidadVentas(),
+            resumen.montoTotal(),
+            resumen.cantidadArticulos()
+        );
+    }
+}
@@ -7,18 +7,29 @@ import org.litethinking.supermercado.application.cqrs.handlers.commands.UpdatePr
 import org.litethinking.supermercado.application.cqrs.handlers.queries.GetAllProductsQueryHandler;
 import org.litethinking.supermercado.application.cqrs.handlers.queries.GetProductByIdQueryHandler;
 import org.litethinking.supermercado.application.cqrs.handlers.queries.GetProductsByFilterQueryHandler;
+import org.litethinking.supermercado.application.cqrs.handlers.queries.GetProductsByPriceQueryHandler;
+import org.litethinking.supermercado.application.cqrs.handlers.queries.GetTaxedPricesQueryHandler;
+import org.litethinking.supermercado.application.cqrs.handlers.queries.SearchProductsQueryHandler;
 import org.litethinking.supermercado.shareddto.cqrs.commands.CreateProductCommand;
 import org.litethinking.supermercado.shareddto.cqrs.commands.DeleteProductCommand;
 import org.litethinking.supermercado.shareddto.cqrs.commands.UpdateProductCommand;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetAllProductsQuery;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductByIdQuery;
 import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByFilterQuery;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByPriceQuery;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetTaxedPricesQuery;
+import org.litethinking.supermercado.shareddto.cqrs.queries.SearchProductsQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.litethinking.supermercado.shareddto.supermercado.PrecioConImpuestoDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoEncontradoDto;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ServicioProducto using CQRS pattern.
@@ -32,6 +43,9 @@ public class ServicioProductoImpl implements ServicioProducto {
     private final GetProductByIdQueryHandler getProductByIdQueryHandler;
     private final GetAllProductsQueryHandler getAllProductsQueryHandler;
     private final GetProductsByFilterQueryHandler getProductsByFilterQueryHandler;
+    private final SearchProductsQueryHandler searchProductsQueryHandler;
+    private final GetProductsByPriceQueryHandler getProductsByPriceQueryHandler;
+    private final GetTaxedPricesQueryHandler getTaxedPricesQueryHandler;
 
     public ServicioProductoImpl(
             CreateProductCommandHandler createProductCommandHandler,
@@ -39,13 +53,19 @@ public class ServicioProductoImpl implements ServicioProducto {
             DeleteProductCommandHandler deleteProductCommandHandler,
             GetProductByIdQueryHandler getProductByIdQueryHandler,
             GetAllProductsQueryHandler getAllProductsQueryHandler,
-            GetProductsByFilterQueryHandler getProductsByFilterQueryHandler) {
+            GetProductsByFilterQueryHandler getProductsByFilterQueryHandler,
+            SearchProductsQueryHandler searchProductsQueryHandler,
+            GetProductsByPriceQueryHandler getProductsByPriceQueryHandler,
+            GetTaxedPricesQueryHandler getTaxedPricesQueryHandler) {
         this.createProductCommandHandler = createProductCommandHandler;
         this.updateProductCommandHandler = updateProductCommandHandler;
         this.deleteProductCommandHandler = deleteProductCommandHandler;
         this.getProductByIdQueryHandler = getProductByIdQueryHandler;
         this.getAllProductsQueryHandler = getAllProductsQueryHandler;
         this.getProductsByFilterQueryHandler = getProductsByFilterQueryHandler;
+        this.searchProductsQueryHandler = searchProductsQueryHandler;
+        this.getProductsByPriceQueryHandler = getProductsByPriceQueryHandler;
+        this.getTaxedPricesQueryHandler = getTaxedPricesQueryHandler;
     }
 
     @Override
@@ -85,6 +105,12 @@ public class ServicioProductoImpl implements ServicioProducto {
         return getAllProductsQueryHandler.handle(query);
     }
 
+    @Override
+    public void exportarProductos(Consumer<ProductoDto> consumidor) {
+        GetAllProductsQuery query = new GetAllProductsQuery();
+        getAllProductsQueryHandler.handle(query, consumidor);
+    }
+
     @Override
     public void eliminarProducto(Long id) {
         DeleteProductCommand command = new DeleteProductCommand(id);
@@ -109,4 +135,39 @@ public class ServicioProductoImpl implements ServicioProducto {
         List<ProductoDto> productos = getProductsByFilterQueryHandler.handle(query);
         return productos.isEmpty() ? Optional.empty() : Optional.of(productos.get(0));
     }
+
+    @Override
+    public PaginaProductosDto obtenerPaginaDeProductos(String nombre, String categoria, BigDecimal precioMinimo,
+                                                       BigDecimal precioMaximo, String codigoBarras, Integer pagina,
+                                                       Integer tamano, String ordenarPor, String direccion) {
+        GetProductsByFilterQuery query = new GetProductsByFilterQuery(categoria, precioMinimo, precioMaximo,
+                codigoBarras, nombre, pagina, tamano, ordenarPor, direccion);
+        return getProductsByFilterQueryHandler.handlePagina(query);
+    }
+
+    @Override
+    public List<ProductoEncontradoDto> buscarProductos(String texto, Integer limite) {
+        return searchProductsQueryHandler.handle(new SearchProductsQuery(texto, limite));
+    }
+
+    @Override
+    public PaginaProductosDto obtenerPaginaPorPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo,
+                                                     String categoria, Integer pagina, Integer tamano) {
+        GetProductsByPriceQuery query = new GetProductsByPriceQuery(precioMinimo, precioMaximo, categoria,
+                pagina, tamano);
+        return getProductsByPriceQueryHandler.handle(query);
+    }
+
+    @Override
+    public long contarProductosPorPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria) {
+        GetProductsByPriceQuery query = new GetProductsByPriceQuery(precioMinimo, precioMaximo, categoria,
+                null, null);
+        return getProductsByPriceQueryHandler.handleConteo(query);
+    }
+
+    @Override
+    public Stream<PrecioConImpuestoDto> calcularPreciosConImpuesto(BigDecimal tasaImpuesto, String categoria,
+                                                                   List<Long> productoIds) {
+        return getTaxedPricesQueryHandler.handle(new GetTaxedPricesQuery(tasaImpuesto, categoria, productoIds));
+    }
 }
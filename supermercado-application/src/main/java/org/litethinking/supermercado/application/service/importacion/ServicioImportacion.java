@@ -0,0 +1,38 @@
+package org.litethinking.supermercado.application.service.importacion;
+
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ProgresoImportacionDto;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for bulk imports of CSV files of products, customers, cashiers or inventory records.
+ * Each row is saved by its natural key: products by barcode, customers by email, cashiers by code and
+ * inventory records by product, so importing the same file twice updates instead of duplicating.
+ */
+public interface ServicioImportacion {
+
+    /**
+     * Check the entity and read the header of the file, before any row is imported.
+     *
+     * @param entidad productos, clientes, cajeros or inventario
+     * @param entrada the CSV file, with a header row; the caller closes it once the import ends
+     * @return the import, ready to run
+     * @throws IllegalArgumentException if the entity is unknown or the header lacks a required column
+     */
+    Importacion preparar(String entidad, InputStream entrada);
+
+    /**
+     * An import whose header was already checked.
+     */
+    interface Importacion {
+
+        /**
+         * Import every row of the file. Rows that fail validation or cannot be saved are reported and skipped.
+         *
+         * @param alAvanzar receives the progress after each chunk of rows is written
+         * @return the final progress, with the totals of the whole file
+         */
+        ProgresoImportacionDto ejecutar(Consumer<ProgresoImportacionDto> alAvanzar);
+    }
+}
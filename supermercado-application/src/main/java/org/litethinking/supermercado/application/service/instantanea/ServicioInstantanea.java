@@ -0,0 +1,26 @@
+package org.litethinking.supermercado.application.service.instantanea;
+
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
+
+import java.util.Optional;
+
+/**
+ * Service interface for binary snapshots of the catalog (products, inventory, cashiers and customers).
+ * A snapshot lets a node with an empty database warm-start without reloading the CSV seed row by row.
+ */
+public interface ServicioInstantanea {
+
+    /**
+     * Write a snapshot of the current catalog, replacing the previous one.
+     *
+     * @return the summary of the snapshot written
+     */
+    InstantaneaDto crear();
+
+    /**
+     * Restore the catalog from the snapshot file into an empty database.
+     *
+     * @return the summary of the snapshot restored, empty if there is no snapshot or the catalog already has data
+     */
+    Optional<InstantaneaDto> restaurar();
+}
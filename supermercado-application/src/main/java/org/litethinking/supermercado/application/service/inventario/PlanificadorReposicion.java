@@ -0,0 +1,200 @@
+package org.litethinking.supermercado.application.service.inventario;
+
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.SugerenciaReposicionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes reorder suggestions from the stock positions and the units sold over a window.
+ *
+ * <p>The positions are sorted by category and copied into parallel primitive arrays, and the units sold
+ * are matched to them by binary search over the sorted product ids. The work is then split on a fork-join
+ * pool at category boundaries (or in the middle of a category that is too large on its own); each leaf
+ * writes its suggestions into the shared result arrays and returns its total as a primitive sum.</p>
+ *
+ * <p>For each product, the daily velocity is the units sold divided by the window days, the days of cover
+ * are the stock divided by the velocity, and the target stock is the velocity times the target cover,
+ * raised above stockMinimo and capped at stockMaximo. The suggestion is the target minus the stock.</p>
+ */
+public final class PlanificadorReposicion {
+
+    private static final int UMBRAL_SECUENCIAL = 2048;
+    private static final int SIN_LIMITE = -1;
+
+    private final ForkJoinPool pool;
+
+    public PlanificadorReposicion(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * The result of a planning run.
+     *
+     * @param sugerencias the products to reorder, lowest days of cover first
+     * @param unidadesSugeridas the units suggested over all products
+     */
+    public record Resultado(List<SugerenciaReposicionDto> sugerencias, long unidadesSugeridas) {
+    }
+
+    /**
+     * @param posiciones the stock position of every product
+     * @param vendidas the units sold per product over the window
+     * @param diasVentana the days of the sales window
+     * @param diasCobertura the days of sales the stock should cover after ordering
+     * @return the suggestions and their total
+     */
+    public Resultado planificar(List<PosicionStock> posiciones, List<UnidadesVendidasProducto> vendidas,
+                                int diasVentana, int diasCobertura) {
+        PosicionStock[] ordenadas = posiciones.toArray(PosicionStock[]::new);
+        Arrays.sort(ordenadas, Comparator.comparing(PosicionStock::categoria, Comparator.nullsFirst(Comparator.naturalOrder())));
+        int total = ordenadas.length;
+
+        Datos datos = new Datos(total, diasVentana, diasCobertura);
+        long[] idsVendidos = new long[vendidas.size()];
+        long[] unidadesPorId = new long[vendidas.size()];
+        indexarVendidas(vendidas, idsVendidos, unidadesPorId);
+        for (int i = 0; i < total; i++) {
+            PosicionStock posicion = ordenadas[i];
+            datos.cantidades[i] = posicion.cantidad() == null ? 0 : posicion.cantidad();
+            datos.minimos[i] = posicion.stockMinimo() == null ? SIN_LIMITE : Math.max(posicion.stockMinimo(), 0);
+            datos.maximos[i] = posicion.stockMaximo() == null ? SIN_LIMITE : Math.max(posicion.stockMaximo(), 0);
+            int encontrado = Arrays.binarySearch(idsVendidos, posicion.productoId());
+            datos.vendidas[i] = encontrado >= 0 ? unidadesPorId[encontrado] : 0;
+            datos.inicioCategoria[i] = i == 0 || !Objects.equals(posicion.categoria(), ordenadas[i - 1].categoria());
+        }
+
+        long unidadesSugeridas = total == 0 ? 0 : pool.invoke(new Tarea(datos, 0, total));
+
+        List<SugerenciaReposicionDto> sugerencias = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (datos.sugeridas[i] > 0) {
+                PosicionStock posicion = ordenadas[i];
+                double cobertura = datos.coberturas[i];
+                sugerencias.add(new SugerenciaReposicionDto(
+                        posicion.productoId(),
+                        posicion.nombreProducto(),
+                        posicion.categoria(),
+                        posicion.cantidad(),
+                        posicion.stockMinimo(),
+                        posicion.stockMaximo(),
+                        datos.vendidas[i],
+                        (double) datos.vendidas[i] / diasVentana,
+                        Double.isInfinite(cobertura) ? null : cobertura,
+                        datos.sugeridas[i]));
+            }
+        }
+        sugerencias.sort(Comparator.comparing(SugerenciaReposicionDto::diasCobertura, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(SugerenciaReposicionDto::productoId));
+        return new Resultado(sugerencias, unidadesSugeridas);
+    }
+
+    private static void indexarVendidas(List<UnidadesVendidasProducto> vendidas, long[] ids, long[] unidades) {
+        UnidadesVendidasProducto[] ordenadas = vendidas.toArray(UnidadesVendidasProducto[]::new);
+        Arrays.sort(ordenadas, Comparator.comparing(UnidadesVendidasProducto::productoId));
+        for (int i = 0; i < ordenadas.length; i++) {
+            ids[i] = ordenadas[i].productoId();
+            unidades[i] = ordenadas[i].unidades() == null ? 0 : ordenadas[i].unidades();
+        }
+    }
+
+    /**
+     * Inputs and outputs of a run, one slot per position in category order.
+     */
+    private static final class Datos {
+        private final int diasVentana;
+        private final int diasCobertura;
+        private final int[] cantidades;
+        private final int[] minimos;
+        private final int[] maximos;
+        private final long[] vendidas;
+        private final boolean[] inicioCategoria;
+        private final double[] coberturas;
+        private final int[] sugeridas;
+
+        private Datos(int total, int diasVentana, int diasCobertura) {
+            this.diasVentana = diasVentana;
+            this.diasCobertura = diasCobertura;
+            this.cantidades = new int[total];
+            this.minimos = new int[total];
+            this.maximos = new int[total];
+            this.vendidas = new long[total];
+            this.inicioCategoria = new boolean[total];
+            this.coberturas = new double[total];
+            this.sugeridas = new int[total];
+        }
+    }
+
+    private static final class Tarea extends RecursiveTask<Long> {
+
+        private final Datos datos;
+        private final int desde;
+        private final int hasta;
+
+        private Tarea(Datos datos, int desde, int hasta) {
+            this.datos = datos;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hasta - desde <= UMBRAL_SECUENCIAL) {
+                return calcular();
+            }
+            int corte = corteEnCategoria();
+            Tarea izquierda = new Tarea(datos, desde, corte);
+            izquierda.fork();
+            long derecha = new Tarea(datos, corte, hasta).compute();
+            return derecha + izquierda.join();
+        }
+
+        /**
+         * The category boundary nearest to the middle, or the middle itself when no boundary is close enough
+         * to keep the halves balanced, e.g. inside a single large category.
+         */
+        private int corteEnCategoria() {
+            int medio = (desde + hasta) >>> 1;
+            int alcance = (hasta - desde) / 4;
+            for (int distancia = 0; distancia <= alcance; distancia++) {
+                if (medio - distancia > desde && datos.inicioCategoria[medio - distancia]) {
+                    return medio - distancia;
+                }
+                if (medio + distancia < hasta && datos.inicioCategoria[medio + distancia]) {
+                    return medio + distancia;
+                }
+            }
+            return medio;
+        }
+
+        private long calcular() {
+            long total = 0;
+            for (int i = desde; i < hasta; i++) {
+                int cantidad = datos.cantidades[i];
+                double ventaDiaria = (double) datos.vendidas[i] / datos.diasVentana;
+                datos.coberturas[i] = ventaDiaria > 0 ? Math.max(cantidad, 0) / ventaDiaria : Double.POSITIVE_INFINITY;
+
+                // Rounded up in integers, so that 1 unit in 10 days over 30 days asks for exactly 3
+                long objetivo = (datos.vendidas[i] * datos.diasCobertura + datos.diasVentana - 1) / datos.diasVentana;
+                if (datos.minimos[i] != SIN_LIMITE) {
+                    // At or below stockMinimo counts as low stock, so the target is one above it
+                    objetivo = Math.max(objetivo, datos.minimos[i] + 1L);
+                }
+                if (datos.maximos[i] != SIN_LIMITE) {
+                    objetivo = Math.min(objetivo, datos.maximos[i]);
+                }
+                long sugerida = Math.max(objetivo - cantidad, 0);
+                datos.sugeridas[i] = (int) Math.min(sugerida, Integer.MAX_VALUE);
+                total += datos.sugeridas[i];
+            }
+            return total;
+        }
+    }
+}
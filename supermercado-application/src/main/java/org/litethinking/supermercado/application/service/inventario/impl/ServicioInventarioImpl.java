@@ -55,7 +55,7 @@ public class ServicioInventarioImpl implements ServicioInventario {
 
     @Override
     public Optional<Inventario> obtenerInventarioPorProducto(Producto producto) {
-        return repositorioInventarioPort.findByProducto(producto);
+        return repositorioInventarioPort.findByProductoId(producto.getId());
     }
 
     @Override
@@ -0,0 +1,31 @@
+package org.litethinking.supermercado.application.service.venta;
+
+import org.litethinking.supermercado.shareddto.supermercado.venta.EstadoTicketVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+
+import java.util.Optional;
+
+/**
+ * Service interface for accepting sales in write-behind mode.
+ * Accepted sales are journaled right away and persisted later in group commits.
+ */
+public interface RegistroDiferidoVentas {
+
+    /**
+     * Accept a sale for asynchronous persistence.
+     * The cart's reservations stay in force until the sale is persisted, and are released in its transaction.
+     *
+     * @param ventaDto the sale to accept
+     * @param carritoId the cart whose reservations the sale takes, or null for a sale without reservations
+     * @return the ticket of the accepted sale, empty if the queue is full
+     */
+    Optional<EstadoTicketVentaDto> aceptar(VentaDto ventaDto, String carritoId);
+
+    /**
+     * Get the status of a previously accepted sale.
+     *
+     * @param ticket the ticket returned when the sale was accepted
+     * @return the ticket status if known, empty otherwise
+     */
+    Optional<EstadoTicketVentaDto> consultarTicket(String ticket);
+}
@@ -1,11 +1,16 @@
 package org.litethinking.supermercado.application.service.venta;
 
+import org.litethinking.supermercado.shareddto.supermercado.venta.PaginaVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentasDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for Venta operations.
@@ -17,9 +22,48 @@ public interface ServicioVenta {
      *
      * @param ventaDto the sale to create
      * @return the created sale
+     * @throws IllegalArgumentException if the sale is not valid
      */
     VentaDto crearVenta(VentaDto ventaDto);
 
+    /**
+     * Create a new sale for a cart that reserved stock during checkout.
+     * The sale may take the units the cart reserved; its reservations are released once the sale is saved.
+     *
+     * @param ventaDto the sale to create
+     * @param carritoId the cart whose reservations the sale confirms, or null for a sale without reservations
+     * @return the created sale
+     * @throws IllegalArgumentException if the sale is not valid
+     */
+    VentaDto crearVenta(VentaDto ventaDto, String carritoId);
+
+    /**
+     * Create several sales in batched operations.
+     * Each sale is reported individually as succeeded or failed.
+     *
+     * @param ventasDto the sales to create
+     * @return the per-sale result of the batch
+     */
+    ResultadoLoteVentasDto crearVentasEnLote(List<VentaDto> ventasDto);
+
+    /**
+     * Create several sales in batched operations, each one taking the units its cart reserved.
+     * A cart's reservations are released once its sale is committed, and kept if the sale fails.
+     *
+     * @param ventasDto the sales to create
+     * @param carritoIds the cart of each sale, by position, with null for a sale without reservations
+     * @return the per-sale result of the batch
+     */
+    ResultadoLoteVentasDto crearVentasEnLote(List<VentaDto> ventasDto, List<String> carritoIds);
+
+    /**
+     * Check that a sale has every field required to persist it, without touching stock or storage.
+     *
+     * @param ventaDto the sale to check
+     * @throws IllegalArgumentException if the sale is not valid
+     */
+    void validarVenta(VentaDto ventaDto);
+
     /**
      * Update an existing sale.
      *
@@ -83,4 +127,62 @@ public interface ServicioVenta {
      * @return the list of sales with the payment method
      */
     List<VentaDto> obtenerVentasPorMetodoPago(String metodoPago);
+
+    /**
+     * Get a page of sales ordered by date and id.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limite the maximum number of sales in the page
+     * @return the page of sales and the cursor of the next page
+     */
+    PaginaVentasDto obtenerPaginaDeVentas(String cursor, int limite);
+
+    /**
+     * Get a page of sales between dates, ordered by date and id.
+     *
+     * @param fechaInicio the start date
+     * @param fechaFin the end date
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limite the maximum number of sales in the page
+     * @return the page of sales and the cursor of the next page
+     */
+    PaginaVentasDto obtenerPaginaDeVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin, String cursor, int limite);
+
+    /**
+     * Get a page of sales of a customer, ordered by date and id.
+     *
+     * @param nombreCliente the customer name to search for
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limite the maximum number of sales in the page
+     * @return the page of sales and the cursor of the next page
+     */
+    PaginaVentasDto obtenerPaginaDeVentasPorNombreCliente(String nombreCliente, String cursor, int limite);
+
+    /**
+     * Get a page of sales with a payment method, ordered by date and id.
+     *
+     * @param metodoPago the payment method to search for
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limite the maximum number of sales in the page
+     * @return the page of sales and the cursor of the next page
+     */
+    PaginaVentasDto obtenerPaginaDeVentasPorMetodoPago(String metodoPago, String cursor, int limite);
+
+    /**
+     * Export the sales between dates one at a time, in date order, without loading the range in memory.
+     *
+     * @param fechaInicio the start date
+     * @param fechaFin the end date
+     * @param consumidor receives each sale with its items
+     */
+    void exportarVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin, Consumer<VentaDto> consumidor);
+
+    /**
+     * Get the sales totals of a range of days from the daily rollups.
+     *
+     * @param fechaInicio the first day, or null for no lower bound
+     * @param fechaFin the last day, or null for no upper bound
+     * @return the totals of the range and their per-day breakdown
+     */
+    ResumenVentasDto obtenerResumenVentas(LocalDate fechaInicio, LocalDate fechaFin);
 }
@@ -1,17 +1,39 @@
 package org.litethinking.supermercado.application.service.venta.impl;
 
+import org.litethinking.supermercado.application.mapper.CursorVentaMapper;
 import org.litethinking.supermercado.application.mapper.VentaMapper;
 import org.litethinking.supermercado.application.service.venta.ServicioVenta;
+import org.litethinking.supermercado.domain.exception.StockInsuficienteException;
+import org.litethinking.supermercado.domain.model.venta.CursorVenta;
+import org.litethinking.supermercado.domain.model.venta.ItemVenta;
+import org.litethinking.supermercado.domain.model.venta.ResumenVentaDiario;
 import org.litethinking.supermercado.domain.model.venta.Venta;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
 import org.litethinking.supermercado.domain.ports.output.RepositorioVentaPort;
 
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.PaginaVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoVentaLoteDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentasDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,19 +42,117 @@ import java.util.stream.Collectors;
 @Service
 public class ServicioVentaImpl implements ServicioVenta {
 
+    /**
+     * Number of sales written per transaction. It is a multiple of the JDBC batch size and of the sequence
+     * allocation size (both 50), so a slice is sent as whole insert batches; the bound keeps the persistence
+     * context small until commit and limits the work redone sale by sale when a slice fails.
+     */
+    private static final int TAMANO_TRAMO = 500;
+
+    /**
+     * Largest page a client can request from the paginated listings.
+     */
+    private static final int LIMITE_MAXIMO_PAGINA = 1000;
+
+    /**
+     * Bounds used for an open-ended summary range.
+     */
+    private static final LocalDate PRIMER_DIA = LocalDate.of(1, 1, 1);
+    private static final LocalDate ULTIMO_DIA = LocalDate.of(9999, 12, 31);
+
     private final RepositorioVentaPort repositorioVentaPort;
+    private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioReservaStockPort repositorioReservaStockPort;
+    private final TransactionTemplate transactionTemplate;
 
-    public ServicioVentaImpl(RepositorioVentaPort repositorioVentaPort) {
+    public ServicioVentaImpl(RepositorioVentaPort repositorioVentaPort,
+                             RepositorioInventarioPort repositorioInventarioPort,
+                             RepositorioReservaStockPort repositorioReservaStockPort,
+                             PlatformTransactionManager transactionManager) {
         this.repositorioVentaPort = repositorioVentaPort;
+        this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioReservaStockPort = repositorioReservaStockPort;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    /**
+     * Creates the sale and decrements the stock of every item in the same transaction.
+     *
+     * @throws IllegalArgumentException if the sale is not valid; nothing is saved
+     * @throws StockInsuficienteException if any product does not have enough stock; nothing is saved
+     */
     @Override
+    @Transactional
     public VentaDto crearVenta(VentaDto ventaDto) {
+        return crearVenta(ventaDto, null);
+    }
+
+    /**
+     * Creates the sale and decrements the stock of every item in the same transaction, leaving alone the
+     * units other carts have reserved. The sale is validated like the ones of a batch before any stock is
+     * touched, so a missing or non-positive quantity can never reach the decrement.
+     *
+     * @throws IllegalArgumentException if the sale is not valid; nothing is saved
+     * @throws StockInsuficienteException if any product does not have enough stock; nothing is saved
+     */
+    @Override
+    @Transactional
+    public VentaDto crearVenta(VentaDto ventaDto, String carritoId) {
+        validarVenta(ventaDto);
         Venta venta = VentaMapper.toDomain(ventaDto);
+        descontarStock(venta, carritoId);
         Venta ventaCreada = repositorioVentaPort.save(venta);
+        confirmarCarrito(carritoId);
         return VentaMapper.toDto(ventaCreada);
     }
 
+    @Override
+    public ResultadoLoteVentasDto crearVentasEnLote(List<VentaDto> ventasDto) {
+        return crearVentasEnLote(ventasDto, null);
+    }
+
+    @Override
+    public ResultadoLoteVentasDto crearVentasEnLote(List<VentaDto> ventasDto, List<String> carritoIds) {
+        ResultadoVentaLoteDto[] resultados = new ResultadoVentaLoteDto[ventasDto.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<Venta> ventasValidas = new ArrayList<>();
+        List<String> carritosValidos = new ArrayList<>();
+
+        for (int i = 0; i < ventasDto.size(); i++) {
+            String error = errorDeValidacion(ventasDto.get(i));
+            if (error != null) {
+                resultados[i] = new ResultadoVentaLoteDto(i, false, null, error, false);
+            } else {
+                indicesValidos.add(i);
+                ventasValidas.add(VentaMapper.toDomain(ventasDto.get(i)));
+                carritosValidos.add(carritoIds == null ? null : carritoIds.get(i));
+            }
+        }
+
+        for (int desde = 0; desde < ventasValidas.size(); desde += TAMANO_TRAMO) {
+            int hasta = Math.min(desde + TAMANO_TRAMO, ventasValidas.size());
+            guardarTramo(ventasValidas.subList(desde, hasta), carritosValidos.subList(desde, hasta),
+                    indicesValidos.subList(desde, hasta), resultados);
+        }
+
+        int exitosas = 0;
+        for (ResultadoVentaLoteDto resultado : resultados) {
+            if (resultado.exitosa()) {
+                exitosas++;
+            }
+        }
+        return new ResultadoLoteVentasDto(ventasDto.size(), exitosas, ventasDto.size() - exitosas,
+                Arrays.asList(resultados));
+    }
+
+    @Override
+    public void validarVenta(VentaDto ventaDto) {
+        String error = errorDeValidacion(ventaDto);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
     @Override
     public VentaDto actualizarVenta(Long id, VentaDto ventaDto) {
         Venta venta = VentaMapper.toDomain(ventaDto);
@@ -91,4 +211,183 @@ public class ServicioVentaImpl implements ServicioVenta {
                 .map(VentaMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public PaginaVentasDto obtenerPaginaDeVentas(String cursor, int limite) {
+        return paginar(cursor, limite, repositorioVentaPort::findPagina);
+    }
+
+    @Override
+    public PaginaVentasDto obtenerPaginaDeVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                           String cursor, int limite) {
+        return paginar(cursor, limite, (despuesDe, tamano) ->
+                repositorioVentaPort.findPaginaByFechaVentaBetween(fechaInicio, fechaFin, despuesDe, tamano));
+    }
+
+    @Override
+    public PaginaVentasDto obtenerPaginaDeVentasPorNombreCliente(String nombreCliente, String cursor, int limite) {
+        return paginar(cursor, limite, (despuesDe, tamano) ->
+                repositorioVentaPort.findPaginaByNombreCliente(nombreCliente, despuesDe, tamano));
+    }
+
+    @Override
+    public PaginaVentasDto obtenerPaginaDeVentasPorMetodoPago(String metodoPago, String cursor, int limite) {
+        return paginar(cursor, limite, (despuesDe, tamano) ->
+                repositorioVentaPort.findPaginaByMetodoPago(metodoPago, despuesDe, tamano));
+    }
+
+    @Override
+    public void exportarVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin, Consumer<VentaDto> consumidor) {
+        repositorioVentaPort.recorrerVentasEntreFechas(fechaInicio, fechaFin,
+                venta -> consumidor.accept(VentaMapper.toDto(venta)));
+    }
+
+    @Override
+    public ResumenVentasDto obtenerResumenVentas(LocalDate fechaInicio, LocalDate fechaFin) {
+        LocalDate desde = fechaInicio != null ? fechaInicio : PRIMER_DIA;
+        LocalDate hasta = fechaFin != null ? fechaFin : ULTIMO_DIA;
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        List<ResumenVentaDiario> dias = repositorioVentaPort.findResumenDiarioEntreFechas(desde, hasta);
+        long cantidadVentas = 0;
+        long cantidadArticulos = 0;
+        BigDecimal montoTotal = BigDecimal.ZERO;
+        for (ResumenVentaDiario dia : dias) {
+            cantidadVentas += dia.cantidadVentas();
+            cantidadArticulos += dia.cantidadArticulos();
+            montoTotal = montoTotal.add(dia.montoTotal());
+        }
+        return new ResumenVentasDto(fechaInicio, fechaFin, cantidadVentas, montoTotal, cantidadArticulos,
+                dias.stream().map(VentaMapper::toResumenDiarioDto).collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads one page through the given keyset query. One extra sale is requested to know whether
+     * another page follows without a count query.
+     *
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    private PaginaVentasDto paginar(String cursor, int limite, BiFunction<CursorVenta, Integer, List<Venta>> consulta) {
+        int tamano = Math.min(Math.max(limite, 1), LIMITE_MAXIMO_PAGINA);
+        List<Venta> ventas = consulta.apply(CursorVentaMapper.fromToken(cursor), tamano + 1);
+        boolean hayMas = ventas.size() > tamano;
+        List<Venta> pagina = hayMas ? ventas.subList(0, tamano) : ventas;
+        String siguienteCursor = hayMas
+                ? CursorVentaMapper.toToken(CursorVenta.despuesDe(pagina.get(pagina.size() - 1)))
+                : null;
+        return new PaginaVentasDto(
+                pagina.stream().map(VentaMapper::toDto).collect(Collectors.toList()),
+                siguienteCursor);
+    }
+
+    /**
+     * Saves a slice of the batch, stock decrements included, in one transaction. If the slice fails
+     * as a whole, its sales are retried one by one so that only the offending ones are reported as failed.
+     * A sale rejected for a shortage or a missing product is final; any other failure is reported as retryable.
+     * The carts of the sales are confirmed in the same transaction, so their reservations outlive a failure.
+     */
+    private void guardarTramo(List<Venta> ventas, List<String> carritos, List<Integer> indices,
+                              ResultadoVentaLoteDto[] resultados) {
+        try {
+            List<Venta> guardadas = transactionTemplate.execute(status -> {
+                for (int i = 0; i < ventas.size(); i++) {
+                    descontarStock(ventas.get(i), carritos.get(i));
+                }
+                List<Venta> ventasGuardadas = repositorioVentaPort.saveAll(ventas);
+                carritos.forEach(this::confirmarCarrito);
+                return ventasGuardadas;
+            });
+            for (int i = 0; i < guardadas.size(); i++) {
+                resultados[indices.get(i)] = new ResultadoVentaLoteDto(indices.get(i), true, guardadas.get(i).getId(), null, false);
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < ventas.size(); i++) {
+                int indice = indices.get(i);
+                try {
+                    Venta venta = ventas.get(i);
+                    String carritoId = carritos.get(i);
+                    Venta guardada = transactionTemplate.execute(status -> {
+                        descontarStock(venta, carritoId);
+                        Venta ventaGuardada = repositorioVentaPort.save(venta);
+                        confirmarCarrito(carritoId);
+                        return ventaGuardada;
+                    });
+                    resultados[indice] = new ResultadoVentaLoteDto(indice, true, guardada.getId(), null, false);
+                } catch (StockInsuficienteException | IllegalArgumentException ex) {
+                    resultados[indice] = new ResultadoVentaLoteDto(indice, false, null, ex.getMessage(), false);
+                } catch (RuntimeException ex) {
+                    resultados[indice] = new ResultadoVentaLoteDto(indice, false, null, ex.getMessage(), true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decrements the stock of every product in the sale with conditional single-statement updates.
+     * Units are grouped per product and applied in product id order, so concurrent tills always
+     * lock the inventory rows in the same order. Units reserved by carts other than the sale's own cannot be
+     * taken; when a product has none, the plain decrement is used. The reserved units are read in the same step
+     * that sets the sale's units aside until the transaction ends, so no reservation can be granted on them
+     * between the read and the decrement.
+     *
+     * @throws StockInsuficienteException if any product does not have enough stock
+     */
+    private void descontarStock(Venta venta, String carritoId) {
+        if (venta.getItems() == null) {
+            return;
+        }
+        Map<Long, Integer> unidadesPorProducto = new TreeMap<>();
+        for (ItemVenta item : venta.getItems()) {
+            unidadesPorProducto.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum);
+        }
+        unidadesPorProducto.forEach((productoId, unidades) -> {
+            int reservadasPorOtros = repositorioReservaStockPort.apartarParaVenta(productoId, carritoId, unidades);
+            boolean descontado = reservadasPorOtros == 0
+                    ? repositorioInventarioPort.descontarStock(productoId, unidades)
+                    : repositorioInventarioPort.descontarStock(productoId, unidades, reservadasPorOtros);
+            if (!descontado) {
+                throw new StockInsuficienteException(productoId, unidades);
+            }
+        });
+    }
+
+    private void confirmarCarrito(String carritoId) {
+        if (carritoId != null) {
+            repositorioReservaStockPort.confirmar(carritoId);
+        }
+    }
+
+    /**
+     * Checks the fields the persistence layer requires before a sale enters a batch.
+     *
+     * @return the validation error, or null when the sale is valid
+     */
+    private String errorDeValidacion(VentaDto ventaDto) {
+        if (ventaDto == null) {
+            return "La venta no puede ser nula";
+        }
+        if (ventaDto.fechaVenta() == null) {
+            return "La fecha de la venta es obligatoria";
+        }
+        if (ventaDto.montoTotal() == null) {
+            return "El monto total de la venta es obligatorio";
+        }
+        if (ventaDto.items() == null || ventaDto.items().isEmpty()) {
+            return "La venta debe tener al menos un item";
+        }
+        for (ItemVentaDto item : ventaDto.items()) {
+            if (item == null || item.producto() == null || item.producto().id() == null) {
+                return "Todos los items deben referenciar un producto existente";
+            }
+            if (item.cantidad() == null || item.cantidad() <= 0) {
+                return "La cantidad de cada item debe ser mayor que cero";
+            }
+            if (item.precioUnitario() == null || item.subtotal() == null) {
+                return "Cada item debe tener precio unitario y subtotal";
+            }
+        }
+        return null;
+    }
 }
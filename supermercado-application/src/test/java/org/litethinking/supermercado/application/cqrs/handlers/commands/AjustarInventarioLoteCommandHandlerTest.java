@@ -0,0 +1,122 @@
+package org.litethinking.supermercado.application.cqrs.handlers.commands;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.inventario.AjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.ResultadoAjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.shareddto.cqrs.commands.AjustarInventarioLoteCommand;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.AjusteInventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResultadoLoteAjustesDto;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AjustarInventarioLoteCommandHandlerTest {
+
+    @Mock
+    private RepositorioInventarioPort repositorioInventarioPort;
+
+    private AjustarInventarioLoteCommandHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new AjustarInventarioLoteCommandHandler(repositorioInventarioPort);
+    }
+
+    @Test
+    void handle_ShouldApplyValidLinesInOneCall_AndReportMalformedOnesInPlace() {
+        // Arrange
+        LocalDate fecha = LocalDate.of(2024, 6, 1);
+        AjustarInventarioLoteCommand command = new AjustarInventarioLoteCommand(List.of(
+                new AjusteInventarioDto(1L, 10, fecha),
+                new AjusteInventarioDto(null, 5, null),
+                new AjusteInventarioDto(2L, -3, null)));
+        when(repositorioInventarioPort.ajustarStockEnLote(any())).thenReturn(List.of(
+                ResultadoAjusteStock.aplicado(1L, 30),
+                ResultadoAjusteStock.rechazado(2L, "El ajuste deja el stock en negativo, disponibles: 1")));
+
+        // Act
+        ResultadoLoteAjustesDto resultado = handler.handle(command);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AjusteStock>> ajustes = ArgumentCaptor.forClass(List.class);
+        verify(repositorioInventarioPort).ajustarStockEnLote(ajustes.capture());
+        assertEquals(List.of(new AjusteStock(1L, 10, fecha), new AjusteStock(2L, -3, null)), ajustes.getValue());
+
+        assertEquals(3, resultado.totalRecibidos());
+        assertEquals(1, resultado.totalExitosos());
+        assertEquals(2, resultado.totalFallidos());
+        assertTrue(resultado.resultados().get(0).exitoso());
+        assertEquals(30, resultado.resultados().get(0).cantidad());
+        assertFalse(resultado.resultados().get(1).exitoso());
+        assertEquals(1, resultado.resultados().get(1).indice());
+        assertFalse(resultado.resultados().get(2).exitoso());
+        assertEquals(2, resultado.resultados().get(2).indice());
+    }
+
+    @Test
+    void handle_ShouldStampToday_WhenUnitsAreAddedWithoutDate() {
+        // Arrange
+        AjustarInventarioLoteCommand command = new AjustarInventarioLoteCommand(List.of(new AjusteInventarioDto(1L, 4, null)));
+        when(repositorioInventarioPort.ajustarStockEnLote(any())).thenReturn(List.of(ResultadoAjusteStock.aplicado(1L, 4)));
+
+        // Act
+        handler.handle(command);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AjusteStock>> ajustes = ArgumentCaptor.forClass(List.class);
+        verify(repositorioInventarioPort).ajustarStockEnLote(ajustes.capture());
+        assertEquals(LocalDate.now(), ajustes.getValue().get(0).fechaReposicion());
+    }
+
+    @Test
+    void handle_ShouldPassTheMovementType_AndRejectSalesOrReturnsThatRemoveUnits() {
+        // Arrange
+        AjustarInventarioLoteCommand command = new AjustarInventarioLoteCommand(List.of(
+                new AjusteInventarioDto(1L, 2, null, "devolucion"),
+                new AjusteInventarioDto(2L, -1, null, "VENTA"),
+                new AjusteInventarioDto(3L, -1, null, "DEVOLUCION"),
+                new AjusteInventarioDto(4L, -1, null, "MERMA")));
+        when(repositorioInventarioPort.ajustarStockEnLote(any())).thenReturn(List.of(ResultadoAjusteStock.aplicado(1L, 12)));
+
+        // Act
+        ResultadoLoteAjustesDto resultado = handler.handle(command);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AjusteStock>> ajustes = ArgumentCaptor.forClass(List.class);
+        verify(repositorioInventarioPort).ajustarStockEnLote(ajustes.capture());
+        assertEquals(1, ajustes.getValue().size());
+        assertEquals(TipoMovimientoStock.DEVOLUCION, ajustes.getValue().get(0).tipo());
+        assertEquals(1, resultado.totalExitosos());
+        assertEquals(3, resultado.totalFallidos());
+    }
+
+    @Test
+    void handle_ShouldRejectEmptyOrOversizedBatches() {
+        assertThrows(IllegalArgumentException.class,
+                () -> handler.handle(new AjustarInventarioLoteCommand(List.of())));
+        assertThrows(IllegalArgumentException.class,
+                () -> handler.handle(new AjustarInventarioLoteCommand(Collections.nCopies(
+                        AjustarInventarioLoteCommandHandler.LIMITE_AJUSTES + 1, new AjusteInventarioDto(1L, 1, null)))));
+        verify(repositorioInventarioPort, never()).ajustarStockEnLote(any());
+    }
+}
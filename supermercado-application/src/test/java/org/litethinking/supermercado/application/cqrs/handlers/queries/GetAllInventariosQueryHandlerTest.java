@@ -0,0 +1,75 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetAllInventariosQuery;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GetAllInventariosQueryHandlerTest {
+
+    @Mock
+    private RepositorioInventarioPort repositorioInventarioPort;
+
+    @Mock
+    private RepositorioReservaStockPort repositorioReservaStockPort;
+
+    private GetAllInventariosQueryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new GetAllInventariosQueryHandler(repositorioInventarioPort, repositorioReservaStockPort);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handle_WithConsumer_ShouldStreamEveryRecordInOrder_WithItsReservedUnits() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Inventario> consumidor = invocation.getArgument(0);
+            consumidor.accept(inventario(1L, 10L, 20));
+            consumidor.accept(inventario(2L, 11L, 3));
+            return null;
+        }).when(repositorioInventarioPort).recorrerInventarios(any(Consumer.class));
+        when(repositorioReservaStockPort.unidadesReservadas(10L)).thenReturn(5);
+        when(repositorioReservaStockPort.unidadesReservadas(11L)).thenReturn(0);
+        List<InventarioDto> recibidos = new ArrayList<>();
+
+        // Act
+        handler.handle(new GetAllInventariosQuery(), recibidos::add);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), recibidos.stream().map(InventarioDto::id).toList());
+        assertEquals(5, recibidos.get(0).unidadesReservadas());
+        assertEquals(15, recibidos.get(0).disponible());
+        assertEquals(3, recibidos.get(1).disponible());
+        verify(repositorioInventarioPort, never()).findAll();
+    }
+
+    private static Inventario inventario(Long id, Long productoId, int cantidad) {
+        return Inventario.builder()
+                .id(id)
+                .producto(Producto.builder().id(productoId).nombre("Producto " + productoId).build())
+                .cantidad(cantidad)
+                .stockMinimo(1)
+                .stockMaximo(100)
+                .build();
+    }
+}
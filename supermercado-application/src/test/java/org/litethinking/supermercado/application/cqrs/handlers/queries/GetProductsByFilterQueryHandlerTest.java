@@ -0,0 +1,112 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.domain.model.producto.OrdenProducto;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByFilterQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GetProductsByFilterQueryHandlerTest {
+
+    @Mock
+    private RepositorioProductoPort repositorioProductoPort;
+
+    private GetProductsByFilterQueryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new GetProductsByFilterQueryHandler(repositorioProductoPort);
+    }
+
+    @Test
+    void handle_ShouldCombineEveryFilter_InOneRepositoryQuery() {
+        // Arrange
+        FiltroProducto filtro = new FiltroProducto("arroz", "Alimentos", new BigDecimal("1000"),
+                new BigDecimal("5000"), null);
+        when(repositorioProductoPort.findByFiltro(filtro)).thenReturn(List.of(producto(1L)));
+
+        // Act
+        List<ProductoDto> result = handler.handle(new GetProductsByFilterQuery("Alimentos", new BigDecimal("1000"),
+                new BigDecimal("5000"), null, " arroz ", null, null, null, null));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).id());
+        verify(repositorioProductoPort, never()).findAll();
+        verify(repositorioProductoPort, never()).findByCategoria(any());
+    }
+
+    @Test
+    void handle_ShouldUseTheBarcodeLookup_WhenTheBarcodeIsTheOnlyFilter() {
+        // Arrange
+        when(repositorioProductoPort.findByCodigoBarras("7701234567890")).thenReturn(Optional.of(producto(1L)));
+
+        // Act
+        List<ProductoDto> result = handler.handle(new GetProductsByFilterQuery(null, null, null, "7701234567890"));
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(repositorioProductoPort, never()).findByFiltro(any());
+    }
+
+    @Test
+    void handlePagina_ShouldPassPagingAndSorting_AndComputeTheTotalPages() {
+        // Arrange
+        FiltroProducto filtro = new FiltroProducto(null, "Alimentos", null, null, null);
+        when(repositorioProductoPort.findPaginaByFiltro(filtro, 2, 10, OrdenProducto.PRECIO, true))
+                .thenReturn(new PaginaProductos(List.of(producto(21L), producto(22L)), 22));
+
+        // Act
+        PaginaProductosDto result = handler.handlePagina(new GetProductsByFilterQuery("Alimentos", null, null,
+                null, null, 2, 10, "precio", "DESC"));
+
+        // Assert
+        assertEquals(2, result.productos().size());
+        assertEquals(2, result.pagina());
+        assertEquals(10, result.tamano());
+        assertEquals(22, result.totalElementos());
+        assertEquals(3, result.totalPaginas());
+    }
+
+    @Test
+    void handlePagina_ShouldRejectAnUnknownSortField_AndAnInvertedPriceRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> handler.handlePagina(new GetProductsByFilterQuery(
+                null, null, null, null, null, 0, 20, "stock", "asc")));
+        assertThrows(IllegalArgumentException.class, () -> handler.handlePagina(new GetProductsByFilterQuery(
+                null, new BigDecimal("10"), new BigDecimal("5"), null, null, 0, 20, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> handler.handlePagina(new GetProductsByFilterQuery(
+                null, null, null, null, null, 0, 0, null, null)));
+        verify(repositorioProductoPort, never()).findPaginaByFiltro(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    private static Producto producto(Long id) {
+        return Producto.builder()
+                .id(id)
+                .nombre("Arroz " + id)
+                .precio(new BigDecimal("2500"))
+                .categoria("Alimentos")
+                .codigoBarras("77" + id)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetProductsByPriceQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GetProductsByPriceQueryHandlerTest {
+
+    @Mock
+    private RepositorioProductoPort repositorioProductoPort;
+
+    private GetProductsByPriceQueryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new GetProductsByPriceQueryHandler(repositorioProductoPort);
+    }
+
+    @Test
+    void handle_ShouldUseTheDefaults_AndComputeTheTotalPages() {
+        // Arrange
+        when(repositorioProductoPort.findPaginaByPrecio(null, null, "Alimentos", 0, 20))
+                .thenReturn(new PaginaProductos(List.of(producto(1L), producto(2L)), 41));
+
+        // Act
+        PaginaProductosDto result = handler.handle(new GetProductsByPriceQuery(null, null, " Alimentos ", null, null));
+
+        // Assert
+        assertEquals(2, result.productos().size());
+        assertEquals(0, result.pagina());
+        assertEquals(20, result.tamano());
+        assertEquals(41, result.totalElementos());
+        assertEquals(3, result.totalPaginas());
+    }
+
+    @Test
+    void handleConteo_ShouldCountTheRange() {
+        // Arrange
+        when(repositorioProductoPort.countByPrecio(new BigDecimal("1000"), new BigDecimal("5000"), null))
+                .thenReturn(7L);
+
+        // Act
+        long result = handler.handleConteo(new GetProductsByPriceQuery(new BigDecimal("1000"),
+                new BigDecimal("5000"), "  ", 3, 0));
+
+        // Assert
+        assertEquals(7L, result);
+    }
+
+    @Test
+    void handle_ShouldRejectAnInvertedOrNegativeRange_AndABadPageSize() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(new GetProductsByPriceQuery(
+                new BigDecimal("10"), new BigDecimal("5"), null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> handler.handleConteo(new GetProductsByPriceQuery(
+                new BigDecimal("-1"), null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(new GetProductsByPriceQuery(
+                null, null, null, 0, 1001)));
+        verify(repositorioProductoPort, never()).findPaginaByPrecio(any(), any(), any(), anyInt(), anyInt());
+        verify(repositorioProductoPort, never()).countByPrecio(any(), any(), any());
+    }
+
+    private static Producto producto(Long id) {
+        return Producto.builder()
+                .id(id)
+                .nombre("Arroz " + id)
+                .precio(new BigDecimal("2500"))
+                .categoria("Alimentos")
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package org.litethinking.supermercado.application.cqrs.handlers.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.producto.PreciosEnCentavos;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.shareddto.cqrs.queries.GetTaxedPricesQuery;
+import org.litethinking.supermercado.shareddto.supermercado.PrecioConImpuestoDto;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GetTaxedPricesQueryHandlerTest {
+
+    @Mock
+    private RepositorioProductoPort repositorioProductoPort;
+
+    private GetTaxedPricesQueryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        handler = new GetTaxedPricesQueryHandler(repositorioProductoPort);
+    }
+
+    @Test
+    void handle_ShouldPriceEveryProductOfTheCategory_WithHalfUpRounding() {
+        // Arrange
+        when(repositorioProductoPort.findPreciosEnCentavos("Alimentos", null))
+                .thenReturn(new PreciosEnCentavos(new long[]{7L, 3L}, new long[]{250000L, 1050L}));
+
+        // Act
+        List<PrecioConImpuestoDto> result = handler.handle(new GetTaxedPricesQuery(new BigDecimal("0.19"),
+                " Alimentos ", null)).toList();
+
+        // Assert
+        assertEquals(List.of(
+                new PrecioConImpuestoDto(7L, new BigDecimal("2500.00"), new BigDecimal("2975.00")),
+                new PrecioConImpuestoDto(3L, new BigDecimal("10.50"), new BigDecimal("12.50"))), result);
+    }
+
+    @Test
+    void handle_ShouldPassTheIds_AndUseTheWholeCatalogWhenNothingIsGiven() {
+        // Arrange
+        PreciosEnCentavos vacio = new PreciosEnCentavos(new long[0], new long[0]);
+        when(repositorioProductoPort.findPreciosEnCentavos(null, List.of(2L, 1L))).thenReturn(vacio);
+        when(repositorioProductoPort.findPreciosEnCentavos(null, null)).thenReturn(vacio);
+
+        // Act
+        handler.handle(new GetTaxedPricesQuery(BigDecimal.ZERO, null, List.of(2L, 1L))).toList();
+        handler.handle(new GetTaxedPricesQuery(BigDecimal.ZERO, "  ", null)).toList();
+
+        // Assert
+        verify(repositorioProductoPort).findPreciosEnCentavos(null, List.of(2L, 1L));
+        verify(repositorioProductoPort).findPreciosEnCentavos(null, null);
+    }
+
+    @Test
+    void handle_ShouldRejectABadRate_OrACategoryTogetherWithIds_BeforeReadingPrices() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(new GetTaxedPricesQuery(
+                new BigDecimal("-0.19"), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(new GetTaxedPricesQuery(
+                null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(new GetTaxedPricesQuery(
+                new BigDecimal("0.19"), "Alimentos", List.of(1L))));
+        verify(repositorioProductoPort, never()).findPreciosEnCentavos(any(), any());
+    }
+}
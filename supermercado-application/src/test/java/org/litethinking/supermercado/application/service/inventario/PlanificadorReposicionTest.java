@@ -0,0 +1,84 @@
+package org.litethinking.supermercado.application.service.inventario;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.SugerenciaReposicionDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanificadorReposicionTest {
+
+    private final PlanificadorReposicion planificador = new PlanificadorReposicion(ForkJoinPool.commonPool());
+
+    @Test
+    void planificar_ShouldCoverTheTargetDays_CappedAtStockMaximo() {
+        // Arrange: 28 units in 14 days is 2 a day; 10 days of cover need 20 units
+        List<PosicionStock> posiciones = List.of(
+                new PosicionStock(1L, "Leche", "Lácteos", 6, 2, 100),
+                new PosicionStock(2L, "Queso", "Lácteos", 6, 2, 15));
+        List<UnidadesVendidasProducto> vendidas = List.of(
+                new UnidadesVendidasProducto(1L, 28L),
+                new UnidadesVendidasProducto(2L, 28L));
+
+        // Act
+        PlanificadorReposicion.Resultado resultado = planificador.planificar(posiciones, vendidas, 14, 10);
+
+        // Assert
+        assertEquals(2, resultado.sugerencias().size());
+        SugerenciaReposicionDto leche = resultado.sugerencias().get(0);
+        assertEquals(1L, leche.productoId());
+        assertEquals(2.0, leche.ventaDiaria());
+        assertEquals(3.0, leche.diasCobertura());
+        assertEquals(14, leche.cantidadSugerida());
+        assertEquals(9, resultado.sugerencias().get(1).cantidadSugerida());
+        assertEquals(23, resultado.unidadesSugeridas());
+    }
+
+    @Test
+    void planificar_ShouldLiftProductsWithoutSales_AboveTheirMinimum() {
+        // Arrange
+        List<PosicionStock> posiciones = List.of(
+                new PosicionStock(1L, "Sal", "Abarrotes", 3, 5, 50),
+                new PosicionStock(2L, "Azúcar", "Abarrotes", 30, 5, 50));
+
+        // Act
+        PlanificadorReposicion.Resultado resultado = planificador.planificar(posiciones, List.of(), 28, 14);
+
+        // Assert
+        assertEquals(1, resultado.sugerencias().size());
+        SugerenciaReposicionDto sal = resultado.sugerencias().get(0);
+        assertNull(sal.diasCobertura());
+        assertEquals(3, sal.cantidadSugerida());
+    }
+
+    @Test
+    void planificar_ShouldMatchTheSequentialResult_WhenSplitAcrossManyCategories() {
+        // Arrange
+        List<PosicionStock> posiciones = new ArrayList<>();
+        List<UnidadesVendidasProducto> vendidas = new ArrayList<>();
+        long esperado = 0;
+        for (long id = 1; id <= 20_000; id++) {
+            posiciones.add(new PosicionStock(id, "Producto " + id, "Categoría " + id % 7, 10, null, 200));
+            vendidas.add(new UnidadesVendidasProducto(id, id % 50));
+            long objetivo = Math.min(((id % 50) * 30 + 9) / 10, 200);
+            esperado += Math.max(objetivo - 10, 0);
+        }
+
+        // Act
+        PlanificadorReposicion.Resultado resultado = planificador.planificar(posiciones, vendidas, 10, 30);
+
+        // Assert
+        assertEquals(esperado, resultado.unidadesSugeridas());
+        assertEquals(esperado, resultado.sugerencias().stream().mapToLong(SugerenciaReposicionDto::cantidadSugerida).sum());
+        for (int i = 1; i < resultado.sugerencias().size(); i++) {
+            assertTrue(resultado.sugerencias().get(i - 1).diasCobertura() <= resultado.sugerencias().get(i).diasCobertura());
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.litethinking.supermercado.application.service.venta.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.application.mapper.CursorVentaMapper;
+import org.litethinking.supermercado.domain.exception.StockInsuficienteException;
+import org.litethinking.supermercado.domain.model.venta.CursorVenta;
+import org.litethinking.supermercado.domain.model.venta.ResumenVentaDiario;
+import org.litethinking.supermercado.domain.model.venta.Venta;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioVentaPort;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.PaginaVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServicioVentaImplTest {
+
+    @Mock
+    private RepositorioVentaPort repositorioVentaPort;
+
+    @Mock
+    private RepositorioInventarioPort repositorioInventarioPort;
+
+    @Mock
+    private RepositorioReservaStockPort repositorioReservaStockPort;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ServicioVentaImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        servicio = new ServicioVentaImpl(repositorioVentaPort, repositorioInventarioPort, repositorioReservaStockPort,
+                transactionManager);
+        when(repositorioInventarioPort.descontarStock(anyLong(), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void crearVenta_ShouldDecrementStockOncePerProduct_BeforeSaving() {
+        // Arrange
+        ProductoDto producto = new ProductoDto(1L, "Arroz", "Arroz blanco", new BigDecimal("2.50"), "Granos", "7701234567890");
+        ItemVentaDto item1 = new ItemVentaDto(null, producto, 2, new BigDecimal("2.50"), new BigDecimal("5.00"));
+        ItemVentaDto item2 = new ItemVentaDto(null, producto, 3, new BigDecimal("2.50"), new BigDecimal("7.50"));
+        VentaDto ventaDto = new VentaDto(null, LocalDateTime.now(), "María López", List.of(item1, item2),
+                new BigDecimal("12.50"), "Efectivo");
+        when(repositorioVentaPort.save(any(Venta.class))).thenReturn(Venta.builder().id(5L).build());
+
+        // Act
+        VentaDto resultado = servicio.crearVenta(ventaDto);
+
+        // Assert
+        assertEquals(5L, resultado.id());
+        verify(repositorioInventarioPort).descontarStock(1L, 5);
+        verify(repositorioVentaPort).save(any(Venta.class));
+    }
+
+    @Test
+    void crearVenta_ShouldRejectTheSale_WhenStockIsShort() {
+        // Arrange
+        when(repositorioInventarioPort.descontarStock(eq(1L), anyInt())).thenReturn(false);
+
+        // Act & Assert
+        StockInsuficienteException exception = assertThrows(StockInsuficienteException.class,
+                () -> servicio.crearVenta(venta("María López")));
+
+        assertEquals(1L, exception.getProductoId());
+        verify(repositorioVentaPort, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void crearVenta_ShouldRejectANegativeQuantity_WithoutTouchingTheStock() {
+        // Arrange: a negative quantity would pass the conditional decrement and add units
+        VentaDto ventaDto = ventaConCantidad(-5);
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> servicio.crearVenta(ventaDto));
+        assertEquals("La cantidad de cada item debe ser mayor que cero", error.getMessage());
+        verify(repositorioInventarioPort, never()).descontarStock(anyLong(), anyInt());
+        verify(repositorioVentaPort, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void crearVenta_ShouldRejectAMissingQuantityOrProduct_AsAnInvalidSale() {
+        // Arrange
+        VentaDto sinCantidad = ventaConCantidad(null);
+        VentaDto sinProducto = new VentaDto(null, LocalDateTime.now(), "María López",
+                List.of(new ItemVentaDto(null, null, 2, new BigDecimal("2.50"), new BigDecimal("5.00"))),
+                new BigDecimal("5.00"), "Efectivo");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> servicio.crearVenta(sinCantidad, "carrito-7"));
+        assertThrows(IllegalArgumentException.class, () -> servicio.crearVenta(sinProducto));
+        verify(repositorioReservaStockPort, never()).apartarParaVenta(any(), any(), anyInt());
+        verify(repositorioInventarioPort, never()).descontarStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void crearVenta_ShouldLeaveOtherCartsReservationsAlone_AndConfirmItsOwnCart() {
+        // Arrange: other carts hold 4 units of the product
+        when(repositorioReservaStockPort.apartarParaVenta(1L, "carrito-7", 2)).thenReturn(4);
+        when(repositorioInventarioPort.descontarStock(1L, 2, 4)).thenReturn(true);
+        when(repositorioVentaPort.save(any(Venta.class))).thenReturn(Venta.builder().id(6L).build());
+
+        // Act
+        servicio.crearVenta(venta("María López"), "carrito-7");
+
+        // Assert
+        verify(repositorioInventarioPort).descontarStock(1L, 2, 4);
+        verify(repositorioInventarioPort, never()).descontarStock(anyLong(), anyInt());
+        verify(repositorioReservaStockPort).confirmar("carrito-7");
+    }
+
+    @Test
+    void crearVenta_ShouldRejectTheSale_WhenOnlyReservedUnitsAreLeft() {
+        // Arrange
+        when(repositorioReservaStockPort.apartarParaVenta(1L, null, 2)).thenReturn(3);
+        when(repositorioInventarioPort.descontarStock(1L, 2, 3)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(StockInsuficienteException.class, () -> servicio.crearVenta(venta("María López")));
+        verify(repositorioVentaPort, never()).save(any(Venta.class));
+        verify(repositorioReservaStockPort, never()).confirmar(any());
+    }
+
+    @Test
+    void crearVentasEnLote_ShouldReportInvalidSales_WithoutSendingThemToTheRepository() {
+        // Arrange
+        VentaDto valida = venta("María López");
+        VentaDto sinItems = new VentaDto(null, LocalDateTime.now(), "Juan Pérez", List.of(), BigDecimal.ONE, "Efectivo");
+
+        Venta guardada = Venta.builder().id(10L).build();
+        when(repositorioVentaPort.saveAll(anyList())).thenReturn(List.of(guardada));
+
+        // Act
+        ResultadoLoteVentasDto resultado = servicio.crearVentasEnLote(List.of(valida, sinItems));
+
+        // Assert
+        assertEquals(2, resultado.totalRecibidas());
+        assertEquals(1, resultado.totalExitosas());
+        assertEquals(1, resultado.totalFallidas());
+        assertTrue(resultado.resultados().get(0).exitosa());
+        assertEquals(10L, resultado.resultados().get(0).idVenta());
+        assertFalse(resultado.resultados().get(1).exitosa());
+        assertNotNull(resultado.resultados().get(1).error());
+    }
+
+    @Test
+    void crearVentasEnLote_ShouldRetryOneByOne_WhenTheBatchFails() {
+        // Arrange
+        when(repositorioVentaPort.saveAll(anyList())).thenThrow(new IllegalStateException("lote fallido"));
+        when(repositorioVentaPort.save(any(Venta.class)))
+                .thenReturn(Venta.builder().id(1L).build())
+                .thenThrow(new IllegalArgumentException("Producto no encontrado"));
+
+        // Act
+        ResultadoLoteVentasDto resultado = servicio.crearVentasEnLote(List.of(venta("A"), venta("B")));
+
+        // Assert
+        assertEquals(1, resultado.totalExitosas());
+        assertEquals(1, resultado.totalFallidas());
+        assertEquals(1L, resultado.resultados().get(0).idVenta());
+        assertEquals("Producto no encontrado", resultado.resultados().get(1).error());
+        assertFalse(resultado.resultados().get(1).reintentable());
+        verify(repositorioVentaPort, times(2)).save(any(Venta.class));
+    }
+
+    @Test
+    void crearVentasEnLote_ShouldReportASaleAsRetryable_WhenItFailsForAReasonOtherThanItsContent() {
+        // Arrange
+        when(repositorioVentaPort.saveAll(anyList())).thenThrow(new IllegalStateException("base de datos caída"));
+        when(repositorioVentaPort.save(any(Venta.class))).thenThrow(new IllegalStateException("base de datos caída"));
+        when(repositorioInventarioPort.descontarStock(2L, 1)).thenReturn(false);
+        ProductoDto agotado = new ProductoDto(2L, "Azúcar", null, new BigDecimal("1.80"), "Granos", "7701234567891");
+        VentaDto sinStock = new VentaDto(null, LocalDateTime.now(), "B",
+                List.of(new ItemVentaDto(null, agotado, 1, new BigDecimal("1.80"), new BigDecimal("1.80"))),
+                new BigDecimal("1.80"), "Efectivo");
+
+        // Act
+        ResultadoLoteVentasDto resultado = servicio.crearVentasEnLote(List.of(venta("A"), sinStock));
+
+        // Assert
+        assertEquals(2, resultado.totalFallidas());
+        assertTrue(resultado.resultados().get(0).reintentable());
+        assertFalse(resultado.resultados().get(1).reintentable());
+    }
+
+    @Test
+    void crearVentasEnLote_ShouldLetEachSaleTakeItsCartsUnits_AndConfirmOnlyTheCartsGiven() {
+        // Arrange: other carts hold 4 units besides the first sale's own
+        when(repositorioReservaStockPort.apartarParaVenta(1L, "carrito-1", 2)).thenReturn(4);
+        when(repositorioInventarioPort.descontarStock(1L, 2, 4)).thenReturn(true);
+        when(repositorioVentaPort.saveAll(anyList()))
+                .thenReturn(List.of(Venta.builder().id(1L).build(), Venta.builder().id(2L).build()));
+
+        // Act
+        ResultadoLoteVentasDto resultado = servicio.crearVentasEnLote(List.of(venta("A"), venta("B")),
+                Arrays.asList("carrito-1", null));
+
+        // Assert
+        assertEquals(2, resultado.totalExitosas());
+        verify(repositorioReservaStockPort).apartarParaVenta(1L, null, 2);
+        verify(repositorioReservaStockPort).confirmar("carrito-1");
+        verify(repositorioReservaStockPort, times(1)).confirmar(any());
+    }
+
+    @Test
+    void validarVenta_ShouldThrowException_WhenTheSaleHasNoItems() {
+        // Arrange
+        VentaDto sinItems = new VentaDto(null, LocalDateTime.now(), "Juan Pérez", List.of(), BigDecimal.ONE, "Efectivo");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> servicio.validarVenta(sinItems));
+        servicio.validarVenta(venta("María López"));
+    }
+
+    @Test
+    void obtenerPaginaDeVentas_ShouldReturnTheNextCursor_WhenMoreSalesFollow() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 9, 0);
+        List<Venta> ventas = List.of(
+                Venta.builder().id(1L).fechaVenta(fecha).build(),
+                Venta.builder().id(2L).fechaVenta(fecha).build(),
+                Venta.builder().id(3L).fechaVenta(fecha.plusHours(1)).build());
+        when(repositorioVentaPort.findPagina(isNull(), eq(3))).thenReturn(ventas);
+
+        // Act
+        PaginaVentasDto pagina = servicio.obtenerPaginaDeVentas(null, 2);
+
+        // Assert
+        assertEquals(2, pagina.ventas().size());
+        assertEquals(new CursorVenta(fecha, 2L), CursorVentaMapper.fromToken(pagina.siguienteCursor()));
+    }
+
+    @Test
+    void obtenerPaginaDeVentasPorMetodoPago_ShouldContinueAfterTheCursor_AndEndWithoutCursor() {
+        // Arrange
+        CursorVenta cursor = new CursorVenta(LocalDateTime.of(2024, 3, 1, 9, 0), 2L);
+        when(repositorioVentaPort.findPaginaByMetodoPago("Efectivo", cursor, 3))
+                .thenReturn(List.of(Venta.builder().id(3L).fechaVenta(LocalDateTime.of(2024, 3, 1, 10, 0)).build()));
+
+        // Act
+        PaginaVentasDto pagina = servicio.obtenerPaginaDeVentasPorMetodoPago("Efectivo", CursorVentaMapper.toToken(cursor), 2);
+
+        // Assert
+        assertEquals(1, pagina.ventas().size());
+        assertNull(pagina.siguienteCursor());
+    }
+
+    @Test
+    void obtenerPaginaDeVentas_ShouldRejectAnInvalidCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> servicio.obtenerPaginaDeVentas("no-es-un-cursor", 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportarVentasEntreFechas_ShouldHandEachSaleToTheConsumer_AsItIsRead() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 3, 31, 23, 59);
+        doAnswer(invocation -> {
+            Consumer<Venta> consumidor = invocation.getArgument(2);
+            consumidor.accept(Venta.builder().id(1L).fechaVenta(inicio).build());
+            consumidor.accept(Venta.builder().id(2L).fechaVenta(fin).build());
+            return null;
+        }).when(repositorioVentaPort).recorrerVentasEntreFechas(eq(inicio), eq(fin), any(Consumer.class));
+        List<Long> exportadas = new ArrayList<>();
+
+        // Act
+        servicio.exportarVentasEntreFechas(inicio, fin, venta -> exportadas.add(venta.id()));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), exportadas);
+    }
+
+    @Test
+    void obtenerResumenVentas_ShouldAddUpTheDailyRollups_OfTheRange() {
+        // Arrange
+        LocalDate dia = LocalDate.of(2024, 3, 1);
+        when(repositorioVentaPort.findResumenDiarioEntreFechas(dia, dia.plusDays(1))).thenReturn(List.of(
+                new ResumenVentaDiario(dia, "Efectivo", 3, new BigDecimal("30.00"), 7),
+                new ResumenVentaDiario(dia.plusDays(1), "Tarjeta", 2, new BigDecimal("12.50"), 4)));
+
+        // Act
+        ResumenVentasDto resumen = servicio.obtenerResumenVentas(dia, dia.plusDays(1));
+
+        // Assert
+        assertEquals(5, resumen.cantidadVentas());
+        assertEquals(new BigDecimal("42.50"), resumen.montoTotal());
+        assertEquals(11, resumen.cantidadArticulos());
+        assertEquals(2, resumen.dias().size());
+    }
+
+    @Test
+    void obtenerResumenVentas_ShouldRejectAnInvertedRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> servicio.obtenerResumenVentas(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1)));
+    }
+
+    private VentaDto ventaConCantidad(Integer cantidad) {
+        ProductoDto producto = new ProductoDto(1L, "Arroz", "Arroz blanco", new BigDecimal("2.50"), "Granos", "7701234567890");
+        ItemVentaDto item = new ItemVentaDto(null, producto, cantidad, new BigDecimal("2.50"), new BigDecimal("5.00"));
+        return new VentaDto(null, LocalDateTime.now(), "María López", List.of(item), new BigDecimal("5.00"), "Efectivo");
+    }
+
+    private VentaDto venta(String cliente) {
+        ProductoDto producto = new ProductoDto(1L, "Arroz", "Arroz blanco", new BigDecimal("2.50"), "Granos", "7701234567890");
+        ItemVentaDto item = new ItemVentaDto(null, producto, 2, new BigDecimal("2.50"), new BigDecimal("5.00"));
+        return new VentaDto(null, LocalDateTime.now(), cliente, List.of(item), new BigDecimal("5.00"), "Efectivo");
+    }
+}
@@ -97,6 +97,10 @@ public class CliApplication implements CommandLineRunner {
                         }
                     }
                     break;
+                case 6:
+                    log.debug("Usualio seleccionó la opsión de sacal una instantánea del catálogo");
+                    cliService.createSnapshot();
+                    break;
                 case 0:
                     log.info("Usualio seleccionó salil de la aplicasión");
                     exit = true;
@@ -126,6 +130,7 @@ public class CliApplication implements CommandLineRunner {
         System.out.println("3. Gestión de Ventas");
         System.out.println("4. Generar Reporte");
         System.out.println("5. " + (cajero == null ? "Iniciar Sesión como Cajero" : "Gestionar Sesión de Cajero, ejemplo use code CAJ003 para prueba"));
+        System.out.println("6. Crear Instantánea del Catálogo");
         System.out.println("0. Salir");
         System.out.print("Ingrese su opción: ");
     }
@@ -43,4 +43,9 @@ public interface CliService {
      * Generate and display a report.
      */
     void generateReport();
+
+    /**
+     * Ask the API to write a binary snapshot of the catalog for warm starts.
+     */
+    void createSnapshot();
 }
@@ -1,8 +1,11 @@
 package org.litethinking.supermercado.cli.service.report.impl;
 
 import org.litethinking.supermercado.cli.service.report.ReportGenerator;
+import org.litethinking.supermercado.cli.service.supermercado.CatalogoProductosRemoto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentaDiarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentasDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -12,11 +15,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -30,25 +35,48 @@ import java.util.stream.Collectors;
 @Service
 public class InventoryReportGenerator implements ReportGenerator {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Siguiente-Cursor";
+    private static final int SALES_PAGE_SIZE = 500;
+
     private final RestTemplate restTemplate;
     private final String apiBaseUrl;
+    private final CatalogoProductosRemoto productCatalog;
 
     public InventoryReportGenerator(RestTemplate restTemplate, @Value("${api.base-url}") String apiBaseUrl) {
         this.restTemplate = restTemplate;
         this.apiBaseUrl = apiBaseUrl;
+        this.productCatalog = new CatalogoProductosRemoto(restTemplate, apiBaseUrl + "/productos");
     }
 
-    @Override
-    public void generateReport() {
-        try {
-            // Get all products
-            ResponseEntity<List<ProductoDto>> productResponse = restTemplate.exchange(
-                    apiBaseUrl + "/productos",
+    /**
+     * Fetches every sale by following the cursor the API returns in the X-Siguiente-Cursor header.
+     *
+     * @return all the sales
+     */
+    private List<VentaDto> fetchAllSales() {
+        List<VentaDto> ventas = new ArrayList<>();
+        String url = apiBaseUrl + "/ventas?limit=" + SALES_PAGE_SIZE;
+        while (url != null) {
+            ResponseEntity<List<VentaDto>> saleResponse = restTemplate.exchange(
+                    url,
                     HttpMethod.GET,
                     null,
-                    new ParameterizedTypeReference<List<ProductoDto>>() {}
+                    new ParameterizedTypeReference<List<VentaDto>>() {}
             );
-            List<ProductoDto> productos = productResponse.getBody();
+            if (saleResponse.getBody() != null) {
+                ventas.addAll(saleResponse.getBody());
+            }
+            String nextCursor = saleResponse.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+            url = nextCursor != null ? apiBaseUrl + "/ventas?limit=" + SALES_PAGE_SIZE + "&after=" + nextCursor : null;
+        }
+        return ventas;
+    }
+
+    @Override
+    public void generateReport() {
+        try {
+            // Get all products, reusing the previous list when the API answers 304
+            List<ProductoDto> productos = productCatalog.obtener();
 
             // Get all inventory
             ResponseEntity<List<InventarioDto>> inventoryResponse = restTemplate.exchange(
@@ -59,14 +87,8 @@ public class InventoryReportGenerator implements ReportGenerator {
             );
             List<InventarioDto> inventarios = inventoryResponse.getBody();
 
-            // Get all sales
-            ResponseEntity<List<VentaDto>> saleResponse = restTemplate.exchange(
-                    apiBaseUrl + "/ventas",
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<List<VentaDto>>() {}
-            );
-            List<VentaDto> ventas = saleResponse.getBody();
+            // Get all sales, page by page
+            List<VentaDto> ventas = fetchAllSales();
 
             if (productos == null || inventarios == null || ventas == null) {
                 System.out.println("Error: Could not retrieve data for report.");
@@ -83,7 +105,7 @@ public class InventoryReportGenerator implements ReportGenerator {
             generateSalesByCategoryReport(ventas, productos);
 
             // Generate sales trend report
-            generateSalesTrendReport(ventas);
+            generateSalesTrendReport();
 
         } catch (Exception e) {
             System.out.println("Error generating report: " + e.getMessage());
@@ -201,26 +223,26 @@ public class InventoryReportGenerator implements ReportGenerator {
 
     /**
      * Generate a report showing sales trends over time.
+     * The daily totals come from the server-side rollups, so no sale is re-read for them.
      */
-    private void generateSalesTrendReport(List<VentaDto> ventas) {
+    private void generateSalesTrendReport() {
         System.out.println("\n===== SALES TREND REPORT =====");
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        Map<String, BigDecimal> dailySales = new HashMap<>();
+        ResumenVentasDto resumen = restTemplate.getForObject(apiBaseUrl + "/ventas/resumen", ResumenVentasDto.class);
+        if (resumen == null) {
+            System.out.println("Error: Could not retrieve the sales summary.");
+            return;
+        }
 
-        for (VentaDto venta : ventas) {
-            LocalDateTime fechaVenta = venta.fechaVenta();
-            if (fechaVenta != null) {
-                String dateStr = fechaVenta.format(formatter);
-                BigDecimal dailySale = dailySales.getOrDefault(dateStr, BigDecimal.ZERO);
-                dailySales.put(dateStr, dailySale.add(venta.montoTotal()));
-            }
+        // The rollups are per day and payment method; the trend shows one total per day
+        Map<LocalDate, BigDecimal> dailySales = new TreeMap<>();
+        for (ResumenVentaDiarioDto dia : resumen.dias()) {
+            dailySales.merge(dia.fecha(), dia.montoTotal(), BigDecimal::add);
         }
 
         // Print daily sales
         System.out.println("Daily Sales:");
-        dailySales.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> System.out.printf("  %s: $%.2f%n", entry.getKey(), entry.getValue()));
+        dailySales.forEach((fecha, total) ->
+                System.out.printf("  %s: $%.2f%n", fecha.format(DateTimeFormatter.ISO_LOCAL_DATE), total));
     }
 }
@@ -0,0 +1,60 @@
+package org.litethinking.supermercado.cli.service.supermercado;
+
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copia local de la lista de productos de la API, pedida con If-None-Match.
+ * Si el catálogo no ha cambiao' la API contesta 304 sin cuerpo y se devuelve la misma copia.
+ */
+public final class CatalogoProductosRemoto {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private String etag;
+    private List<ProductoDto> productos;
+
+    /**
+     * @param restTemplate Cliente pa' hacer peticiones HTTP a la API
+     * @param url URL de la lista de productos
+     */
+    public CatalogoProductosRemoto(RestTemplate restTemplate, String url) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    /**
+     * Trae la lista de productos, o la copia que ya teníamo' si la API dice que sigue igual.
+     *
+     * @return la lista de productos, que no se puede modificar; null si la API no mandó na'
+     */
+    public synchronized List<ProductoDto> obtener() {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null && productos != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        ResponseEntity<List<ProductoDto>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<List<ProductoDto>>() {}
+        );
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && productos != null) {
+            return productos;
+        }
+        List<ProductoDto> cuerpo = response.getBody();
+        productos = cuerpo == null ? null : Collections.unmodifiableList(new ArrayList<>(cuerpo));
+        etag = productos == null ? null : response.getHeaders().getETag();
+        return productos;
+    }
+}
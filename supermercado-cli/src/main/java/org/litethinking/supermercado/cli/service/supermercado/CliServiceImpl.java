@@ -5,17 +5,21 @@ import org.slf4j.LoggerFactory;
 import org.litethinking.supermercado.cli.service.CliService;
 import org.litethinking.supermercado.cli.service.report.ReportGenerator;
 import org.litethinking.supermercado.shareddto.supermercado.CajeroDto;
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
@@ -24,6 +28,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.UUID;
 
 /**
  * Implementación de la interfaz CliService.
@@ -38,9 +43,14 @@ import java.util.Scanner;
 public class CliServiceImpl implements CliService {
 
     private static final Logger logger = LoggerFactory.getLogger(CliServiceImpl.class);
+    private static final String CABECERA_IDEMPOTENCIA = "Idempotency-Key";
+    private static final int INTENTOS_ENVIO_VENTA = 3;
+    private static final String CABECERA_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+    private static final int TAMANO_PAGINA_VENTAS = 500;
     private final RestTemplate restTemplate;
     private final String apiBaseUrl;
     private final ReportGenerator reportGenerator;
+    private final CatalogoProductosRemoto catalogoProductos;
     private CajeroDto cajeroLogueado;
 
     /**
@@ -57,6 +67,7 @@ public class CliServiceImpl implements CliService {
         this.restTemplate = restTemplate;
         this.apiBaseUrl = apiBaseUrl;
         this.reportGenerator = reportGenerator;
+        this.catalogoProductos = new CatalogoProductosRemoto(restTemplate, apiBaseUrl + "/productos");
         this.cajeroLogueado = null;
         logger.info("¡Servicio CLI inicializado y listo pa' trabajar con la API en: {}!", apiBaseUrl);
         logger.debug("Componentes inicializados: RestTemplate, ReportGenerator, URL base: {}", apiBaseUrl);
@@ -286,22 +297,51 @@ public class CliServiceImpl implements CliService {
         }
     }
 
+    /**
+     * Pide a la API que guarde una instantánea binaria del catálogo.
+     * El próximo arranque con la base vacía la restaura en vez de cargar los CSV.
+     */
+    @Override
+    public void createSnapshot() {
+        logger.info("¡Vamo' a sacar una instantánea del catálogo!");
+        try {
+            logger.debug("Enviando petición a la API: {}/instantaneas", apiBaseUrl);
+            ResponseEntity<InstantaneaDto> response = restTemplate.postForEntity(
+                    apiBaseUrl + "/instantaneas",
+                    null,
+                    InstantaneaDto.class
+            );
+
+            InstantaneaDto instantanea = response.getBody();
+            if (response.getStatusCode().is2xxSuccessful() && instantanea != null) {
+                logger.info("¡Instantánea guardada con éxito en {}!", instantanea.ruta());
+                System.out.println("\n===== INSTANTÁNEA DEL CATÁLOGO =====");
+                System.out.println("Archivo: " + instantanea.ruta() + " (versión " + instantanea.version() + ")");
+                System.out.println("Tamaño: " + instantanea.bytes() + " bytes");
+                instantanea.filasPorTabla().forEach((tabla, filas) ->
+                        System.out.println("  " + tabla + ": " + filas + " registros"));
+                System.out.println("Tiempo: " + instantanea.duracionMs() + " ms");
+            } else {
+                logger.warn("Respuesta inesperada del servidor: {}", response.getStatusCode());
+                System.out.println("Error al crear la instantánea. Respuesta del servidor: " + response.getStatusCode());
+            }
+        } catch (Exception e) {
+            logger.error("¡Diablo! Hubo un problema creando la instantánea: {}", e.getMessage(), e);
+            System.out.println("Error al crear la instantánea: " + e.getMessage());
+        }
+    }
+
     // Métodos auxiliares pa' la gestión de productos
     /**
      * Lista todos los productos disponibles en el sistema.
-     * Hace una petición GET a la API y muestra los productos en formato de tabla.
+     * Hace una petición GET a la API y muestra los productos en formato de tabla; si la lista no ha cambiao'
+     * desde la última vez, la API contesta 304 y se usa la copia que ya teníamo'.
      */
     private void listAllProducts() {
         logger.info("Obteniendo lista de todos los productos");
         try {
             logger.debug("Enviando petición a la API: {}/productos", apiBaseUrl);
-            ResponseEntity<List<ProductoDto>> response = restTemplate.exchange(
-                    apiBaseUrl + "/productos",
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<List<ProductoDto>>() {}
-            );
-            List<ProductoDto> productos = response.getBody();
+            List<ProductoDto> productos = catalogoProductos.obtener();
 
             if (productos != null && !productos.isEmpty()) {
                 logger.info("¡Encontramo' {} productos en total!", productos.size());
@@ -929,18 +969,38 @@ public class CliServiceImpl implements CliService {
     }
 
     // Helper methods for sales management
-    private void listAllSales() {
-        logger.info("¡Vamo' a buscar toas' las ventas que tenemo'!");
-        try {
+
+    /**
+     * Trae toas' las ventas recorriendo las páginas de la API con el cursor de la cabecera X-Siguiente-Cursor.
+     *
+     * @return toas' las ventas
+     */
+    private List<VentaDto> obtenerTodasLasVentas() {
+        List<VentaDto> ventas = new ArrayList<>();
+        String url = apiBaseUrl + "/ventas?limit=" + TAMANO_PAGINA_VENTAS;
+        while (url != null) {
             ResponseEntity<List<VentaDto>> response = restTemplate.exchange(
-                    apiBaseUrl + "/ventas",
+                    url,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<List<VentaDto>>() {}
             );
-            List<VentaDto> ventas = response.getBody();
+            if (response.getBody() != null) {
+                ventas.addAll(response.getBody());
+            }
+            String siguienteCursor = response.getHeaders().getFirst(CABECERA_SIGUIENTE_CURSOR);
+            url = siguienteCursor != null
+                    ? apiBaseUrl + "/ventas?limit=" + TAMANO_PAGINA_VENTAS + "&after=" + siguienteCursor
+                    : null;
+        }
+        return ventas;
+    }
+    private void listAllSales() {
+        logger.info("¡Vamo' a buscar toas' las ventas que tenemo'!");
+        try {
+            List<VentaDto> ventas = obtenerTodasLasVentas();
 
-            if (ventas != null && !ventas.isEmpty()) {
+            if (!ventas.isEmpty()) {
                 logger.info("¡Encontramo' {} ventas en total!", ventas.size());
 
                 // Calcular el total vendido para mostrar en el log
@@ -1106,11 +1166,7 @@ public class CliServiceImpl implements CliService {
             );
 
             logger.info("¡Enviando la venta al servidor pa' guardarla!");
-            ResponseEntity<VentaDto> response = restTemplate.postForEntity(
-                    apiBaseUrl + "/ventas",
-                    nuevaVenta,
-                    VentaDto.class
-            );
+            ResponseEntity<VentaDto> response = enviarVenta(nuevaVenta);
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 Long ventaId = response.getBody().id();
@@ -1127,6 +1183,29 @@ public class CliServiceImpl implements CliService {
         }
     }
 
+    /**
+     * Envía la venta con una clave de idempotencia y la reintenta con la misma clave si se cae la conexión,
+     * así el servidor no la guarda dos vece'.
+     *
+     * @param venta la venta a enviar
+     * @return la respuesta del servidor
+     */
+    private ResponseEntity<VentaDto> enviarVenta(VentaDto venta) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(CABECERA_IDEMPOTENCIA, UUID.randomUUID().toString());
+        HttpEntity<VentaDto> peticion = new HttpEntity<>(venta, headers);
+        for (int intento = 1; ; intento++) {
+            try {
+                return restTemplate.postForEntity(apiBaseUrl + "/ventas", peticion, VentaDto.class);
+            } catch (ResourceAccessException e) {
+                if (intento >= INTENTOS_ENVIO_VENTA) {
+                    throw e;
+                }
+                logger.warn("¡Se cayó la conexión enviando la venta! Reintento {} de {}", intento, INTENTOS_ENVIO_VENTA - 1);
+            }
+        }
+    }
+
     /**
      * Método auxiliar pa' obtener una opción numérica del usuario.
      * Convierte la entrada del usuario a un número entero.
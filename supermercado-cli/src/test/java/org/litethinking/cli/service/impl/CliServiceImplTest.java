@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.litethinking.supermercado.cli.service.report.ReportGenerator;
 import org.litethinking.supermercado.cli.service.supermercado.CliServiceImpl;
 import org.litethinking.supermercado.shareddto.supermercado.CajeroDto;
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
@@ -12,6 +13,7 @@ import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -20,11 +22,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -495,7 +499,7 @@ public class CliServiceImplTest {
         ResponseEntity<VentaDto> ventaResponse = new ResponseEntity<>(nuevaVenta, HttpStatus.CREATED);
         when(restTemplate.postForEntity(
                 eq(apiBaseUrl + "/ventas"),
-                any(VentaDto.class),
+                any(HttpEntity.class),
                 eq(VentaDto.class)
         )).thenReturn(ventaResponse);
 
@@ -507,7 +511,8 @@ public class CliServiceImplTest {
         verify(restTemplate).getForEntity(eq(apiBaseUrl + "/productos/2"), eq(ProductoDto.class));
         verify(restTemplate).postForEntity(
                 eq(apiBaseUrl + "/ventas"),
-                any(VentaDto.class),
+                argThat((HttpEntity<?> peticion) -> peticion.getBody() instanceof VentaDto
+                        && peticion.getHeaders().containsKey("Idempotency-Key")),
                 eq(VentaDto.class)
         );
         assertTrue(outputStream.toString().contains("Venta creada exitosamente"));
@@ -538,4 +543,22 @@ public class CliServiceImplTest {
         );
         assertTrue(outputStream.toString().contains("Error al obtener los productos"));
     }
+
+    @Test
+    public void testCreateSnapshot_Success() {
+        // Given
+        InstantaneaDto instantanea = new InstantaneaDto("data/instantanea-catalogo.bin", 1, Instant.now(), 2048L,
+                Map.of("productos", 3L), 15L);
+
+        when(restTemplate.postForEntity(eq(apiBaseUrl + "/instantaneas"), isNull(), eq(InstantaneaDto.class)))
+                .thenReturn(new ResponseEntity<>(instantanea, HttpStatus.CREATED));
+
+        // When
+        cliService.createSnapshot();
+
+        // Then
+        verify(restTemplate).postForEntity(eq(apiBaseUrl + "/instantaneas"), isNull(), eq(InstantaneaDto.class));
+        assertTrue(outputStream.toString().contains("data/instantanea-catalogo.bin"));
+        assertTrue(outputStream.toString().contains("productos: 3 registros"));
+    }
 }
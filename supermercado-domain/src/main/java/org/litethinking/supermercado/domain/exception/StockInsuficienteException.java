@@ -0,0 +1,25 @@
+package org.litethinking.supermercado.domain.exception;
+
+/**
+ * Excepción que indica que un producto no tiene stock suficiente para completar una venta.
+ */
+public class StockInsuficienteException extends RuntimeException {
+
+    private final Long productoId;
+    private final int cantidadSolicitada;
+
+    public StockInsuficienteException(Long productoId, int cantidadSolicitada) {
+        super("Stock insuficiente para el producto con ID: " + productoId
+                + " (cantidad solicitada: " + cantidadSolicitada + ")");
+        this.productoId = productoId;
+        this.cantidadSolicitada = cantidadSolicitada;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public int getCantidadSolicitada() {
+        return cantidadSolicitada;
+    }
+}
@@ -0,0 +1,34 @@
+package org.litethinking.supermercado.domain.model.importacion;
+
+import java.util.List;
+
+/**
+ * Resultado de guardar un lote de registros importados, buscando cada uno por su clave natural.
+ *
+ * @param insertados cuántos registros no existían y se crearon
+ * @param actualizados cuántos registros ya existían y se reemplazaron
+ * @param rechazados los registros que no se guardaron, con su posición en el lote y el motivo
+ */
+public record ResultadoLoteImportacion(
+        int insertados,
+        int actualizados,
+        List<Rechazo> rechazados
+) {
+
+    public ResultadoLoteImportacion {
+        rechazados = rechazados == null ? List.of() : List.copyOf(rechazados);
+    }
+
+    public static ResultadoLoteImportacion de(int insertados, int actualizados) {
+        return new ResultadoLoteImportacion(insertados, actualizados, List.of());
+    }
+
+    /**
+     * Un registro del lote que no se guardó.
+     *
+     * @param indice la posición del registro en el lote, desde 0
+     * @param motivo por qué no se guardó
+     */
+    public record Rechazo(int indice, String motivo) {
+    }
+}
@@ -0,0 +1,26 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+import java.time.LocalDate;
+
+/**
+ * Ajuste relativo del stock de un producto, por ejemplo al recibir mercancía.
+ *
+ * @param productoId el id del producto
+ * @param delta las unidades a sumar, negativas para restar
+ * @param fechaReposicion la nueva fecha de última reposición, o null para conservar la actual
+ * @param tipo la causa que queda registrada en el historial de movimientos
+ */
+public record AjusteStock(
+        Long productoId,
+        int delta,
+        LocalDate fechaReposicion,
+        TipoMovimientoStock tipo
+) {
+
+    /**
+     * Ajuste sin causa explícita: si suma unidades es una recepción y si resta, un ajuste.
+     */
+    public AjusteStock(Long productoId, int delta, LocalDate fechaReposicion) {
+        this(productoId, delta, fechaReposicion, delta > 0 ? TipoMovimientoStock.RECEPCION : TipoMovimientoStock.AJUSTE);
+    }
+}
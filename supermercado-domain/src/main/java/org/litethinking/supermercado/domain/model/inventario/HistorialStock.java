@@ -0,0 +1,19 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+import java.util.List;
+
+/**
+ * Movimientos de stock de un producto en un intervalo, con el stock del que se partía.
+ *
+ * @param productoId el id del producto
+ * @param cantidadInicial el stock al comienzo del intervalo
+ * @param movimientos los movimientos del intervalo, del más antiguo al más reciente
+ * @param truncado true si el intervalo tiene más movimientos que los devueltos
+ */
+public record HistorialStock(
+        Long productoId,
+        Integer cantidadInicial,
+        List<MovimientoStock> movimientos,
+        boolean truncado
+) {
+}
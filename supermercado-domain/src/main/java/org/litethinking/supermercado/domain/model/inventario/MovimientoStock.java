@@ -0,0 +1,25 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del historial de stock de un producto.
+ *
+ * @param id el id del movimiento, creciente en el orden en que se registró
+ * @param productoId el id del producto
+ * @param tipo la causa del movimiento
+ * @param delta las unidades que entraron, negativas si salieron
+ * @param cantidadResultante el stock del producto justo después del movimiento
+ * @param instante el momento en que el cambio llegó a la base de datos
+ * @param motivo la operación que hizo el cambio
+ */
+public record MovimientoStock(
+        Long id,
+        Long productoId,
+        TipoMovimientoStock tipo,
+        Integer delta,
+        Integer cantidadResultante,
+        LocalDateTime instante,
+        String motivo
+) {
+}
@@ -0,0 +1,29 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+/**
+ * Vista liviana del stock de un producto, con lo justo para planificar la reposición.
+ *
+ * @param productoId el id del producto
+ * @param nombreProducto el nombre del producto
+ * @param categoria la categoría del producto
+ * @param cantidad las unidades disponibles
+ * @param stockMinimo el stock mínimo, o null si no tiene
+ * @param stockMaximo el stock máximo, o null si no tiene
+ */
+public record PosicionStock(
+        Long productoId,
+        String nombreProducto,
+        String categoria,
+        Integer cantidad,
+        Integer stockMinimo,
+        Integer stockMaximo
+) {
+
+    /**
+     * @param nuevaCantidad las unidades disponibles
+     * @return la misma posición con otra cantidad
+     */
+    public PosicionStock conCantidad(Integer nuevaCantidad) {
+        return new PosicionStock(productoId, nombreProducto, categoria, nuevaCantidad, stockMinimo, stockMaximo);
+    }
+}
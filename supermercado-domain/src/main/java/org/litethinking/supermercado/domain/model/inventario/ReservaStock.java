@@ -0,0 +1,20 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unidades de un producto apartadas para un carrito mientras se cobra.
+ * Mientras la reserva está viva, esas unidades no se pueden vender a otro carrito.
+ *
+ * @param carritoId el id del carrito que apartó las unidades
+ * @param productoId el id del producto
+ * @param unidades las unidades apartadas
+ * @param vence el momento en que la reserva se libera si no se confirma antes
+ */
+public record ReservaStock(
+        String carritoId,
+        Long productoId,
+        int unidades,
+        LocalDateTime vence
+) {
+}
@@ -0,0 +1,27 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+/**
+ * Resultado de aplicar un {@link AjusteStock}.
+ *
+ * @param productoId el id del producto
+ * @param cantidad la cantidad resultante si el ajuste se aplicó, null en caso contrario
+ * @param error el motivo por el que no se aplicó, null si se aplicó
+ */
+public record ResultadoAjusteStock(
+        Long productoId,
+        Integer cantidad,
+        String error
+) {
+
+    public static ResultadoAjusteStock aplicado(Long productoId, int cantidad) {
+        return new ResultadoAjusteStock(productoId, cantidad, null);
+    }
+
+    public static ResultadoAjusteStock rechazado(Long productoId, String error) {
+        return new ResultadoAjusteStock(productoId, null, error);
+    }
+
+    public boolean aplicado() {
+        return error == null;
+    }
+}
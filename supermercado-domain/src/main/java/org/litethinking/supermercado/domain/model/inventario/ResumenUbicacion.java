@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales del inventario guardado en una ubicación (pasillo, estante, bodega).
+ *
+ * @param ubicacion el nombre de la ubicación, o null para los registros sin ubicación
+ * @param registros la cantidad de registros de inventario
+ * @param unidades las unidades en stock
+ * @param valor el valor del stock a los precios actuales
+ * @param bajoStock los registros en o por debajo de su stock mínimo
+ */
+public record ResumenUbicacion(
+        String ubicacion,
+        Long registros,
+        Long unidades,
+        BigDecimal valor,
+        Long bajoStock
+) {
+}
@@ -0,0 +1,27 @@
+package org.litethinking.supermercado.domain.model.inventario;
+
+/**
+ * Causa de un movimiento de stock.
+ */
+public enum TipoMovimientoStock {
+
+    /**
+     * Unidades que salen por ventas en caja.
+     */
+    VENTA,
+
+    /**
+     * Unidades que entran al recibir mercancía.
+     */
+    RECEPCION,
+
+    /**
+     * Corrección manual: altas, bajas, conteos y cambios de cantidad.
+     */
+    AJUSTE,
+
+    /**
+     * Unidades que un cliente devuelve y vuelven al stock.
+     */
+    DEVOLUCION
+}
@@ -0,0 +1,93 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+import org.litethinking.supermercado.domain.model.Producto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Calcula precios con impuesto en aritmética de enteros sobre centavos, con el mismo resultado que
+ * {@link Producto#calcularPrecioConImpuesto(BigDecimal)}: el precio más el impuesto, redondeado a dos
+ * decimales con HALF_UP.
+ *
+ * <p>La tasa se prepara una sola vez como la fracción {@code (10^s + t) / 10^s}, donde {@code t / 10^s}
+ * es la tasa con sus {@code s} decimales. Así cada precio cuesta una multiplicación, una división y el
+ * redondeo. Si la tasa tiene demasiados decimales o el producto se sale de un long, se calcula con
+ * {@code BigDecimal}.</p>
+ */
+public final class CalculadoraImpuesto {
+
+    /**
+     * Con hasta 9 decimales el divisor cabe en un long y el doble del resto nunca se desborda.
+     */
+    private static final int ESCALA_MAXIMA = 9;
+
+    private final BigDecimal tasaImpuesto;
+    private final long multiplicador;
+    private final long divisor;
+    private final boolean enEnteros;
+
+    private CalculadoraImpuesto(BigDecimal tasaImpuesto) {
+        this.tasaImpuesto = tasaImpuesto;
+        BigDecimal normalizada = tasaImpuesto.stripTrailingZeros();
+        if (normalizada.scale() < 0) {
+            normalizada = normalizada.setScale(0);
+        }
+        long calculadoMultiplicador = 0;
+        long calculadoDivisor = 1;
+        boolean cabe = normalizada.scale() <= ESCALA_MAXIMA && normalizada.precision() <= 18;
+        if (cabe) {
+            calculadoDivisor = BigDecimal.ONE.scaleByPowerOfTen(normalizada.scale()).longValueExact();
+            calculadoMultiplicador = calculadoDivisor + normalizada.unscaledValue().longValueExact();
+        }
+        this.multiplicador = calculadoMultiplicador;
+        this.divisor = calculadoDivisor;
+        this.enEnteros = cabe;
+    }
+
+    /**
+     * Prepara la calculadora para una tasa.
+     *
+     * @param tasaImpuesto la tasa de impuesto, por ejemplo 0.19 para el 19%
+     * @return la calculadora
+     * @throws IllegalArgumentException si la tasa es nula o negativa
+     */
+    public static CalculadoraImpuesto de(BigDecimal tasaImpuesto) {
+        if (tasaImpuesto == null || tasaImpuesto.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("La tasa de impuesto no puede ser negativa");
+        }
+        return new CalculadoraImpuesto(tasaImpuesto);
+    }
+
+    public BigDecimal getTasaImpuesto() {
+        return tasaImpuesto;
+    }
+
+    /**
+     * Calcula el precio con impuesto.
+     *
+     * @param centavos el precio sin impuesto, en centavos
+     * @return el precio con impuesto, en centavos, redondeado con HALF_UP
+     */
+    public long aplicar(long centavos) {
+        if (enEnteros) {
+            try {
+                long escalado = Math.multiplyExact(centavos, multiplicador);
+                long cociente = escalado / divisor;
+                long resto = Math.abs(escalado % divisor);
+                // HALF_UP: la mitad exacta se redondea alejándose de cero
+                if (resto * 2 >= divisor) {
+                    cociente += Long.signum(escalado);
+                }
+                return cociente;
+            } catch (ArithmeticException e) {
+                // El precio es tan grande que no cabe escalado en un long; se calcula abajo
+            }
+        }
+        BigDecimal precio = BigDecimal.valueOf(centavos, 2);
+        return precio.add(precio.multiply(tasaImpuesto))
+                .setScale(2, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+}
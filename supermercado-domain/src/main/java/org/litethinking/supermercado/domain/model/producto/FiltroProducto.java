@@ -0,0 +1,41 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+import java.math.BigDecimal;
+
+/**
+ * Criterios para buscar productos. Todos son opcionales y los que vienen se combinan con AND.
+ *
+ * @param nombre un fragmento del nombre, sin distinguir mayúsculas
+ * @param categoria la categoría exacta
+ * @param precioMinimo el precio mínimo, incluido
+ * @param precioMaximo el precio máximo, incluido
+ * @param codigoBarras el código de barras exacto
+ */
+public record FiltroProducto(
+        String nombre,
+        String categoria,
+        BigDecimal precioMinimo,
+        BigDecimal precioMaximo,
+        String codigoBarras
+) {
+
+    /**
+     * @return true si no se indicó ningún criterio
+     */
+    public boolean estaVacio() {
+        return esBlanco(nombre) && esBlanco(categoria) && precioMinimo == null && precioMaximo == null
+                && esBlanco(codigoBarras);
+    }
+
+    /**
+     * @return true si el único criterio es el código de barras
+     */
+    public boolean soloCodigoBarras() {
+        return !esBlanco(codigoBarras) && esBlanco(nombre) && esBlanco(categoria)
+                && precioMinimo == null && precioMaximo == null;
+    }
+
+    private static boolean esBlanco(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
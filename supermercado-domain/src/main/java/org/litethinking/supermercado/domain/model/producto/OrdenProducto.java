@@ -0,0 +1,12 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+/**
+ * Campos por los que se puede ordenar una búsqueda de productos. Los empates se resuelven siempre por id,
+ * así una página no repite ni salta productos.
+ */
+public enum OrdenProducto {
+    ID,
+    NOMBRE,
+    PRECIO,
+    CATEGORIA
+}
@@ -0,0 +1,14 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+import org.litethinking.supermercado.domain.model.Producto;
+
+import java.util.List;
+
+/**
+ * Una página de productos y el total de productos que cumplen el filtro.
+ *
+ * @param productos los productos de la página
+ * @param totalElementos cuántos productos cumplen el filtro en todas las páginas
+ */
+public record PaginaProductos(List<Producto> productos, long totalElementos) {
+}
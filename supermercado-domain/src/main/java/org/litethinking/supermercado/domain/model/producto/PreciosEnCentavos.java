@@ -0,0 +1,22 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+/**
+ * Los precios de varios productos en centavos, como dos columnas paralelas: el precio de
+ * {@code productoIds[i]} es {@code centavos[i]}. Sirve para calcular sobre muchos precios a la vez
+ * sin crear un {@code BigDecimal} por producto.
+ *
+ * @param productoIds los ids de los productos
+ * @param centavos los precios en centavos, en el mismo orden
+ */
+public record PreciosEnCentavos(long[] productoIds, long[] centavos) {
+
+    public PreciosEnCentavos {
+        if (productoIds.length != centavos.length) {
+            throw new IllegalArgumentException("Las columnas de ids y precios deben tener el mismo tamaño");
+        }
+    }
+
+    public int tamano() {
+        return productoIds.length;
+    }
+}
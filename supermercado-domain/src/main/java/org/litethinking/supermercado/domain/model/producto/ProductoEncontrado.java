@@ -0,0 +1,12 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+import org.litethinking.supermercado.domain.model.Producto;
+
+/**
+ * Un producto devuelto por la búsqueda de texto, con su relevancia para la consulta.
+ *
+ * @param producto el producto encontrado
+ * @param relevancia qué tan bien coincide con la consulta; mayor es mejor
+ */
+public record ProductoEncontrado(Producto producto, double relevancia) {
+}
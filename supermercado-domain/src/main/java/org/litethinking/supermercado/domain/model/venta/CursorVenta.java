@@ -0,0 +1,23 @@
+package org.litethinking.supermercado.domain.model.venta;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición de una venta en el orden (fechaVenta, id) usado para paginar por keyset.
+ * La siguiente página empieza en la primera venta estrictamente posterior a esta posición.
+ *
+ * @param fechaVenta la fecha de la última venta de la página anterior
+ * @param id el id de la última venta de la página anterior
+ */
+public record CursorVenta(LocalDateTime fechaVenta, Long id) {
+
+    /**
+     * Crea el cursor que apunta justo después de la venta dada.
+     *
+     * @param venta la última venta de una página
+     * @return el cursor de la página siguiente
+     */
+    public static CursorVenta despuesDe(Venta venta) {
+        return new CursorVenta(venta.getFechaVenta(), venta.getId());
+    }
+}
@@ -0,0 +1,22 @@
+package org.litethinking.supermercado.domain.model.venta;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totales de ventas de un día para un método de pago.
+ *
+ * @param fecha el día
+ * @param metodoPago el método de pago, vacío para las ventas sin método
+ * @param cantidadVentas la cantidad de ventas
+ * @param montoTotal la suma de los montos totales
+ * @param cantidadArticulos la suma de las unidades vendidas
+ */
+public record ResumenVentaDiario(
+        LocalDate fecha,
+        String metodoPago,
+        long cantidadVentas,
+        BigDecimal montoTotal,
+        long cantidadArticulos
+) {
+}
@@ -0,0 +1,13 @@
+package org.litethinking.supermercado.domain.model.venta;
+
+/**
+ * Unidades vendidas de un producto en un período.
+ *
+ * @param productoId el id del producto
+ * @param unidades la suma de las cantidades de sus items de venta
+ */
+public record UnidadesVendidasProducto(
+        Long productoId,
+        Long unidades
+) {
+}
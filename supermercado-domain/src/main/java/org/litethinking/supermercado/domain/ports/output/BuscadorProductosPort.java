@@ -0,0 +1,22 @@
+package org.litethinking.supermercado.domain.ports.output;
+
+import org.litethinking.supermercado.domain.model.producto.ProductoEncontrado;
+
+import java.util.List;
+
+/**
+ * Puerto secundario (salida) para la búsqueda de productos por texto libre.
+ * La búsqueda mira el nombre, la descripción y la categoría, no distingue mayúsculas ni tildes,
+ * acepta palabras incompletas y alguna errata.
+ */
+public interface BuscadorProductosPort {
+
+    /**
+     * Busca los productos que contienen todas las palabras del texto.
+     *
+     * @param texto las palabras a buscar
+     * @param limite cuántos productos devolver como máximo
+     * @return los productos encontrados, del más relevante al menos relevante
+     */
+    List<ProductoEncontrado> buscar(String texto, int limite);
+}
@@ -1,6 +1,7 @@
 package org.litethinking.supermercado.domain.ports.output;
 
 import org.litethinking.supermercado.domain.model.Cajero;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
 
 import java.util.List;
 import java.util.Optional;
@@ -56,4 +57,13 @@ public interface RepositorioCajeroPort {
      * @return la lista de cajeros de ese turno
      */
     List<Cajero> findByTurno(String turno);
+
+    /**
+     * Guarda un lote de cajeros buscándolos por código: los que ya existen se actualizan y los demás se
+     * crean, con inserciones por lotes. Los códigos del lote no se repiten.
+     *
+     * @param cajeros los cajeros, todos con código
+     * @return cuántos se crearon y cuántos se actualizaron
+     */
+    ResultadoLoteImportacion guardarLotePorCodigo(List<Cajero> cajeros);
 }
@@ -1,6 +1,7 @@
 package org.litethinking.supermercado.domain.ports.output;
 
 import org.litethinking.supermercado.domain.model.Cliente;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
 
 import java.util.List;
 import java.util.Optional;
@@ -56,4 +57,13 @@ public interface RepositorioClientePort {
      * @return la lista de clientes con nombres coincidentes
      */
     List<Cliente> findByNombreContaining(String nombre);
-}
\ No newline at end of file
+
+    /**
+     * Guarda un lote de clientes buscándolos por email: los que ya existen se actualizan y los demás se
+     * crean, con inserciones por lotes. Los emails del lote no se repiten.
+     *
+     * @param clientes los clientes, todos con email
+     * @return cuántos se crearon y cuántos se actualizaron
+     */
+    ResultadoLoteImportacion guardarLotePorEmail(List<Cliente> clientes);
+}
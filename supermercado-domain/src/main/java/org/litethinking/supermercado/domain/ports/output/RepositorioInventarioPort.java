@@ -1,10 +1,16 @@
 package org.litethinking.supermercado.domain.ports.output;
 
 import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.AjusteStock;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.inventario.ResumenUbicacion;
+import org.litethinking.supermercado.domain.model.inventario.ResultadoAjusteStock;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Puerto secundario (salida) para operaciones de persistencia de Inventario.
@@ -35,6 +41,14 @@ public interface RepositorioInventarioPort {
      */
     List<Inventario> findAll();
     
+    /**
+     * Recorre todos los registros de inventario en orden de id, entregándolos uno a uno con su producto.
+     * Los registros se leen de forma incremental, sin cargar el inventario completo en memoria.
+     *
+     * @param consumidor recibe cada registro de inventario, en orden
+     */
+    void recorrerInventarios(Consumer<Inventario> consumidor);
+    
     /**
      * Elimina un registro de inventario por su id.
      *
@@ -50,6 +64,14 @@ public interface RepositorioInventarioPort {
      */
     Optional<Inventario> findByProducto(Producto producto);
     
+    /**
+     * Busca el registro de inventario de un producto por el id del producto.
+     *
+     * @param productoId el id del producto
+     * @return el inventario si se encuentra, vacío en caso contrario
+     */
+    Optional<Inventario> findByProductoId(Long productoId);
+
     /**
      * Busca registros de inventario con bajo stock.
      *
@@ -64,4 +86,59 @@ public interface RepositorioInventarioPort {
      * @return la lista de registros de inventario en la ubicación
      */
     List<Inventario> findByUbicacion(String ubicacion);
-}
\ No newline at end of file
+
+    /**
+     * Busca la posición de stock de todos los productos con inventario, sin cargar los registros completos.
+     *
+     * @return una posición por registro de inventario
+     */
+    List<PosicionStock> findPosicionesStock();
+
+    /**
+     * Obtiene los totales del inventario por ubicación: registros, unidades, valor y registros con bajo stock.
+     *
+     * @return un resumen por ubicación con inventario
+     */
+    List<ResumenUbicacion> findResumenPorUbicacion();
+    
+    /**
+     * Descuenta stock de un producto de forma atómica, sin leer antes el registro.
+     * Solo descuenta si la cantidad disponible alcanza.
+     *
+     * @param productoId el id del producto
+     * @param cantidad las unidades a descontar
+     * @return true si se descontó, false si no hay inventario o el stock no alcanza
+     */
+    boolean descontarStock(Long productoId, int cantidad);
+
+    /**
+     * Descuenta stock de un producto de forma atómica sin tocar las unidades reservadas por otros carritos.
+     * Solo descuenta si la cantidad menos las unidades reservadas alcanza.
+     *
+     * @param productoId el id del producto
+     * @param cantidad las unidades a descontar
+     * @param unidadesReservadas las unidades del producto que otros carritos tienen apartadas
+     * @return true si se descontó, false si no hay inventario o el stock libre no alcanza
+     */
+    boolean descontarStock(Long productoId, int cantidad, int unidadesReservadas);
+
+    /**
+     * Aplica ajustes relativos de stock en una sola transacción, en el orden recibido.
+     * Un ajuste sin inventario para su producto, o que dejaría el stock en negativo, se rechaza
+     * sin afectar a los demás.
+     *
+     * @param ajustes los ajustes a aplicar
+     * @return un resultado por ajuste, en el mismo orden
+     */
+    List<ResultadoAjusteStock> ajustarStockEnLote(List<AjusteStock> ajustes);
+
+    /**
+     * Guarda un lote de registros de inventario buscándolos por producto, que es único: los que ya existen
+     * se reemplazan y los demás se crean, con inserciones por lotes. Cada producto se indica por su id y no
+     * se repite en el lote. Los registros cuyo producto no existe se rechazan sin afectar al resto.
+     *
+     * @param inventarios los registros de inventario
+     * @return cuántos se crearon, cuántos se reemplazaron y cuáles se rechazaron
+     */
+    ResultadoLoteImportacion guardarLotePorProducto(List<Inventario> inventarios);
+}
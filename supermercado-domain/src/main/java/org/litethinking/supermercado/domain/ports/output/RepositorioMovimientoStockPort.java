@@ -0,0 +1,33 @@
+package org.litethinking.supermercado.domain.ports.output;
+
+import org.litethinking.supermercado.domain.model.inventario.HistorialStock;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Puerto secundario (salida) para consultar el historial de movimientos de stock.
+ * Los movimientos los registra el adaptador de inventario con cada cambio de cantidad; este puerto solo lee.
+ */
+public interface RepositorioMovimientoStockPort {
+
+    /**
+     * Calcula el stock que tenía un producto en un instante.
+     *
+     * @param productoId el id del producto
+     * @param instante el momento a consultar
+     * @return el stock en ese instante, o vacío si el producto no tenía movimientos hasta entonces
+     */
+    Optional<Integer> findCantidadEn(Long productoId, LocalDateTime instante);
+
+    /**
+     * Busca los movimientos de stock de un producto en un intervalo.
+     *
+     * @param productoId el id del producto
+     * @param desde el comienzo del intervalo, excluido
+     * @param hasta el final del intervalo, incluido
+     * @param limite la cantidad máxima de movimientos a devolver
+     * @return el stock al comienzo del intervalo y los movimientos, del más antiguo al más reciente
+     */
+    HistorialStock findHistorial(Long productoId, LocalDateTime desde, LocalDateTime hasta, int limite);
+}
@@ -1,10 +1,18 @@
 package org.litethinking.supermercado.domain.ports.output;
 
 import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.domain.model.producto.OrdenProducto;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
+import org.litethinking.supermercado.domain.model.producto.PreciosEnCentavos;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Puerto secundario (salida) para operaciones de persistencia de Producto.
@@ -66,4 +74,85 @@ public interface RepositorioProductoPort {
      * @return el producto si se encuentra, vacío en caso contrario
      */
     Optional<Producto> findByCodigoBarras(String codigoBarras);
+
+    /**
+     * Busca los ids de los productos de varios códigos de barras con una sola consulta.
+     *
+     * @param codigosBarras los códigos de barras a buscar
+     * @return el id de cada código de barras encontrado; los que no existen no aparecen
+     */
+    Map<String, Long> findIdsByCodigosBarras(Collection<String> codigosBarras);
+
+    /**
+     * Busca los productos que cumplen todos los criterios del filtro, ordenados por id.
+     *
+     * @param filtro los criterios a combinar
+     * @return los productos que cumplen el filtro
+     */
+    List<Producto> findByFiltro(FiltroProducto filtro);
+
+    /**
+     * Busca una página de los productos que cumplen todos los criterios del filtro.
+     *
+     * @param filtro los criterios a combinar
+     * @param pagina el número de página, empezando en 0
+     * @param tamano cuántos productos trae la página
+     * @param orden el campo por el que se ordena
+     * @param descendente true para ordenar de mayor a menor
+     * @return la página y el total de productos que cumplen el filtro
+     */
+    PaginaProductos findPaginaByFiltro(FiltroProducto filtro, int pagina, int tamano, OrdenProducto orden,
+                                       boolean descendente);
+
+    /**
+     * Busca una página de los productos con precio dentro del rango, del más barato al más caro.
+     * La primera página de una categoría sin rango son sus productos más baratos.
+     *
+     * @param precioMinimo el precio mínimo, incluido; null para no limitarlo
+     * @param precioMaximo el precio máximo, incluido; null para no limitarlo
+     * @param categoria la categoría; null para todas
+     * @param pagina el número de página, empezando en 0
+     * @param tamano cuántos productos trae la página
+     * @return la página y el total de productos en el rango
+     */
+    PaginaProductos findPaginaByPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria,
+                                       int pagina, int tamano);
+
+    /**
+     * Cuenta los productos con precio dentro del rango.
+     *
+     * @param precioMinimo el precio mínimo, incluido; null para no limitarlo
+     * @param precioMaximo el precio máximo, incluido; null para no limitarlo
+     * @param categoria la categoría; null para todas
+     * @return cuántos productos hay en el rango
+     */
+    long countByPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria);
+
+    /**
+     * Lee los precios en centavos de varios productos como columnas, para cálculos por lote.
+     * Si se dan ids, trae esos productos en ese orden y omite los que no existen; si no, trae los de la
+     * categoría, o todo el catálogo si la categoría es null, del más barato al más caro.
+     *
+     * @param categoria la categoría; null para todas
+     * @param productoIds los ids de los productos; null para usar la categoría
+     * @return los ids y sus precios en centavos
+     */
+    PreciosEnCentavos findPreciosEnCentavos(String categoria, List<Long> productoIds);
+
+    /**
+     * Recorre todos los productos en orden de id, entregándolos uno a uno.
+     * Los productos se leen de forma incremental, sin cargar el catálogo completo en memoria.
+     *
+     * @param consumidor recibe cada producto, en orden
+     */
+    void recorrerProductos(Consumer<Producto> consumidor);
+
+    /**
+     * Guarda un lote de productos buscándolos por código de barras: los que ya existen se actualizan y los
+     * demás se crean, con inserciones por lotes. Los códigos de barras del lote no se repiten.
+     *
+     * @param productos los productos, todos con código de barras
+     * @return cuántos se crearon y cuántos se actualizaron
+     */
+    ResultadoLoteImportacion guardarLotePorCodigoBarras(List<Producto> productos);
 }
@@ -0,0 +1,96 @@
+package org.litethinking.supermercado.domain.ports.output;
+
+import org.litethinking.supermercado.domain.model.inventario.ReservaStock;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Puerto secundario (salida) para las reservas de stock de los carritos.
+ * Las reservas no tocan la cantidad del inventario: solo apartan unidades que los demás carritos no pueden vender
+ * hasta que la reserva se confirma con la venta, se libera o vence.
+ */
+public interface RepositorioReservaStockPort {
+
+    /**
+     * Aparta unidades de un producto para un carrito. Si el carrito ya tenía una reserva del producto,
+     * la nueva la reemplaza y vuelve a contar su duración. El stock se lee dentro de la misma sección crítica
+     * que cuenta las reservas y las unidades que las ventas en curso están descontando, para que una venta que
+     * termina en medio no deje contar con unidades que ya vendió.
+     *
+     * @param carritoId el id del carrito
+     * @param productoId el id del producto
+     * @param unidades las unidades a apartar
+     * @param cantidadEnStock lee el stock actual del producto
+     * @param duracion el tiempo que vive la reserva
+     * @return la reserva, o vacío si el stock no reservado por otros carritos ni tomado por ventas en curso no alcanza
+     */
+    Optional<ReservaStock> reservar(String carritoId, Long productoId, int unidades, IntSupplier cantidadEnStock,
+                                    Duration duracion);
+
+    /**
+     * Busca las reservas vivas de un carrito.
+     *
+     * @param carritoId el id del carrito
+     * @return las reservas del carrito, ordenadas por producto
+     */
+    List<ReservaStock> findByCarritoId(String carritoId);
+
+    /**
+     * Obtiene las unidades reservadas de un producto por todos los carritos.
+     *
+     * @param productoId el id del producto
+     * @return las unidades reservadas, 0 si no hay reservas
+     */
+    int unidadesReservadas(Long productoId);
+
+    /**
+     * Obtiene las unidades reservadas de un producto por los carritos distintos del indicado.
+     *
+     * @param productoId el id del producto
+     * @param carritoId el carrito cuyas reservas no cuentan, o null para contarlas todas
+     * @return las unidades reservadas por otros carritos
+     */
+    int unidadesReservadasExcepto(Long productoId, String carritoId);
+
+    /**
+     * Aparta las unidades que una venta va a descontar de un producto y devuelve, en el mismo instante, las
+     * unidades reservadas por los carritos distintos del de la venta. Mientras la transacción de la venta siga
+     * abierta, las unidades apartadas no se pueden reservar aunque el descuento todavía no se vea en el stock;
+     * se sueltan cuando la transacción termina, se confirme o se revierta. Sin transacción no se aparta nada.
+     *
+     * @param productoId el id del producto
+     * @param carritoId el carrito de la venta, o null si la venta no viene de un carrito
+     * @param unidades las unidades que la venta va a descontar
+     * @return las unidades reservadas por otros carritos, que la venta no puede tomar
+     */
+    int apartarParaVenta(Long productoId, String carritoId, int unidades);
+
+    /**
+     * Obtiene las unidades reservadas de varios productos de una vez.
+     *
+     * @param productoIds los ids de los productos
+     * @return las unidades reservadas por producto; los productos sin reservas no aparecen
+     */
+    Map<Long, Integer> unidadesReservadas(Collection<Long> productoIds);
+
+    /**
+     * Libera en el acto todas las reservas de un carrito.
+     *
+     * @param carritoId el id del carrito
+     * @return las reservas liberadas
+     */
+    List<ReservaStock> liberar(String carritoId);
+
+    /**
+     * Confirma las reservas de un carrito cuya venta ya descontó el stock. Las reservas se liberan cuando la
+     * transacción en curso se confirma; si se revierte, siguen vivas hasta que venzan.
+     *
+     * @param carritoId el id del carrito
+     */
+    void confirmar(String carritoId);
+}
@@ -1,11 +1,16 @@
 package org.litethinking.supermercado.domain.ports.output;
 
+import org.litethinking.supermercado.domain.model.venta.CursorVenta;
+import org.litethinking.supermercado.domain.model.venta.ResumenVentaDiario;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
 import org.litethinking.supermercado.domain.model.venta.Venta;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Puerto secundario (salida) para operaciones de persistencia de Venta.
@@ -21,6 +26,15 @@ public interface RepositorioVentaPort {
      */
     Venta save(Venta venta);
     
+    /**
+     * Guarda varias ventas en una sola operación por lotes.
+     * Si alguna venta falla, no se guarda ninguna del lote.
+     *
+     * @param ventas las ventas a guardar
+     * @return las ventas guardadas, en el mismo orden en que se recibieron
+     */
+    List<Venta> saveAll(List<Venta> ventas);
+    
     /**
      * Busca una venta por su id.
      *
@@ -75,4 +89,75 @@ public interface RepositorioVentaPort {
      * @return la lista de ventas con el método de pago
      */
     List<Venta> findByMetodoPago(String metodoPago);
-}
\ No newline at end of file
+    
+    /**
+     * Busca una página de ventas ordenadas por (fechaVenta, id).
+     * El costo de cada página no depende de su profundidad, porque se busca por keyset y no por offset.
+     *
+     * @param despuesDe la posición de la última venta de la página anterior, o null para la primera página
+     * @param limite el máximo de ventas a devolver
+     * @return las ventas de la página, con sus items
+     */
+    List<Venta> findPagina(CursorVenta despuesDe, int limite);
+    
+    /**
+     * Busca una página de ventas en un rango de fecha, ordenadas por (fechaVenta, id).
+     *
+     * @param fechaInicio la fecha de inicio
+     * @param fechaFin la fecha de fin
+     * @param despuesDe la posición de la última venta de la página anterior, o null para la primera página
+     * @param limite el máximo de ventas a devolver
+     * @return las ventas de la página, con sus items
+     */
+    List<Venta> findPaginaByFechaVentaBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin, CursorVenta despuesDe, int limite);
+    
+    /**
+     * Busca una página de ventas de un cliente, ordenadas por (fechaVenta, id).
+     *
+     * @param nombreCliente el nombre del cliente a buscar
+     * @param despuesDe la posición de la última venta de la página anterior, o null para la primera página
+     * @param limite el máximo de ventas a devolver
+     * @return las ventas de la página, con sus items
+     */
+    List<Venta> findPaginaByNombreCliente(String nombreCliente, CursorVenta despuesDe, int limite);
+    
+    /**
+     * Busca una página de ventas con un método de pago, ordenadas por (fechaVenta, id).
+     *
+     * @param metodoPago el método de pago a buscar
+     * @param despuesDe la posición de la última venta de la página anterior, o null para la primera página
+     * @param limite el máximo de ventas a devolver
+     * @return las ventas de la página, con sus items
+     */
+    List<Venta> findPaginaByMetodoPago(String metodoPago, CursorVenta despuesDe, int limite);
+    
+    /**
+     * Recorre las ventas de un rango de fecha en orden (fechaVenta, id), entregándolas una a una.
+     * Las ventas se leen de forma incremental, sin cargar el rango completo en memoria.
+     *
+     * @param fechaInicio la fecha de inicio
+     * @param fechaFin la fecha de fin
+     * @param consumidor recibe cada venta con sus items, en orden
+     */
+    void recorrerVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin, Consumer<Venta> consumidor);
+    
+    /**
+     * Busca los totales diarios por método de pago de un rango de días.
+     * Los totales se mantienen al guardar y eliminar ventas, así que el costo depende de la cantidad
+     * de días del rango y no de la cantidad de ventas.
+     *
+     * @param desde el primer día del rango
+     * @param hasta el último día del rango
+     * @return los totales de cada día y método de pago con ventas, ordenados por día
+     */
+    List<ResumenVentaDiario> findResumenDiarioEntreFechas(LocalDate desde, LocalDate hasta);
+    
+    /**
+     * Suma las unidades vendidas de cada producto desde una fecha.
+     * La suma la hace la base de datos, así que no se cargan las ventas ni sus items.
+     *
+     * @param desde el inicio del período
+     * @return las unidades de cada producto con ventas en el período
+     */
+    List<UnidadesVendidasProducto> findUnidadesVendidasPorProductoDesde(LocalDateTime desde);
+}
@@ -0,0 +1,93 @@
+package org.litethinking.supermercado.domain.model.producto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.litethinking.supermercado.domain.model.Producto;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para CalculadoraImpuesto.
+ * Verifica que el cálculo en centavos da lo mismo que el cálculo de Producto con BigDecimal.
+ */
+public class CalculadoraImpuestoTest {
+
+    @Test
+    @DisplayName("Debería calcular el precio con impuesto en centavos")
+    public void testAplicar() {
+        // Arrange
+        CalculadoraImpuesto calculadora = CalculadoraImpuesto.de(new BigDecimal("0.16"));
+
+        // Act & Assert
+        assertEquals(11600L, calculadora.aplicar(10000L));
+        assertEquals(0L, calculadora.aplicar(0L));
+    }
+
+    @Test
+    @DisplayName("Debería redondear la mitad exacta hacia arriba")
+    public void testRedondeoHalfUp() {
+        // Arrange
+        CalculadoraImpuesto calculadora = CalculadoraImpuesto.de(new BigDecimal("0.05"));
+
+        // Act & Assert
+        assertEquals(1L, calculadora.aplicar(1L));   // 0.0105 -> 0.01
+        assertEquals(32L, calculadora.aplicar(30L)); // 0.315  -> 0.32
+        assertEquals(30L, calculadora.aplicar(29L)); // 0.3045 -> 0.30
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.19", "0.125", "0.0825", "1", "1E+1", "0.190000", "0.333333333333"})
+    @DisplayName("Debería coincidir con Producto.calcularPrecioConImpuesto")
+    public void testCoincideConProducto(String tasa) {
+        // Arrange
+        BigDecimal tasaImpuesto = new BigDecimal(tasa);
+        CalculadoraImpuesto calculadora = CalculadoraImpuesto.de(tasaImpuesto);
+        Random aleatorio = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            long centavos = i < 1000 ? i : aleatorio.nextInt(1_000_000_000);
+            Producto producto = Producto.builder()
+                    .id(1L)
+                    .nombre("Producto Test")
+                    .precio(BigDecimal.valueOf(centavos, 2))
+                    .categoria("Alimentos")
+                    .build();
+
+            // Act
+            long resultado = calculadora.aplicar(centavos);
+
+            // Assert
+            assertEquals(producto.calcularPrecioConImpuesto(tasaImpuesto), BigDecimal.valueOf(resultado, 2),
+                    "precio " + BigDecimal.valueOf(centavos, 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Debería calcular precios que no caben escalados en un long")
+    public void testPrecioMuyGrande() {
+        // Arrange
+        CalculadoraImpuesto calculadora = CalculadoraImpuesto.de(new BigDecimal("0.19"));
+        long centavos = Long.MAX_VALUE / 100;
+
+        // Act
+        long resultado = calculadora.aplicar(centavos);
+
+        // Assert
+        BigDecimal precio = BigDecimal.valueOf(centavos, 2);
+        assertEquals(precio.add(precio.multiply(new BigDecimal("0.19"))).setScale(2, java.math.RoundingMode.HALF_UP),
+                BigDecimal.valueOf(resultado, 2));
+    }
+
+    @Test
+    @DisplayName("Debería lanzar excepción cuando la tasa de impuesto es negativa o nula")
+    public void testTasaInvalida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CalculadoraImpuesto.de(new BigDecimal("-0.16")));
+        assertThrows(IllegalArgumentException.class, () -> CalculadoraImpuesto.de(null));
+    }
+}
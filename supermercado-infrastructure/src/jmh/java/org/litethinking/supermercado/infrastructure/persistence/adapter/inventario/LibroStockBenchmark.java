@@ -0,0 +1,78 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrement throughput of {@link LibroStock} as threads are added, with a single stripe
+ * (one global lock) against the default striping.
+ *
+ * <p>Run with {@code mvn -P benchmark -pl supermercado-infrastructure test-compile exec:exec}
+ * after installing the other modules.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibroStockBenchmark {
+
+    private static final int PRODUCTOS = 10_000;
+
+    @Param({"1", "64"})
+    public int franjas;
+
+    private LibroStock libro;
+
+    @Setup
+    public void preparar() {
+        libro = new LibroStock(franjas);
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            libro.cargar(id, Integer.MAX_VALUE);
+        }
+    }
+
+    @Benchmark
+    public int descontar() {
+        return libro.descontar(1 + ThreadLocalRandom.current().nextInt(PRODUCTOS), 1);
+    }
+
+    @Benchmark
+    public int consultar() {
+        return libro.cantidad(1 + ThreadLocalRandom.current().nextInt(PRODUCTOS));
+    }
+
+    /**
+     * Runs the benchmarks with 1, 2, 4... threads up to the number of available cores.
+     */
+    public static void main(String[] args) throws RunnerException {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; hilos <= nucleos; hilos = hilos < nucleos && hilos * 2 > nucleos ? nucleos : hilos * 2) {
+            Options opciones = new OptionsBuilder()
+                    .include(LibroStockBenchmark.class.getSimpleName())
+                    .threads(hilos)
+                    .build();
+            new Runner(opciones).run();
+            if (hilos == nucleos) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package org.litethinking.supermercado.infrastructure.busqueda;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.domain.model.producto.ProductoEncontrado;
+import org.litethinking.supermercado.domain.ports.output.BuscadorProductosPort;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.carga.EscriturasDuranteCarga;
+import org.litethinking.supermercado.infrastructure.persistence.repository.EspecificacionesProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the name, description and category of every product, kept current by
+ * the product adapter after each committed create, update and delete.
+ *
+ * <p>Each term maps to a posting list of internal document numbers, sorted so the lists of the query terms
+ * are intersected with a linear merge, and the fields the term appears in. Terms are accent-folded by
+ * {@link NormalizadorTexto}. Each query term matches the same term, up to {@value #MAXIMO_EXPANSIONES} terms it
+ * is a prefix of, and, from {@value #LONGITUD_MINIMA_ERRATA} characters, the terms one edit away; the
+ * typo candidates come from a map of every term's single-character deletions, so they are found without
+ * scanning the vocabulary. Every query term must match.</p>
+ *
+ * <p>A product scores, for each query term, the best of its matches: the match weight (exact, prefix or
+ * typo) times the weight of the fields (name over category over description) times the inverse document
+ * frequency of the term. The scores add up over the query terms.</p>
+ *
+ * <p>The index is loaded from the database once at startup; until then searches run as a name LIKE
+ * query on the database. Writes that arrive while the products are read are held by
+ * {@link EscriturasDuranteCarga} and applied on top of them.</p>
+ */
+@Component
+public class IndiceBusquedaProductos implements BuscadorProductosPort, ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(IndiceBusquedaProductos.class);
+
+    private static final byte CAMPO_NOMBRE = 1;
+    private static final byte CAMPO_CATEGORIA = 2;
+    private static final byte CAMPO_DESCRIPCION = 4;
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_CATEGORIA = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    private static final float PESO_EXACTO = 1f;
+    private static final float PESO_PREFIJO = 0.7f;
+    private static final float PESO_ERRATA = 0.5f;
+    static final int MAXIMO_EXPANSIONES = 50;
+    static final int LONGITUD_MINIMA_PREFIJO = 3;
+    static final int LONGITUD_MINIMA_ERRATA = 4;
+
+    private final RepositorioJpaProducto repositorioJpaProducto;
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postingsPorTermino = new TreeMap<>();
+    private final Map<String, List<String>> terminosPorBorrado = new HashMap<>();
+    private final Map<Long, Integer> documentoPorProducto = new HashMap<>();
+    private final Deque<Integer> documentosLibres = new ArrayDeque<>();
+    private final EscriturasDuranteCarga carga = new EscriturasDuranteCarga();
+    private Documento[] documentos = new Documento[1024];
+    private int siguienteDocumento;
+
+    public IndiceBusquedaProductos(RepositorioJpaProducto repositorioJpaProducto) {
+        this.repositorioJpaProducto = repositorioJpaProducto;
+    }
+
+    /**
+     * Loads the products that were not registered yet by a write since the application started, then applies
+     * the writes committed while they were read.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        carga.iniciar();
+        List<EntidadJpaProducto> productos = repositorioJpaProducto.findAll();
+        bloqueo.writeLock().lock();
+        try {
+            for (EntidadJpaProducto producto : productos) {
+                if (!documentoPorProducto.containsKey(producto.getId())) {
+                    poner(new Documento(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                            producto.getPrecio(), producto.getCategoria(), producto.getCodigoBarras()));
+                }
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        carga.terminar();
+        logger.info("Product search index loaded with {} products and {} terms in {} ms",
+                documentoPorProducto.size(), postingsPorTermino.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 17;
+    }
+
+    @Override
+    public List<ProductoEncontrado> buscar(String texto, int limite) {
+        if (!carga.terminada()) {
+            return buscarEnBaseDeDatos(texto, limite);
+        }
+        Set<String> terminos = new LinkedHashSet<>(NormalizadorTexto.terminos(texto));
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+
+        bloqueo.readLock().lock();
+        try {
+            double totalDocumentos = documentoPorProducto.size();
+            Candidatos acumulados = null;
+            for (String termino : terminos) {
+                Candidatos candidatos = candidatos(termino, totalDocumentos);
+                acumulados = acumulados == null ? candidatos : acumulados.intersectar(candidatos);
+                if (acumulados.tamano == 0) {
+                    return List.of();
+                }
+            }
+            return mejores(acumulados, limite);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the committed state of a product, replacing its previous terms.
+     */
+    public void registrar(Producto producto) {
+        Documento documento = new Documento(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getCategoria(), producto.getCodigoBarras());
+        carga.escribir(() -> {
+            bloqueo.writeLock().lock();
+            try {
+                poner(documento);
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops a deleted product.
+     */
+    public void eliminar(Long productoId) {
+        carga.escribir(() -> {
+            bloqueo.writeLock().lock();
+            try {
+                Integer numero = documentoPorProducto.remove(productoId);
+                if (numero != null) {
+                    quitarTerminos(numero, documentos[numero]);
+                    documentos[numero] = null;
+                    documentosLibres.push(numero);
+                }
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+        });
+    }
+
+    int cantidadTerminos() {
+        bloqueo.readLock().lock();
+        try {
+            return postingsPorTermino.size();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces a product. Called with the write lock held.
+     */
+    private void poner(Documento documento) {
+        Integer numero = documentoPorProducto.get(documento.id());
+        if (numero != null) {
+            quitarTerminos(numero, documentos[numero]);
+        } else {
+            numero = documentosLibres.isEmpty() ? siguienteDocumento++ : documentosLibres.pop();
+            if (numero == documentos.length) {
+                documentos = Arrays.copyOf(documentos, documentos.length * 2);
+            }
+            documentoPorProducto.put(documento.id(), numero);
+        }
+        documentos[numero] = documento;
+        for (Map.Entry<String, Byte> termino : camposPorTermino(documento).entrySet()) {
+            Postings postings = postingsPorTermino.get(termino.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                postingsPorTermino.put(termino.getKey(), postings);
+                for (String borrado : borrados(termino.getKey())) {
+                    terminosPorBorrado.computeIfAbsent(borrado, clave -> new ArrayList<>(1)).add(termino.getKey());
+                }
+            }
+            postings.agregar(numero, termino.getValue());
+        }
+    }
+
+    private void quitarTerminos(int numero, Documento documento) {
+        for (String termino : camposPorTermino(documento).keySet()) {
+            Postings postings = postingsPorTermino.get(termino);
+            if (postings != null && postings.quitar(numero) && postings.tamano == 0) {
+                postingsPorTermino.remove(termino);
+                for (String borrado : borrados(termino)) {
+                    List<String> terminosDelBorrado = terminosPorBorrado.get(borrado);
+                    if (terminosDelBorrado != null) {
+                        terminosDelBorrado.remove(termino);
+                        if (terminosDelBorrado.isEmpty()) {
+                            terminosPorBorrado.remove(borrado);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Every (document, score) pair of the documents matching one query term, reduced to the best score per document.
+     */
+    private Candidatos candidatos(String termino, double totalDocumentos) {
+        List<Candidatos> listas = new ArrayList<>();
+        Postings exacto = postingsPorTermino.get(termino);
+        if (exacto != null) {
+            listas.add(Candidatos.de(exacto, PESO_EXACTO, totalDocumentos));
+        }
+        if (termino.length() >= LONGITUD_MINIMA_PREFIJO) {
+            NavigableMap<String, Postings> conPrefijo =
+                    postingsPorTermino.subMap(termino, false, termino + Character.MAX_VALUE, false);
+            int expansiones = 0;
+            for (Postings postings : conPrefijo.values()) {
+                if (expansiones++ == MAXIMO_EXPANSIONES) {
+                    break;
+                }
+                listas.add(Candidatos.de(postings, PESO_PREFIJO, totalDocumentos));
+            }
+        }
+        if (termino.length() >= LONGITUD_MINIMA_ERRATA) {
+            Set<String> vistos = new LinkedHashSet<>();
+            for (String borrado : borrados(termino)) {
+                for (String parecido : terminosPorBorrado.getOrDefault(borrado, Collections.emptyList())) {
+                    if (!parecido.startsWith(termino) && vistos.add(parecido)
+                            && NormalizadorTexto.aUnaEdicion(termino, parecido)) {
+                        listas.add(Candidatos.de(postingsPorTermino.get(parecido), PESO_ERRATA, totalDocumentos));
+                    }
+                }
+            }
+        }
+        return Candidatos.unir(listas);
+    }
+
+    private List<ProductoEncontrado> mejores(Candidatos candidatos, int limite) {
+        // Min-heap of the best so far: the root is the lowest score, or the highest product id on a tie
+        Comparator<Integer> orden = (a, b) -> {
+            int porPuntaje = Float.compare(candidatos.puntajes[a], candidatos.puntajes[b]);
+            return porPuntaje != 0 ? porPuntaje
+                    : Long.compare(documentos[candidatos.documentos[b]].id(), documentos[candidatos.documentos[a]].id());
+        };
+        PriorityQueue<Integer> mejores = new PriorityQueue<>(limite + 1, orden);
+        for (int i = 0; i < candidatos.tamano; i++) {
+            if (mejores.size() < limite) {
+                mejores.add(i);
+            } else if (candidatos.puntajes[i] >= candidatos.puntajes[mejores.peek()] && orden.compare(i, mejores.peek()) > 0) {
+                mejores.poll();
+                mejores.add(i);
+            }
+        }
+        ProductoEncontrado[] encontrados = new ProductoEncontrado[mejores.size()];
+        for (int i = encontrados.length - 1; i >= 0; i--) {
+            int indice = mejores.poll();
+            encontrados[i] = new ProductoEncontrado(documentos[candidatos.documentos[indice]].aDominio(),
+                    candidatos.puntajes[indice]);
+        }
+        return Arrays.asList(encontrados);
+    }
+
+    private List<ProductoEncontrado> buscarEnBaseDeDatos(String texto, int limite) {
+        FiltroProducto filtro = new FiltroProducto(texto.trim(), null, null, null, null);
+        return repositorioJpaProducto.findAll(EspecificacionesProducto.de(filtro),
+                        PageRequest.of(0, limite, Sort.by("nombre", "id"))).stream()
+                .map(producto -> new ProductoEncontrado(new Documento(producto.getId(), producto.getNombre(),
+                        producto.getDescripcion(), producto.getPrecio(), producto.getCategoria(),
+                        producto.getCodigoBarras()).aDominio(), 0))
+                .toList();
+    }
+
+    private static Map<String, Byte> camposPorTermino(Documento documento) {
+        Map<String, Byte> campos = new LinkedHashMap<>();
+        marcar(campos, documento.nombre(), CAMPO_NOMBRE);
+        marcar(campos, documento.categoria(), CAMPO_CATEGORIA);
+        marcar(campos, documento.descripcion(), CAMPO_DESCRIPCION);
+        return campos;
+    }
+
+    private static void marcar(Map<String, Byte> campos, String texto, byte campo) {
+        for (String termino : NormalizadorTexto.terminos(texto)) {
+            campos.merge(termino, campo, (a, b) -> (byte) (a | b));
+        }
+    }
+
+    /**
+     * The term and every string left by deleting one of its characters. Two terms one edit apart always
+     * share one of these keys.
+     */
+    private static List<String> borrados(String termino) {
+        List<String> borrados = new ArrayList<>(termino.length() + 1);
+        borrados.add(termino);
+        if (termino.length() >= LONGITUD_MINIMA_ERRATA - 1) {
+            for (int i = 0; i < termino.length(); i++) {
+                String borrado = termino.substring(0, i) + termino.substring(i + 1);
+                if (!borrados.contains(borrado)) {
+                    borrados.add(borrado);
+                }
+            }
+        }
+        return borrados;
+    }
+
+    private static float pesoCampos(byte campos) {
+        float peso = 0;
+        if ((campos & CAMPO_NOMBRE) != 0) {
+            peso += PESO_NOMBRE;
+        }
+        if ((campos & CAMPO_CATEGORIA) != 0) {
+            peso += PESO_CATEGORIA;
+        }
+        if ((campos & CAMPO_DESCRIPCION) != 0) {
+            peso += PESO_DESCRIPCION;
+        }
+        return peso;
+    }
+
+    /**
+     * Documents containing a term, sorted by document number, with the fields the term appears in.
+     */
+    private static final class Postings {
+        private int[] documentos = new int[2];
+        private byte[] campos = new byte[2];
+        private int tamano;
+
+        private void agregar(int documento, byte campo) {
+            // Documents are mostly numbered in load order, so this is usually an append
+            int posicion = tamano > 0 && documentos[tamano - 1] < documento
+                    ? -tamano - 1
+                    : Arrays.binarySearch(documentos, 0, tamano, documento);
+            if (posicion >= 0) {
+                campos[posicion] |= campo;
+                return;
+            }
+            posicion = -posicion - 1;
+            if (tamano == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamano * 2);
+                campos = Arrays.copyOf(campos, tamano * 2);
+            }
+            System.arraycopy(documentos, posicion, documentos, posicion + 1, tamano - posicion);
+            System.arraycopy(campos, posicion, campos, posicion + 1, tamano - posicion);
+            documentos[posicion] = documento;
+            campos[posicion] = campo;
+            tamano++;
+        }
+
+        private boolean quitar(int documento) {
+            int posicion = Arrays.binarySearch(documentos, 0, tamano, documento);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(documentos, posicion + 1, documentos, posicion, tamano - posicion - 1);
+            System.arraycopy(campos, posicion + 1, campos, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+    }
+
+    /**
+     * Matching documents sorted by number, with their accumulated score.
+     */
+    private static final class Candidatos {
+        private final int[] documentos;
+        private final float[] puntajes;
+        private int tamano;
+
+        private Candidatos(int capacidad) {
+            this.documentos = new int[capacidad];
+            this.puntajes = new float[capacidad];
+        }
+
+        /**
+         * The documents of one posting list, scored by the match weight, their fields and the term's rarity.
+         */
+        private static Candidatos de(Postings postings, float pesoCoincidencia, double totalDocumentos) {
+            float idf = (float) Math.log(1 + totalDocumentos / postings.tamano);
+            Candidatos candidatos = new Candidatos(postings.tamano);
+            System.arraycopy(postings.documentos, 0, candidatos.documentos, 0, postings.tamano);
+            for (int i = 0; i < postings.tamano; i++) {
+                candidatos.puntajes[i] = pesoCoincidencia * pesoCampos(postings.campos[i]) * idf;
+            }
+            candidatos.tamano = postings.tamano;
+            return candidatos;
+        }
+
+        /**
+         * Merges the lists pairwise, like the last passes of a merge sort, keeping each document's best score.
+         */
+        private static Candidatos unir(List<Candidatos> listas) {
+            if (listas.isEmpty()) {
+                return new Candidatos(0);
+            }
+            List<Candidatos> ronda = listas;
+            while (ronda.size() > 1) {
+                List<Candidatos> siguiente = new ArrayList<>((ronda.size() + 1) / 2);
+                for (int i = 0; i + 1 < ronda.size(); i += 2) {
+                    siguiente.add(ronda.get(i).unirCon(ronda.get(i + 1)));
+                }
+                if (ronda.size() % 2 == 1) {
+                    siguiente.add(ronda.get(ronda.size() - 1));
+                }
+                ronda = siguiente;
+            }
+            return ronda.get(0);
+        }
+
+        private Candidatos unirCon(Candidatos otros) {
+            Candidatos union = new Candidatos(tamano + otros.tamano);
+            int i = 0;
+            int j = 0;
+            while (i < tamano || j < otros.tamano) {
+                int documento;
+                float puntaje;
+                if (j == otros.tamano || (i < tamano && documentos[i] < otros.documentos[j])) {
+                    documento = documentos[i];
+                    puntaje = puntajes[i++];
+                } else if (i == tamano || documentos[i] > otros.documentos[j]) {
+                    documento = otros.documentos[j];
+                    puntaje = otros.puntajes[j++];
+                } else {
+                    documento = documentos[i];
+                    puntaje = Math.max(puntajes[i++], otros.puntajes[j++]);
+                }
+                union.documentos[union.tamano] = documento;
+                union.puntajes[union.tamano++] = puntaje;
+            }
+            return union;
+        }
+
+        private Candidatos intersectar(Candidatos otros) {
+            Candidatos comunes = new Candidatos(Math.min(tamano, otros.tamano));
+            int i = 0;
+            int j = 0;
+            while (i < tamano && j < otros.tamano) {
+                if (documentos[i] < otros.documentos[j]) {
+                    i++;
+                } else if (documentos[i] > otros.documentos[j]) {
+                    j++;
+                } else {
+                    comunes.documentos[comunes.tamano] = documentos[i];
+                    comunes.puntajes[comunes.tamano++] = puntajes[i++] + otros.puntajes[j++];
+                }
+            }
+            return comunes;
+        }
+    }
+
+    /**
+     * Immutable copy of a product, so results can be handed out without sharing state with the index.
+     */
+    private record Documento(Long id, String nombre, String descripcion, BigDecimal precio, String categoria,
+                             String codigoBarras) {
+
+        private Producto aDominio() {
+            return Producto.builder()
+                    .id(id)
+                    .nombre(nombre)
+                    .descripcion(descripcion)
+                    .precio(precio)
+                    .categoria(categoria)
+                    .codigoBarras(codigoBarras)
+                    .build();
+        }
+    }
+}
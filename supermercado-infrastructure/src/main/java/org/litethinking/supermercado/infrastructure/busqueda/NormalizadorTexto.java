@@ -0,0 +1,79 @@
+package org.litethinking.supermercado.infrastructure.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns product text and queries into the terms of the search index: lower case, accents and other
+ * diacritics removed ("Martínez" and "martinez" are the same term), split on anything that is not a
+ * letter or a digit.
+ */
+final class NormalizadorTexto {
+
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * @return the terms of the text in order, repeated terms included; empty for a null text
+     */
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return terminos;
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char caracter = descompuesto.charAt(i);
+            if (Character.getType(caracter) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(caracter)) {
+                actual.append(caracter);
+            } else if (!actual.isEmpty()) {
+                terminos.add(actual.toString().toLowerCase(Locale.ROOT));
+                actual.setLength(0);
+            }
+        }
+        if (!actual.isEmpty()) {
+            terminos.add(actual.toString().toLowerCase(Locale.ROOT));
+        }
+        return terminos;
+    }
+
+    /**
+     * Whether two different terms are one edit apart: one character inserted, deleted, replaced, or two
+     * adjacent characters swapped.
+     */
+    static boolean aUnaEdicion(String a, String b) {
+        int diferencia = a.length() - b.length();
+        if (diferencia > 1 || diferencia < -1) {
+            return false;
+        }
+        if (diferencia != 0) {
+            String largo = diferencia > 0 ? a : b;
+            String corto = diferencia > 0 ? b : a;
+            int i = 0;
+            while (i < corto.length() && largo.charAt(i) == corto.charAt(i)) {
+                i++;
+            }
+            return largo.regionMatches(i + 1, corto, i, corto.length() - i);
+        }
+
+        int primera = -1;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                if (primera >= 0) {
+                    // A second mismatch is only allowed as the other half of a swap of adjacent characters
+                    return i == primera + 1
+                            && a.charAt(primera) == b.charAt(i) && a.charAt(i) == b.charAt(primera)
+                            && a.regionMatches(i + 1, b, i + 1, a.length() - i - 1);
+                }
+                primera = i;
+            }
+        }
+        return primera >= 0;
+    }
+}
@@ -0,0 +1,427 @@
+package org.litethinking.supermercado.infrastructure.diario;
+
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal for the sales accepted in write-behind mode.
+ * Every record is framed as [length][CRC32][payload], so a write torn by a crash is detected
+ * and dropped on restart. A record either holds an accepted sale, with the cart it came from if any, or
+ * confirms the tickets that were settled; once every accepted sale is confirmed the file is truncated.
+ *
+ * <p>While sales keep arriving the file may never empty out, so once the records of settled sales pass a
+ * threshold the journal is compacted: the unconfirmed sales, kept in memory as written, are copied to a
+ * new file that is forced to disk and then atomically renamed over the journal.</p>
+ *
+ * <p>Appends are group committed: a record is written under the journal lock, and the fsync that makes it
+ * durable is issued outside of it, covering every record written so far. Appenders that arrive while a
+ * fsync is in progress are covered by the next one, so concurrent sales share a single disk flush.</p>
+ */
+public class DiarioVentas implements Closeable {
+
+    private static final byte TIPO_VENTA = 1;
+    private static final byte TIPO_CONFIRMACION = 2;
+    private static final byte TIPO_VENTA_CARRITO = 3;
+    private static final int TAMANO_CABECERA = Integer.BYTES * 2;
+    private static final int TAMANO_MAXIMO_REGISTRO = 16 * 1024 * 1024;
+    private static final long UMBRAL_COMPACTACION_POR_DEFECTO = 4L * 1024 * 1024;
+
+    /**
+     * A sale read back from the journal together with its ticket and the cart whose reservations it takes,
+     * null when it does not come from a cart.
+     */
+    public record Entrada(String ticket, VentaDto venta, String carritoId) {
+    }
+
+    private final Path ruta;
+    private final long umbralCompactacion;
+    /**
+     * Replaced by compaction while holding both the journal lock and the sync lock.
+     */
+    private FileChannel canal;
+    /**
+     * The payload of every unconfirmed sale by ticket, in acceptance order, so compaction can rewrite them.
+     */
+    private final Map<String, byte[]> sinConfirmar = new LinkedHashMap<>();
+    private final Object bloqueoSincronizacion = new Object();
+    /**
+     * Bytes appended since the journal was opened, truncations and compactions included; only ever grows.
+     */
+    private long bytesEscritos;
+    /**
+     * Current length of the file.
+     */
+    private long tamanoArchivo;
+    /**
+     * Bytes of the file taken by the records of unconfirmed sales, headers included.
+     */
+    private long bytesSinConfirmar;
+    /**
+     * Value of {@link #bytesEscritos} covered by the last fsync.
+     */
+    private volatile long bytesSincronizados;
+
+    public DiarioVentas(Path ruta) throws IOException {
+        this(ruta, UMBRAL_COMPACTACION_POR_DEFECTO);
+    }
+
+    /**
+     * @param ruta the journal file
+     * @param umbralCompactacion bytes of settled records the file may hold before it is compacted
+     */
+    public DiarioVentas(Path ruta, long umbralCompactacion) throws IOException {
+        if (umbralCompactacion <= 0) {
+            throw new IllegalArgumentException("El umbral de compactación debe ser mayor que cero");
+        }
+        this.ruta = ruta;
+        this.umbralCompactacion = umbralCompactacion;
+        Path directorio = ruta.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the journal and returns the sales that were accepted but never confirmed, in acceptance order.
+     * A torn or corrupt tail is cut off so that new records are appended right after the last valid one.
+     *
+     * @return the unconfirmed sales
+     * @throws IOException if the journal cannot be read
+     */
+    public synchronized List<Entrada> recuperarPendientes() throws IOException {
+        Map<String, Entrada> pendientes = new LinkedHashMap<>();
+        sinConfirmar.clear();
+        long posicionValida = 0;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            byte[] carga;
+            while ((carga = leerRegistro(entrada)) != null) {
+                aplicar(carga, pendientes, sinConfirmar);
+                posicionValida += TAMANO_CABECERA + carga.length;
+            }
+        }
+        canal.truncate(posicionValida);
+        canal.position(posicionValida);
+        tamanoArchivo = posicionValida;
+        bytesSinConfirmar = 0;
+        sinConfirmar.values().forEach(carga -> bytesSinConfirmar += TAMANO_CABECERA + carga.length);
+
+        return new ArrayList<>(pendientes.values());
+    }
+
+    /**
+     * Appends an accepted sale and returns once it is on disk, sharing the fsync with concurrent appends.
+     *
+     * @param ticket the ticket assigned to the sale
+     * @param venta the accepted sale
+     * @throws IOException if the record cannot be written
+     */
+    public void anexarVenta(String ticket, VentaDto venta) throws IOException {
+        anexarVenta(ticket, venta, null);
+    }
+
+    /**
+     * Appends an accepted sale that comes from a cart and returns once it is on disk.
+     *
+     * @param ticket the ticket assigned to the sale
+     * @param venta the accepted sale
+     * @param carritoId the cart whose reservations the sale takes, or null
+     * @throws IOException if the record cannot be written
+     */
+    public void anexarVenta(String ticket, VentaDto venta, String carritoId) throws IOException {
+        byte[] carga = codificarVenta(ticket, venta, carritoId);
+        long hasta;
+        synchronized (this) {
+            hasta = escribirRegistro(carga);
+            sinConfirmar.put(ticket, carga);
+            bytesSinConfirmar += TAMANO_CABECERA + carga.length;
+        }
+        sincronizarHasta(hasta);
+    }
+
+    /**
+     * Records that the given tickets were settled, so they are not replayed on restart.
+     * Tickets that are not pending are ignored, so confirming a ticket twice is harmless.
+     * Truncates the journal when no accepted sale is left unconfirmed, and compacts it when the records of
+     * settled sales pass the threshold.
+     *
+     * @param tickets the tickets persisted or rejected for good
+     * @throws IOException if the record cannot be written
+     */
+    public void confirmar(Collection<String> tickets) throws IOException {
+        long hasta;
+        boolean debeCompactar;
+        synchronized (this) {
+            List<String> confirmados = new ArrayList<>(tickets.size());
+            for (String ticket : tickets) {
+                byte[] carga = sinConfirmar.remove(ticket);
+                if (carga != null) {
+                    confirmados.add(ticket);
+                    bytesSinConfirmar -= TAMANO_CABECERA + carga.length;
+                }
+            }
+            if (confirmados.isEmpty()) {
+                return;
+            }
+            if (sinConfirmar.isEmpty()) {
+                canal.truncate(0);
+                canal.position(0);
+                canal.force(true);
+                tamanoArchivo = 0;
+                bytesSinConfirmar = 0;
+                return;
+            }
+            hasta = escribirRegistro(codificarConfirmacion(confirmados));
+            debeCompactar = tamanoArchivo - bytesSinConfirmar >= umbralCompactacion;
+        }
+        if (debeCompactar) {
+            compactar();
+        } else {
+            sincronizarHasta(hasta);
+        }
+    }
+
+    /**
+     * @return the number of accepted sales not confirmed yet
+     */
+    public synchronized int ventasSinConfirmar() {
+        return sinConfirmar.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * @return the length of the journal file
+     */
+    public synchronized long tamanoArchivo() {
+        return tamanoArchivo;
+    }
+
+    /**
+     * Writes a record without forcing it. Must be called holding the journal lock.
+     *
+     * @return the appended bytes once this record is written, to be passed to {@link #sincronizarHasta(long)}
+     */
+    private long escribirRegistro(byte[] carga) throws IOException {
+        escribirRegistro(canal, carga);
+        tamanoArchivo += TAMANO_CABECERA + carga.length;
+        bytesEscritos += TAMANO_CABECERA + carga.length;
+        return bytesEscritos;
+    }
+
+    private static void escribirRegistro(FileChannel destino, byte[] carga) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(carga);
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_CABECERA + carga.length);
+        registro.putInt(carga.length);
+        registro.putInt((int) crc.getValue());
+        registro.put(carga);
+        registro.flip();
+        while (registro.hasRemaining()) {
+            destino.write(registro);
+        }
+    }
+
+    /**
+     * Rewrites the unconfirmed sales to a new file, forces it and renames it over the journal, so a crash at
+     * any point leaves either the old journal or the compacted one. Takes the sync lock before the journal
+     * lock, as {@link #sincronizarHasta(long)} does, so no fsync runs on the channel being replaced; the new
+     * file is forced whole, so it covers every record written so far.
+     */
+    private void compactar() throws IOException {
+        synchronized (bloqueoSincronizacion) {
+            synchronized (this) {
+                if (tamanoArchivo - bytesSinConfirmar < umbralCompactacion) {
+                    return;
+                }
+                Path temporal = ruta.resolveSibling(ruta.getFileName() + ".compactando");
+                try (FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    for (byte[] carga : sinConfirmar.values()) {
+                        escribirRegistro(nuevo, carga);
+                    }
+                    nuevo.force(true);
+                }
+                Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                canal.close();
+                canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                canal.position(canal.size());
+                tamanoArchivo = bytesSinConfirmar;
+                bytesSincronizados = bytesEscritos;
+            }
+        }
+    }
+
+    /**
+     * Returns once every byte up to the given count is on disk. The fsync is issued outside the journal lock,
+     * so records keep being appended while it runs; the thread that issues it covers everything written
+     * before it started, and the threads waiting behind it usually find their records already covered.
+     */
+    private void sincronizarHasta(long hasta) throws IOException {
+        if (bytesSincronizados >= hasta) {
+            return;
+        }
+        synchronized (bloqueoSincronizacion) {
+            if (bytesSincronizados >= hasta) {
+                return;
+            }
+            long escritos;
+            FileChannel sincronizado;
+            synchronized (this) {
+                escritos = bytesEscritos;
+                sincronizado = canal;
+            }
+            sincronizado.force(false);
+            bytesSincronizados = escritos;
+        }
+    }
+
+    private static byte[] leerRegistro(DataInputStream entrada) throws IOException {
+        try {
+            int longitud = entrada.readInt();
+            if (longitud <= 0 || longitud > TAMANO_MAXIMO_REGISTRO) {
+                return null;
+            }
+            int crcEsperado = entrada.readInt();
+            byte[] carga = new byte[longitud];
+            entrada.readFully(carga);
+            CRC32 crc = new CRC32();
+            crc.update(carga);
+            return (int) crc.getValue() == crcEsperado ? carga : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void aplicar(byte[] carga, Map<String, Entrada> pendientes, Map<String, byte[]> cargas)
+            throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(carga));
+        byte tipo = entrada.readByte();
+        if (tipo == TIPO_VENTA || tipo == TIPO_VENTA_CARRITO) {
+            String ticket = entrada.readUTF();
+            String carritoId = tipo == TIPO_VENTA_CARRITO ? entrada.readUTF() : null;
+            pendientes.put(ticket, new Entrada(ticket, leerVenta(entrada), carritoId));
+            cargas.put(ticket, carga);
+        } else if (tipo == TIPO_CONFIRMACION) {
+            int cantidad = entrada.readInt();
+            for (int i = 0; i < cantidad; i++) {
+                String ticket = entrada.readUTF();
+                pendientes.remove(ticket);
+                cargas.remove(ticket);
+            }
+        }
+    }
+
+    /**
+     * Sales without a cart keep the original record type, so journals written before carts were recorded
+     * are still read back.
+     */
+    private static byte[] codificarVenta(String ticket, VentaDto venta, String carritoId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeByte(carritoId == null ? TIPO_VENTA : TIPO_VENTA_CARRITO);
+        salida.writeUTF(ticket);
+        if (carritoId != null) {
+            salida.writeUTF(carritoId);
+        }
+        escribirTexto(salida, venta.fechaVenta() != null ? venta.fechaVenta().toString() : null);
+        escribirTexto(salida, venta.nombreCliente());
+        escribirTexto(salida, venta.metodoPago());
+        escribirTexto(salida, venta.montoTotal() != null ? venta.montoTotal().toPlainString() : null);
+        List<ItemVentaDto> items = venta.items() != null ? venta.items() : List.of();
+        salida.writeInt(items.size());
+        for (ItemVentaDto item : items) {
+            Long productoId = item.producto() != null ? item.producto().id() : null;
+            salida.writeBoolean(productoId != null);
+            if (productoId != null) {
+                salida.writeLong(productoId);
+            }
+            salida.writeBoolean(item.cantidad() != null);
+            if (item.cantidad() != null) {
+                salida.writeInt(item.cantidad());
+            }
+            escribirTexto(salida, item.precioUnitario() != null ? item.precioUnitario().toPlainString() : null);
+            escribirTexto(salida, item.subtotal() != null ? item.subtotal().toPlainString() : null);
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    private static VentaDto leerVenta(DataInputStream entrada) throws IOException {
+        String fechaVenta = leerTexto(entrada);
+        String nombreCliente = leerTexto(entrada);
+        String metodoPago = leerTexto(entrada);
+        String montoTotal = leerTexto(entrada);
+        int cantidadItems = entrada.readInt();
+        List<ItemVentaDto> items = new ArrayList<>(cantidadItems);
+        for (int i = 0; i < cantidadItems; i++) {
+            ProductoDto producto = entrada.readBoolean()
+                    ? new ProductoDto(entrada.readLong(), null, null, null, null, null)
+                    : null;
+            Integer cantidad = entrada.readBoolean() ? entrada.readInt() : null;
+            String precioUnitario = leerTexto(entrada);
+            String subtotal = leerTexto(entrada);
+            items.add(new ItemVentaDto(null, producto, cantidad,
+                    precioUnitario != null ? new BigDecimal(precioUnitario) : null,
+                    subtotal != null ? new BigDecimal(subtotal) : null));
+        }
+        return new VentaDto(
+                null,
+                fechaVenta != null ? LocalDateTime.parse(fechaVenta) : null,
+                nombreCliente,
+                items,
+                montoTotal != null ? new BigDecimal(montoTotal) : null,
+                metodoPago
+        );
+    }
+
+    private static byte[] codificarConfirmacion(Collection<String> tickets) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + tickets.size() * 40);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeByte(TIPO_CONFIRMACION);
+        salida.writeInt(tickets.size());
+        for (String ticket : tickets) {
+            salida.writeUTF(ticket);
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+}
@@ -0,0 +1,264 @@
+package org.litethinking.supermercado.infrastructure.diario;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.service.venta.RegistroDiferidoVentas;
+import org.litethinking.supermercado.application.service.venta.ServicioVenta;
+import org.litethinking.supermercado.shareddto.supermercado.venta.EstadoTicketVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoVentaLoteDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind implementation of {@link RegistroDiferidoVentas}, enabled with
+ * {@code supermercado.ventas.diferido.habilitado=true}.
+ * Accepted sales are validated, forced to the {@link DiarioVentas} journal and queued; a background writer
+ * drains the queue and persists each group through {@link ServicioVenta#crearVentasEnLote(List)}, i.e. one
+ * transaction per group instead of one per sale. Stock is decremented when the group is flushed, so a
+ * shortage shows up as a FALLIDA ticket rather than a 409. The cart a sale came from is journaled with it, so
+ * its reservations keep holding the units until the flush takes them and are released when it commits.
+ *
+ * <p>A journaled sale is only confirmed once it is settled: persisted, or rejected for its content (a shortage
+ * or a missing product), which fails its ticket alone. A sale that could not be written for any other reason,
+ * e.g. the database being down, stays in the journal and its group is retried with a growing wait for as long
+ * as it takes; meanwhile the queue fills up and new sales are turned away, and on shutdown the sales still
+ * pending are left for the next start.</p>
+ *
+ * <p>Journaled sales that were not confirmed before a crash are replayed by {@link #run(ApplicationArguments)},
+ * which runs after the data initializer and before the application reports itself ready.
+ * Delivery is at-least-once: a crash between a database commit and its confirmation record replays that group.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "supermercado.ventas.diferido.habilitado", havingValue = "true")
+public class EscritorDiferidoVentas implements RegistroDiferidoVentas, ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(EscritorDiferidoVentas.class);
+    private static final int MAXIMO_TICKETS_TERMINADOS = 100_000;
+    private static final long ESPERA_INICIAL_REINTENTO_MS = 1_000;
+    private static final long ESPERA_MAXIMA_REINTENTO_MS = 60_000;
+
+    private final ServicioVenta servicioVenta;
+    private final DiarioVentas diario;
+    private final BlockingQueue<DiarioVentas.Entrada> cola;
+    /**
+     * Free places in the queue. A place is taken before journaling a sale and given back once the writer
+     * settled it, so an accepted sale always fits in the queue and sales being retried still count.
+     */
+    private final Semaphore plazasLibres;
+    private final int tamanoLote;
+    private final Map<String, EstadoTicketVentaDto> estados = new ConcurrentHashMap<>();
+    private final Queue<String> ticketsTerminados = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cantidadTerminados = new AtomicInteger();
+    private List<DiarioVentas.Entrada> pendientesAlArrancar;
+    private volatile boolean activo = true;
+    private Thread hiloEscritor;
+
+    public EscritorDiferidoVentas(ServicioVenta servicioVenta,
+                                  @Value("${supermercado.ventas.diferido.diario:data/diario-ventas.log}") String rutaDiario,
+                                  @Value("${supermercado.ventas.diferido.capacidad-cola:10000}") int capacidadCola,
+                                  @Value("${supermercado.ventas.diferido.tamano-lote:500}") int tamanoLote,
+                                  @Value("${supermercado.ventas.diferido.umbral-compactacion-bytes:4194304}") long umbralCompactacion) throws IOException {
+        this.servicioVenta = servicioVenta;
+        this.diario = new DiarioVentas(Path.of(rutaDiario), umbralCompactacion);
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.plazasLibres = new Semaphore(capacidadCola);
+        this.tamanoLote = tamanoLote;
+        // Read before the web server starts, so new sales are appended after the recovered tail
+        this.pendientesAlArrancar = diario.recuperarPendientes();
+        pendientesAlArrancar.forEach(entrada -> estados.put(entrada.ticket(), pendiente(entrada.ticket())));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the sale is not valid; nothing is journaled
+     */
+    @Override
+    public Optional<EstadoTicketVentaDto> aceptar(VentaDto ventaDto, String carritoId) {
+        servicioVenta.validarVenta(ventaDto);
+        if (!activo || !plazasLibres.tryAcquire()) {
+            return Optional.empty();
+        }
+        String ticket = UUID.randomUUID().toString();
+        try {
+            diario.anexarVenta(ticket, ventaDto, carritoId);
+        } catch (IOException e) {
+            plazasLibres.release();
+            throw new UncheckedIOException("No se pudo registrar la venta en el diario", e);
+        }
+        EstadoTicketVentaDto estado = pendiente(ticket);
+        estados.put(ticket, estado);
+        cola.add(new DiarioVentas.Entrada(ticket, ventaDto, carritoId));
+        return Optional.of(estado);
+    }
+
+    @Override
+    public Optional<EstadoTicketVentaDto> consultarTicket(String ticket) {
+        return Optional.ofNullable(estados.get(ticket));
+    }
+
+    /**
+     * Replays the journaled sales left over from the previous run and then starts the background writer.
+     * Startup waits here until every replayed sale is settled, so the node never reports ready with sales
+     * still pending replay.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!pendientesAlArrancar.isEmpty()) {
+            logger.info("Replaying {} journaled sales before accepting traffic", pendientesAlArrancar.size());
+            for (int desde = 0; desde < pendientesAlArrancar.size(); desde += tamanoLote) {
+                int hasta = Math.min(desde + tamanoLote, pendientesAlArrancar.size());
+                persistirHastaTerminar(pendientesAlArrancar.subList(desde, hasta));
+            }
+        }
+        pendientesAlArrancar = List.of();
+        hiloEscritor = new Thread(this::bucleEscritor, "escritor-diferido-ventas");
+        hiloEscritor.start();
+        logger.info("Write-behind sale writer started");
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Stops accepting sales and waits for the writer to flush what is still queued.
+     */
+    @PreDestroy
+    public void detener() throws IOException, InterruptedException {
+        activo = false;
+        if (hiloEscritor != null) {
+            hiloEscritor.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        diario.close();
+    }
+
+    private void bucleEscritor() {
+        List<DiarioVentas.Entrada> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                DiarioVentas.Entrada primera = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                if (!persistirHastaTerminar(lote)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                plazasLibres.release(lote.size());
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Persists a group, retrying the sales that could not be written with a doubling wait until all are settled.
+     *
+     * @return false if the writer was stopped first; the sales left are still in the journal
+     */
+    private boolean persistirHastaTerminar(List<DiarioVentas.Entrada> lote) throws InterruptedException {
+        List<DiarioVentas.Entrada> pendientes = persistir(lote);
+        for (long espera = ESPERA_INICIAL_REINTENTO_MS; !pendientes.isEmpty();
+             espera = Math.min(espera * 2, ESPERA_MAXIMA_REINTENTO_MS)) {
+            if (!activo) {
+                logger.warn("Stopping with {} journaled sales not persisted, they are replayed on the next start",
+                        pendientes.size());
+                return false;
+            }
+            logger.warn("{} journaled sales could not be persisted, retrying in {} ms", pendientes.size(), espera);
+            Thread.sleep(espera);
+            pendientes = persistir(pendientes);
+        }
+        return true;
+    }
+
+    /**
+     * Writes a group and settles the tickets of the sales persisted or rejected for their content.
+     *
+     * @return the sales that could not be written and must be retried
+     */
+    private List<DiarioVentas.Entrada> persistir(List<DiarioVentas.Entrada> lote) {
+        List<VentaDto> ventas = lote.stream().map(DiarioVentas.Entrada::venta).toList();
+        List<String> carritos = lote.stream().map(DiarioVentas.Entrada::carritoId).toList();
+        ResultadoLoteVentasDto resultado;
+        try {
+            resultado = servicioVenta.crearVentasEnLote(ventas, carritos);
+        } catch (RuntimeException e) {
+            logger.error("Error flushing a group of {} journaled sales", lote.size(), e);
+            return List.copyOf(lote);
+        }
+
+        List<String> confirmados = new ArrayList<>(lote.size());
+        List<EstadoTicketVentaDto> terminados = new ArrayList<>(lote.size());
+        List<DiarioVentas.Entrada> reintentar = new ArrayList<>();
+        for (ResultadoVentaLoteDto resultadoVenta : resultado.resultados()) {
+            DiarioVentas.Entrada entrada = lote.get(resultadoVenta.indice());
+            if (resultadoVenta.exitosa()) {
+                terminados.add(new EstadoTicketVentaDto(entrada.ticket(), EstadoTicketVentaDto.PERSISTIDA,
+                        resultadoVenta.idVenta(), null));
+                confirmados.add(entrada.ticket());
+            } else if (resultadoVenta.reintentable()) {
+                reintentar.add(entrada);
+            } else {
+                terminados.add(new EstadoTicketVentaDto(entrada.ticket(), EstadoTicketVentaDto.FALLIDA, null,
+                        resultadoVenta.error()));
+                confirmados.add(entrada.ticket());
+            }
+        }
+        try {
+            diario.confirmar(confirmados);
+        } catch (IOException e) {
+            // The sales are settled in the database either way; they are only replayed again on restart
+            logger.error("Could not confirm {} settled sales in the journal", confirmados.size(), e);
+        }
+        terminados.forEach(this::registrarTerminado);
+        logger.debug("Flushed group of {} sales: {} persisted, {} failed, {} to retry",
+                resultado.totalRecibidas(), resultado.totalExitosas(),
+                resultado.totalFallidas() - reintentar.size(), reintentar.size());
+        return reintentar;
+    }
+
+    private void registrarTerminado(EstadoTicketVentaDto estado) {
+        estados.put(estado.ticket(), estado);
+        ticketsTerminados.add(estado.ticket());
+        if (cantidadTerminados.incrementAndGet() > MAXIMO_TICKETS_TERMINADOS) {
+            String masAntiguo = ticketsTerminados.poll();
+            if (masAntiguo != null) {
+                estados.remove(masAntiguo);
+                cantidadTerminados.decrementAndGet();
+            }
+        }
+    }
+
+    private static EstadoTicketVentaDto pendiente(String ticket) {
+        return new EstadoTicketVentaDto(ticket, EstadoTicketVentaDto.PENDIENTE, null, null);
+    }
+}
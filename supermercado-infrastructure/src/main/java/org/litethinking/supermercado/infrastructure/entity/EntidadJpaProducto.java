@@ -10,9 +10,15 @@ import java.math.BigDecimal;
 
 /**
  * JPA entity for Producto.
+ * The indexes serve the combined product filter: category with a price range, a price range alone,
+ * and sorting by name.
  */
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_categoria_precio", columnList = "categoria, precio"),
+        @Index(name = "idx_productos_precio", columnList = "precio"),
+        @Index(name = "idx_productos_nombre", columnList = "nombre")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,42 @@
+package org.litethinking.supermercado.infrastructure.entity.inventario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity for a per-product stock snapshot: the quantity once every movement up to
+ * movimientoId has been applied, and the instant of that last movement.
+ */
+@Entity
+@Table(name = "cortes_stock",
+        indexes = {
+                @Index(name = "idx_cortes_stock_producto", columnList = "producto_id, movimiento_id"),
+                @Index(name = "idx_cortes_stock_producto_instante", columnList = "producto_id, instante")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntidadJpaCorteStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "movimiento_id", nullable = false)
+    private Long movimientoId;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(nullable = false)
+    private LocalDateTime instante;
+}
@@ -0,0 +1,33 @@
+package org.litethinking.supermercado.infrastructure.entity.inventario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JPA entity for the stock decrements taken from the in-memory ledger and not yet applied to their
+ * inventory rows. Rows are inserted with plain JDBC by {@code AdaptadorInventarioEnMemoria} in the
+ * transaction of the sale and deleted by the flush that applies them; the product is a bare id so
+ * inserting never touches the products or inventory tables.
+ */
+@Entity
+@Table(name = "descuentos_stock_pendientes",
+        indexes = @Index(name = "idx_descuentos_stock_pendientes_producto", columnList = "producto_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntidadJpaDescuentoPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Integer unidades;
+}
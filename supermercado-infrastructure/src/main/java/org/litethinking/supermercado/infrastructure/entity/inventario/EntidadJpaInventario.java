@@ -11,9 +11,12 @@ import java.time.LocalDate;
 
 /**
  * JPA entity for Inventario.
+ * The location is dictionary-encoded: the row holds the id of its {@link EntidadJpaUbicacion}.
  */
 @Entity
-@Table(name = "inventarios")
+@Table(name = "inventarios",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventarios_producto", columnNames = "producto_id"),
+        indexes = @Index(name = "idx_inventarios_ubicacion", columnList = "ubicacion_id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,5 +40,7 @@ public class EntidadJpaInventario {
     
     private LocalDate fechaUltimaReposicion;
     
-    private String ubicacion;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ubicacion_id")
+    private EntidadJpaUbicacion ubicacion;
 }
\ No newline at end of file
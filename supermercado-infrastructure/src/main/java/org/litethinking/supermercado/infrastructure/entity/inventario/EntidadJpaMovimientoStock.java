@@ -0,0 +1,48 @@
+package org.litethinking.supermercado.infrastructure.entity.inventario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity for the append-only stock movement log.
+ * Rows are written with plain JDBC inserts by {@code DiarioMovimientosStock} and never updated;
+ * the product is a bare id so appending never touches the products table.
+ */
+@Entity
+@Table(name = "movimientos_stock",
+        indexes = {
+                @Index(name = "idx_movimientos_stock_producto", columnList = "producto_id, id"),
+                @Index(name = "idx_movimientos_stock_producto_instante", columnList = "producto_id, instante")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntidadJpaMovimientoStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TipoMovimientoStock tipo;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(nullable = false)
+    private LocalDateTime instante;
+
+    @Column(length = 40)
+    private String motivo;
+}
@@ -0,0 +1,28 @@
+package org.litethinking.supermercado.infrastructure.entity.inventario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JPA entity for the dictionary of inventory locations.
+ * Each distinct location name is stored once; inventory rows reference it by id.
+ */
+@Entity
+@Table(name = "ubicaciones",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ubicaciones_nombre", columnNames = "nombre"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntidadJpaUbicacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String nombre;
+}
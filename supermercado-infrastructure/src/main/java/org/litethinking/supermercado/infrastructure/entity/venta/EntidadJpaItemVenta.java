@@ -11,6 +11,7 @@ import java.math.BigDecimal;
 
 /**
  * JPA entity for ItemVenta.
+ * Uses a pooled sequence for its id so Hibernate can batch the inserts.
  */
 @Entity
 @Table(name = "items_venta")
@@ -21,7 +22,8 @@ import java.math.BigDecimal;
 public class EntidadJpaItemVenta {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_venta_seq")
+    @SequenceGenerator(name = "items_venta_seq", sequenceName = "items_venta_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -0,0 +1,54 @@
+package org.litethinking.supermercado.infrastructure.entity.venta;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * JPA entity for the daily sales rollup, one row per day and payment method.
+ * Rows are maintained incrementally in the same transaction as the sales they summarize.
+ * Sales without payment method are accumulated under an empty metodoPago.
+ */
+@Entity
+@Table(name = "resumen_ventas_diario")
+@IdClass(EntidadJpaResumenVentaDiario.Clave.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntidadJpaResumenVentaDiario {
+
+    @Id
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "metodo_pago", nullable = false)
+    private String metodoPago;
+
+    @Column(name = "cantidad_ventas", nullable = false)
+    private long cantidadVentas;
+
+    @Column(name = "monto_total", nullable = false, precision = 38, scale = 2)
+    private BigDecimal montoTotal;
+
+    @Column(name = "cantidad_articulos", nullable = false)
+    private long cantidadArticulos;
+
+    /**
+     * Composite key of the rollup.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private String metodoPago;
+    }
+}
@@ -13,9 +13,15 @@ import java.util.List;
 
 /**
  * JPA entity for Venta.
+ * Uses a pooled sequence for its id so Hibernate can batch the inserts.
+ * The indexes end in (fecha_venta, id) so that keyset pages are read in index order.
  */
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        @Index(name = "idx_ventas_fecha_id", columnList = "fecha_venta, id"),
+        @Index(name = "idx_ventas_cliente_fecha_id", columnList = "nombre_cliente, fecha_venta, id"),
+        @Index(name = "idx_ventas_metodo_pago_fecha_id", columnList = "metodo_pago, fecha_venta, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,20 +29,24 @@ import java.util.List;
 public class EntidadJpaVenta {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
     
-    @Column(nullable = false)
+    @Column(name = "fecha_venta", nullable = false)
     private LocalDateTime fechaVenta;
     
+    @Column(name = "nombre_cliente")
     private String nombreCliente;
     
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
     private List<EntidadJpaItemVenta> items = new ArrayList<>();
     
     @Column(nullable = false)
     private BigDecimal montoTotal;
     
+    @Column(name = "metodo_pago")
     private String metodoPago;
     
     public void addItem(EntidadJpaItemVenta item) {
@@ -0,0 +1,65 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The header row of an imported file. Column names are compared ignoring case, spaces, underscores and
+ * hyphens, so {@code codigo_barras} and {@code codigoBarras} name the same column.
+ */
+public class EncabezadoCsv {
+
+    private final Map<String, Integer> posiciones = new HashMap<>();
+
+    /**
+     * @param nombres the fields of the header row
+     * @throws IllegalArgumentException if a column is repeated
+     */
+    public EncabezadoCsv(List<String> nombres) {
+        for (int i = 0; i < nombres.size(); i++) {
+            String nombre = normalizar(nombres.get(i));
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            if (posiciones.putIfAbsent(nombre, i) != null) {
+                throw new IllegalArgumentException("La columna " + nombres.get(i).trim()
+                        + " está repetida en el encabezado");
+            }
+        }
+    }
+
+    public boolean tiene(String columna) {
+        return posiciones.containsKey(normalizar(columna));
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first column that is missing
+     */
+    public void exigir(String... columnas) {
+        for (String columna : columnas) {
+            if (!tiene(columna)) {
+                throw new IllegalArgumentException("Falta la columna " + columna + " en el encabezado");
+            }
+        }
+    }
+
+    /**
+     * @return the position of the column, or -1 if the header does not have it
+     */
+    int posicion(String columna) {
+        return posiciones.getOrDefault(normalizar(columna), -1);
+    }
+
+    private static String normalizar(String nombre) {
+        StringBuilder normalizado = new StringBuilder(nombre.length());
+        for (int i = 0; i < nombre.length(); i++) {
+            char c = nombre.charAt(i);
+            if (c != '_' && c != '-' && !Character.isWhitespace(c)) {
+                normalizado.append(c);
+            }
+        }
+        return normalizado.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,78 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * A data row of an imported file, read by column name. Values are trimmed, and a blank value reads as
+ * null, like a missing column. The typed getters throw {@link IllegalArgumentException} with a message
+ * that names the column, which the import reports as the error of the row.
+ *
+ * @param encabezado the header of the file
+ * @param valores the fields of the row
+ * @param linea the line of the file where the row starts
+ */
+public record FilaCsv(EncabezadoCsv encabezado, List<String> valores, long linea) {
+
+    public String texto(String columna) {
+        int posicion = encabezado.posicion(columna);
+        if (posicion < 0 || posicion >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(posicion).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    public String textoObligatorio(String columna) {
+        String valor = texto(columna);
+        if (valor == null) {
+            throw new IllegalArgumentException("La columna " + columna + " es obligatoria");
+        }
+        return valor;
+    }
+
+    public Integer entero(String columna) {
+        String valor = texto(columna);
+        try {
+            return valor == null ? null : Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El valor '" + valor + "' de la columna " + columna
+                    + " no es un número entero");
+        }
+    }
+
+    public Long enteroLargo(String columna) {
+        String valor = texto(columna);
+        try {
+            return valor == null ? null : Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El valor '" + valor + "' de la columna " + columna
+                    + " no es un número entero");
+        }
+    }
+
+    public BigDecimal decimal(String columna) {
+        String valor = texto(columna);
+        try {
+            return valor == null ? null : new BigDecimal(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El valor '" + valor + "' de la columna " + columna
+                    + " no es un número");
+        }
+    }
+
+    /**
+     * @return the ISO date (yyyy-MM-dd) of the column, or null
+     */
+    public LocalDate fecha(String columna) {
+        String valor = texto(columna);
+        try {
+            return valor == null ? null : LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("El valor '" + valor + "' de la columna " + columna
+                    + " no es una fecha con formato aaaa-mm-dd");
+        }
+    }
+}
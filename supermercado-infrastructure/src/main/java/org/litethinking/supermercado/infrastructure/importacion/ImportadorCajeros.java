@@ -0,0 +1,50 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.litethinking.supermercado.domain.model.Cajero;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.ports.output.RepositorioCajeroPort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Imports cashiers by code. Columns: nombre, codigo, turno; an id column is ignored.
+ */
+@Component
+public class ImportadorCajeros implements ImportadorCsv<Cajero> {
+
+    private final RepositorioCajeroPort repositorioCajeroPort;
+
+    public ImportadorCajeros(RepositorioCajeroPort repositorioCajeroPort) {
+        this.repositorioCajeroPort = repositorioCajeroPort;
+    }
+
+    @Override
+    public String entidad() {
+        return "cajeros";
+    }
+
+    @Override
+    public void validarEncabezado(EncabezadoCsv encabezado) {
+        encabezado.exigir("nombre", "codigo", "turno");
+    }
+
+    @Override
+    public Cajero convertir(FilaCsv fila) {
+        return Cajero.builder()
+                .nombre(fila.textoObligatorio("nombre"))
+                .codigo(fila.textoObligatorio("codigo"))
+                .turno(fila.textoObligatorio("turno"))
+                .build();
+    }
+
+    @Override
+    public Object clave(Cajero cajero) {
+        return cajero.getCodigo();
+    }
+
+    @Override
+    public ResultadoLoteImportacion guardar(List<Cajero> cajeros) {
+        return repositorioCajeroPort.guardarLotePorCodigo(cajeros);
+    }
+}
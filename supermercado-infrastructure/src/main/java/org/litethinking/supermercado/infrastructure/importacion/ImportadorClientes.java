@@ -0,0 +1,55 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.litethinking.supermercado.domain.model.Cliente;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.ports.output.RepositorioClientePort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Imports customers by email. Columns: nombre, email, telefono, direccion; an id column is ignored.
+ */
+@Component
+public class ImportadorClientes implements ImportadorCsv<Cliente> {
+
+    private final RepositorioClientePort repositorioClientePort;
+
+    public ImportadorClientes(RepositorioClientePort repositorioClientePort) {
+        this.repositorioClientePort = repositorioClientePort;
+    }
+
+    @Override
+    public String entidad() {
+        return "clientes";
+    }
+
+    @Override
+    public void validarEncabezado(EncabezadoCsv encabezado) {
+        encabezado.exigir("nombre", "email");
+    }
+
+    @Override
+    public Cliente convertir(FilaCsv fila) {
+        String email = fila.textoObligatorio("email");
+        if (email.indexOf('@') <= 0) {
+            throw new IllegalArgumentException("El email '" + email + "' no es válido");
+        }
+        return Cliente.builder()
+                .nombre(fila.textoObligatorio("nombre"))
+                .email(email)
+                .telefono(fila.texto("telefono"))
+                .direccion(fila.texto("direccion"))
+                .build();
+    }
+
+    @Override
+    public Object clave(Cliente cliente) {
+        return cliente.getEmail();
+    }
+
+    @Override
+    public ResultadoLoteImportacion guardar(List<Cliente> clientes) {
+        return repositorioClientePort.guardarLotePorEmail(clientes);
+    }
+}
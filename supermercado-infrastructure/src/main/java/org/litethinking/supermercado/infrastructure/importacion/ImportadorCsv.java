@@ -0,0 +1,41 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+
+import java.util.List;
+
+/**
+ * Turns the rows of a CSV file into the records of one entity and saves them by their natural key.
+ * {@link #convertir} runs on the conversion pool, several chunks at a time, and should not touch the
+ * database; {@link #guardar} runs on the thread of the import, one chunk at a time and in file order.
+ *
+ * @param <T> the domain model of the entity
+ */
+public interface ImportadorCsv<T> {
+
+    /**
+     * @return the name of the entity in the import URL
+     */
+    String entidad();
+
+    /**
+     * @throws IllegalArgumentException if the header lacks a column every row needs
+     */
+    void validarEncabezado(EncabezadoCsv encabezado);
+
+    /**
+     * @return the record of the row
+     * @throws IllegalArgumentException if the row is not valid, with the reason
+     */
+    T convertir(FilaCsv fila);
+
+    /**
+     * @return the natural key of a record, to find the rows of a chunk that repeat it
+     */
+    Object clave(T registro);
+
+    /**
+     * Saves a chunk of records whose keys do not repeat, in one transaction.
+     */
+    ResultadoLoteImportacion guardar(List<T> registros);
+}
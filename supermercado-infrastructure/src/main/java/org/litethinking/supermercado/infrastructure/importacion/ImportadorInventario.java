@@ -0,0 +1,144 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports inventory records by product. The product is given by a producto_id column or, when the row has
+ * none, by a codigoBarras column. Other columns: cantidad, stockMinimo, stockMaximo, fechaUltimaReposicion
+ * (yyyy-MM-dd), ubicacion; an id column is ignored.
+ *
+ * <p>Barcodes are resolved when the chunk is saved, with one query for the whole chunk, so converting a row
+ * never touches the database; a barcode with no product rejects its row alone.</p>
+ */
+@Component
+public class ImportadorInventario implements ImportadorCsv<Inventario> {
+
+    private final RepositorioInventarioPort repositorioInventarioPort;
+    private final RepositorioProductoPort repositorioProductoPort;
+
+    public ImportadorInventario(RepositorioInventarioPort repositorioInventarioPort,
+                                RepositorioProductoPort repositorioProductoPort) {
+        this.repositorioInventarioPort = repositorioInventarioPort;
+        this.repositorioProductoPort = repositorioProductoPort;
+    }
+
+    @Override
+    public String entidad() {
+        return "inventario";
+    }
+
+    @Override
+    public void validarEncabezado(EncabezadoCsv encabezado) {
+        if (!encabezado.tiene("producto_id") && !encabezado.tiene("codigoBarras")) {
+            throw new IllegalArgumentException("Falta la columna producto_id o codigoBarras en el encabezado");
+        }
+        encabezado.exigir("cantidad");
+    }
+
+    @Override
+    public Inventario convertir(FilaCsv fila) {
+        Integer cantidad = fila.entero("cantidad");
+        if (cantidad == null || cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad es obligatoria y no puede ser negativa");
+        }
+        Integer stockMinimo = fila.entero("stockMinimo");
+        Integer stockMaximo = fila.entero("stockMaximo");
+        if (stockMinimo != null && stockMaximo != null && stockMinimo > stockMaximo) {
+            throw new IllegalArgumentException("El stock mínimo no puede ser mayor que el stock máximo");
+        }
+        return Inventario.builder()
+                .producto(producto(fila))
+                .cantidad(cantidad)
+                .stockMinimo(stockMinimo)
+                .stockMaximo(stockMaximo)
+                .fechaUltimaReposicion(fila.fecha("fechaUltimaReposicion"))
+                .ubicacion(fila.texto("ubicacion"))
+                .build();
+    }
+
+    /**
+     * @return the product id, or the barcode of a row that gives no id; a Long and a String never match
+     */
+    @Override
+    public Object clave(Inventario inventario) {
+        Producto producto = inventario.getProducto();
+        return producto.getId() != null ? producto.getId() : producto.getCodigoBarras();
+    }
+
+    /**
+     * Resolves the barcodes of the chunk and saves the rows whose product is known. When a row by barcode
+     * and a row by id name the same product, the later row is kept and the earlier one counts as an update.
+     */
+    @Override
+    public ResultadoLoteImportacion guardar(List<Inventario> inventarios) {
+        List<String> codigosBarras = inventarios.stream()
+                .filter(inventario -> inventario.getProducto().getId() == null)
+                .map(inventario -> inventario.getProducto().getCodigoBarras())
+                .toList();
+        Map<String, Long> ids = codigosBarras.isEmpty()
+                ? Map.of()
+                : repositorioProductoPort.findIdsByCodigosBarras(codigosBarras);
+
+        List<ResultadoLoteImportacion.Rechazo> rechazados = new ArrayList<>();
+        Map<Long, Integer> posiciones = new HashMap<>();
+        List<Inventario> resueltos = new ArrayList<>(inventarios.size());
+        List<Integer> indices = new ArrayList<>(inventarios.size());
+        int reemplazados = 0;
+        for (int i = 0; i < inventarios.size(); i++) {
+            Inventario inventario = inventarios.get(i);
+            Long productoId = inventario.getProducto().getId();
+            if (productoId == null) {
+                String codigoBarras = inventario.getProducto().getCodigoBarras();
+                productoId = ids.get(codigoBarras);
+                if (productoId == null) {
+                    rechazados.add(new ResultadoLoteImportacion.Rechazo(i,
+                            "No existe un producto con código de barras " + codigoBarras));
+                    continue;
+                }
+                inventario.setProducto(Producto.builder().id(productoId).build());
+            }
+            Integer posicion = posiciones.putIfAbsent(productoId, resueltos.size());
+            if (posicion == null) {
+                resueltos.add(inventario);
+                indices.add(i);
+            } else {
+                resueltos.set(posicion, inventario);
+                indices.set(posicion, i);
+                reemplazados++;
+            }
+        }
+        if (resueltos.isEmpty()) {
+            return new ResultadoLoteImportacion(0, 0, rechazados);
+        }
+
+        ResultadoLoteImportacion resultado = repositorioInventarioPort.guardarLotePorProducto(resueltos);
+        resultado.rechazados().forEach(rechazo ->
+                rechazados.add(new ResultadoLoteImportacion.Rechazo(indices.get(rechazo.indice()), rechazo.motivo())));
+        rechazados.sort(Comparator.comparingInt(ResultadoLoteImportacion.Rechazo::indice));
+        return new ResultadoLoteImportacion(resultado.insertados(), resultado.actualizados() + reemplazados,
+                rechazados);
+    }
+
+    private Producto producto(FilaCsv fila) {
+        Long productoId = fila.enteroLargo("producto_id");
+        if (productoId != null) {
+            return Producto.builder().id(productoId).build();
+        }
+        String codigoBarras = fila.texto("codigoBarras");
+        if (codigoBarras == null) {
+            throw new IllegalArgumentException("La fila necesita un producto_id o un codigoBarras");
+        }
+        return Producto.builder().codigoBarras(codigoBarras).build();
+    }
+}
@@ -0,0 +1,58 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Imports products by barcode. Columns: nombre, descripcion, precio, categoria, codigoBarras; an id column
+ * is ignored.
+ */
+@Component
+public class ImportadorProductos implements ImportadorCsv<Producto> {
+
+    private final RepositorioProductoPort repositorioProductoPort;
+
+    public ImportadorProductos(RepositorioProductoPort repositorioProductoPort) {
+        this.repositorioProductoPort = repositorioProductoPort;
+    }
+
+    @Override
+    public String entidad() {
+        return "productos";
+    }
+
+    @Override
+    public void validarEncabezado(EncabezadoCsv encabezado) {
+        encabezado.exigir("nombre", "precio", "codigoBarras");
+    }
+
+    @Override
+    public Producto convertir(FilaCsv fila) {
+        BigDecimal precio = fila.decimal("precio");
+        if (precio == null || precio.signum() < 0) {
+            throw new IllegalArgumentException("El precio es obligatorio y no puede ser negativo");
+        }
+        return Producto.builder()
+                .nombre(fila.textoObligatorio("nombre"))
+                .descripcion(fila.texto("descripcion"))
+                .precio(precio)
+                .categoria(fila.texto("categoria"))
+                .codigoBarras(fila.textoObligatorio("codigoBarras"))
+                .build();
+    }
+
+    @Override
+    public Object clave(Producto producto) {
+        return producto.getCodigoBarras();
+    }
+
+    @Override
+    public ResultadoLoteImportacion guardar(List<Producto> productos) {
+        return repositorioProductoPort.guardarLotePorCodigoBarras(productos);
+    }
+}
@@ -0,0 +1,133 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records as RFC 4180 describes them: fields separated by commas, records by CRLF or LF, and
+ * fields in double quotes may hold commas, line breaks and doubled quotes. A byte order mark at the start
+ * and blank lines are skipped. Not thread-safe; the caller buffers the reader.
+ */
+public class LectorCsv {
+
+    private static final char COMILLA = '"';
+    private static final char SEPARADOR = ',';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader entrada;
+    private final StringBuilder campo = new StringBuilder();
+    private int siguiente = -2;
+    private long linea = 1;
+    private long lineaRegistro;
+
+    public LectorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    public List<String> leer() throws IOException {
+        int c = leerCaracter();
+        if (c == BOM && linea == 1 && lineaRegistro == 0) {
+            c = leerCaracter();
+        }
+        while (c == '\r' || c == '\n') {
+            terminarLinea(c);
+            c = leerCaracter();
+        }
+        if (c == -1) {
+            return null;
+        }
+        lineaRegistro = linea;
+        List<String> campos = new ArrayList<>();
+        while (true) {
+            campo.setLength(0);
+            if (c == COMILLA) {
+                c = leerEntreComillas();
+            } else {
+                while (c != SEPARADOR && c != '\r' && c != '\n' && c != -1) {
+                    campo.append((char) c);
+                    c = leerCaracter();
+                }
+            }
+            campos.add(campo.toString());
+            if (c == SEPARADOR) {
+                c = leerCaracter();
+                continue;
+            }
+            if (c != -1) {
+                terminarLinea(c);
+            }
+            return campos;
+        }
+    }
+
+    /**
+     * @return the line of the input where the last record read starts, from 1
+     */
+    public long lineaRegistro() {
+        return lineaRegistro;
+    }
+
+    /**
+     * Reads a quoted field up to its closing quote; text between that quote and the next separator is kept.
+     *
+     * @return the first character after the field
+     */
+    private int leerEntreComillas() throws IOException {
+        while (true) {
+            int c = leerCaracter();
+            if (c == -1) {
+                throw new IllegalArgumentException("Falta cerrar las comillas del campo que empieza en la línea "
+                        + lineaRegistro);
+            }
+            if (c == COMILLA) {
+                c = leerCaracter();
+                if (c != COMILLA) {
+                    while (c != SEPARADOR && c != '\r' && c != '\n' && c != -1) {
+                        campo.append((char) c);
+                        c = leerCaracter();
+                    }
+                    return c;
+                }
+            } else if (c == '\n') {
+                linea++;
+            } else if (c == '\r') {
+                linea++;
+                campo.append('\r');
+                c = leerCaracter();
+                if (c != '\n') {
+                    siguiente = c;
+                    continue;
+                }
+            }
+            campo.append((char) c);
+        }
+    }
+
+    /**
+     * Consumes the line break that starts with the given character, CRLF being a single one.
+     */
+    private void terminarLinea(int c) throws IOException {
+        linea++;
+        if (c == '\r') {
+            int despues = leerCaracter();
+            if (despues != '\n') {
+                siguiente = despues;
+            }
+        }
+    }
+
+    private int leerCaracter() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+}
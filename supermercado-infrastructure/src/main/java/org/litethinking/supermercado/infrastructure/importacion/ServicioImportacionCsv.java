@@ -0,0 +1,244 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.service.importacion.ServicioImportacion;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ErrorFilaImportacionDto;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ProgresoImportacionDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * CSV implementation of {@link ServicioImportacion}, as a three-stage pipeline.
+ *
+ * <p>The CSV is parsed on the thread of the import alone, one record after the other, since a quoted field
+ * may run over several lines; only the conversion and validation of the parsed records is parallel. Each
+ * chunk of records goes to a shared pool while the thread parses the next ones, with a bounded number of
+ * chunks in flight so a large file is never held in memory. Validated chunks are written back on the thread of the import, in file order,
+ * each in its own transaction through the batch upserts of the repository ports, and the progress is
+ * reported after each one. A chunk that cannot be written rejects its rows and the import goes on.</p>
+ *
+ * <p>Rows of a chunk that repeat a key are replaced by the last one, which is what writing them one after
+ * the other would leave; the replaced rows count as updates.</p>
+ */
+@Service
+public class ServicioImportacionCsv implements ServicioImportacion {
+
+    private static final Logger logger = LogManager.getLogger(ServicioImportacionCsv.class);
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Map<String, ImportadorCsv<?>> importadores = new LinkedHashMap<>();
+    private final int tamanoBloque;
+    private final int bloquesEnVuelo;
+    private final ExecutorService validadores;
+
+    public ServicioImportacionCsv(List<ImportadorCsv<?>> importadores,
+                                  @Value("${supermercado.importacion.tamano-bloque:1000}") int tamanoBloque,
+                                  @Value("${supermercado.importacion.hilos:0}") int hilos) {
+        importadores.forEach(importador -> this.importadores.put(importador.entidad(), importador));
+        int hilosValidacion = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.tamanoBloque = tamanoBloque;
+        this.bloquesEnVuelo = hilosValidacion * 2;
+        AtomicInteger numero = new AtomicInteger();
+        this.validadores = Executors.newFixedThreadPool(hilosValidacion, tarea -> {
+            Thread hilo = new Thread(tarea, "importacion-csv-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public Importacion preparar(String entidad, InputStream entrada) {
+        ImportadorCsv<?> importador = entidad == null ? null : importadores.get(entidad.toLowerCase(Locale.ROOT));
+        if (importador == null) {
+            throw new IllegalArgumentException("No se puede importar '" + entidad + "', las entidades son: "
+                    + String.join(", ", importadores.keySet()));
+        }
+        LectorCsv lector = new LectorCsv(new BufferedReader(
+                new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANO_BUFFER));
+        List<String> nombres;
+        try {
+            nombres = lector.leer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo a importar", e);
+        }
+        if (nombres == null) {
+            throw new IllegalArgumentException("El archivo está vacío, falta el encabezado");
+        }
+        EncabezadoCsv encabezado = new EncabezadoCsv(nombres);
+        importador.validarEncabezado(encabezado);
+        return ejecucion(importador, lector, encabezado);
+    }
+
+    @PreDestroy
+    public void detener() {
+        validadores.shutdownNow();
+    }
+
+    private <T> Importacion ejecucion(ImportadorCsv<T> importador, LectorCsv lector, EncabezadoCsv encabezado) {
+        return new Ejecucion<>(importador, lector, encabezado);
+    }
+
+    /**
+     * A chunk of rows once converted: the records with the line of each, and the rows that failed.
+     */
+    private record BloqueValidado<T>(List<T> registros, List<Long> lineas, List<ErrorFilaImportacionDto> errores) {
+    }
+
+    private final class Ejecucion<T> implements Importacion {
+
+        private final ImportadorCsv<T> importador;
+        private final LectorCsv lector;
+        private final EncabezadoCsv encabezado;
+        private ErrorFilaImportacionDto errorLectura;
+        private long filasLeidas;
+        private long insertadas;
+        private long actualizadas;
+        private long rechazadas;
+        private long inicio;
+
+        private Ejecucion(ImportadorCsv<T> importador, LectorCsv lector, EncabezadoCsv encabezado) {
+            this.importador = importador;
+            this.lector = lector;
+            this.encabezado = encabezado;
+        }
+
+        @Override
+        public ProgresoImportacionDto ejecutar(Consumer<ProgresoImportacionDto> alAvanzar) {
+            inicio = System.nanoTime();
+            Deque<CompletableFuture<BloqueValidado<T>>> enVuelo = new ArrayDeque<>();
+            try {
+                List<FilaCsv> filas;
+                while ((filas = leerBloque()) != null) {
+                    List<FilaCsv> bloque = filas;
+                    enVuelo.add(CompletableFuture.supplyAsync(() -> validar(bloque), validadores));
+                    if (enVuelo.size() >= bloquesEnVuelo) {
+                        escribir(enVuelo.poll().join(), alAvanzar);
+                    }
+                }
+                while (!enVuelo.isEmpty()) {
+                    escribir(enVuelo.poll().join(), alAvanzar);
+                }
+            } finally {
+                enVuelo.forEach(pendiente -> pendiente.cancel(false));
+            }
+
+            List<ErrorFilaImportacionDto> errores = new ArrayList<>(1);
+            if (errorLectura != null) {
+                errores.add(errorLectura);
+                rechazadas++;
+            }
+            ProgresoImportacionDto fin = progreso(errores, true);
+            logger.info("Imported {} from CSV: {} rows read, {} inserted, {} updated, {} rejected, {} ms",
+                    importador.entidad(), fin.filasLeidas(), fin.insertadas(), fin.actualizadas(),
+                    fin.rechazadas(), fin.duracionMs());
+            alAvanzar.accept(fin);
+            return fin;
+        }
+
+        /**
+         * @return the next records of the file, or null once it is over. A quoted field that is never closed
+         * swallows the rest of the file, so it ends the import with an error for its row.
+         */
+        private List<FilaCsv> leerBloque() {
+            if (errorLectura != null) {
+                return null;
+            }
+            List<FilaCsv> filas = new ArrayList<>(tamanoBloque);
+            try {
+                List<String> valores;
+                while (filas.size() < tamanoBloque && (valores = lector.leer()) != null) {
+                    filas.add(new FilaCsv(encabezado, valores, lector.lineaRegistro()));
+                }
+            } catch (IllegalArgumentException e) {
+                filasLeidas++;
+                errorLectura = new ErrorFilaImportacionDto(lector.lineaRegistro(), e.getMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el archivo a importar", e);
+            }
+            filasLeidas += filas.size();
+            return filas.isEmpty() ? null : filas;
+        }
+
+        private BloqueValidado<T> validar(List<FilaCsv> filas) {
+            List<T> registros = new ArrayList<>(filas.size());
+            List<Long> lineas = new ArrayList<>(filas.size());
+            List<ErrorFilaImportacionDto> errores = new ArrayList<>();
+            for (FilaCsv fila : filas) {
+                try {
+                    registros.add(importador.convertir(fila));
+                    lineas.add(fila.linea());
+                } catch (IllegalArgumentException e) {
+                    errores.add(new ErrorFilaImportacionDto(fila.linea(), e.getMessage()));
+                }
+            }
+            return new BloqueValidado<>(registros, lineas, errores);
+        }
+
+        private void escribir(BloqueValidado<T> bloque, Consumer<ProgresoImportacionDto> alAvanzar) {
+            Map<Object, Integer> posiciones = new HashMap<>();
+            List<T> unicos = new ArrayList<>(bloque.registros().size());
+            List<Long> lineas = new ArrayList<>(bloque.registros().size());
+            int reemplazados = 0;
+            for (int i = 0; i < bloque.registros().size(); i++) {
+                T registro = bloque.registros().get(i);
+                Integer posicion = posiciones.putIfAbsent(importador.clave(registro), unicos.size());
+                if (posicion == null) {
+                    unicos.add(registro);
+                    lineas.add(bloque.lineas().get(i));
+                } else {
+                    unicos.set(posicion, registro);
+                    lineas.set(posicion, bloque.lineas().get(i));
+                    reemplazados++;
+                }
+            }
+
+            List<ErrorFilaImportacionDto> errores = new ArrayList<>(bloque.errores());
+            if (!unicos.isEmpty()) {
+                try {
+                    ResultadoLoteImportacion resultado = importador.guardar(unicos);
+                    insertadas += resultado.insertados();
+                    actualizadas += resultado.actualizados() + reemplazados;
+                    resultado.rechazados().forEach(rechazo ->
+                            errores.add(new ErrorFilaImportacionDto(lineas.get(rechazo.indice()), rechazo.motivo())));
+                } catch (RuntimeException e) {
+                    logger.warn("Could not write a chunk of {} {} from line {}", unicos.size(),
+                            importador.entidad(), lineas.get(0), e);
+                    String motivo = "No se pudo guardar el bloque: " + e.getMessage();
+                    lineas.forEach(linea -> errores.add(new ErrorFilaImportacionDto(linea, motivo)));
+                    // The rows replaced within the chunk are lost with it, though they have no error of their own
+                    rechazadas += reemplazados;
+                }
+            }
+            rechazadas += errores.size();
+            alAvanzar.accept(progreso(errores, false));
+        }
+
+        private ProgresoImportacionDto progreso(List<ErrorFilaImportacionDto> errores, boolean terminada) {
+            return new ProgresoImportacionDto(importador.entidad(), filasLeidas, insertadas, actualizadas,
+                    rechazadas, List.copyOf(errores), terminada, (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+}
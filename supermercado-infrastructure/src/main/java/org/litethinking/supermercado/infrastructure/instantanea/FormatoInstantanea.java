@@ -0,0 +1,315 @@
+package org.litethinking.supermercado.infrastructure.instantanea;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary layout of a catalog snapshot.
+ *
+ * <pre>
+ * [magic int][version short][created epoch millis long]
+ * per table: [1][name][column count byte]([column name][type byte])*
+ *            per row: [1][null bitmap][non-null values]
+ *            [0]
+ * [0][CRC32 of every previous byte, long]
+ * </pre>
+ *
+ * Strings are an int byte length followed by UTF-8, decimals an int scale followed by the short length
+ * and bytes of the unscaled value, dates an int epoch day. Rows carry no per-value framing, so the file is
+ * about the size of the raw data and is parsed straight out of a memory-mapped buffer.
+ */
+final class FormatoInstantanea {
+
+    static final int MAGIA = 0x534D4B54;
+    static final short VERSION = 2;
+
+    private static final byte MARCA_SIGUE = 1;
+    private static final byte MARCA_FIN = 0;
+    private static final int TAMANO_CABECERA = Integer.BYTES + Short.BYTES + Long.BYTES;
+    private static final int TAMANO_COLA = 1 + Long.BYTES;
+
+    private FormatoInstantanea() {
+    }
+
+    /**
+     * Column types that can be stored, with their JDBC type for binding nulls.
+     */
+    enum TipoColumna {
+        LONG(1, Types.BIGINT),
+        INT(2, Types.INTEGER),
+        TEXTO(3, Types.VARCHAR),
+        DECIMAL(4, Types.NUMERIC),
+        FECHA(5, Types.DATE);
+
+        private final byte codigo;
+        private final int tipoSql;
+
+        TipoColumna(int codigo, int tipoSql) {
+            this.codigo = (byte) codigo;
+            this.tipoSql = tipoSql;
+        }
+
+        int tipoSql() {
+            return tipoSql;
+        }
+
+        static TipoColumna deCodigo(byte codigo) throws IOException {
+            for (TipoColumna tipo : values()) {
+                if (tipo.codigo == codigo) {
+                    return tipo;
+                }
+            }
+            throw new IOException("Tipo de columna desconocido en la instantánea: " + codigo);
+        }
+    }
+
+    record Columna(String nombre, TipoColumna tipo) {
+    }
+
+    record Tabla(String nombre, List<Columna> columnas) {
+
+        Tabla {
+            columnas = List.copyOf(columnas);
+        }
+    }
+
+    /**
+     * Streams tables and rows into a snapshot. {@link #terminar()} writes the checksum; a file
+     * without it is rejected by {@link Lector}.
+     */
+    static final class Escritor {
+
+        private final OutputStream destino;
+        private final CheckedOutputStream verificado;
+        private final DataOutputStream salida;
+        private Tabla tablaActual;
+        private long filasTablaActual;
+
+        Escritor(OutputStream destino, Instant creada) throws IOException {
+            this.destino = destino;
+            this.verificado = new CheckedOutputStream(destino, new CRC32());
+            this.salida = new DataOutputStream(new BufferedOutputStream(verificado, 64 * 1024));
+            salida.writeInt(MAGIA);
+            salida.writeShort(VERSION);
+            salida.writeLong(creada.toEpochMilli());
+        }
+
+        void comenzarTabla(Tabla tabla) throws IOException {
+            if (tablaActual != null) {
+                throw new IllegalStateException("La tabla " + tablaActual.nombre() + " no se ha terminado");
+            }
+            salida.writeByte(MARCA_SIGUE);
+            escribirTexto(tabla.nombre());
+            salida.writeByte(tabla.columnas().size());
+            for (Columna columna : tabla.columnas()) {
+                escribirTexto(columna.nombre());
+                salida.writeByte(columna.tipo().codigo);
+            }
+            tablaActual = tabla;
+            filasTablaActual = 0;
+        }
+
+        void escribirFila(Object[] valores) throws IOException {
+            List<Columna> columnas = tablaActual.columnas();
+            if (valores.length != columnas.size()) {
+                throw new IllegalArgumentException("La fila tiene " + valores.length + " valores y la tabla "
+                        + tablaActual.nombre() + " " + columnas.size() + " columnas");
+            }
+            salida.writeByte(MARCA_SIGUE);
+            byte[] nulos = new byte[(valores.length + 7) / 8];
+            for (int i = 0; i < valores.length; i++) {
+                if (valores[i] == null) {
+                    nulos[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            salida.write(nulos);
+            for (int i = 0; i < valores.length; i++) {
+                if (valores[i] != null) {
+                    escribirValor(columnas.get(i).tipo(), valores[i]);
+                }
+            }
+            filasTablaActual++;
+        }
+
+        /**
+         * @return the number of rows written to the table
+         */
+        long terminarTabla() throws IOException {
+            salida.writeByte(MARCA_FIN);
+            tablaActual = null;
+            return filasTablaActual;
+        }
+
+        /**
+         * Closes the table list and appends the checksum of everything written so far.
+         * The destination is flushed but left open.
+         */
+        void terminar() throws IOException {
+            if (tablaActual != null) {
+                throw new IllegalStateException("La tabla " + tablaActual.nombre() + " no se ha terminado");
+            }
+            salida.writeByte(MARCA_FIN);
+            salida.flush();
+            long crc = verificado.getChecksum().getValue();
+            DataOutputStream cola = new DataOutputStream(destino);
+            cola.writeLong(crc);
+            cola.flush();
+        }
+
+        private void escribirValor(TipoColumna tipo, Object valor) throws IOException {
+            switch (tipo) {
+                case LONG -> salida.writeLong(((Number) valor).longValue());
+                case INT -> salida.writeInt(((Number) valor).intValue());
+                case TEXTO -> escribirTexto((String) valor);
+                case DECIMAL -> {
+                    BigDecimal decimal = (BigDecimal) valor;
+                    byte[] sinEscala = decimal.unscaledValue().toByteArray();
+                    salida.writeInt(decimal.scale());
+                    salida.writeShort(sinEscala.length);
+                    salida.write(sinEscala);
+                }
+                case FECHA -> salida.writeInt(Math.toIntExact(((LocalDate) valor).toEpochDay()));
+            }
+        }
+
+        private void escribirTexto(String texto) throws IOException {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            salida.writeInt(bytes.length);
+            salida.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a snapshot held in a buffer, usually a memory-mapped file. The magic number, version and
+     * checksum are verified when it is opened, before any row is handed out.
+     */
+    static final class Lector {
+
+        private final ByteBuffer buffer;
+        private final Instant creada;
+        private Tabla tablaActual;
+        private boolean terminado;
+
+        private Lector(ByteBuffer buffer, Instant creada) {
+            this.buffer = buffer;
+            this.creada = creada;
+        }
+
+        static Lector abrir(ByteBuffer origen) throws IOException {
+            ByteBuffer buffer = origen.duplicate();
+            int tamano = buffer.remaining();
+            if (tamano < TAMANO_CABECERA + TAMANO_COLA) {
+                throw new IOException("La instantánea está incompleta");
+            }
+            int inicio = buffer.position();
+            int finDatos = inicio + tamano - Long.BYTES;
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(inicio, finDatos - inicio));
+            if (crc.getValue() != buffer.getLong(finDatos)) {
+                throw new IOException("La suma de verificación de la instantánea no coincide");
+            }
+            if (buffer.getInt() != MAGIA) {
+                throw new IOException("El archivo no es una instantánea del catálogo");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            Instant creada = Instant.ofEpochMilli(buffer.getLong());
+            buffer.limit(finDatos);
+            return new Lector(buffer, creada);
+        }
+
+        Instant creada() {
+            return creada;
+        }
+
+        /**
+         * @return the next table, or null when there are no more
+         */
+        Tabla siguienteTabla() throws IOException {
+            if (tablaActual != null) {
+                throw new IllegalStateException("Quedan filas de la tabla " + tablaActual.nombre() + " por leer");
+            }
+            try {
+                if (terminado || buffer.get() == MARCA_FIN) {
+                    terminado = true;
+                    return null;
+                }
+                String nombre = leerTexto();
+                int cantidadColumnas = Byte.toUnsignedInt(buffer.get());
+                List<Columna> columnas = new ArrayList<>(cantidadColumnas);
+                for (int i = 0; i < cantidadColumnas; i++) {
+                    columnas.add(new Columna(leerTexto(), TipoColumna.deCodigo(buffer.get())));
+                }
+                tablaActual = new Tabla(nombre, columnas);
+                return tablaActual;
+            } catch (BufferUnderflowException e) {
+                throw new IOException("La instantánea está truncada", e);
+            }
+        }
+
+        /**
+         * @return the values of the next row of the current table, or null at its end
+         */
+        Object[] siguienteFila() throws IOException {
+            if (tablaActual == null) {
+                return null;
+            }
+            try {
+                if (buffer.get() == MARCA_FIN) {
+                    tablaActual = null;
+                    return null;
+                }
+                List<Columna> columnas = tablaActual.columnas();
+                byte[] nulos = new byte[(columnas.size() + 7) / 8];
+                buffer.get(nulos);
+                Object[] valores = new Object[columnas.size()];
+                for (int i = 0; i < valores.length; i++) {
+                    if ((nulos[i >> 3] & (1 << (i & 7))) == 0) {
+                        valores[i] = leerValor(columnas.get(i).tipo());
+                    }
+                }
+                return valores;
+            } catch (BufferUnderflowException e) {
+                throw new IOException("La instantánea está truncada", e);
+            }
+        }
+
+        private Object leerValor(TipoColumna tipo) {
+            return switch (tipo) {
+                case LONG -> buffer.getLong();
+                case INT -> buffer.getInt();
+                case TEXTO -> leerTexto();
+                case DECIMAL -> {
+                    int escala = buffer.getInt();
+                    byte[] sinEscala = new byte[buffer.getShort()];
+                    buffer.get(sinEscala);
+                    yield new BigDecimal(new BigInteger(sinEscala), escala);
+                }
+                case FECHA -> LocalDate.ofEpochDay(buffer.getInt());
+            };
+        }
+
+        private String leerTexto() {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
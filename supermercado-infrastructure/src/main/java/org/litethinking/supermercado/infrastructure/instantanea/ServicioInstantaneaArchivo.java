@@ -0,0 +1,260 @@
+package org.litethinking.supermercado.infrastructure.instantanea;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.service.instantanea.ServicioInstantanea;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.Columna;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.Tabla;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.TipoColumna;
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * File-based implementation of {@link ServicioInstantanea} over plain JDBC, so neither the dump nor the
+ * restore goes through the JPA persistence context.
+ *
+ * <p>The dump reads the five tables in one read-only repeatable-read transaction, so the snapshot is
+ * consistent, and streams the rows into a temporary file that atomically replaces the previous snapshot
+ * once it is on disk. The restore maps the file, verifies it and inserts the rows with explicit ids in
+ * JDBC batches inside one transaction, then moves each identity column past the restored ids.</p>
+ */
+@Service
+public class ServicioInstantaneaArchivo implements ServicioInstantanea {
+
+    private static final Logger logger = LogManager.getLogger(ServicioInstantaneaArchivo.class);
+    private static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Tables in insert order: products and locations go before the inventory records that reference them.
+     */
+    private static final List<Tabla> TABLAS = List.of(
+            new Tabla("cajeros", List.of(
+                    new Columna("id", TipoColumna.LONG),
+                    new Columna("nombre", TipoColumna.TEXTO),
+                    new Columna("codigo", TipoColumna.TEXTO),
+                    new Columna("turno", TipoColumna.TEXTO))),
+            new Tabla("clientes", List.of(
+                    new Columna("id", TipoColumna.LONG),
+                    new Columna("nombre", TipoColumna.TEXTO),
+                    new Columna("email", TipoColumna.TEXTO),
+                    new Columna("telefono", TipoColumna.TEXTO),
+                    new Columna("direccion", TipoColumna.TEXTO))),
+            new Tabla("productos", List.of(
+                    new Columna("id", TipoColumna.LONG),
+                    new Columna("nombre", TipoColumna.TEXTO),
+                    new Columna("descripcion", TipoColumna.TEXTO),
+                    new Columna("precio", TipoColumna.DECIMAL),
+                    new Columna("categoria", TipoColumna.TEXTO),
+                    new Columna("codigo_barras", TipoColumna.TEXTO))),
+            new Tabla("ubicaciones", List.of(
+                    new Columna("id", TipoColumna.LONG),
+                    new Columna("nombre", TipoColumna.TEXTO))),
+            new Tabla("inventarios", List.of(
+                    new Columna("id", TipoColumna.LONG),
+                    new Columna("producto_id", TipoColumna.LONG),
+                    new Columna("cantidad", TipoColumna.INT),
+                    new Columna("stock_minimo", TipoColumna.INT),
+                    new Columna("stock_maximo", TipoColumna.INT),
+                    new Columna("fecha_ultima_reposicion", TipoColumna.FECHA),
+                    new Columna("ubicacion_id", TipoColumna.LONG))));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionLectura;
+    private final TransactionTemplate transaccionEscritura;
+    private final Path ruta;
+
+    public ServicioInstantaneaArchivo(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${supermercado.instantanea.ruta:data/instantanea-catalogo.bin}") String ruta) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transaccionEscritura = new TransactionTemplate(transactionManager);
+        this.ruta = Path.of(ruta);
+    }
+
+    /**
+     * One snapshot at a time, so two requests never race on the final rename.
+     */
+    @Override
+    public synchronized InstantaneaDto crear() {
+        long inicio = System.nanoTime();
+        Instant creada = Instant.now();
+        Path temporal = null;
+        try {
+            Path directorio = ruta.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            temporal = Files.createTempFile(directorio, ruta.getFileName().toString(), ".tmp");
+
+            Map<String, Long> filasPorTabla;
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                OutputStream salida = Channels.newOutputStream(canal);
+                FormatoInstantanea.Escritor escritor = new FormatoInstantanea.Escritor(salida, creada);
+                filasPorTabla = transaccionLectura.execute(estado -> volcarTablas(escritor));
+                escritor.terminar();
+                canal.force(true);
+            }
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temporal = null;
+
+            InstantaneaDto resumen = resumen(creada, filasPorTabla, inicio);
+            logger.info("Catalog snapshot written to {}: {} bytes, rows {}, {} ms",
+                    ruta, resumen.bytes(), filasPorTabla, resumen.duracionMs());
+            return resumen;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir la instantánea del catálogo", e);
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    logger.warn("Could not delete the temporary snapshot file {}", temporal, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized Optional<InstantaneaDto> restaurar() {
+        if (!Files.isRegularFile(ruta)) {
+            return Optional.empty();
+        }
+        List<String> conDatos = TABLAS.stream()
+                .map(Tabla::nombre)
+                .filter(tabla -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Long.class) > 0)
+                .toList();
+        if (!conDatos.isEmpty()) {
+            logger.warn("Snapshot {} not restored: tables {} already have rows", ruta, conDatos);
+            return Optional.empty();
+        }
+
+        long inicio = System.nanoTime();
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("La instantánea supera el tamaño máximo de 2 GB");
+            }
+            MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            FormatoInstantanea.Lector lector = FormatoInstantanea.Lector.abrir(mapeado);
+            Map<String, Long> filasPorTabla = transaccionEscritura.execute(estado -> insertarTablas(lector));
+            // DDL commits on its own, so the identities are moved once the rows are in
+            filasPorTabla.keySet().forEach(this::reiniciarIdentidad);
+
+            InstantaneaDto resumen = resumen(lector.creada(), filasPorTabla, inicio);
+            logger.info("Catalog restored from snapshot {} taken at {}: rows {}, {} ms",
+                    ruta, resumen.creada(), filasPorTabla, resumen.duracionMs());
+            return Optional.of(resumen);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo restaurar la instantánea del catálogo " + ruta, e);
+        }
+    }
+
+    private Map<String, Long> volcarTablas(FormatoInstantanea.Escritor escritor) {
+        Map<String, Long> filasPorTabla = new LinkedHashMap<>();
+        try {
+            for (Tabla tabla : TABLAS) {
+                escritor.comenzarTabla(tabla);
+                List<Columna> columnas = tabla.columnas();
+                String nombresColumnas = columnas.stream().map(Columna::nombre).collect(Collectors.joining(", "));
+                jdbcTemplate.query("SELECT " + nombresColumnas + " FROM " + tabla.nombre() + " ORDER BY id",
+                        (RowCallbackHandler) fila -> {
+                            Object[] valores = new Object[columnas.size()];
+                            for (int i = 0; i < valores.length; i++) {
+                                valores[i] = leerColumna(fila, i + 1, columnas.get(i).tipo());
+                            }
+                            try {
+                                escritor.escribirFila(valores);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                filasPorTabla.put(tabla.nombre(), escritor.terminarTabla());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return filasPorTabla;
+    }
+
+    private Map<String, Long> insertarTablas(FormatoInstantanea.Lector lector) {
+        Map<String, Long> filasPorTabla = new LinkedHashMap<>();
+        try {
+            for (Tabla tabla; (tabla = lector.siguienteTabla()) != null; ) {
+                if (!TABLAS.contains(tabla)) {
+                    throw new IOException("La tabla " + tabla.nombre() + " de la instantánea no coincide con el esquema actual");
+                }
+                List<Columna> columnas = tabla.columnas();
+                String sql = "INSERT INTO " + tabla.nombre() + " ("
+                        + columnas.stream().map(Columna::nombre).collect(Collectors.joining(", "))
+                        + ") VALUES (" + "?, ".repeat(columnas.size() - 1) + "?)";
+                int[] tiposSql = columnas.stream().mapToInt(columna -> columna.tipo().tipoSql()).toArray();
+
+                List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+                long filas = 0;
+                for (Object[] valores; (valores = lector.siguienteFila()) != null; ) {
+                    lote.add(valores);
+                    if (lote.size() == TAMANO_LOTE) {
+                        jdbcTemplate.batchUpdate(sql, lote, tiposSql);
+                        filas += lote.size();
+                        lote.clear();
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, lote, tiposSql);
+                    filas += lote.size();
+                }
+                filasPorTabla.put(tabla.nombre(), filas);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return filasPorTabla;
+    }
+
+    private void reiniciarIdentidad(String tabla) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN id RESTART WITH " + (maximo + 1));
+    }
+
+    private InstantaneaDto resumen(Instant creada, Map<String, Long> filasPorTabla, long inicio) throws IOException {
+        return new InstantaneaDto(ruta.toString(), FormatoInstantanea.VERSION, creada, Files.size(ruta),
+                filasPorTabla, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private static Object leerColumna(ResultSet fila, int indice, TipoColumna tipo) throws SQLException {
+        return switch (tipo) {
+            case LONG -> fila.getObject(indice, Long.class);
+            case INT -> fila.getObject(indice, Integer.class);
+            case TEXTO -> fila.getString(indice);
+            case DECIMAL -> fila.getBigDecimal(indice);
+            case FECHA -> fila.getObject(indice, LocalDate.class);
+        };
+    }
+}
@@ -1,11 +1,16 @@
 package org.litethinking.supermercado.infrastructure.persistence.adapter;
 
 import org.litethinking.supermercado.domain.model.Cajero;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
 import org.litethinking.supermercado.domain.ports.output.RepositorioCajeroPort;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaCajero;
+import org.litethinking.supermercado.infrastructure.persistence.lote.GuardadoPorLotes;
 import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaCajero;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -18,10 +23,15 @@ import java.util.stream.Collectors;
 @Service
 public class AdaptadorRepositorioCajero implements RepositorioCajeroPort {
 
+    private static final List<String> COLUMNAS_LOTE = List.of("nombre", "turno");
+    private static final int[] TIPOS_LOTE = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+
     private final RepositorioJpaCajero repositorioJpaCajero;
+    private final JdbcTemplate jdbcTemplate;
 
-    public AdaptadorRepositorioCajero(RepositorioJpaCajero repositorioJpaCajero) {
+    public AdaptadorRepositorioCajero(RepositorioJpaCajero repositorioJpaCajero, JdbcTemplate jdbcTemplate) {
         this.repositorioJpaCajero = repositorioJpaCajero;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
@@ -94,6 +104,22 @@ public class AdaptadorRepositorioCajero implements RepositorioCajeroPort {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Guarda un lote de cajeros por código, con UPDATE e INSERT por lotes de JDBC en vez de uno por uno.
+     *
+     * @param cajeros los cajeros que vamo' a guardar
+     * @return cuántos se crearon y cuántos se actualizaron
+     */
+    @Override
+    @Transactional
+    public ResultadoLoteImportacion guardarLotePorCodigo(List<Cajero> cajeros) {
+        List<Object[]> filas = cajeros.stream()
+                .map(cajero -> new Object[]{cajero.getNombre(), cajero.getTurno(), cajero.getCodigo()})
+                .toList();
+        return GuardadoPorLotes.resultado(GuardadoPorLotes.guardarPorClave(jdbcTemplate, "cajeros", COLUMNAS_LOTE,
+                "codigo", TIPOS_LOTE, filas));
+    }
+
     /**
      * Convierte una entidad JPA a un modelo de dominio.
      * Esto e' pa' que el dominio no sepa na' de JPA.
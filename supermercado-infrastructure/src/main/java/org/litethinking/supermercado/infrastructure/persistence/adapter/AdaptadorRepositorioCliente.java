@@ -1,11 +1,16 @@
 package org.litethinking.supermercado.infrastructure.persistence.adapter;
 
 import org.litethinking.supermercado.domain.model.Cliente;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
 import org.litethinking.supermercado.domain.ports.output.RepositorioClientePort;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaCliente;
+import org.litethinking.supermercado.infrastructure.persistence.lote.GuardadoPorLotes;
 import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaCliente;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -17,10 +22,15 @@ import java.util.stream.Collectors;
 @Service
 public class AdaptadorRepositorioCliente implements RepositorioClientePort {
 
+    private static final List<String> COLUMNAS_LOTE = List.of("nombre", "telefono", "direccion");
+    private static final int[] TIPOS_LOTE = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+
     private final RepositorioJpaCliente repositorioJpaCliente;
+    private final JdbcTemplate jdbcTemplate;
 
-    public AdaptadorRepositorioCliente(RepositorioJpaCliente repositorioJpaCliente) {
+    public AdaptadorRepositorioCliente(RepositorioJpaCliente repositorioJpaCliente, JdbcTemplate jdbcTemplate) {
         this.repositorioJpaCliente = repositorioJpaCliente;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
@@ -59,6 +69,20 @@ public class AdaptadorRepositorioCliente implements RepositorioClientePort {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Upserts the batch by email with JDBC batches, since identity ids keep Hibernate from batching inserts.
+     */
+    @Override
+    @Transactional
+    public ResultadoLoteImportacion guardarLotePorEmail(List<Cliente> clientes) {
+        List<Object[]> filas = clientes.stream()
+                .map(cliente -> new Object[]{cliente.getNombre(), cliente.getTelefono(), cliente.getDireccion(),
+                        cliente.getEmail()})
+                .toList();
+        return GuardadoPorLotes.resultado(GuardadoPorLotes.guardarPorClave(jdbcTemplate, "clientes", COLUMNAS_LOTE,
+                "email", TIPOS_LOTE, filas));
+    }
+
     private Cliente mapToDomain(EntidadJpaCliente entidadJpaCliente) {
         return Cliente.builder()
                 .id(entidadJpaCliente.getId())
@@ -1,15 +1,47 @@
 package org.litethinking.supermercado.infrastructure.persistence.adapter;
 
 import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.domain.model.producto.OrdenProducto;
+import org.litethinking.supermercado.domain.model.producto.PaginaProductos;
+import org.litethinking.supermercado.domain.model.producto.PreciosEnCentavos;
 import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.litethinking.supermercado.infrastructure.busqueda.IndiceBusquedaProductos;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.AdaptadorRepositorioInventario;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.IndiceEstadoStock;
+import org.litethinking.supermercado.infrastructure.persistence.lote.GuardadoPorLotes;
+import org.litethinking.supermercado.infrastructure.persistence.repository.EspecificacionesProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.FilaProductoExportacion;
 import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.transaccion.TrasConfirmar;
+import org.litethinking.supermercado.shareddto.supermercado.EventoProductoModificadoDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adapter implementation for RepositorioProducto and RepositorioProductoPort.
@@ -18,17 +50,82 @@ import java.util.stream.Collectors;
 @Service
 public class AdaptadorRepositorioProducto implements RepositorioProductoPort {
 
+    private static final List<String> COLUMNAS_LOTE = List.of("nombre", "descripcion", "precio", "categoria");
+    private static final int[] TIPOS_LOTE = {Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR};
+
     private final RepositorioJpaProducto repositorioJpaProducto;
+    private final IndiceEstadoStock indiceEstadoStock;
+    private final IndiceCodigosBarras indiceCodigosBarras;
+    private final IndiceBusquedaProductos indiceBusquedaProductos;
+    private final IndicePrecios indicePrecios;
+    private final AdaptadorRepositorioInventario adaptadorInventario;
+    private final ApplicationEventPublisher publicador;
+    private final JdbcTemplate jdbcTemplate;
 
-    public AdaptadorRepositorioProducto(RepositorioJpaProducto repositorioJpaProducto) {
+    public AdaptadorRepositorioProducto(RepositorioJpaProducto repositorioJpaProducto,
+                                        IndiceEstadoStock indiceEstadoStock,
+                                        IndiceCodigosBarras indiceCodigosBarras,
+                                        IndiceBusquedaProductos indiceBusquedaProductos,
+                                        IndicePrecios indicePrecios,
+                                        AdaptadorRepositorioInventario adaptadorInventario,
+                                        ApplicationEventPublisher publicador,
+                                        JdbcTemplate jdbcTemplate) {
         this.repositorioJpaProducto = repositorioJpaProducto;
+        this.indiceEstadoStock = indiceEstadoStock;
+        this.indiceCodigosBarras = indiceCodigosBarras;
+        this.indiceBusquedaProductos = indiceBusquedaProductos;
+        this.indicePrecios = indicePrecios;
+        this.adaptadorInventario = adaptadorInventario;
+        this.publicador = publicador;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
+    /**
+     * After commit, the new price is passed to the {@link IndiceEstadoStock} so the stock value of the
+     * product's location stays current, and the product to the {@link IndiceCodigosBarras}, the
+     * {@link IndiceBusquedaProductos} and the {@link IndicePrecios}, and an
+     * {@link EventoProductoModificadoDto} is published. The inventory near cache drops the record of the
+     * product, since it holds a copy of the product's fields.
+     */
     @Override
     public Producto save(Producto producto) {
         EntidadJpaProducto entidadJpaProducto = mapToEntity(producto);
         EntidadJpaProducto savedEntity = repositorioJpaProducto.save(entidadJpaProducto);
-        return mapToDomain(savedEntity);
+        Producto guardado = mapToDomain(savedEntity);
+        adaptadorInventario.invalidarEnCache(guardado.getId());
+        TrasConfirmar.ejecutar(() -> registrarGuardado(guardado));
+        return guardado;
+    }
+
+    /**
+     * Upserts the batch with JDBC batches by barcode, then reads the saved rows back by barcode so the
+     * indexes and listeners are told about each product after commit, as with {@link #save}.
+     */
+    @Override
+    @Transactional
+    public ResultadoLoteImportacion guardarLotePorCodigoBarras(List<Producto> productos) {
+        List<Object[]> filas = productos.stream()
+                .map(producto -> new Object[]{producto.getNombre(), producto.getDescripcion(), producto.getPrecio(),
+                        producto.getCategoria(), producto.getCodigoBarras()})
+                .toList();
+        boolean[] insertados = GuardadoPorLotes.guardarPorClave(jdbcTemplate, "productos", COLUMNAS_LOTE,
+                "codigo_barras", TIPOS_LOTE, filas);
+
+        List<Producto> guardados = repositorioJpaProducto.findFilasByCodigoBarrasIn(
+                        productos.stream().map(Producto::getCodigoBarras).toList()).stream()
+                .map(fila -> Producto.builder()
+                        .id(fila.id())
+                        .nombre(fila.nombre())
+                        .descripcion(fila.descripcion())
+                        .precio(fila.precio())
+                        .categoria(fila.categoria())
+                        .codigoBarras(fila.codigoBarras())
+                        .build())
+                .toList();
+        guardados.forEach(guardado -> adaptadorInventario.invalidarEnCache(guardado.getId()));
+        TrasConfirmar.ejecutar(() -> guardados.forEach(this::registrarGuardado));
+
+        return GuardadoPorLotes.resultado(insertados);
     }
 
     @Override
@@ -46,6 +143,13 @@ public class AdaptadorRepositorioProducto implements RepositorioProductoPort {
     @Override
     public void deleteById(Long id) {
         repositorioJpaProducto.deleteById(id);
+        adaptadorInventario.invalidarEnCache(id);
+        TrasConfirmar.ejecutar(() -> {
+            indiceCodigosBarras.eliminar(id);
+            indiceBusquedaProductos.eliminar(id);
+            indicePrecios.eliminar(id);
+            publicador.publishEvent(new EventoProductoModificadoDto(id, true, Instant.now()));
+        });
     }
 
     @Override
@@ -62,11 +166,166 @@ public class AdaptadorRepositorioProducto implements RepositorioProductoPort {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Served from the {@link IndiceCodigosBarras} once it is loaded. A miss still asks the database, so a
+     * product written without going through this adapter, e.g. by a snapshot restore, is found anyway.
+     */
     @Override
     public Optional<Producto> findByCodigoBarras(String codigoBarras) {
+        if (indiceCodigosBarras.cargado()) {
+            Producto producto = indiceCodigosBarras.buscar(codigoBarras);
+            if (producto != null) {
+                return Optional.of(producto);
+            }
+        }
         return repositorioJpaProducto.findByCodigoBarras(codigoBarras).map(this::mapToDomain);
     }
 
+    @Override
+    public Map<String, Long> findIdsByCodigosBarras(Collection<String> codigosBarras) {
+        Map<String, Long> ids = new HashMap<>();
+        if (codigosBarras.isEmpty()) {
+            return ids;
+        }
+        repositorioJpaProducto.findFilasByCodigoBarrasIn(codigosBarras)
+                .forEach(fila -> ids.put(fila.codigoBarras(), fila.id()));
+        return ids;
+    }
+
+    @Override
+    public List<Producto> findByFiltro(FiltroProducto filtro) {
+        return repositorioJpaProducto.findAll(EspecificacionesProducto.de(filtro), Sort.by("id")).stream()
+                .map(this::mapToDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The page and its count run as two queries over the same WHERE clause; the count is skipped when
+     * the first page is not full. Ties in the sort field are broken by id so pages are stable.
+     */
+    @Override
+    public PaginaProductos findPaginaByFiltro(FiltroProducto filtro, int pagina, int tamano, OrdenProducto orden,
+                                              boolean descendente) {
+        Sort.Direction direccion = descendente ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = orden == OrdenProducto.ID
+                ? Sort.by(direccion, "id")
+                : Sort.by(direccion, propiedad(orden)).and(Sort.by(direccion, "id"));
+        Page<EntidadJpaProducto> resultado = repositorioJpaProducto.findAll(EspecificacionesProducto.de(filtro),
+                PageRequest.of(pagina, tamano, sort));
+        return new PaginaProductos(
+                resultado.getContent().stream().map(this::mapToDomain).collect(Collectors.toList()),
+                resultado.getTotalElements());
+    }
+
+    /**
+     * Served from the {@link IndicePrecios} once it is loaded: the index gives the ids of the page and the
+     * total, and the products are read by primary key. Until then the same page comes from the database.
+     * A product deleted between the two reads is left out of the page.
+     */
+    @Override
+    public PaginaProductos findPaginaByPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria,
+                                              int pagina, int tamano) {
+        if (!indicePrecios.cargado()) {
+            return findPaginaByFiltro(new FiltroProducto(null, categoria, precioMinimo, precioMaximo, null),
+                    pagina, tamano, OrdenProducto.PRECIO, false);
+        }
+        IndicePrecios.Tramo tramo = indicePrecios.tramo(precioMinimo, precioMaximo, categoria,
+                (long) pagina * tamano, tamano);
+        if (tramo.ids().length == 0) {
+            return new PaginaProductos(List.of(), tramo.total());
+        }
+        Map<Long, EntidadJpaProducto> porId = repositorioJpaProducto
+                .findAllById(Arrays.stream(tramo.ids()).boxed().toList()).stream()
+                .collect(Collectors.toMap(EntidadJpaProducto::getId, Function.identity()));
+        List<Producto> productos = new ArrayList<>(tramo.ids().length);
+        for (long id : tramo.ids()) {
+            EntidadJpaProducto entidad = porId.get(id);
+            if (entidad != null) {
+                productos.add(mapToDomain(entidad));
+            }
+        }
+        return new PaginaProductos(productos, tramo.total());
+    }
+
+    /**
+     * Served from the {@link IndicePrecios} once it is loaded, without reading any product.
+     */
+    @Override
+    public long countByPrecio(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria) {
+        if (indicePrecios.cargado()) {
+            return indicePrecios.contar(precioMinimo, precioMaximo, categoria);
+        }
+        return repositorioJpaProducto.count(EspecificacionesProducto.de(
+                new FiltroProducto(null, categoria, precioMinimo, precioMaximo, null)));
+    }
+
+    /**
+     * Served from the {@link IndicePrecios} once it is loaded, without reading any product. Until then the
+     * prices are read from the database and converted the same way the index converts them.
+     */
+    @Override
+    public PreciosEnCentavos findPreciosEnCentavos(String categoria, List<Long> productoIds) {
+        if (indicePrecios.cargado()) {
+            return productoIds != null ? indicePrecios.columnas(productoIds) : indicePrecios.columnas(categoria);
+        }
+        List<EntidadJpaProducto> entidades;
+        if (productoIds != null) {
+            Map<Long, EntidadJpaProducto> porId = repositorioJpaProducto.findAllById(productoIds).stream()
+                    .collect(Collectors.toMap(EntidadJpaProducto::getId, Function.identity()));
+            entidades = productoIds.stream().map(porId::get).filter(Objects::nonNull).toList();
+        } else {
+            entidades = repositorioJpaProducto.findAll(
+                    EspecificacionesProducto.de(new FiltroProducto(null, categoria, null, null, null)),
+                    Sort.by("precio", "id"));
+        }
+        long[] ids = new long[entidades.size()];
+        long[] centavos = new long[entidades.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entidades.get(i).getId();
+            centavos[i] = IndicePrecios.centavos(entidades.get(i).getPrecio(), RoundingMode.HALF_UP);
+        }
+        return new PreciosEnCentavos(ids, centavos);
+    }
+
+    /**
+     * Streams the products as flat rows, so only the product being handed over is held in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerProductos(Consumer<Producto> consumidor) {
+        try (Stream<FilaProductoExportacion> filas = repositorioJpaProducto.streamFilasOrderById()) {
+            Iterator<FilaProductoExportacion> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                FilaProductoExportacion fila = iterador.next();
+                consumidor.accept(Producto.builder()
+                        .id(fila.id())
+                        .nombre(fila.nombre())
+                        .descripcion(fila.descripcion())
+                        .precio(fila.precio())
+                        .categoria(fila.categoria())
+                        .codigoBarras(fila.codigoBarras())
+                        .build());
+            }
+        }
+    }
+
+    private void registrarGuardado(Producto guardado) {
+        indiceEstadoStock.actualizarPrecio(guardado.getId(), guardado.getPrecio());
+        indiceCodigosBarras.registrar(guardado);
+        indiceBusquedaProductos.registrar(guardado);
+        indicePrecios.registrar(guardado);
+        publicador.publishEvent(new EventoProductoModificadoDto(guardado.getId(), false, Instant.now()));
+    }
+
+    private static String propiedad(OrdenProducto orden) {
+        return switch (orden) {
+            case ID -> "id";
+            case NOMBRE -> "nombre";
+            case PRECIO -> "precio";
+            case CATEGORIA -> "categoria";
+        };
+    }
+
     private Producto mapToDomain(EntidadJpaProducto entidadJpaProducto) {
         return Producto.builder()
                 .id(entidadJpaProducto.getId())
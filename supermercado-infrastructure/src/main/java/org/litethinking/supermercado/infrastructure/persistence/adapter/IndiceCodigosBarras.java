@@ -0,0 +1,333 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.carga.EscriturasDuranteCarga;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory index from barcode to product for the point-of-sale scans, kept current by
+ * {@link AdaptadorRepositorioProducto} after each committed create, update and delete.
+ *
+ * <p>Numeric codes of up to 17 digits, which covers EAN-8, UPC-A, EAN-13 and GTIN-14, are packed into a
+ * long together with their length, so leading zeros are kept, and stored in an open-addressing table of
+ * parallel arrays with linear probing. Any other code goes to a plain hash map. A lookup parses the code
+ * in place and reads the table under an optimistic stamp, so a scan allocates nothing but the product it
+ * returns and never blocks behind another scan; writes are rare and take the write lock.</p>
+ *
+ * <p>The index is loaded from the database once at startup; until then {@link #cargado()} is false and
+ * callers go to the database. Writes that arrive while the products are read are held by
+ * {@link EscriturasDuranteCarga} and applied on top of them.</p>
+ */
+@Component
+public class IndiceCodigosBarras implements ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(IndiceCodigosBarras.class);
+    private static final int MAXIMO_DIGITOS = 17;
+    private static final int CAPACIDAD_INICIAL = 1024;
+    /**
+     * Packed keys are never zero, since a packed code has at least one digit.
+     */
+    private static final long VACIA = 0L;
+    private static final long SIN_EMPAQUETAR = -1L;
+
+    private final RepositorioJpaProducto repositorioJpaProducto;
+    private final StampedLock bloqueo = new StampedLock();
+    private final Map<Long, String> codigoPorProducto = new HashMap<>();
+    private final Map<String, Ficha> alfanumericos = new HashMap<>();
+    private final EscriturasDuranteCarga carga = new EscriturasDuranteCarga();
+    private long[] claves = new long[CAPACIDAD_INICIAL];
+    private Ficha[] fichas = new Ficha[CAPACIDAD_INICIAL];
+    private int ocupadas;
+
+    public IndiceCodigosBarras(RepositorioJpaProducto repositorioJpaProducto) {
+        this.repositorioJpaProducto = repositorioJpaProducto;
+    }
+
+    /**
+     * Loads the products that were not registered yet by a write since the application started, then applies
+     * the writes committed while they were read.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        carga.iniciar();
+        List<EntidadJpaProducto> productos = repositorioJpaProducto.findAll();
+        long sello = bloqueo.writeLock();
+        try {
+            for (EntidadJpaProducto producto : productos) {
+                if (!codigoPorProducto.containsKey(producto.getId())) {
+                    poner(new Ficha(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                            producto.getPrecio(), producto.getCategoria(), producto.getCodigoBarras()));
+                }
+            }
+        } finally {
+            bloqueo.unlockWrite(sello);
+        }
+        carga.terminar();
+        logger.info("Barcode index loaded with {} products, {} with a numeric code",
+                codigoPorProducto.size(), ocupadas);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 16;
+    }
+
+    boolean cargado() {
+        return carga.terminada();
+    }
+
+    /**
+     * @return a copy of the product with the barcode, or null if there is none
+     */
+    Producto buscar(String codigoBarras) {
+        Ficha ficha = buscarFicha(codigoBarras);
+        return ficha == null ? null : ficha.aDominio();
+    }
+
+    /**
+     * Records the committed state of a product, dropping its previous barcode if it changed.
+     */
+    void registrar(Producto producto) {
+        Ficha ficha = new Ficha(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getCategoria(), producto.getCodigoBarras());
+        carga.escribir(() -> {
+            long sello = bloqueo.writeLock();
+            try {
+                poner(ficha);
+            } finally {
+                bloqueo.unlockWrite(sello);
+            }
+        });
+    }
+
+    /**
+     * Drops a deleted product.
+     */
+    void eliminar(Long productoId) {
+        carga.escribir(() -> {
+            long sello = bloqueo.writeLock();
+            try {
+                String codigo = codigoPorProducto.remove(productoId);
+                if (codigo != null) {
+                    quitarCodigo(codigo, productoId);
+                }
+            } finally {
+                bloqueo.unlockWrite(sello);
+            }
+        });
+    }
+
+    int tamano() {
+        long sello = bloqueo.readLock();
+        try {
+            return codigoPorProducto.size();
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Packs a numeric code into its length in the top bits and its value in the low 57, so "0123" and "123"
+     * get different keys.
+     *
+     * @return the packed key, or {@link #SIN_EMPAQUETAR} if the code is not made of 1 to 17 digits
+     */
+    static long empaquetar(String codigo) {
+        int longitud = codigo.length();
+        if (longitud == 0 || longitud > MAXIMO_DIGITOS) {
+            return SIN_EMPAQUETAR;
+        }
+        long valor = 0;
+        for (int i = 0; i < longitud; i++) {
+            char caracter = codigo.charAt(i);
+            if (caracter < '0' || caracter > '9') {
+                return SIN_EMPAQUETAR;
+            }
+            valor = valor * 10 + (caracter - '0');
+        }
+        return ((long) longitud << 57) | valor;
+    }
+
+    private Ficha buscarFicha(String codigoBarras) {
+        if (codigoBarras == null) {
+            return null;
+        }
+        long clave = empaquetar(codigoBarras);
+        if (clave == SIN_EMPAQUETAR) {
+            long sello = bloqueo.readLock();
+            try {
+                return alfanumericos.get(codigoBarras);
+            } finally {
+                bloqueo.unlockRead(sello);
+            }
+        }
+
+        long sello = bloqueo.tryOptimisticRead();
+        Ficha ficha = sello == 0 ? null : sondear(clave);
+        if (sello == 0 || !bloqueo.validate(sello)) {
+            sello = bloqueo.readLock();
+            try {
+                ficha = sondear(clave);
+            } finally {
+                bloqueo.unlockRead(sello);
+            }
+        }
+        return ficha;
+    }
+
+    /**
+     * Probes the table for a key. Under an optimistic stamp the arrays may be changing or replaced, so the
+     * walk is bounded and tolerates a torn read; the caller discards the result if the stamp is invalid.
+     */
+    private Ficha sondear(long clave) {
+        long[] clavesLeidas = claves;
+        Ficha[] fichasLeidas = fichas;
+        if (clavesLeidas.length != fichasLeidas.length) {
+            return null;
+        }
+        int mascara = clavesLeidas.length - 1;
+        int posicion = dispersar(clave) & mascara;
+        for (int sondeos = 0; sondeos <= mascara; sondeos++) {
+            long leida = clavesLeidas[posicion];
+            if (leida == clave) {
+                return fichasLeidas[posicion];
+            }
+            if (leida == VACIA) {
+                return null;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts or replaces a product. Called with the write lock held.
+     */
+    private void poner(Ficha ficha) {
+        String anterior = ficha.codigoBarras() == null
+                ? codigoPorProducto.remove(ficha.id())
+                : codigoPorProducto.put(ficha.id(), ficha.codigoBarras());
+        if (anterior != null && !anterior.equals(ficha.codigoBarras())) {
+            quitarCodigo(anterior, ficha.id());
+        }
+        if (ficha.codigoBarras() == null) {
+            return;
+        }
+
+        long clave = empaquetar(ficha.codigoBarras());
+        if (clave == SIN_EMPAQUETAR) {
+            alfanumericos.put(ficha.codigoBarras(), ficha);
+            return;
+        }
+        if ((ocupadas + 1) * 2 > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+        int mascara = claves.length - 1;
+        int posicion = dispersar(clave) & mascara;
+        while (claves[posicion] != VACIA && claves[posicion] != clave) {
+            posicion = (posicion + 1) & mascara;
+        }
+        if (claves[posicion] == VACIA) {
+            ocupadas++;
+        }
+        // The product goes in before the key, so a probe that sees the key never pairs it with an empty slot
+        fichas[posicion] = ficha;
+        claves[posicion] = clave;
+    }
+
+    /**
+     * Removes a code if it still belongs to the product. Called with the write lock held.
+     */
+    private void quitarCodigo(String codigo, Long productoId) {
+        long clave = empaquetar(codigo);
+        if (clave == SIN_EMPAQUETAR) {
+            alfanumericos.computeIfPresent(codigo, (c, ficha) -> ficha.id().equals(productoId) ? null : ficha);
+            return;
+        }
+        int mascara = claves.length - 1;
+        int posicion = dispersar(clave) & mascara;
+        while (claves[posicion] != clave) {
+            if (claves[posicion] == VACIA) {
+                return;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        if (!fichas[posicion].id().equals(productoId)) {
+            return;
+        }
+
+        // Backward-shift deletion: the entries after the hole that probed past it move back into it,
+        // so the table never needs tombstones
+        int hueco = posicion;
+        int siguiente = (hueco + 1) & mascara;
+        while (claves[siguiente] != VACIA) {
+            int ideal = dispersar(claves[siguiente]) & mascara;
+            if (((siguiente - ideal) & mascara) >= ((siguiente - hueco) & mascara)) {
+                claves[hueco] = claves[siguiente];
+                fichas[hueco] = fichas[siguiente];
+                hueco = siguiente;
+            }
+            siguiente = (siguiente + 1) & mascara;
+        }
+        claves[hueco] = VACIA;
+        fichas[hueco] = null;
+        ocupadas--;
+    }
+
+    private void redimensionar(int capacidad) {
+        long[] clavesNuevas = new long[capacidad];
+        Ficha[] fichasNuevas = new Ficha[capacidad];
+        int mascara = capacidad - 1;
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != VACIA) {
+                int posicion = dispersar(claves[i]) & mascara;
+                while (clavesNuevas[posicion] != VACIA) {
+                    posicion = (posicion + 1) & mascara;
+                }
+                clavesNuevas[posicion] = claves[i];
+                fichasNuevas[posicion] = fichas[i];
+            }
+        }
+        fichas = fichasNuevas;
+        claves = clavesNuevas;
+    }
+
+    /**
+     * Mixes the bits of a packed key, since consecutive barcodes differ only in their low digits.
+     */
+    private static int dispersar(long clave) {
+        long mezcla = clave * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32));
+    }
+
+    /**
+     * Immutable copy of a product, so the index can hand out products that callers are free to modify.
+     */
+    private record Ficha(Long id, String nombre, String descripcion, BigDecimal precio, String categoria,
+                         String codigoBarras) {
+
+        private Producto aDominio() {
+            return Producto.builder()
+                    .id(id)
+                    .nombre(nombre)
+                    .descripcion(descripcion)
+                    .precio(precio)
+                    .categoria(categoria)
+                    .codigoBarras(codigoBarras)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.producto.PreciosEnCentavos;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.carga.EscriturasDuranteCarga;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the products by price, kept current by {@link AdaptadorRepositorioProducto} after
+ * each committed create, update and delete.
+ *
+ * <p>Prices are kept in cents in sorted parallel arrays of longs, ordered by price and then by product id,
+ * one for the whole catalog and one per category. A price range is two binary searches, so counting the
+ * products in a range costs the same for ten products as for the whole catalog, and a page is a slice of
+ * the arrays from the first position of the range. Inserting or removing a product shifts the tail of its
+ * arrays, which is fine for the rate at which products are written.</p>
+ *
+ * <p>The index is loaded from the database once at startup; until then {@link #cargado()} is false and
+ * callers go to the database. Writes that arrive while the products are read are held by
+ * {@link EscriturasDuranteCarga} and applied on top of them.</p>
+ */
+@Component
+public class IndicePrecios implements ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(IndicePrecios.class);
+
+    private final RepositorioJpaProducto repositorioJpaProducto;
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+    private final Map<Long, Entrada> entradaPorProducto = new HashMap<>();
+    private final ListaPrecios catalogo = new ListaPrecios();
+    private final Map<String, ListaPrecios> porCategoria = new HashMap<>();
+    private final EscriturasDuranteCarga carga = new EscriturasDuranteCarga();
+
+    public IndicePrecios(RepositorioJpaProducto repositorioJpaProducto) {
+        this.repositorioJpaProducto = repositorioJpaProducto;
+    }
+
+    /**
+     * Loads the products that were not registered yet by a write since the application started. They are
+     * sorted once and merged into the arrays instead of being inserted one by one; the writes committed
+     * while they were read are applied afterwards.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        carga.iniciar();
+        List<EntidadJpaProducto> productos = repositorioJpaProducto.findAll();
+        bloqueo.writeLock().lock();
+        try {
+            Map<String, ListaPrecios> nuevos = new HashMap<>();
+            ListaPrecios nuevosCatalogo = new ListaPrecios();
+            for (EntidadJpaProducto producto : productos) {
+                if (producto.getPrecio() == null || entradaPorProducto.containsKey(producto.getId())) {
+                    continue;
+                }
+                Entrada entrada = new Entrada(centavos(producto.getPrecio(), RoundingMode.HALF_UP),
+                        producto.getCategoria());
+                entradaPorProducto.put(producto.getId(), entrada);
+                nuevosCatalogo.agregar(entrada.centavos(), producto.getId());
+                if (entrada.categoria() != null) {
+                    nuevos.computeIfAbsent(entrada.categoria(), c -> new ListaPrecios())
+                            .agregar(entrada.centavos(), producto.getId());
+                }
+            }
+            catalogo.fusionar(nuevosCatalogo);
+            nuevos.forEach((categoria, lista) ->
+                    porCategoria.computeIfAbsent(categoria, c -> new ListaPrecios()).fusionar(lista));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        carga.terminar();
+        logger.info("Price index loaded with {} products in {} categories",
+                entradaPorProducto.size(), porCategoria.size());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 18;
+    }
+
+    boolean cargado() {
+        return carga.terminada();
+    }
+
+    /**
+     * Records the committed price and category of a product, moving it if either changed.
+     */
+    void registrar(Producto producto) {
+        Long productoId = producto.getId();
+        if (producto.getPrecio() == null) {
+            carga.escribir(() -> quitarProducto(productoId));
+            return;
+        }
+        Entrada entrada = new Entrada(centavos(producto.getPrecio(), RoundingMode.HALF_UP),
+                producto.getCategoria());
+        carga.escribir(() -> ponerProducto(productoId, entrada));
+    }
+
+    /**
+     * Drops a deleted product.
+     */
+    void eliminar(Long productoId) {
+        carga.escribir(() -> quitarProducto(productoId));
+    }
+
+    private void ponerProducto(Long productoId, Entrada entrada) {
+        bloqueo.writeLock().lock();
+        try {
+            Entrada anterior = entradaPorProducto.put(productoId, entrada);
+            if (entrada.equals(anterior)) {
+                return;
+            }
+            if (anterior != null) {
+                quitar(productoId, anterior);
+            }
+            catalogo.insertar(entrada.centavos(), productoId);
+            if (entrada.categoria() != null) {
+                porCategoria.computeIfAbsent(entrada.categoria(), c -> new ListaPrecios())
+                        .insertar(entrada.centavos(), productoId);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    private void quitarProducto(Long productoId) {
+        bloqueo.writeLock().lock();
+        try {
+            Entrada anterior = entradaPorProducto.remove(productoId);
+            if (anterior != null) {
+                quitar(productoId, anterior);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the products in a price range. A null bound or category is not applied.
+     */
+    long contar(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria) {
+        bloqueo.readLock().lock();
+        try {
+            ListaPrecios lista = lista(categoria);
+            if (lista == null) {
+                return 0;
+            }
+            return lista.hasta(precioMaximo) - lista.desde(precioMinimo);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a slice of the products in a price range, cheapest first and by id on equal prices, together
+     * with the number of products in the whole range. A null bound or category is not applied.
+     *
+     * @param desde how many products of the range to skip
+     * @param cantidad the maximum number of products to return
+     */
+    Tramo tramo(BigDecimal precioMinimo, BigDecimal precioMaximo, String categoria, long desde, int cantidad) {
+        bloqueo.readLock().lock();
+        try {
+            ListaPrecios lista = lista(categoria);
+            if (lista == null) {
+                return new Tramo(new long[0], 0);
+            }
+            int inicio = lista.desde(precioMinimo);
+            int fin = lista.hasta(precioMaximo);
+            long total = Math.max(0, fin - inicio);
+            if (desde >= total) {
+                return new Tramo(new long[0], total);
+            }
+            int primero = (int) (inicio + desde);
+            int ultimo = (int) Math.min(fin, (long) primero + cantidad);
+            return new Tramo(Arrays.copyOfRange(lista.ids, primero, ultimo), total);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the price columns of a category, or of the whole catalog for a null category, cheapest first.
+     */
+    PreciosEnCentavos columnas(String categoria) {
+        bloqueo.readLock().lock();
+        try {
+            ListaPrecios lista = lista(categoria);
+            if (lista == null) {
+                return new PreciosEnCentavos(new long[0], new long[0]);
+            }
+            return new PreciosEnCentavos(Arrays.copyOf(lista.ids, lista.tamano),
+                    Arrays.copyOf(lista.centavos, lista.tamano));
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the prices of the given products in the given order, leaving out the ones that are not indexed.
+     */
+    PreciosEnCentavos columnas(List<Long> productoIds) {
+        long[] ids = new long[productoIds.size()];
+        long[] centavos = new long[productoIds.size()];
+        int encontrados = 0;
+        bloqueo.readLock().lock();
+        try {
+            for (Long productoId : productoIds) {
+                Entrada entrada = productoId == null ? null : entradaPorProducto.get(productoId);
+                if (entrada != null) {
+                    ids[encontrados] = productoId;
+                    centavos[encontrados++] = entrada.centavos();
+                }
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        return new PreciosEnCentavos(Arrays.copyOf(ids, encontrados), Arrays.copyOf(centavos, encontrados));
+    }
+
+    int tamano() {
+        bloqueo.readLock().lock();
+        try {
+            return entradaPorProducto.size();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private ListaPrecios lista(String categoria) {
+        return categoria == null ? catalogo : porCategoria.get(categoria);
+    }
+
+    /**
+     * Removes a product from the arrays it was in. Called with the write lock held.
+     */
+    private void quitar(Long productoId, Entrada entrada) {
+        catalogo.quitar(entrada.centavos(), productoId);
+        if (entrada.categoria() != null) {
+            ListaPrecios lista = porCategoria.get(entrada.categoria());
+            if (lista != null) {
+                lista.quitar(entrada.centavos(), productoId);
+                if (lista.tamano == 0) {
+                    porCategoria.remove(entrada.categoria());
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a price to whole cents with the given rounding, saturating prices too large for a long.
+     */
+    static long centavos(BigDecimal precio, RoundingMode redondeo) {
+        BigDecimal enCentavos = precio.movePointRight(2).setScale(0, redondeo);
+        if (enCentavos.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (enCentavos.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return enCentavos.longValue();
+    }
+
+    /**
+     * The ids of a slice of a price range, in order, and the size of the whole range.
+     */
+    record Tramo(long[] ids, long total) {
+    }
+
+    private record Entrada(long centavos, String categoria) {
+    }
+
+    /**
+     * Products sorted by price in cents and then by id, as two parallel arrays.
+     */
+    private static final class ListaPrecios {
+
+        private long[] centavos = new long[16];
+        private long[] ids = new long[16];
+        private int tamano;
+
+        /**
+         * @return the position of the first product whose price is at least the bound, rounded up to a cent
+         */
+        private int desde(BigDecimal precioMinimo) {
+            return precioMinimo == null ? 0 : primeroConPrecioDesde(centavos(precioMinimo, RoundingMode.CEILING));
+        }
+
+        /**
+         * @return the position after the last product whose price is at most the bound, rounded down to a cent
+         */
+        private int hasta(BigDecimal precioMaximo) {
+            if (precioMaximo == null) {
+                return tamano;
+            }
+            long maximo = centavos(precioMaximo, RoundingMode.FLOOR);
+            return maximo == Long.MAX_VALUE ? tamano : primeroConPrecioDesde(maximo + 1);
+        }
+
+        private int primeroConPrecioDesde(long precio) {
+            int bajo = 0;
+            int alto = tamano;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (centavos[medio] < precio) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        /**
+         * @return the position of the entry, or where it would go
+         */
+        private int posicion(long precio, long id) {
+            int bajo = 0;
+            int alto = tamano;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (centavos[medio] < precio || (centavos[medio] == precio && ids[medio] < id)) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        private void insertar(long precio, long id) {
+            asegurarCapacidad(tamano + 1);
+            int posicion = posicion(precio, id);
+            System.arraycopy(centavos, posicion, centavos, posicion + 1, tamano - posicion);
+            System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+            centavos[posicion] = precio;
+            ids[posicion] = id;
+            tamano++;
+        }
+
+        private void quitar(long precio, long id) {
+            int posicion = posicion(precio, id);
+            if (posicion == tamano || centavos[posicion] != precio || ids[posicion] != id) {
+                return;
+            }
+            System.arraycopy(centavos, posicion + 1, centavos, posicion, tamano - posicion - 1);
+            System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+            tamano--;
+        }
+
+        /**
+         * Appends an entry without keeping the order, for building a list that is then merged.
+         */
+        private void agregar(long precio, long id) {
+            asegurarCapacidad(tamano + 1);
+            centavos[tamano] = precio;
+            ids[tamano] = id;
+            tamano++;
+        }
+
+        /**
+         * Merges in the entries of a list built with {@link #agregar}, sorting them first.
+         */
+        private void fusionar(ListaPrecios otra) {
+            otra.ordenar();
+            long[] centavosNuevos = new long[Math.max(16, tamano + otra.tamano)];
+            long[] idsNuevos = new long[centavosNuevos.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < tamano || j < otra.tamano) {
+                boolean tomarPropia = j == otra.tamano || (i < tamano
+                        && (centavos[i] < otra.centavos[j]
+                        || (centavos[i] == otra.centavos[j] && ids[i] < otra.ids[j])));
+                if (tomarPropia) {
+                    centavosNuevos[k] = centavos[i];
+                    idsNuevos[k++] = ids[i++];
+                } else {
+                    centavosNuevos[k] = otra.centavos[j];
+                    idsNuevos[k++] = otra.ids[j++];
+                }
+            }
+            centavos = centavosNuevos;
+            ids = idsNuevos;
+            tamano = k;
+        }
+
+        /**
+         * Sorts the entries by price and id through a permutation of positions, so the parallel arrays
+         * move together.
+         */
+        private void ordenar() {
+            Integer[] orden = new Integer[tamano];
+            for (int i = 0; i < tamano; i++) {
+                orden[i] = i;
+            }
+            Arrays.sort(orden, (a, b) -> centavos[a] != centavos[b]
+                    ? Long.compare(centavos[a], centavos[b])
+                    : Long.compare(ids[a], ids[b]));
+            long[] centavosOrdenados = new long[centavos.length];
+            long[] idsOrdenados = new long[ids.length];
+            for (int i = 0; i < tamano; i++) {
+                centavosOrdenados[i] = centavos[orden[i]];
+                idsOrdenados[i] = ids[orden[i]];
+            }
+            centavos = centavosOrdenados;
+            ids = idsOrdenados;
+        }
+
+        private void asegurarCapacidad(int capacidad) {
+            if (capacidad > centavos.length) {
+                int nueva = Math.max(capacidad, centavos.length * 2);
+                centavos = Arrays.copyOf(centavos, nueva);
+                ids = Arrays.copyOf(ids, nueva);
+            }
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.AjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.inventario.ResumenUbicacion;
+import org.litethinking.supermercado.domain.model.inventario.ResultadoAjusteStock;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.infrastructure.persistence.transaccion.TrasConfirmar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory decorator of {@link AdaptadorRepositorioInventario}, enabled with
+ * {@code supermercado.inventario.libro-stock.habilitado=true}.
+ * Live quantities are kept in a {@link LibroStock}, so a till decrement is a striped in-memory operation
+ * instead of an UPDATE on a hot row.
+ *
+ * <p>Every decrement is also appended to {@code descuentos_stock_pendientes} in the transaction that takes it,
+ * in one JDBC batch per transaction, so it commits or rolls back together with the sale; if the transaction
+ * rolls back, the units are given back to the live quantity. Appending never locks an inventory row.
+ * A background task applies the pending rows to the inventory rows in batches and deletes them, and the same
+ * flush runs at startup, so decrements that were committed before a crash still reach the inventory.</p>
+ *
+ * <p>Saving an inventory record flushes first, goes to the database right away and, once it commits, moves the
+ * live quantity of its product by the difference between the saved quantity and the one the row held, so
+ * decrements still in flight keep counting against it. Deleting one forgets the live quantity once it
+ * commits.</p>
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "supermercado.inventario.libro-stock.habilitado", havingValue = "true")
+public class AdaptadorInventarioEnMemoria implements RepositorioInventarioPort, ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(AdaptadorInventarioEnMemoria.class);
+    private static final String SQL_DESCONTAR = "UPDATE inventarios SET cantidad = cantidad - ? WHERE producto_id = ?";
+    private static final String SQL_ANOTAR = "INSERT INTO descuentos_stock_pendientes (producto_id, unidades) VALUES (?, ?)";
+    private static final String SQL_PENDIENTES = "SELECT id, producto_id, unidades FROM descuentos_stock_pendientes";
+    private static final String SQL_PENDIENTES_PRODUCTO =
+            "SELECT COALESCE(SUM(unidades), 0) FROM descuentos_stock_pendientes WHERE producto_id = ?";
+    private static final String SQL_BORRAR_PENDIENTE = "DELETE FROM descuentos_stock_pendientes WHERE id = ?";
+    private static final String SQL_CANTIDADES_PRODUCTOS =
+            "SELECT producto_id, cantidad FROM inventarios WHERE producto_id IN (%s) FOR UPDATE";
+
+    private final AdaptadorRepositorioInventario delegado;
+    private final IndiceEstadoStock indiceEstadoStock;
+    private final DiarioMovimientosStock diarioMovimientos;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LibroStock libro;
+    private final long intervaloVolcadoMs;
+    // Serializes batches with loads and saves, so a load never subtracts units a batch already applied
+    private final ReentrantLock bloqueoVolcado = new ReentrantLock();
+    private ScheduledExecutorService volcador;
+
+    public AdaptadorInventarioEnMemoria(AdaptadorRepositorioInventario delegado,
+                                        IndiceEstadoStock indiceEstadoStock,
+                                        DiarioMovimientosStock diarioMovimientos,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${supermercado.inventario.libro-stock.franjas:0}") int franjas,
+                                        @Value("${supermercado.inventario.libro-stock.intervalo-volcado-ms:200}") long intervaloVolcadoMs) {
+        this.delegado = delegado;
+        this.indiceEstadoStock = indiceEstadoStock;
+        this.diarioMovimientos = diarioMovimientos;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.libro = new LibroStock(franjas > 0 ? franjas : Runtime.getRuntime().availableProcessors() * 4);
+        this.intervaloVolcadoMs = intervaloVolcadoMs;
+    }
+
+    /**
+     * Applies the decrements left pending by the previous run, loads every inventory record into the ledger
+     * and starts the background flush. Runs after the data initializer, so the seeded stock is already in
+     * the database.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Inventario> inventarios;
+        bloqueoVolcado.lock();
+        try {
+            volcar();
+            inventarios = delegado.findAll();
+            for (Inventario inventario : inventarios) {
+                libro.cargar(inventario.getProducto().getId(), inventario.getCantidad());
+            }
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+        volcador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "volcado-libro-stock");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        volcador.scheduleWithFixedDelay(this::volcarSinFallar, intervaloVolcadoMs, intervaloVolcadoMs, TimeUnit.MILLISECONDS);
+        logger.info("In-memory stock ledger loaded with {} products", inventarios.size());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    /**
+     * Stops the background flush and applies whatever is still pending, so the rows are current on a clean
+     * shutdown; anything left is applied by the next startup.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (volcador != null) {
+            volcador.shutdown();
+            volcador.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        volcar();
+    }
+
+    @Override
+    public boolean descontarStock(Long productoId, int cantidad) {
+        return descontarStock(productoId, cantidad, 0);
+    }
+
+    @Override
+    public boolean descontarStock(Long productoId, int cantidad, int unidadesReservadas) {
+        long id = productoId;
+        int resultado = libro.descontar(id, cantidad, unidadesReservadas);
+        if (resultado == LibroStock.SIN_CARGAR) {
+            cargar(id);
+            resultado = libro.descontar(id, cantidad, unidadesReservadas);
+        }
+        if (resultado != LibroStock.DESCONTADO) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            descuentosDeLaTransaccion().anotar(id, cantidad);
+            return true;
+        }
+        try {
+            jdbcTemplate.update(SQL_ANOTAR, id, cantidad);
+        } catch (RuntimeException e) {
+            libro.reponer(id, cantidad);
+            throw e;
+        }
+        indiceEstadoStock.descontar(productoId, cantidad);
+        return true;
+    }
+
+    @Override
+    public Inventario save(Inventario inventario) {
+        if (inventario.getProducto() == null || inventario.getProducto().getId() == null) {
+            return delegado.save(inventario);
+        }
+        long productoId = inventario.getProducto().getId();
+        bloqueoVolcado.lock();
+        try {
+            // The saved quantity replaces the row, so the units pending for it are applied and logged first
+            volcar();
+            Integer anterior = cantidadesEnBaseDeDatos(List.of(productoId)).get(productoId);
+            Inventario guardado = delegado.save(inventario);
+            // The ledger already lacks the units of sales still in flight, which reach the row as pending units
+            // once they commit, so it moves by the change of the row instead of taking the saved quantity
+            if (anterior != null) {
+                int delta = guardado.getCantidad() - anterior;
+                TrasConfirmar.ejecutar(() -> libro.sumar(productoId, delta));
+            }
+            return guardado;
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Optional<Inventario> inventario = delegado.findById(id);
+        if (inventario.isEmpty()) {
+            delegado.deleteById(id);
+            return;
+        }
+        long productoId = inventario.get().getProducto().getId();
+        bloqueoVolcado.lock();
+        try {
+            volcar();
+            delegado.deleteById(id);
+            // Until the delete commits the row is still there, and if it rolls back the ledger is still right
+            TrasConfirmar.ejecutar(() -> libro.olvidar(productoId));
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+    }
+
+    /**
+     * Flushes the pending units first, so the adjustments are checked against current database quantities,
+     * and adds each applied delta to the live quantity once the adjustment commits.
+     */
+    @Override
+    public List<ResultadoAjusteStock> ajustarStockEnLote(List<AjusteStock> ajustes) {
+        List<ResultadoAjusteStock> resultados;
+        bloqueoVolcado.lock();
+        try {
+            volcar();
+            resultados = delegado.ajustarStockEnLote(ajustes);
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+        TrasConfirmar.ejecutar(() -> {
+            for (int i = 0; i < ajustes.size(); i++) {
+                if (resultados.get(i).aplicado()) {
+                    libro.sumar(ajustes.get(i).productoId(), ajustes.get(i).delta());
+                }
+            }
+        });
+        return resultados;
+    }
+
+    /**
+     * Flushes the pending units first, so the imported quantities replace what the rows hold, and once the
+     * batch commits moves the live quantity of every updated product by the change of its row, as {@link #save}
+     * does. Inserted rows had no live quantity, so the next decrement loads them.
+     */
+    @Override
+    public ResultadoLoteImportacion guardarLotePorProducto(List<Inventario> inventarios) {
+        ResultadoLoteImportacion resultado;
+        Map<Long, Integer> deltas = new HashMap<>();
+        bloqueoVolcado.lock();
+        try {
+            volcar();
+            Map<Long, Integer> anteriores = cantidadesEnBaseDeDatos(
+                    inventarios.stream().map(inventario -> inventario.getProducto().getId()).toList());
+            resultado = delegado.guardarLotePorProducto(inventarios);
+            Set<Integer> rechazados = new HashSet<>();
+            resultado.rechazados().forEach(rechazo -> rechazados.add(rechazo.indice()));
+            for (int i = 0; i < inventarios.size(); i++) {
+                Long productoId = inventarios.get(i).getProducto().getId();
+                Integer anterior = anteriores.get(productoId);
+                if (anterior != null && !rechazados.contains(i)) {
+                    deltas.put(productoId, inventarios.get(i).getCantidad() - anterior);
+                }
+            }
+            TrasConfirmar.ejecutar(() -> deltas.forEach(libro::sumar));
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+        return resultado;
+    }
+
+    @Override
+    public Optional<Inventario> findById(Long id) {
+        return delegado.findById(id).map(this::conCantidadViva);
+    }
+
+    @Override
+    public List<Inventario> findAll() {
+        return conCantidadViva(delegado.findAll());
+    }
+
+    @Override
+    public void recorrerInventarios(Consumer<Inventario> consumidor) {
+        delegado.recorrerInventarios(inventario -> consumidor.accept(conCantidadViva(inventario)));
+    }
+
+    @Override
+    public Optional<Inventario> findByProducto(Producto producto) {
+        return delegado.findByProducto(producto).map(this::conCantidadViva);
+    }
+
+    @Override
+    public Optional<Inventario> findByProductoId(Long productoId) {
+        return delegado.findByProductoId(productoId).map(this::conCantidadViva);
+    }
+
+    @Override
+    public List<Inventario> findBajoStock() {
+        return conCantidadViva(delegado.findBajoStock());
+    }
+
+    @Override
+    public List<Inventario> findByUbicacion(String ubicacion) {
+        return conCantidadViva(delegado.findByUbicacion(ubicacion));
+    }
+
+    /**
+     * The totals come from the stock state index, which every sale updates when it is taken from the
+     * ledger, so they already reflect the live quantities.
+     */
+    @Override
+    public List<ResumenUbicacion> findResumenPorUbicacion() {
+        return delegado.findResumenPorUbicacion();
+    }
+
+    @Override
+    public List<PosicionStock> findPosicionesStock() {
+        List<PosicionStock> posiciones = delegado.findPosicionesStock();
+        posiciones.replaceAll(posicion -> {
+            int cantidad = libro.cantidad(posicion.productoId());
+            return cantidad == LibroStock.NO_CARGADO ? posicion : posicion.conCantidad(cantidad);
+        });
+        return posiciones;
+    }
+
+    /**
+     * Applies every committed pending decrement to its inventory row in one JDBC batch and transaction,
+     * logging one sale movement per product updated, and deletes the rows it applied. Rows are deleted by id,
+     * so a decrement that commits while the batch runs is left for the next one. If the batch fails
+     * everything stays pending for the next attempt.
+     */
+    void volcar() {
+        bloqueoVolcado.lock();
+        try {
+            Map<Long, Integer> aplicados = transactionTemplate.execute(status -> {
+                List<Long> ids = new ArrayList<>();
+                Map<Long, Integer> unidadesPorProducto = new TreeMap<>();
+                jdbcTemplate.query(SQL_PENDIENTES, fila -> {
+                    ids.add(fila.getLong(1));
+                    unidadesPorProducto.merge(fila.getLong(2), fila.getInt(3), Integer::sum);
+                });
+                if (ids.isEmpty()) {
+                    return unidadesPorProducto;
+                }
+                // Product id order, the same the tills lock rows in
+                List<Map.Entry<Long, Integer>> descuentos = new ArrayList<>(unidadesPorProducto.entrySet());
+                int[] actualizados = jdbcTemplate.batchUpdate(SQL_DESCONTAR, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement sentencia, int i) throws SQLException {
+                        sentencia.setInt(1, descuentos.get(i).getValue());
+                        sentencia.setLong(2, descuentos.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return descuentos.size();
+                    }
+                });
+                List<DiarioMovimientosStock.Movimiento> ventas = new ArrayList<>(descuentos.size());
+                for (int i = 0; i < descuentos.size(); i++) {
+                    if (actualizados[i] != 0) {
+                        ventas.add(new DiarioMovimientosStock.Movimiento(descuentos.get(i).getKey(),
+                                TipoMovimientoStock.VENTA, -descuentos.get(i).getValue(),
+                                DiarioMovimientosStock.MOTIVO_VENTAS));
+                    }
+                }
+                diarioMovimientos.registrar(ventas);
+                jdbcTemplate.batchUpdate(SQL_BORRAR_PENDIENTE, ids, ids.size(),
+                        (sentencia, id) -> sentencia.setLong(1, id));
+                return unidadesPorProducto;
+            });
+            if (aplicados.isEmpty()) {
+                return;
+            }
+            // The rows changed behind the adapter, so its near cache would serve the quantities before the batch
+            aplicados.keySet().forEach(delegado::invalidarEnCache);
+            logger.debug("Flushed pending stock of {} products", aplicados.size());
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+    }
+
+    /**
+     * Reads the quantities the rows of the products hold and locks them until the current transaction ends,
+     * so a flush cannot apply pending units between this read and the write that replaces them.
+     *
+     * @return the quantity per product id; products without an inventory row are absent
+     */
+    private Map<Long, Integer> cantidadesEnBaseDeDatos(List<Long> productoIds) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        if (productoIds.isEmpty()) {
+            return cantidades;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(productoIds.size(), "?"));
+        jdbcTemplate.query(SQL_CANTIDADES_PRODUCTOS.formatted(marcadores),
+                fila -> { cantidades.put(fila.getLong(1), fila.getInt(2)); }, productoIds.toArray());
+        return cantidades;
+    }
+
+    private void volcarSinFallar() {
+        try {
+            volcar();
+        } catch (RuntimeException e) {
+            logger.error("Error flushing the stock ledger, the units stay pending", e);
+        }
+    }
+
+    /**
+     * Reads the database quantity of a product that is not in the ledger yet, less the units still pending
+     * for it, which the row does not reflect.
+     */
+    private void cargar(long productoId) {
+        bloqueoVolcado.lock();
+        try {
+            delegado.findByProductoId(productoId).ifPresent(inventario -> {
+                Integer pendientes = jdbcTemplate.queryForObject(SQL_PENDIENTES_PRODUCTO, Integer.class, productoId);
+                libro.cargar(productoId, inventario.getCantidad() - (pendientes == null ? 0 : pendientes));
+            });
+        } finally {
+            bloqueoVolcado.unlock();
+        }
+    }
+
+    private Inventario conCantidadViva(Inventario inventario) {
+        if (inventario.getProducto() != null && inventario.getProducto().getId() != null) {
+            int cantidad = libro.cantidad(inventario.getProducto().getId());
+            if (cantidad != LibroStock.NO_CARGADO) {
+                inventario.setCantidad(cantidad);
+            }
+        }
+        return inventario;
+    }
+
+    private List<Inventario> conCantidadViva(List<Inventario> inventarios) {
+        inventarios.forEach(this::conCantidadViva);
+        return inventarios;
+    }
+
+    /**
+     * @return the decrements of the current transaction, registering them with it on the first one
+     */
+    private DescuentosTransaccion descuentosDeLaTransaccion() {
+        DescuentosTransaccion descuentos = (DescuentosTransaccion) TransactionSynchronizationManager.getResource(this);
+        if (descuentos == null) {
+            descuentos = new DescuentosTransaccion();
+            TransactionSynchronizationManager.bindResource(this, descuentos);
+            TransactionSynchronizationManager.registerSynchronization(descuentos);
+        }
+        return descuentos;
+    }
+
+    /**
+     * The decrements taken by one transaction, appended as pending rows in one batch right before it commits
+     * and given back to the live quantities if it does not.
+     */
+    private final class DescuentosTransaccion implements TransactionSynchronization {
+
+        private long[] productos = new long[8];
+        private int[] unidades = new int[8];
+        private int tamano;
+
+        void anotar(long productoId, int cantidad) {
+            if (tamano == productos.length) {
+                productos = Arrays.copyOf(productos, tamano * 2);
+                unidades = Arrays.copyOf(unidades, tamano * 2);
+            }
+            productos[tamano] = productoId;
+            unidades[tamano] = cantidad;
+            tamano++;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            jdbcTemplate.batchUpdate(SQL_ANOTAR, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement sentencia, int i) throws SQLException {
+                    sentencia.setLong(1, productos[i]);
+                    sentencia.setInt(2, unidades[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return tamano;
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AdaptadorInventarioEnMemoria.this);
+            for (int i = 0; i < tamano; i++) {
+                if (status == STATUS_COMMITTED) {
+                    indiceEstadoStock.descontar(productos[i], unidades[i]);
+                } else {
+                    libro.reponer(productos[i], unidades[i]);
+                }
+            }
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
 
 import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.AjusteStock;
 import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.inventario.ResumenUbicacion;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.litethinking.supermercado.domain.model.inventario.ResultadoAjusteStock;
 import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
 import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaInventario;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaUbicacion;
+import org.litethinking.supermercado.infrastructure.persistence.lote.GuardadoPorLotes;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaEstadoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaInventarioExportacion;
 import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaInventario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaUbicacion;
+import org.litethinking.supermercado.infrastructure.persistence.transaccion.TrasConfirmar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adapter implementation for RepositorioInventario and RepositorioInventarioPort.
@@ -19,17 +46,61 @@ import java.util.stream.Collectors;
 @Service
 public class AdaptadorRepositorioInventario implements RepositorioInventarioPort {
 
+    private static final List<String> COLUMNAS_ALTA = List.of("producto_id", "cantidad", "stock_minimo",
+            "stock_maximo", "fecha_ultima_reposicion", "ubicacion_id");
+    private static final int[] TIPOS_ALTA = {Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.DATE,
+            Types.BIGINT};
+
     private final RepositorioJpaInventario repositorioJpaInventario;
+    private final RepositorioJpaUbicacion repositorioJpaUbicacion;
+    private final DiccionarioUbicaciones diccionarioUbicaciones;
+    private final IndiceEstadoStock indiceEstadoStock;
+    private final DiarioMovimientosStock diarioMovimientos;
+    private final CacheInventarioPorProducto cachePorProducto;
+    private final RepositorioJpaProducto repositorioJpaProducto;
+    private final JdbcTemplate jdbcTemplate;
 
-    public AdaptadorRepositorioInventario(RepositorioJpaInventario repositorioJpaInventario) {
+    public AdaptadorRepositorioInventario(RepositorioJpaInventario repositorioJpaInventario,
+                                          RepositorioJpaUbicacion repositorioJpaUbicacion,
+                                          DiccionarioUbicaciones diccionarioUbicaciones,
+                                          IndiceEstadoStock indiceEstadoStock,
+                                          DiarioMovimientosStock diarioMovimientos,
+                                          RepositorioJpaProducto repositorioJpaProducto,
+                                          JdbcTemplate jdbcTemplate,
+                                          @Value("${supermercado.inventario.cache-producto.capacidad:10000}") int capacidadCache) {
         this.repositorioJpaInventario = repositorioJpaInventario;
+        this.repositorioJpaUbicacion = repositorioJpaUbicacion;
+        this.diccionarioUbicaciones = diccionarioUbicaciones;
+        this.indiceEstadoStock = indiceEstadoStock;
+        this.diarioMovimientos = diarioMovimientos;
+        this.cachePorProducto = new CacheInventarioPorProducto(capacidadCache);
+        this.repositorioJpaProducto = repositorioJpaProducto;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
+    /**
+     * Saves an inventory record and logs the change of quantity in the {@link DiarioMovimientosStock}.
+     * An existing row is locked and read first, so the logged delta is measured against the committed quantity.
+     */
     @Override
+    @Transactional
     public Inventario save(Inventario inventario) {
+        EntidadJpaInventario actual = inventario.getId() == null ? null
+                : repositorioJpaInventario.findParaActualizarById(inventario.getId()).orElse(null);
+        Long productoAnterior = actual == null ? null : actual.getProducto().getId();
+        int cantidadAnterior = actual == null ? 0 : cantidad(actual);
+
         EntidadJpaInventario entidadJpaInventario = mapToEntity(inventario);
         EntidadJpaInventario savedEntity = repositorioJpaInventario.save(entidadJpaInventario);
-        return mapToDomain(savedEntity);
+        Inventario guardado = mapToDomain(savedEntity);
+        registrarReemplazo(productoAnterior, cantidadAnterior, savedEntity);
+        if (savedEntity.getId() != null) {
+            invalidarInventarioEnCache(savedEntity.getId());
+        }
+        invalidarEnCache(guardado.getProducto().getId());
+        FilaEstadoStock estado = filaEstado(savedEntity);
+        TrasConfirmar.ejecutar(() -> indiceEstadoStock.registrar(estado));
+        return guardado;
     }
 
     @Override
@@ -44,31 +115,292 @@ public class AdaptadorRepositorioInventario implements RepositorioInventarioPort
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Streams the inventory records joined with their products as flat rows, so only the record being
+     * handed over is held in memory. Location names come from the dictionary, without joining the table.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerInventarios(Consumer<Inventario> consumidor) {
+        try (Stream<FilaInventarioExportacion> filas = repositorioJpaInventario.streamFilasOrderById()) {
+            Iterator<FilaInventarioExportacion> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                FilaInventarioExportacion fila = iterador.next();
+                consumidor.accept(Inventario.builder()
+                        .id(fila.inventarioId())
+                        .producto(Producto.builder()
+                                .id(fila.productoId())
+                                .nombre(fila.productoNombre())
+                                .descripcion(fila.productoDescripcion())
+                                .precio(fila.productoPrecio())
+                                .categoria(fila.productoCategoria())
+                                .codigoBarras(fila.productoCodigoBarras())
+                                .build())
+                        .cantidad(fila.cantidad())
+                        .stockMinimo(fila.stockMinimo())
+                        .stockMaximo(fila.stockMaximo())
+                        .fechaUltimaReposicion(fila.fechaUltimaReposicion())
+                        .ubicacion(fila.ubicacionId() == null ? null : diccionarioUbicaciones.nombre(fila.ubicacionId()))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Deletes an inventory record and logs the units it held as leaving the stock.
+     */
     @Override
+    @Transactional
     public void deleteById(Long id) {
+        Optional<EntidadJpaInventario> actual = repositorioJpaInventario.findParaActualizarById(id);
         repositorioJpaInventario.deleteById(id);
+        actual.ifPresent(inventario -> diarioMovimientos.registrar(inventario.getProducto().getId(),
+                TipoMovimientoStock.AJUSTE, -cantidad(inventario), "baja del inventario"));
+        invalidarInventarioEnCache(id);
+        TrasConfirmar.ejecutar(() -> indiceEstadoStock.eliminar(id));
     }
 
     @Override
     public Optional<Inventario> findByProducto(Producto producto) {
-        EntidadJpaProducto entidadJpaProducto = mapProductoToEntity(producto);
-        return repositorioJpaInventario.findByProducto(entidadJpaProducto).map(this::mapToDomain);
+        return findByProductoId(producto.getId());
     }
 
+    /**
+     * Served from the near cache; a miss reads through the unique index on producto_id.
+     */
+    @Override
+    public Optional<Inventario> findByProductoId(Long productoId) {
+        return cachePorProducto.obtener(productoId,
+                id -> repositorioJpaInventario.findByProductoId(id).map(this::mapToDomain));
+    }
+
+    /**
+     * Reads the low-stock records by id from the {@link IndiceEstadoStock}, so no table scan is needed;
+     * falls back to the query only while the index is still loading.
+     */
     @Override
     public List<Inventario> findBajoStock() {
-        return repositorioJpaInventario.findBajoStock().stream()
+        return indiceEstadoStock.inventariosBajoStock()
+                .map(repositorioJpaInventario::findAllConProductoByIdIn)
+                .orElseGet(repositorioJpaInventario::findBajoStock)
+                .stream()
                 .map(this::mapToDomain)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Resolves the name through the location dictionary and reads by the indexed location id;
+     * a name that was never stored has no records.
+     */
     @Override
     public List<Inventario> findByUbicacion(String ubicacion) {
-        return repositorioJpaInventario.findByUbicacion(ubicacion).stream()
+        return diccionarioUbicaciones.idExistente(ubicacion)
+                .map(repositorioJpaInventario::findByUbicacionId)
+                .orElseGet(List::of)
+                .stream()
                 .map(this::mapToDomain)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Reads the running totals of the {@link IndiceEstadoStock}, one entry per location whatever the size
+     * of the inventory; falls back to the grouped query only while the index is still loading.
+     */
+    @Override
+    public List<ResumenUbicacion> findResumenPorUbicacion() {
+        return indiceEstadoStock.totalesPorUbicacion()
+                .map(totales -> totales.stream()
+                        .map(total -> new ResumenUbicacion(
+                                diccionarioUbicaciones.nombre(total.ubicacionId()),
+                                total.registros(),
+                                total.unidades(),
+                                BigDecimal.valueOf(total.valorCentavos(), 2),
+                                total.bajoStock()))
+                        .sorted(Comparator.comparing(ResumenUbicacion::ubicacion, Comparator.nullsLast(Comparator.naturalOrder())))
+                        .toList())
+                .orElseGet(repositorioJpaInventario::findResumenPorUbicacion);
+    }
+
+    @Override
+    public List<PosicionStock> findPosicionesStock() {
+        return repositorioJpaInventario.findPosicionesStock();
+    }
+
+    @Override
+    @Transactional
+    public boolean descontarStock(Long productoId, int cantidad) {
+        return registrarDescuento(productoId, cantidad, repositorioJpaInventario.descontarStock(productoId, cantidad));
+    }
+
+    @Override
+    @Transactional
+    public boolean descontarStock(Long productoId, int cantidad, int unidadesReservadas) {
+        return registrarDescuento(productoId, cantidad,
+                repositorioJpaInventario.descontarStock(productoId, cantidad, unidadesReservadas));
+    }
+
+    private boolean registrarDescuento(Long productoId, int cantidad, int filasActualizadas) {
+        if (filasActualizadas != 1) {
+            return false;
+        }
+        diarioMovimientos.registrar(productoId, TipoMovimientoStock.VENTA, -cantidad, DiarioMovimientosStock.MOTIVO_VENTAS);
+        invalidarEnCache(productoId);
+        TrasConfirmar.ejecutar(() -> indiceEstadoStock.descontar(productoId, cantidad));
+        return true;
+    }
+
+    /**
+     * Locks the affected rows once, applies the adjustments to the managed entities and lets the commit
+     * write them as batched JDBC updates ({@code hibernate.jdbc.batch_size}).
+     */
+    @Override
+    @Transactional
+    public List<ResultadoAjusteStock> ajustarStockEnLote(List<AjusteStock> ajustes) {
+        Set<Long> productoIds = ajustes.stream().map(AjusteStock::productoId).collect(Collectors.toSet());
+        Map<Long, EntidadJpaInventario> inventarios = new HashMap<>();
+        for (EntidadJpaInventario inventario : repositorioJpaInventario.findParaAjusteByProductoIdIn(productoIds)) {
+            inventarios.put(inventario.getProducto().getId(), inventario);
+        }
+
+        List<ResultadoAjusteStock> resultados = new ArrayList<>(ajustes.size());
+        List<DiarioMovimientosStock.Movimiento> movimientos = new ArrayList<>(ajustes.size());
+        for (AjusteStock ajuste : ajustes) {
+            EntidadJpaInventario inventario = inventarios.get(ajuste.productoId());
+            if (inventario == null) {
+                resultados.add(ResultadoAjusteStock.rechazado(ajuste.productoId(),
+                        "No hay inventario para el producto " + ajuste.productoId()));
+                continue;
+            }
+            int nuevaCantidad = inventario.getCantidad() + ajuste.delta();
+            if (nuevaCantidad < 0) {
+                resultados.add(ResultadoAjusteStock.rechazado(ajuste.productoId(),
+                        "El ajuste deja el stock en negativo, disponibles: " + inventario.getCantidad()));
+                continue;
+            }
+            inventario.setCantidad(nuevaCantidad);
+            if (ajuste.fechaReposicion() != null) {
+                inventario.setFechaUltimaReposicion(ajuste.fechaReposicion());
+            }
+            resultados.add(ResultadoAjusteStock.aplicado(ajuste.productoId(), nuevaCantidad));
+            movimientos.add(new DiarioMovimientosStock.Movimiento(ajuste.productoId(), ajuste.tipo(), ajuste.delta(),
+                    "lote de ajustes"));
+        }
+        diarioMovimientos.registrar(movimientos);
+
+        inventarios.keySet().forEach(this::invalidarEnCache);
+        List<FilaEstadoStock> ajustados = inventarios.values().stream().map(AdaptadorRepositorioInventario::filaEstado).toList();
+        TrasConfirmar.ejecutar(() -> ajustados.forEach(indiceEstadoStock::registrar));
+        return resultados;
+    }
+
+    /**
+     * Locks the records the batch replaces and updates them as managed entities, written in batches at commit
+     * like {@link #ajustarStockEnLote}; the new ones go in a single JDBC insert batch, since identity ids keep
+     * Hibernate from batching inserts. Every change of quantity is logged, and the stock state index is fed
+     * from the rows read back after the writes.
+     */
+    @Override
+    @Transactional
+    public ResultadoLoteImportacion guardarLotePorProducto(List<Inventario> inventarios) {
+        Set<Long> productoIds = inventarios.stream().map(inventario -> inventario.getProducto().getId())
+                .collect(Collectors.toSet());
+        Set<Long> productosExistentes = new HashSet<>(repositorioJpaProducto.findIdsByIdIn(productoIds));
+        Map<Long, EntidadJpaInventario> actuales = new HashMap<>();
+        for (EntidadJpaInventario inventario : repositorioJpaInventario.findParaAjusteByProductoIdIn(productosExistentes)) {
+            actuales.put(inventario.getProducto().getId(), inventario);
+        }
+
+        List<ResultadoLoteImportacion.Rechazo> rechazados = new ArrayList<>();
+        List<Object[]> altas = new ArrayList<>();
+        List<DiarioMovimientosStock.Movimiento> movimientos = new ArrayList<>(inventarios.size());
+        int actualizados = 0;
+        for (int i = 0; i < inventarios.size(); i++) {
+            Inventario inventario = inventarios.get(i);
+            Long productoId = inventario.getProducto().getId();
+            if (!productosExistentes.contains(productoId)) {
+                rechazados.add(new ResultadoLoteImportacion.Rechazo(i, "No existe el producto " + productoId));
+                continue;
+            }
+            int nuevaCantidad = inventario.getCantidad() == null ? 0 : inventario.getCantidad();
+            EntidadJpaInventario actual = actuales.get(productoId);
+            if (actual == null) {
+                altas.add(new Object[]{productoId, nuevaCantidad, inventario.getStockMinimo(),
+                        inventario.getStockMaximo(), inventario.getFechaUltimaReposicion(),
+                        diccionarioUbicaciones.idParaGuardar(inventario.getUbicacion())});
+                movimientos.add(new DiarioMovimientosStock.Movimiento(productoId, TipoMovimientoStock.AJUSTE,
+                        nuevaCantidad, "alta por importación"));
+                continue;
+            }
+            movimientos.add(new DiarioMovimientosStock.Movimiento(productoId, TipoMovimientoStock.AJUSTE,
+                    nuevaCantidad - cantidad(actual), "importación"));
+            actual.setCantidad(nuevaCantidad);
+            actual.setStockMinimo(inventario.getStockMinimo());
+            actual.setStockMaximo(inventario.getStockMaximo());
+            actual.setFechaUltimaReposicion(inventario.getFechaUltimaReposicion());
+            actual.setUbicacion(mapUbicacionToEntity(inventario.getUbicacion()));
+            invalidarInventarioEnCache(actual.getId());
+            actualizados++;
+        }
+        GuardadoPorLotes.insertar(jdbcTemplate, "inventarios", COLUMNAS_ALTA, TIPOS_ALTA, altas);
+        diarioMovimientos.registrar(movimientos);
+
+        productosExistentes.forEach(this::invalidarEnCache);
+        List<FilaEstadoStock> guardados = repositorioJpaInventario.findEstadosStockByProductoIdIn(productosExistentes);
+        TrasConfirmar.ejecutar(() -> guardados.forEach(indiceEstadoStock::registrar));
+        return new ResultadoLoteImportacion(altas.size(), actualizados, rechazados);
+    }
+
+    /**
+     * Drops the cached record of a product now, so this transaction does not read it back, and again
+     * after commit, so a read that overlapped the write cannot leave the old record cached.
+     * Also used for writes that bypass this adapter, such as the stock ledger flush.
+     *
+     * @param productoId the id of the product
+     */
+    public void invalidarEnCache(Long productoId) {
+        cachePorProducto.invalidar(productoId);
+        TrasConfirmar.ejecutar(() -> cachePorProducto.invalidar(productoId));
+    }
+
+    private void invalidarInventarioEnCache(Long inventarioId) {
+        cachePorProducto.invalidarInventario(inventarioId);
+        TrasConfirmar.ejecutar(() -> cachePorProducto.invalidarInventario(inventarioId));
+    }
+
+    /**
+     * Logs the quantity a save left in the row. A record moved to another product gives all its units back
+     * on the old one first.
+     */
+    private void registrarReemplazo(Long productoAnterior, int cantidadAnterior, EntidadJpaInventario guardado) {
+        long productoId = guardado.getProducto().getId();
+        List<DiarioMovimientosStock.Movimiento> movimientos = new ArrayList<>(2);
+        String motivo = productoAnterior == null ? "alta del inventario" : "cantidad actualizada";
+        if (productoAnterior != null && productoAnterior != productoId) {
+            movimientos.add(new DiarioMovimientosStock.Movimiento(productoAnterior, TipoMovimientoStock.AJUSTE,
+                    -cantidadAnterior, "inventario reasignado"));
+            cantidadAnterior = 0;
+            motivo = "inventario reasignado";
+        }
+        movimientos.add(new DiarioMovimientosStock.Movimiento(productoId, TipoMovimientoStock.AJUSTE,
+                cantidad(guardado) - cantidadAnterior, motivo));
+        diarioMovimientos.registrar(movimientos);
+    }
+
+    private static int cantidad(EntidadJpaInventario inventario) {
+        return inventario.getCantidad() == null ? 0 : inventario.getCantidad();
+    }
+
+    /**
+     * Takes what the stock state index needs from a saved record, before the transaction ends.
+     * Only the id of the location is read, so its lazy proxy is never initialized.
+     */
+    private static FilaEstadoStock filaEstado(EntidadJpaInventario inventario) {
+        EntidadJpaUbicacion ubicacion = inventario.getUbicacion();
+        return new FilaEstadoStock(inventario.getId(), inventario.getProducto().getId(), inventario.getCantidad(),
+                inventario.getStockMinimo(), inventario.getStockMaximo(),
+                ubicacion == null ? null : ubicacion.getId(), inventario.getProducto().getPrecio());
+    }
+
     private Inventario mapToDomain(EntidadJpaInventario entidadJpaInventario) {
         return Inventario.builder()
                 .id(entidadJpaInventario.getId())
@@ -77,7 +409,8 @@ public class AdaptadorRepositorioInventario implements RepositorioInventarioPort
                 .stockMinimo(entidadJpaInventario.getStockMinimo())
                 .stockMaximo(entidadJpaInventario.getStockMaximo())
                 .fechaUltimaReposicion(entidadJpaInventario.getFechaUltimaReposicion())
-                .ubicacion(entidadJpaInventario.getUbicacion())
+                .ubicacion(entidadJpaInventario.getUbicacion() == null ? null
+                        : diccionarioUbicaciones.nombre(entidadJpaInventario.getUbicacion().getId()))
                 .build();
     }
 
@@ -89,10 +422,15 @@ public class AdaptadorRepositorioInventario implements RepositorioInventarioPort
                 .stockMinimo(inventario.getStockMinimo())
                 .stockMaximo(inventario.getStockMaximo())
                 .fechaUltimaReposicion(inventario.getFechaUltimaReposicion())
-                .ubicacion(inventario.getUbicacion())
+                .ubicacion(mapUbicacionToEntity(inventario.getUbicacion()))
                 .build();
     }
 
+    private EntidadJpaUbicacion mapUbicacionToEntity(String ubicacion) {
+        Long ubicacionId = diccionarioUbicaciones.idParaGuardar(ubicacion);
+        return ubicacionId == null ? null : repositorioJpaUbicacion.getReferenceById(ubicacionId);
+    }
+
     private Producto mapProductoToDomain(EntidadJpaProducto entidadJpaProducto) {
         return Producto.builder()
                 .id(entidadJpaProducto.getId())
@@ -0,0 +1,90 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.litethinking.supermercado.domain.model.inventario.HistorialStock;
+import org.litethinking.supermercado.domain.model.inventario.MovimientoStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioMovimientoStockPort;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaCorteStock;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaMovimientoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaCorteStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaMovimientoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.SumaMovimientos;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adapter implementation for RepositorioMovimientoStockPort.
+ * A quantity at an instant is the latest snapshot taken at or before it plus the movements logged after that
+ * snapshot up to the instant. The movements summed stop at the next snapshot, so a read never goes through
+ * more than one snapshot interval of the {@link DiarioMovimientosStock}, however long the history is.
+ */
+@Service
+public class AdaptadorRepositorioMovimientoStock implements RepositorioMovimientoStockPort {
+
+    private final RepositorioJpaCorteStock repositorioJpaCorteStock;
+    private final RepositorioJpaMovimientoStock repositorioJpaMovimientoStock;
+
+    public AdaptadorRepositorioMovimientoStock(RepositorioJpaCorteStock repositorioJpaCorteStock,
+                                               RepositorioJpaMovimientoStock repositorioJpaMovimientoStock) {
+        this.repositorioJpaCorteStock = repositorioJpaCorteStock;
+        this.repositorioJpaMovimientoStock = repositorioJpaMovimientoStock;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Integer> findCantidadEn(Long productoId, LocalDateTime instante) {
+        Saldo saldo = saldoEn(productoId, instante);
+        return saldo.conMovimientos() ? Optional.of(saldo.cantidad()) : Optional.empty();
+    }
+
+    /**
+     * Starts from the quantity at {@code desde} and adds each movement of the interval to it, so every
+     * movement carries the stock it left behind.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public HistorialStock findHistorial(Long productoId, LocalDateTime desde, LocalDateTime hasta, int limite) {
+        Saldo saldo = saldoEn(productoId, desde);
+        List<EntidadJpaMovimientoStock> filas = repositorioJpaMovimientoStock.findEntre(
+                productoId, saldo.ultimoMovimientoCortado(), desde, hasta, PageRequest.of(0, limite + 1));
+        boolean truncado = filas.size() > limite;
+
+        int cantidad = saldo.cantidad();
+        List<MovimientoStock> movimientos = new ArrayList<>(Math.min(filas.size(), limite));
+        for (EntidadJpaMovimientoStock fila : truncado ? filas.subList(0, limite) : filas) {
+            cantidad += fila.getDelta();
+            movimientos.add(new MovimientoStock(fila.getId(), fila.getProductoId(), fila.getTipo(), fila.getDelta(),
+                    cantidad, fila.getInstante(), fila.getMotivo()));
+        }
+        return new HistorialStock(productoId, saldo.cantidad(), movimientos, truncado);
+    }
+
+    private Saldo saldoEn(Long productoId, LocalDateTime instante) {
+        Optional<EntidadJpaCorteStock> corte = repositorioJpaCorteStock
+                .findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(productoId, instante);
+        long desdeId = corte.map(EntidadJpaCorteStock::getMovimientoId).orElse(0L);
+        // The next snapshot is later than the instant, and so is every movement after it: the sum stops there
+        long hastaId = repositorioJpaCorteStock
+                .findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(productoId, desdeId)
+                .map(EntidadJpaCorteStock::getMovimientoId)
+                .orElse(Long.MAX_VALUE);
+        SumaMovimientos cola = repositorioJpaMovimientoStock.sumarHasta(productoId, desdeId, hastaId, instante);
+        int cantidad = corte.map(EntidadJpaCorteStock::getCantidad).orElse(0) + cola.delta().intValue();
+        return new Saldo(desdeId, cantidad, corte.isPresent() || cola.cantidad() > 0);
+    }
+
+    /**
+     * The quantity of a product at an instant.
+     *
+     * @param ultimoMovimientoCortado the last movement covered by the snapshot used, 0 when there was none
+     * @param cantidad the quantity
+     * @param conMovimientos whether the product had any movement up to the instant
+     */
+    private record Saldo(long ultimoMovimientoCortado, int cantidad, boolean conMovimientos) {
+    }
+}
@@ -0,0 +1,318 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.inventario.ReservaStock;
+import org.litethinking.supermercado.domain.ports.output.RepositorioReservaStockPort;
+import org.litethinking.supermercado.infrastructure.persistence.transaccion.TrasConfirmar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory implementation of RepositorioReservaStockPort.
+ * Reservations live in two hash maps, per cart and reserved units per product, and their expiry in a
+ * {@link RuedaExpiracion}: one background thread advances the wheel every tick instead of one scheduled task
+ * per reservation, so a large number of live reservations costs one slot walk per tick.
+ *
+ * <p>Every operation first processes the ticks already due, so an expired reservation never holds stock
+ * back even if the background thread runs late. Reservations are not persisted: a restart releases them,
+ * which only gives the units back to the shelf.</p>
+ *
+ * <p>A sale and a reservation of the same product are ordered by the lock. The sale reads the units reserved
+ * by other carts and sets its own units aside in one step, and keeps them aside until its transaction ends;
+ * a reservation reads the stock under the lock and does not count the units set aside. So a reservation never
+ * hands out units that a sale still in flight is taking, whether or not its decrement is visible yet, and a
+ * sale never takes units reserved after it looked.</p>
+ */
+@Service
+public class AdaptadorReservasEnMemoria implements RepositorioReservaStockPort {
+
+    private static final Logger logger = LogManager.getLogger(AdaptadorReservasEnMemoria.class);
+
+    private final ReentrantLock bloqueo = new ReentrantLock();
+    private final Map<String, Map<Long, Reserva>> reservasPorCarrito = new HashMap<>();
+    private final Map<Long, Integer> reservadasPorProducto = new HashMap<>();
+    // Units taken by sales whose transaction has not ended yet
+    private final Map<Long, Integer> apartadasPorProducto = new HashMap<>();
+    private final RuedaExpiracion<Reserva> rueda;
+    private final long duracionTickNanos;
+    private final long origenNanos;
+    private final LongSupplier relojNanos;
+    private final Clock reloj;
+    private ScheduledExecutorService expirador;
+
+    @Autowired
+    public AdaptadorReservasEnMemoria(@Value("${supermercado.inventario.reservas.tick-ms:1000}") long tickMs,
+                                      @Value("${supermercado.inventario.reservas.ranuras:512}") int ranuras) {
+        this(tickMs, ranuras, System::nanoTime, Clock.systemDefaultZone());
+    }
+
+    AdaptadorReservasEnMemoria(long tickMs, int ranuras, LongSupplier relojNanos, Clock reloj) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("La duración del tick debe ser mayor que cero");
+        }
+        this.duracionTickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.relojNanos = relojNanos;
+        this.reloj = reloj;
+        this.origenNanos = relojNanos.getAsLong();
+        this.rueda = new RuedaExpiracion<>(ranuras, 0);
+    }
+
+    /**
+     * Starts the background thread that expires the reservations.
+     */
+    @PostConstruct
+    public void iniciar() {
+        long tickMs = TimeUnit.NANOSECONDS.toMillis(duracionTickNanos);
+        expirador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "expiracion-reservas-stock");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        expirador.scheduleAtFixedRate(this::expirarSinFallar, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (expirador != null) {
+            expirador.shutdownNow();
+        }
+    }
+
+    @Override
+    public Optional<ReservaStock> reservar(String carritoId, Long productoId, int unidades,
+                                           IntSupplier cantidadEnStock, Duration duracion) {
+        long ahora = relojNanos.getAsLong();
+        bloqueo.lock();
+        try {
+            rueda.avanzar(tick(ahora), this::quitar);
+            Map<Long, Reserva> delCarrito = reservasPorCarrito.get(carritoId);
+            Reserva anterior = delCarrito == null ? null : delCarrito.get(productoId);
+            int reservadasPorOtros = reservadasPorProducto.getOrDefault(productoId, 0)
+                    - (anterior == null ? 0 : anterior.unidades);
+            int apartadas = apartadasPorProducto.getOrDefault(productoId, 0);
+            if (cantidadEnStock.getAsInt() - reservadasPorOtros - apartadas < unidades) {
+                return Optional.empty();
+            }
+            if (anterior != null) {
+                rueda.cancelar(anterior.entrada);
+                quitar(anterior);
+            }
+
+            // Rounded up, so a reservation never expires before its duration is over
+            long venceTick = (ahora - origenNanos + duracion.toNanos() + duracionTickNanos - 1) / duracionTickNanos;
+            Reserva reserva = new Reserva(carritoId, productoId, unidades, LocalDateTime.now(reloj).plus(duracion));
+            reserva.entrada = rueda.programar(reserva, venceTick);
+            reservasPorCarrito.computeIfAbsent(carritoId, id -> new HashMap<>()).put(productoId, reserva);
+            reservadasPorProducto.merge(productoId, unidades, Integer::sum);
+            return Optional.of(reserva.aDominio());
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @Override
+    public List<ReservaStock> findByCarritoId(String carritoId) {
+        bloqueo.lock();
+        try {
+            rueda.avanzar(tick(relojNanos.getAsLong()), this::quitar);
+            Map<Long, Reserva> delCarrito = reservasPorCarrito.get(carritoId);
+            if (delCarrito == null) {
+                return List.of();
+            }
+            return delCarrito.values().stream()
+                    .map(Reserva::aDominio)
+                    .sorted(Comparator.comparing(ReservaStock::productoId))
+                    .toList();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @Override
+    public int unidadesReservadas(Long productoId) {
+        return unidadesReservadasExcepto(productoId, null);
+    }
+
+    @Override
+    public int unidadesReservadasExcepto(Long productoId, String carritoId) {
+        bloqueo.lock();
+        try {
+            rueda.avanzar(tick(relojNanos.getAsLong()), this::quitar);
+            int reservadas = reservadasPorProducto.getOrDefault(productoId, 0);
+            Map<Long, Reserva> delCarrito = carritoId == null ? null : reservasPorCarrito.get(carritoId);
+            Reserva propia = delCarrito == null ? null : delCarrito.get(productoId);
+            return propia == null ? reservadas : reservadas - propia.unidades;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * The units are set aside until the sale's transaction completes; the synchronization that gives them back
+     * is registered under the lock, so it can never run before they were counted.
+     */
+    @Override
+    public int apartarParaVenta(Long productoId, String carritoId, int unidades) {
+        bloqueo.lock();
+        try {
+            int reservadasPorOtros = unidadesReservadasExcepto(productoId, carritoId);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                apartadasPorProducto.merge(productoId, unidades, Integer::sum);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        soltar(productoId, unidades);
+                    }
+                });
+            }
+            return reservadasPorOtros;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> unidadesReservadas(Collection<Long> productoIds) {
+        bloqueo.lock();
+        try {
+            rueda.avanzar(tick(relojNanos.getAsLong()), this::quitar);
+            Map<Long, Integer> reservadas = new HashMap<>();
+            if (reservadasPorProducto.isEmpty()) {
+                return reservadas;
+            }
+            for (Long productoId : productoIds) {
+                Integer unidades = reservadasPorProducto.get(productoId);
+                if (unidades != null) {
+                    reservadas.put(productoId, unidades);
+                }
+            }
+            return reservadas;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @Override
+    public List<ReservaStock> liberar(String carritoId) {
+        bloqueo.lock();
+        try {
+            Map<Long, Reserva> delCarrito = reservasPorCarrito.remove(carritoId);
+            if (delCarrito == null) {
+                return List.of();
+            }
+            List<ReservaStock> liberadas = new ArrayList<>(delCarrito.size());
+            for (Reserva reserva : delCarrito.values()) {
+                rueda.cancelar(reserva.entrada);
+                reservadasPorProducto.computeIfPresent(reserva.productoId,
+                        (id, unidades) -> unidades == reserva.unidades ? null : unidades - reserva.unidades);
+                liberadas.add(reserva.aDominio());
+            }
+            liberadas.sort(Comparator.comparing(ReservaStock::productoId));
+            return liberadas;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @Override
+    public void confirmar(String carritoId) {
+        TrasConfirmar.ejecutar(() -> liberar(carritoId));
+    }
+
+    /**
+     * Processes the ticks that are due and releases the reservations that expired.
+     *
+     * @return the number of reservations released
+     */
+    int expirar() {
+        bloqueo.lock();
+        try {
+            return rueda.avanzar(tick(relojNanos.getAsLong()), this::quitar);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private void expirarSinFallar() {
+        try {
+            int vencidas = expirar();
+            if (vencidas > 0) {
+                logger.debug("Released {} expired stock reservations", vencidas);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not expire the stock reservations", e);
+        }
+    }
+
+    private void soltar(Long productoId, int unidades) {
+        bloqueo.lock();
+        try {
+            apartadasPorProducto.computeIfPresent(productoId,
+                    (id, apartadas) -> apartadas == unidades ? null : apartadas - unidades);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private long tick(long nanos) {
+        return (nanos - origenNanos) / duracionTickNanos;
+    }
+
+    /**
+     * Drops a reservation whose wheel entry is already gone from both maps.
+     */
+    private void quitar(Reserva reserva) {
+        Map<Long, Reserva> delCarrito = reservasPorCarrito.get(reserva.carritoId);
+        if (delCarrito == null || delCarrito.get(reserva.productoId) != reserva) {
+            return;
+        }
+        delCarrito.remove(reserva.productoId);
+        if (delCarrito.isEmpty()) {
+            reservasPorCarrito.remove(reserva.carritoId);
+        }
+        reservadasPorProducto.computeIfPresent(reserva.productoId,
+                (id, unidades) -> unidades == reserva.unidades ? null : unidades - reserva.unidades);
+    }
+
+    private static final class Reserva {
+        private final String carritoId;
+        private final Long productoId;
+        private final int unidades;
+        private final LocalDateTime vence;
+        private RuedaExpiracion.Entrada<Reserva> entrada;
+
+        private Reserva(String carritoId, Long productoId, int unidades, LocalDateTime vence) {
+            this.carritoId = carritoId;
+            this.productoId = productoId;
+            this.unidades = unidades;
+            this.vence = vence;
+        }
+
+        private ReservaStock aDominio() {
+            return new ReservaStock(carritoId, productoId, unidades, vence);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded near cache of inventory records keyed by product id, for the lookup the POS makes on every scan.
+ * The keys are spread over lock-striped segments, each an access-ordered map that evicts its least recently
+ * used entry when full. Entries are copied in and out, so callers can never modify a cached record.
+ *
+ * <p>Every segment counts its invalidations. A miss remembers the count before reading the database and
+ * only stores what it read if no invalidation happened meanwhile, so a read that overlaps a committing write
+ * cannot put the old record back after the write invalidated it.</p>
+ *
+ * <p>A cached record carries a copy of its product, so the product adapter invalidates it as well whenever
+ * the product is saved, imported or deleted.</p>
+ */
+final class CacheInventarioPorProducto {
+
+    private static final int CANTIDAD_SEGMENTOS = 16;
+
+    private final Segmento[] segmentos = new Segmento[CANTIDAD_SEGMENTOS];
+    private final Map<Long, Long> productoPorInventario = new ConcurrentHashMap<>();
+
+    CacheInventarioPorProducto(int capacidad) {
+        int capacidadSegmento = Math.max(1, capacidad / CANTIDAD_SEGMENTOS);
+        for (int i = 0; i < CANTIDAD_SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(capacidadSegmento);
+        }
+    }
+
+    /**
+     * Returns the cached record of a product, loading and caching it on a miss.
+     *
+     * @param productoId the id of the product
+     * @param cargador the database lookup used on a miss
+     * @return a copy of the record, or empty when the product has no inventory
+     */
+    Optional<Inventario> obtener(Long productoId, Function<Long, Optional<Inventario>> cargador) {
+        Segmento segmento = segmento(productoId);
+        long generacion;
+        segmento.bloqueo.lock();
+        try {
+            Inventario cacheado = segmento.entradas.get(productoId);
+            if (cacheado != null) {
+                return Optional.of(copiar(cacheado));
+            }
+            generacion = segmento.generacion;
+        } finally {
+            segmento.bloqueo.unlock();
+        }
+
+        Optional<Inventario> cargado = cargador.apply(productoId);
+        cargado.ifPresent(inventario -> {
+            segmento.bloqueo.lock();
+            try {
+                if (segmento.generacion == generacion) {
+                    segmento.entradas.put(productoId, copiar(inventario));
+                    productoPorInventario.put(inventario.getId(), productoId);
+                    segmento.recortar();
+                }
+            } finally {
+                segmento.bloqueo.unlock();
+            }
+        });
+        return cargado;
+    }
+
+    /**
+     * Drops the record of a product.
+     */
+    void invalidar(Long productoId) {
+        Segmento segmento = segmento(productoId);
+        segmento.bloqueo.lock();
+        try {
+            Inventario eliminado = segmento.entradas.remove(productoId);
+            if (eliminado != null) {
+                productoPorInventario.remove(eliminado.getId());
+            }
+            segmento.generacion++;
+        } finally {
+            segmento.bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Drops a record by its inventory id, for writes that do not know the product.
+     * When the record is not cached, a miss for it may still be in flight, so every segment
+     * counts an invalidation.
+     */
+    void invalidarInventario(Long inventarioId) {
+        Long productoId = productoPorInventario.remove(inventarioId);
+        if (productoId != null) {
+            invalidar(productoId);
+            return;
+        }
+        for (Segmento segmento : segmentos) {
+            segmento.bloqueo.lock();
+            try {
+                segmento.generacion++;
+            } finally {
+                segmento.bloqueo.unlock();
+            }
+        }
+    }
+
+    private Segmento segmento(Long productoId) {
+        return segmentos[(Long.hashCode(productoId) & 0x7fffffff) % CANTIDAD_SEGMENTOS];
+    }
+
+    private static Inventario copiar(Inventario inventario) {
+        Producto producto = inventario.getProducto();
+        return Inventario.builder()
+                .id(inventario.getId())
+                .producto(producto == null ? null : Producto.builder()
+                        .id(producto.getId())
+                        .nombre(producto.getNombre())
+                        .descripcion(producto.getDescripcion())
+                        .precio(producto.getPrecio())
+                        .categoria(producto.getCategoria())
+                        .codigoBarras(producto.getCodigoBarras())
+                        .build())
+                .cantidad(inventario.getCantidad())
+                .stockMinimo(inventario.getStockMinimo())
+                .stockMaximo(inventario.getStockMaximo())
+                .fechaUltimaReposicion(inventario.getFechaUltimaReposicion())
+                .ubicacion(inventario.getUbicacion())
+                .build();
+    }
+
+    private final class Segmento {
+        private final ReentrantLock bloqueo = new ReentrantLock();
+        private final LinkedHashMap<Long, Inventario> entradas = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacidad;
+        private long generacion;
+
+        private Segmento(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        private void recortar() {
+            Iterator<Map.Entry<Long, Inventario>> iterador = entradas.entrySet().iterator();
+            while (entradas.size() > capacidad && iterador.hasNext()) {
+                productoPorInventario.remove(iterador.next().getValue().getId());
+                iterador.remove();
+            }
+        }
+    }
+}
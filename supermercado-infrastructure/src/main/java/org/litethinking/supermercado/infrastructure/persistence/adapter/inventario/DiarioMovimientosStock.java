@@ -0,0 +1,119 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only log of stock movements, written by the inventory adapters inside the transaction that changes
+ * the stock, so the log and the inventory rows commit or roll back together.
+ *
+ * <p>Callers must hold the row lock of every product they log (the conditional UPDATE, the pessimistic
+ * read before a save or the batch UPDATE of the ledger flush). The movements of one product are then
+ * appended one transaction after the other, in id order and with increasing instants, and a snapshot taken
+ * in the same transaction sees every earlier movement of the product.</p>
+ *
+ * <p>Every {@code supermercado.inventario.movimientos.por-corte} movements of a product, a snapshot row
+ * stores the quantity they add up to, so a point-in-time read sums at most that many movements.
+ * The counts live in memory; after a restart the first snapshot of a product just comes later.</p>
+ */
+@Component
+public class DiarioMovimientosStock implements ApplicationRunner, Ordered {
+
+    static final String MOTIVO_VENTAS = "ventas en caja";
+
+    private static final Logger logger = LogManager.getLogger(DiarioMovimientosStock.class);
+    private static final String SQL_INSERTAR =
+            "INSERT INTO movimientos_stock (producto_id, tipo, delta, instante, motivo) VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_CORTAR =
+            "INSERT INTO cortes_stock (producto_id, movimiento_id, cantidad, instante) "
+            + "SELECT m.producto_id, MAX(m.id), "
+            + "COALESCE((SELECT c.cantidad FROM cortes_stock c WHERE c.producto_id = m.producto_id "
+            + "ORDER BY c.movimiento_id DESC LIMIT 1), 0) + SUM(m.delta), MAX(m.instante) "
+            + "FROM movimientos_stock m WHERE m.producto_id = ? "
+            + "AND m.id > COALESCE((SELECT MAX(c.movimiento_id) FROM cortes_stock c WHERE c.producto_id = ?), 0) "
+            + "GROUP BY m.producto_id";
+    private static final String SQL_ABRIR_SALDOS =
+            "INSERT INTO movimientos_stock (producto_id, tipo, delta, instante, motivo) "
+            + "SELECT i.producto_id, 'AJUSTE', i.cantidad, ?, 'saldo inicial' FROM inventarios i "
+            + "WHERE i.cantidad IS NOT NULL AND i.cantidad <> 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM movimientos_stock m WHERE m.producto_id = i.producto_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int movimientosPorCorte;
+    private final ConcurrentHashMap<Long, Integer> movimientosSinCorte = new ConcurrentHashMap<>();
+
+    public DiarioMovimientosStock(JdbcTemplate jdbcTemplate,
+                                  @Value("${supermercado.inventario.movimientos.por-corte:100}") int movimientosPorCorte) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movimientosPorCorte = Math.max(movimientosPorCorte, 1);
+    }
+
+    /**
+     * One movement to append.
+     *
+     * @param productoId the id of the product
+     * @param tipo the cause of the movement
+     * @param delta the units added, negative when removed
+     * @param motivo the operation that made the change
+     */
+    record Movimiento(long productoId, TipoMovimientoStock tipo, int delta, String motivo) {
+    }
+
+    /**
+     * Opens the log of the records that have stock but no movement yet, e.g. after a snapshot restore,
+     * with one adjustment for their whole quantity.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        int abiertos = jdbcTemplate.update(SQL_ABRIR_SALDOS, Timestamp.valueOf(LocalDateTime.now()));
+        if (abiertos > 0) {
+            logger.info("Stock movement log opened for {} inventory records", abiertos);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 12;
+    }
+
+    void registrar(long productoId, TipoMovimientoStock tipo, int delta, String motivo) {
+        registrar(List.of(new Movimiento(productoId, tipo, delta, motivo)));
+    }
+
+    /**
+     * Appends the movements in one JDBC batch and takes the snapshots that fell due.
+     * Movements that do not change the stock are skipped.
+     */
+    void registrar(List<Movimiento> movimientos) {
+        List<Movimiento> conCambio = movimientos.stream().filter(movimiento -> movimiento.delta() != 0).toList();
+        if (conCambio.isEmpty()) {
+            return;
+        }
+        Timestamp instante = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, conCambio, conCambio.size(), (sentencia, movimiento) -> {
+            sentencia.setLong(1, movimiento.productoId());
+            sentencia.setString(2, movimiento.tipo().name());
+            sentencia.setInt(3, movimiento.delta());
+            sentencia.setTimestamp(4, instante);
+            sentencia.setString(5, movimiento.motivo());
+        });
+        for (Movimiento movimiento : conCambio) {
+            if (movimientosSinCorte.merge(movimiento.productoId(), 1, Integer::sum) >= movimientosPorCorte) {
+                movimientosSinCorte.remove(movimiento.productoId());
+                jdbcTemplate.update(SQL_CORTAR, movimiento.productoId(), movimiento.productoId());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaUbicacion;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaUbicacion;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of inventory locations. Inventory rows store the small id of their location instead of the
+ * free-text name; this component translates in both directions and keeps every name it has seen in memory,
+ * since the number of aisles and shelves is small and names are never renamed or removed.
+ *
+ * <p>Names are trimmed before lookup, so {@code "Pasillo 1 "} and {@code "Pasillo 1"} share one entry.
+ * A new name is inserted in its own transaction, so the entry survives even if the inventory write that
+ * introduced it rolls back, and two writers racing on the same name end up with the same id.</p>
+ */
+@Component
+public class DiccionarioUbicaciones {
+
+    private final RepositorioJpaUbicacion repositorioJpaUbicacion;
+    private final TransactionTemplate transaccionPropia;
+    private final ConcurrentHashMap<String, Long> idPorNombre = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> nombrePorId = new ConcurrentHashMap<>();
+
+    public DiccionarioUbicaciones(RepositorioJpaUbicacion repositorioJpaUbicacion,
+                                  PlatformTransactionManager transactionManager) {
+        this.repositorioJpaUbicacion = repositorioJpaUbicacion;
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the id of a location, adding it to the dictionary when it is new.
+     *
+     * @param nombre the name of the location
+     * @return the id of the location, or null when the name is null or blank
+     */
+    public Long idParaGuardar(String nombre) {
+        String normalizado = normalizar(nombre);
+        if (normalizado == null) {
+            return null;
+        }
+        Long id = idPorNombre.get(normalizado);
+        return id != null ? id : buscarOCrear(normalizado);
+    }
+
+    /**
+     * Returns the id of a known location without adding it.
+     *
+     * @param nombre the name of the location
+     * @return the id of the location, or empty when no inventory was ever stored there
+     */
+    public Optional<Long> idExistente(String nombre) {
+        String normalizado = normalizar(nombre);
+        if (normalizado == null) {
+            return Optional.empty();
+        }
+        Long id = idPorNombre.get(normalizado);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        return repositorioJpaUbicacion.findByNombre(normalizado).map(this::recordar);
+    }
+
+    /**
+     * @param id the id of a location, may be null
+     * @return the name of the location, or null when the id is null
+     */
+    public String nombre(Long id) {
+        if (id == null) {
+            return null;
+        }
+        String nombre = nombrePorId.get(id);
+        if (nombre != null) {
+            return nombre;
+        }
+        return repositorioJpaUbicacion.findById(id)
+                .map(ubicacion -> {
+                    recordar(ubicacion);
+                    return ubicacion.getNombre();
+                })
+                .orElse(null);
+    }
+
+    private synchronized Long buscarOCrear(String nombre) {
+        Long id = idPorNombre.get(nombre);
+        if (id != null) {
+            return id;
+        }
+        try {
+            return transaccionPropia.execute(estado -> repositorioJpaUbicacion.findByNombre(nombre)
+                    .map(this::recordar)
+                    .orElseGet(() -> recordar(repositorioJpaUbicacion.save(
+                            EntidadJpaUbicacion.builder().nombre(nombre).build()))));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the same name first; its row is the one to use
+            return repositorioJpaUbicacion.findByNombre(nombre).map(this::recordar).orElseThrow(() -> e);
+        }
+    }
+
+    private Long recordar(EntidadJpaUbicacion ubicacion) {
+        idPorNombre.put(ubicacion.getNombre(), ubicacion.getId());
+        nombrePorId.put(ubicacion.getId(), ubicacion.getNombre());
+        return ubicacion.getId();
+    }
+
+    private static String normalizar(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        return nombre.trim();
+    }
+}
@@ -0,0 +1,276 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.infrastructure.persistence.carga.EscriturasDuranteCarga;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaEstadoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaInventario;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.EventoUmbralStockDto;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory index of the stock zone of every inventory record, kept current by the inventory adapters
+ * after each committed quantity change. It answers the low-stock query in time proportional to the result
+ * and publishes an {@link EventoUmbralStockDto} whenever a record crosses its stockMinimo or stockMaximo.
+ *
+ * <p>It also keeps running totals per location: records, units, stock value and records below minimum.
+ * Every state change subtracts the old record's contribution and adds the new one inside the same map
+ * operation, so {@link #totalesPorUbicacion()} costs one read per location whatever the size of the
+ * inventory. Values are kept in cents to stay exact without BigDecimal arithmetic on every sale.</p>
+ *
+ * <p>The index is loaded from the database once at startup; until then {@link #inventariosBajoStock()}
+ * and {@link #totalesPorUbicacion()} are empty and callers fall back to the database queries. Changes that
+ * arrive while the snapshot is read are held by {@link EscriturasDuranteCarga} and applied on top of it.</p>
+ */
+@Component
+public class IndiceEstadoStock implements ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(IndiceEstadoStock.class);
+    /**
+     * Key of the totals of the records without a location.
+     */
+    private static final long SIN_UBICACION = 0L;
+
+    private final RepositorioJpaInventario repositorioJpaInventario;
+    private final ApplicationEventPublisher publicador;
+    private final ConcurrentHashMap<Long, Estado> estadosPorProducto = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> productoPorInventario = new ConcurrentHashMap<>();
+    private final Set<Long> inventariosBajoStock = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Contadores> contadoresPorUbicacion = new ConcurrentHashMap<>();
+    private final EscriturasDuranteCarga carga = new EscriturasDuranteCarga();
+
+    public IndiceEstadoStock(RepositorioJpaInventario repositorioJpaInventario, ApplicationEventPublisher publicador) {
+        this.repositorioJpaInventario = repositorioJpaInventario;
+        this.publicador = publicador;
+    }
+
+    /**
+     * Loads the records that were not registered yet by a write since the application started, then applies
+     * the changes committed while they were read.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        carga.iniciar();
+        List<FilaEstadoStock> filas = repositorioJpaInventario.findEstadosStock();
+        for (FilaEstadoStock fila : filas) {
+            if (productoPorInventario.putIfAbsent(fila.inventarioId(), fila.productoId()) == null) {
+                Estado estado = Estado.de(fila);
+                estadosPorProducto.computeIfAbsent(fila.productoId(), id -> {
+                    contabilizar(null, estado);
+                    return estado;
+                });
+            }
+        }
+        carga.terminar();
+        logger.info("Stock state index loaded with {} records, {} below minimum, {} locations",
+                filas.size(), inventariosBajoStock.size(), contadoresPorUbicacion.size());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 15;
+    }
+
+    /**
+     * @return the ids of the inventory records at or below their minimum, or empty while the index is loading
+     */
+    public Optional<List<Long>> inventariosBajoStock() {
+        return carga.terminada() ? Optional.of(List.copyOf(inventariosBajoStock)) : Optional.empty();
+    }
+
+    /**
+     * @return the running totals of every location holding at least one record, or empty while the index is loading
+     */
+    public Optional<List<TotalesUbicacion>> totalesPorUbicacion() {
+        if (!carga.terminada()) {
+            return Optional.empty();
+        }
+        List<TotalesUbicacion> totales = new ArrayList<>(contadoresPorUbicacion.size());
+        contadoresPorUbicacion.forEach((ubicacionId, contadores) -> {
+            TotalesUbicacion leidos = contadores.leer(ubicacionId == SIN_UBICACION ? null : ubicacionId);
+            if (leidos.registros() > 0) {
+                totales.add(leidos);
+            }
+        });
+        return Optional.of(totales);
+    }
+
+    /**
+     * Records the saved state of an inventory record.
+     */
+    public void registrar(FilaEstadoStock fila) {
+        carga.escribir(() -> {
+            Long productoAnterior = productoPorInventario.put(fila.inventarioId(), fila.productoId());
+            if (productoAnterior != null && !productoAnterior.equals(fila.productoId())) {
+                actualizar(productoAnterior, estado -> null);
+            }
+            Estado nuevo = Estado.de(fila);
+            actualizar(fila.productoId(), estado -> nuevo);
+        });
+    }
+
+    /**
+     * Applies a committed price change to the stock value of the product's location.
+     */
+    public void actualizarPrecio(Long productoId, BigDecimal precio) {
+        long precioCentavos = Estado.centavos(precio);
+        carga.escribir(() -> actualizar(productoId, estado -> estado == null ? null : estado.conPrecio(precioCentavos)));
+    }
+
+    /**
+     * Applies a committed decrement to the record of a product.
+     */
+    public void descontar(Long productoId, int unidades) {
+        carga.escribir(() -> actualizar(productoId,
+                estado -> estado == null ? null : estado.conCantidad(estado.cantidad() - unidades)));
+    }
+
+    /**
+     * Drops a deleted inventory record.
+     */
+    public void eliminar(Long inventarioId) {
+        carga.escribir(() -> {
+            Long productoId = productoPorInventario.remove(inventarioId);
+            if (productoId != null) {
+                actualizar(productoId, estado -> null);
+            }
+        });
+    }
+
+    /**
+     * Replaces the state of a product and keeps the low-stock set and the location totals in step inside
+     * the same map operation, so concurrent changes of one product are applied one after the other.
+     * The event goes out afterwards.
+     */
+    private void actualizar(Long productoId, UnaryOperator<Estado> cambio) {
+        Estado[] anterior = new Estado[1];
+        Estado nuevo = estadosPorProducto.compute(productoId, (id, estado) -> {
+            anterior[0] = estado;
+            Estado siguiente = cambio.apply(estado);
+            contabilizar(estado, siguiente);
+            return siguiente;
+        });
+        publicarSiCruza(productoId, anterior[0], nuevo);
+    }
+
+    private void contabilizar(Estado anterior, Estado siguiente) {
+        if (anterior != null) {
+            inventariosBajoStock.remove(anterior.inventarioId());
+            contadores(anterior.ubicacionId()).sumar(anterior, -1);
+        }
+        if (siguiente != null) {
+            if (siguiente.zona().equals(EventoUmbralStockDto.BAJO)) {
+                inventariosBajoStock.add(siguiente.inventarioId());
+            }
+            contadores(siguiente.ubicacionId()).sumar(siguiente, 1);
+        }
+    }
+
+    private Contadores contadores(long ubicacionId) {
+        return contadoresPorUbicacion.computeIfAbsent(ubicacionId, id -> new Contadores());
+    }
+
+    private void publicarSiCruza(Long productoId, Estado anterior, Estado nuevo) {
+        String zonaAnterior = anterior == null ? EventoUmbralStockDto.SIN_REGISTRO : anterior.zona();
+        String zonaNueva = nuevo == null ? EventoUmbralStockDto.SIN_REGISTRO : nuevo.zona();
+        // Entering or leaving the index in the normal zone is not a threshold crossing
+        if (zonaAnterior.equals(zonaNueva) || esNormal(zonaAnterior) && esNormal(zonaNueva)) {
+            return;
+        }
+        Estado actual = nuevo != null ? nuevo : anterior;
+        publicador.publishEvent(new EventoUmbralStockDto(actual.inventarioId(), productoId, actual.cantidad(),
+                actual.stockMinimo(), actual.stockMaximo(), zonaAnterior, zonaNueva, Instant.now()));
+    }
+
+    private static boolean esNormal(String zona) {
+        return zona.equals(EventoUmbralStockDto.NORMAL) || zona.equals(EventoUmbralStockDto.SIN_REGISTRO);
+    }
+
+    /**
+     * The totals of one location at the time they were read.
+     *
+     * @param ubicacionId the id of the location, null for the records without one
+     * @param registros the number of inventory records
+     * @param unidades the units in stock
+     * @param valorCentavos the stock value at current prices, in cents
+     * @param bajoStock the records at or below their minimum
+     */
+    public record TotalesUbicacion(Long ubicacionId, long registros, long unidades, long valorCentavos, long bajoStock) {
+    }
+
+    /**
+     * Running totals of one location. Records of different products share it, so every access locks it.
+     */
+    private static final class Contadores {
+        private long registros;
+        private long unidades;
+        private long valorCentavos;
+        private long bajoStock;
+
+        synchronized void sumar(Estado estado, int signo) {
+            registros += signo;
+            unidades += (long) signo * estado.cantidad();
+            valorCentavos += signo * estado.valorCentavos();
+            if (estado.zona().equals(EventoUmbralStockDto.BAJO)) {
+                bajoStock += signo;
+            }
+        }
+
+        synchronized TotalesUbicacion leer(Long ubicacionId) {
+            return new TotalesUbicacion(ubicacionId, registros, unidades, valorCentavos, bajoStock);
+        }
+    }
+
+    private record Estado(long inventarioId, int cantidad, Integer stockMinimo, Integer stockMaximo,
+                          long ubicacionId, long precioCentavos) {
+
+        static Estado de(FilaEstadoStock fila) {
+            return new Estado(fila.inventarioId(), fila.cantidad() == null ? 0 : fila.cantidad(),
+                    fila.stockMinimo(), fila.stockMaximo(),
+                    fila.ubicacionId() == null ? SIN_UBICACION : fila.ubicacionId(), centavos(fila.precio()));
+        }
+
+        static long centavos(BigDecimal precio) {
+            return precio == null ? 0 : precio.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+
+        Estado conCantidad(int nuevaCantidad) {
+            return new Estado(inventarioId, nuevaCantidad, stockMinimo, stockMaximo, ubicacionId, precioCentavos);
+        }
+
+        Estado conPrecio(long nuevoPrecioCentavos) {
+            return new Estado(inventarioId, cantidad, stockMinimo, stockMaximo, ubicacionId, nuevoPrecioCentavos);
+        }
+
+        long valorCentavos() {
+            return cantidad * precioCentavos;
+        }
+
+        /**
+         * Same rule as the {@code cantidad <= stockMinimo} database query; a missing threshold never matches.
+         */
+        String zona() {
+            if (stockMinimo != null && cantidad <= stockMinimo) {
+                return EventoUmbralStockDto.BAJO;
+            }
+            if (stockMaximo != null && cantidad > stockMaximo) {
+                return EventoUmbralStockDto.SOBRE;
+            }
+            return EventoUmbralStockDto.NORMAL;
+        }
+    }
+}
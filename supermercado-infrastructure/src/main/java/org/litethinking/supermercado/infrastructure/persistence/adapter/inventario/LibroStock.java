@@ -0,0 +1,216 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+/**
+ * Lock-striped, primitive ledger of live stock quantities keyed by product id.
+ * Each stripe is an open-addressing table of parallel {@code long}/{@code int} arrays guarded by its own
+ * monitor, so reads and decrements on different products rarely contend and never allocate.
+ *
+ * <p>Per product it keeps the live quantity. A quantity of {@link #NO_CARGADO} means the database value has
+ * to be loaded before the product can be decremented; slots are never removed, only unloaded. The units taken
+ * but not yet applied to the inventory rows are tracked by the caller, not here.</p>
+ */
+final class LibroStock {
+
+    /** Quantity of a product whose database value has not been loaded. */
+    static final int NO_CARGADO = Integer.MIN_VALUE;
+
+    /** Result of {@link #descontar(long, int)}: the units were taken. */
+    static final int DESCONTADO = 1;
+    /** Result of {@link #descontar(long, int)}: the live quantity does not cover the units. */
+    static final int INSUFICIENTE = 0;
+    /** Result of {@link #descontar(long, int)}: the product has to be loaded first. */
+    static final int SIN_CARGAR = -1;
+
+    private static final int CAPACIDAD_INICIAL_FRANJA = 16;
+
+    private final Franja[] franjas;
+    private final int mascara;
+
+    LibroStock(int cantidadFranjas) {
+        if (cantidadFranjas <= 0) {
+            throw new IllegalArgumentException("La cantidad de franjas debe ser mayor que cero");
+        }
+        int potencia = cantidadFranjas == 1 ? 1 : Integer.highestOneBit(cantidadFranjas - 1) << 1;
+        this.franjas = new Franja[potencia];
+        for (int i = 0; i < potencia; i++) {
+            franjas[i] = new Franja();
+        }
+        this.mascara = potencia - 1;
+    }
+
+    /**
+     * Takes units from the live quantity of a product.
+     *
+     * @return {@link #DESCONTADO}, {@link #INSUFICIENTE} or {@link #SIN_CARGAR}
+     */
+    int descontar(long productoId, int unidades) {
+        return descontar(productoId, unidades, 0);
+    }
+
+    /**
+     * Takes units from the live quantity of a product, as long as the reserved units are still covered afterwards.
+     *
+     * @return {@link #DESCONTADO}, {@link #INSUFICIENTE} or {@link #SIN_CARGAR}
+     */
+    int descontar(long productoId, int unidades, int reservadas) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            int slot = franja.buscar(productoId);
+            if (slot < 0 || franja.cantidades[slot] == NO_CARGADO) {
+                return SIN_CARGAR;
+            }
+            if (franja.cantidades[slot] - reservadas < unidades) {
+                return INSUFICIENTE;
+            }
+            franja.cantidades[slot] -= unidades;
+            return DESCONTADO;
+        }
+    }
+
+    /**
+     * Gives back units taken by {@link #descontar(long, int)} whose transaction did not commit.
+     */
+    void reponer(long productoId, int unidades) {
+        sumar(productoId, unidades);
+    }
+
+    /**
+     * Adds units to the live quantity of a loaded product; negative units take them away.
+     */
+    void sumar(long productoId, int unidades) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            int slot = franja.buscar(productoId);
+            if (slot >= 0 && franja.cantidades[slot] != NO_CARGADO) {
+                franja.cantidades[slot] += unidades;
+            }
+        }
+    }
+
+    /**
+     * @return the live quantity of the product, or {@link #NO_CARGADO}
+     */
+    int cantidad(long productoId) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            int slot = franja.buscar(productoId);
+            return slot < 0 ? NO_CARGADO : franja.cantidades[slot];
+        }
+    }
+
+    /**
+     * Loads the live quantity of a product unless another thread already did.
+     */
+    void cargar(long productoId, int cantidad) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            int slot = franja.slot(productoId);
+            if (franja.cantidades[slot] == NO_CARGADO) {
+                franja.cantidades[slot] = cantidad;
+            }
+        }
+    }
+
+    /**
+     * Overwrites the live quantity of a product, e.g. after its inventory record was saved.
+     */
+    void establecer(long productoId, int cantidad) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            franja.cantidades[franja.slot(productoId)] = cantidad;
+        }
+    }
+
+    /**
+     * Marks a product as not loaded, so the next decrement loads it again.
+     */
+    void olvidar(long productoId) {
+        Franja franja = franja(productoId);
+        synchronized (franja) {
+            int slot = franja.buscar(productoId);
+            if (slot >= 0) {
+                franja.cantidades[slot] = NO_CARGADO;
+            }
+        }
+    }
+
+    private Franja franja(long productoId) {
+        if (productoId <= 0) {
+            throw new IllegalArgumentException("El id del producto debe ser mayor que cero");
+        }
+        return franjas[mezclar(productoId) & mascara];
+    }
+
+    /**
+     * Spreads sequential ids over stripes and slots; the high bits pick the slot so that they stay
+     * independent from the low bits that pick the stripe.
+     */
+    private static int mezclar(long productoId) {
+        long h = productoId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * One stripe: linear probing over power-of-two arrays, where key 0 marks an empty slot.
+     */
+    private static final class Franja {
+        long[] claves = new long[CAPACIDAD_INICIAL_FRANJA];
+        int[] cantidades = new int[CAPACIDAD_INICIAL_FRANJA];
+        int ocupados;
+
+        /**
+         * @return the slot of the key, or -1 when it is absent
+         */
+        int buscar(long clave) {
+            int mascaraSlots = claves.length - 1;
+            for (int slot = (mezclar(clave) >>> 16) & mascaraSlots; ; slot = (slot + 1) & mascaraSlots) {
+                if (claves[slot] == clave) {
+                    return slot;
+                }
+                if (claves[slot] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * @return the slot of the key, inserting it as not loaded when it is absent
+         */
+        int slot(long clave) {
+            int existente = buscar(clave);
+            if (existente >= 0) {
+                return existente;
+            }
+            if ((ocupados + 1) * 2 > claves.length) {
+                crecer();
+            }
+            int mascaraSlots = claves.length - 1;
+            int slot = (mezclar(clave) >>> 16) & mascaraSlots;
+            while (claves[slot] != 0) {
+                slot = (slot + 1) & mascaraSlots;
+            }
+            claves[slot] = clave;
+            cantidades[slot] = NO_CARGADO;
+            ocupados++;
+            return slot;
+        }
+
+        private void crecer() {
+            long[] clavesAnteriores = claves;
+            int[] cantidadesAnteriores = cantidades;
+            claves = new long[clavesAnteriores.length * 2];
+            cantidades = new int[clavesAnteriores.length * 2];
+            int mascaraSlots = claves.length - 1;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (clavesAnteriores[i] != 0) {
+                    int slot = (mezclar(clavesAnteriores[i]) >>> 16) & mascaraSlots;
+                    while (claves[slot] != 0) {
+                        slot = (slot + 1) & mascaraSlots;
+                    }
+                    claves[slot] = clavesAnteriores[i];
+                    cantidades[slot] = cantidadesAnteriores[i];
+                }
+            }
+        }
+    }
+}
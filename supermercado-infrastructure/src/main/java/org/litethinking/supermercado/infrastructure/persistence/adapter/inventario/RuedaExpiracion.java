@@ -0,0 +1,126 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of slots, each an intrusive doubly-linked list of the entries that expire on a
+ * tick hashing to it. Scheduling and cancelling are O(1) and a tick only walks one slot, so the cost of
+ * expiry grows with the live entries divided by the slots instead of with one timer per entry.
+ *
+ * <p>Entries keep their absolute expiry tick, so one whose deadline is more than a turn away simply stays
+ * in its slot until the turn it is due. The wheel is not thread-safe; its owner guards it with its own lock.</p>
+ *
+ * @param <T> the value expired with each entry
+ */
+final class RuedaExpiracion<T> {
+
+    /**
+     * An entry of the wheel, handed back by {@link #programar(Object, long)} so it can be cancelled.
+     */
+    static final class Entrada<T> {
+        private final T valor;
+        private final long vence;
+        private Entrada<T> anterior;
+        private Entrada<T> siguiente;
+        private boolean programada;
+
+        private Entrada(T valor, long vence) {
+            this.valor = valor;
+            this.vence = vence;
+        }
+
+        long vence() {
+            return vence;
+        }
+    }
+
+    private final Entrada<T>[] ranuras;
+    private final int mascara;
+    private long tickActual;
+    private int tamano;
+
+    @SuppressWarnings("unchecked")
+    RuedaExpiracion(int cantidadRanuras, long tickInicial) {
+        if (cantidadRanuras <= 0) {
+            throw new IllegalArgumentException("La cantidad de ranuras debe ser mayor que cero");
+        }
+        int potencia = cantidadRanuras == 1 ? 1 : Integer.highestOneBit(cantidadRanuras - 1) << 1;
+        this.ranuras = new Entrada[potencia];
+        this.mascara = potencia - 1;
+        this.tickActual = tickInicial;
+    }
+
+    /**
+     * Schedules a value to expire on a tick. A tick that has already been processed becomes the next one.
+     *
+     * @return the entry, to cancel it before it expires
+     */
+    Entrada<T> programar(T valor, long venceTick) {
+        Entrada<T> entrada = new Entrada<>(valor, Math.max(venceTick, tickActual + 1));
+        int ranura = (int) (entrada.vence & mascara);
+        entrada.siguiente = ranuras[ranura];
+        if (entrada.siguiente != null) {
+            entrada.siguiente.anterior = entrada;
+        }
+        ranuras[ranura] = entrada;
+        entrada.programada = true;
+        tamano++;
+        return entrada;
+    }
+
+    /**
+     * Removes an entry that has not expired yet; an entry already expired or cancelled is ignored.
+     */
+    void cancelar(Entrada<T> entrada) {
+        if (!entrada.programada) {
+            return;
+        }
+        if (entrada.anterior != null) {
+            entrada.anterior.siguiente = entrada.siguiente;
+        } else {
+            ranuras[(int) (entrada.vence & mascara)] = entrada.siguiente;
+        }
+        if (entrada.siguiente != null) {
+            entrada.siguiente.anterior = entrada.anterior;
+        }
+        entrada.anterior = null;
+        entrada.siguiente = null;
+        entrada.programada = false;
+        tamano--;
+    }
+
+    /**
+     * Processes every tick up to the given one and expires the entries due by then. After a stall longer
+     * than a turn, each slot is walked once instead of once per missed tick.
+     *
+     * @param hastaTick the tick to advance to
+     * @param alVencer receives the value of every expired entry
+     * @return the number of expired entries
+     */
+    int avanzar(long hastaTick, Consumer<T> alVencer) {
+        long pasos = Math.min(hastaTick - tickActual, ranuras.length);
+        int vencidas = 0;
+        for (long paso = 1; paso <= pasos; paso++) {
+            Entrada<T> entrada = ranuras[(int) ((tickActual + paso) & mascara)];
+            while (entrada != null) {
+                Entrada<T> siguiente = entrada.siguiente;
+                if (entrada.vence <= hastaTick) {
+                    cancelar(entrada);
+                    alVencer.accept(entrada.valor);
+                    vencidas++;
+                }
+                entrada = siguiente;
+            }
+        }
+        tickActual = Math.max(tickActual, hastaTick);
+        return vencidas;
+    }
+
+    long tickActual() {
+        return tickActual;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+}
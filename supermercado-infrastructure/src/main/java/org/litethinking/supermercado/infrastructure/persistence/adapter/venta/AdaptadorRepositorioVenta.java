@@ -1,41 +1,101 @@
 package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
 
 import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.venta.CursorVenta;
 import org.litethinking.supermercado.domain.model.venta.ItemVenta;
+import org.litethinking.supermercado.domain.model.venta.ResumenVentaDiario;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
 import org.litethinking.supermercado.domain.model.venta.Venta;
 import org.litethinking.supermercado.domain.ports.output.RepositorioVentaPort;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
 import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaItemVenta;
 import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaVenta;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.FilaVentaExportacion;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
 import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaVenta;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adapter implementation for RepositorioVenta and RepositorioVentaPort.
  * This adapter connects the domain layer with the persistence infrastructure.
+ * Products referenced by the items are loaded once per save with a single bulk query and
+ * attached as managed entities, so they are never merged nor written back.
+ * Pages are read in two steps: the ids of the page by keyset, then the sales of those ids with
+ * their items fetched in one query.
+ * Every write also updates the daily rollup in the same transaction, subtracting the stored
+ * version of an updated or deleted sale and adding the new one.
  */
 @Service
 public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
 
+    /**
+     * Position before any sale, used for the first page.
+     */
+    private static final CursorVenta INICIO = new CursorVenta(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+
     private final RepositorioJpaVenta repositorioJpaVenta;
+    private final RepositorioJpaProducto repositorioJpaProducto;
+    private final RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario;
+    private final FilasResumenVentas filasResumenVentas;
 
-    public AdaptadorRepositorioVenta(RepositorioJpaVenta repositorioJpaVenta) {
+    public AdaptadorRepositorioVenta(RepositorioJpaVenta repositorioJpaVenta,
+                                     RepositorioJpaProducto repositorioJpaProducto,
+                                     RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario,
+                                     FilasResumenVentas filasResumenVentas) {
         this.repositorioJpaVenta = repositorioJpaVenta;
+        this.repositorioJpaProducto = repositorioJpaProducto;
+        this.repositorioJpaResumenVentaDiario = repositorioJpaResumenVentaDiario;
+        this.filasResumenVentas = filasResumenVentas;
     }
 
     @Override
+    @Transactional
     public Venta save(Venta venta) {
-        EntidadJpaVenta entidadJpaVenta = mapToEntity(venta);
+        DeltaResumenVentas delta = new DeltaResumenVentas();
+        restarVersionGuardada(venta, delta);
+        Map<Long, EntidadJpaProducto> productos = cargarProductos(List.of(venta));
+        EntidadJpaVenta entidadJpaVenta = mapToEntity(venta, productos);
         EntidadJpaVenta savedEntity = repositorioJpaVenta.save(entidadJpaVenta);
+        delta.sumar(savedEntity);
+        delta.aplicar(repositorioJpaResumenVentaDiario, filasResumenVentas);
         return mapToDomain(savedEntity);
     }
 
+    @Override
+    @Transactional
+    public List<Venta> saveAll(List<Venta> ventas) {
+        DeltaResumenVentas delta = new DeltaResumenVentas();
+        ventas.forEach(venta -> restarVersionGuardada(venta, delta));
+        Map<Long, EntidadJpaProducto> productos = cargarProductos(ventas);
+        List<EntidadJpaVenta> entidades = ventas.stream()
+                .map(venta -> mapToEntity(venta, productos))
+                .collect(Collectors.toList());
+        List<EntidadJpaVenta> guardadas = repositorioJpaVenta.saveAll(entidades);
+        guardadas.forEach(delta::sumar);
+        delta.aplicar(repositorioJpaResumenVentaDiario, filasResumenVentas);
+        return guardadas.stream()
+                .map(this::mapToDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Optional<Venta> findById(Long id) {
         return repositorioJpaVenta.findById(id).map(this::mapToDomain);
@@ -49,8 +109,14 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        repositorioJpaVenta.deleteById(id);
+        repositorioJpaVenta.findById(id).ifPresent(entidad -> {
+            DeltaResumenVentas delta = new DeltaResumenVentas();
+            delta.restar(entidad);
+            repositorioJpaVenta.delete(entidad);
+            delta.aplicar(repositorioJpaResumenVentaDiario, filasResumenVentas);
+        });
     }
 
     @Override
@@ -81,6 +147,150 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> findPagina(CursorVenta despuesDe, int limite) {
+        CursorVenta cursor = despuesDe != null ? despuesDe : INICIO;
+        return cargarPagina(repositorioJpaVenta.findIdsPagina(
+                cursor.fechaVenta(), cursor.id(), PageRequest.ofSize(limite)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> findPaginaByFechaVentaBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                     CursorVenta despuesDe, int limite) {
+        CursorVenta cursor = despuesDe != null ? despuesDe : INICIO;
+        return cargarPagina(repositorioJpaVenta.findIdsPaginaByFechaVentaBetween(
+                fechaInicio, fechaFin, cursor.fechaVenta(), cursor.id(), PageRequest.ofSize(limite)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> findPaginaByNombreCliente(String nombreCliente, CursorVenta despuesDe, int limite) {
+        CursorVenta cursor = despuesDe != null ? despuesDe : INICIO;
+        return cargarPagina(repositorioJpaVenta.findIdsPaginaByNombreCliente(
+                nombreCliente, cursor.fechaVenta(), cursor.id(), PageRequest.ofSize(limite)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> findPaginaByMetodoPago(String metodoPago, CursorVenta despuesDe, int limite) {
+        CursorVenta cursor = despuesDe != null ? despuesDe : INICIO;
+        return cargarPagina(repositorioJpaVenta.findIdsPaginaByMetodoPago(
+                metodoPago, cursor.fechaVenta(), cursor.id(), PageRequest.ofSize(limite)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumenVentaDiario> findResumenDiarioEntreFechas(LocalDate desde, LocalDate hasta) {
+        return repositorioJpaResumenVentaDiario.findEntreFechas(desde, hasta).stream()
+                .map(resumen -> new ResumenVentaDiario(
+                        resumen.getFecha(),
+                        resumen.getMetodoPago(),
+                        resumen.getCantidadVentas(),
+                        resumen.getMontoTotal(),
+                        resumen.getCantidadArticulos()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<UnidadesVendidasProducto> findUnidadesVendidasPorProductoDesde(LocalDateTime desde) {
+        return repositorioJpaVenta.sumUnidadesVendidasPorProductoDesde(desde);
+    }
+
+    /**
+     * Streams the flat sale-item rows and rebuilds one sale at a time from its consecutive rows,
+     * so only the sale being assembled is held in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerVentasEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin, Consumer<Venta> consumidor) {
+        try (Stream<FilaVentaExportacion> filas = repositorioJpaVenta.streamFilasByFechaVentaBetween(fechaInicio, fechaFin)) {
+            Venta actual = null;
+            Iterator<FilaVentaExportacion> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                FilaVentaExportacion fila = iterador.next();
+                if (actual == null || !actual.getId().equals(fila.ventaId())) {
+                    if (actual != null) {
+                        consumidor.accept(actual);
+                    }
+                    actual = Venta.builder()
+                            .id(fila.ventaId())
+                            .fechaVenta(fila.fechaVenta())
+                            .nombreCliente(fila.nombreCliente())
+                            .items(new ArrayList<>())
+                            .montoTotal(fila.montoTotal())
+                            .metodoPago(fila.metodoPago())
+                            .build();
+                }
+                if (fila.itemId() != null) {
+                    actual.getItems().add(mapFilaToItem(fila));
+                }
+            }
+            if (actual != null) {
+                consumidor.accept(actual);
+            }
+        }
+    }
+
+    private ItemVenta mapFilaToItem(FilaVentaExportacion fila) {
+        return ItemVenta.builder()
+                .id(fila.itemId())
+                .producto(Producto.builder()
+                        .id(fila.productoId())
+                        .nombre(fila.productoNombre())
+                        .descripcion(fila.productoDescripcion())
+                        .precio(fila.productoPrecio())
+                        .categoria(fila.productoCategoria())
+                        .codigoBarras(fila.productoCodigoBarras())
+                        .build())
+                .cantidad(fila.cantidad())
+                .precioUnitario(fila.precioUnitario())
+                .subtotal(fila.subtotal())
+                .build();
+    }
+
+    private List<Venta> cargarPagina(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return repositorioJpaVenta.findAllConItemsByIdIn(ids).stream()
+                .map(this::mapToDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Takes the stored version of a sale that is about to be overwritten out of the rollup.
+     */
+    private void restarVersionGuardada(Venta venta, DeltaResumenVentas delta) {
+        if (venta.getId() != null) {
+            repositorioJpaVenta.findById(venta.getId()).ifPresent(delta::restar);
+        }
+    }
+
+    /**
+     * Loads every product referenced by the sales with one findAllById call.
+     *
+     * @throws IllegalArgumentException if a referenced product does not exist
+     */
+    private Map<Long, EntidadJpaProducto> cargarProductos(List<Venta> ventas) {
+        Set<Long> ids = new HashSet<>();
+        for (Venta venta : ventas) {
+            if (venta.getItems() != null) {
+                venta.getItems().forEach(item -> ids.add(item.getProducto().getId()));
+            }
+        }
+
+        Map<Long, EntidadJpaProducto> productos = new HashMap<>();
+        repositorioJpaProducto.findAllById(ids).forEach(producto -> productos.put(producto.getId(), producto));
+        for (Long id : ids) {
+            if (!productos.containsKey(id)) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + id);
+            }
+        }
+        return productos;
+    }
+
     private Venta mapToDomain(EntidadJpaVenta entidadJpaVenta) {
         List<ItemVenta> items = entidadJpaVenta.getItems().stream()
                 .map(this::mapItemToDomain)
@@ -96,7 +306,7 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
                 .build();
     }
 
-    private EntidadJpaVenta mapToEntity(Venta venta) {
+    private EntidadJpaVenta mapToEntity(Venta venta, Map<Long, EntidadJpaProducto> productos) {
         EntidadJpaVenta entidadJpaVenta = EntidadJpaVenta.builder()
                 .id(venta.getId())
                 .fechaVenta(venta.getFechaVenta())
@@ -107,7 +317,7 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
 
         if (venta.getItems() != null) {
             venta.getItems().forEach(item -> {
-                EntidadJpaItemVenta entidadJpaItemVenta = mapItemToEntity(item);
+                EntidadJpaItemVenta entidadJpaItemVenta = mapItemToEntity(item, productos);
                 entidadJpaVenta.addItem(entidadJpaItemVenta);
             });
         }
@@ -125,10 +335,10 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
                 .build();
     }
 
-    private EntidadJpaItemVenta mapItemToEntity(ItemVenta itemVenta) {
+    private EntidadJpaItemVenta mapItemToEntity(ItemVenta itemVenta, Map<Long, EntidadJpaProducto> productos) {
         return EntidadJpaItemVenta.builder()
                 .id(itemVenta.getId())
-                .producto(mapProductoToEntity(itemVenta.getProducto()))
+                .producto(productos.get(itemVenta.getProducto().getId()))
                 .cantidad(itemVenta.getCantidad())
                 .precioUnitario(itemVenta.getPrecioUnitario())
                 .subtotal(itemVenta.getSubtotal())
@@ -145,15 +355,4 @@ public class AdaptadorRepositorioVenta implements RepositorioVentaPort {
                 .codigoBarras(entidadJpaProducto.getCodigoBarras())
                 .build();
     }
-
-    private EntidadJpaProducto mapProductoToEntity(Producto producto) {
-        return EntidadJpaProducto.builder()
-                .id(producto.getId())
-                .nombre(producto.getNombre())
-                .descripcion(producto.getDescripcion())
-                .precio(producto.getPrecio())
-                .categoria(producto.getCategoria())
-                .codigoBarras(producto.getCodigoBarras())
-                .build();
-    }
 }
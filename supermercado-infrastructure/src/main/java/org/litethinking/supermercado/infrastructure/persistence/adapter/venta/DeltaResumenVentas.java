@@ -0,0 +1,73 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
+
+import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaItemVenta;
+import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaVenta;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accumulates the rollup changes of one write, per day and payment method, so that each
+ * rollup row is touched once per transaction however many sales of that day were written.
+ * Rows are updated in key order, so concurrent transactions lock them in the same order.
+ */
+final class DeltaResumenVentas {
+
+    private record Clave(LocalDate fecha, String metodoPago) {
+    }
+
+    private static final class Acumulado {
+        private long cantidadVentas;
+        private BigDecimal montoTotal = BigDecimal.ZERO;
+        private long cantidadArticulos;
+    }
+
+    private final Map<Clave, Acumulado> deltas = new TreeMap<>(
+            Comparator.comparing(Clave::fecha).thenComparing(Clave::metodoPago));
+
+    /**
+     * Adds a stored sale to the rollup.
+     */
+    void sumar(EntidadJpaVenta venta) {
+        acumular(venta, 1);
+    }
+
+    /**
+     * Removes a stored sale from the rollup, before it is updated or deleted.
+     */
+    void restar(EntidadJpaVenta venta) {
+        acumular(venta, -1);
+    }
+
+    /**
+     * Writes the accumulated changes, skipping the ones that cancel out. The rows are created beforehand,
+     * before the first of them is locked, so the writes only ever update.
+     */
+    void aplicar(RepositorioJpaResumenVentaDiario repositorio, FilasResumenVentas filas) {
+        deltas.keySet().forEach(clave -> filas.asegurar(clave.fecha(), clave.metodoPago()));
+        deltas.forEach((clave, acumulado) -> {
+            if (acumulado.cantidadVentas != 0 || acumulado.cantidadArticulos != 0
+                    || acumulado.montoTotal.signum() != 0) {
+                repositorio.acumular(clave.fecha(), clave.metodoPago(), acumulado.cantidadVentas,
+                        acumulado.montoTotal, acumulado.cantidadArticulos);
+            }
+        });
+    }
+
+    private void acumular(EntidadJpaVenta venta, int signo) {
+        Clave clave = new Clave(venta.getFechaVenta().toLocalDate(),
+                venta.getMetodoPago() != null ? venta.getMetodoPago() : "");
+        Acumulado acumulado = deltas.computeIfAbsent(clave, c -> new Acumulado());
+        long articulos = 0;
+        for (EntidadJpaItemVenta item : venta.getItems()) {
+            articulos += item.getCantidad();
+        }
+        acumulado.cantidadVentas += signo;
+        acumulado.montoTotal = acumulado.montoTotal.add(signo > 0 ? venta.getMontoTotal() : venta.getMontoTotal().negate());
+        acumulado.cantidadArticulos += signo * articulos;
+    }
+}
@@ -0,0 +1,59 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
+
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes sure the rollup row of a day and payment method exists before a sale write updates it.
+ *
+ * <p>The first sales of a new day would otherwise race to insert the same row inside their own
+ * transactions, and all but one would fail on the primary key. The row is created empty in its own
+ * transaction instead, where losing that race is harmless, so the sale's MERGE always finds it and
+ * only updates. Rollup rows are never deleted, so the keys already seen are remembered and cost
+ * nothing afterwards.</p>
+ */
+@Component
+public class FilasResumenVentas {
+
+    private record Clave(LocalDate fecha, String metodoPago) {
+    }
+
+    private final RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario;
+    private final TransactionTemplate transaccionPropia;
+    private final Set<Clave> existentes = ConcurrentHashMap.newKeySet();
+
+    public FilasResumenVentas(RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario,
+                              PlatformTransactionManager transactionManager) {
+        this.repositorioJpaResumenVentaDiario = repositorioJpaResumenVentaDiario;
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates the rollup row of a day and payment method unless it is known to exist.
+     *
+     * @param fecha the day
+     * @param metodoPago the payment method, empty for sales without one
+     */
+    public void asegurar(LocalDate fecha, String metodoPago) {
+        Clave clave = new Clave(fecha, metodoPago);
+        if (existentes.contains(clave)) {
+            return;
+        }
+        try {
+            transaccionPropia.executeWithoutResult(estado ->
+                    repositorioJpaResumenVentaDiario.crearSiNoExiste(fecha, metodoPago));
+        } catch (DataIntegrityViolationException e) {
+            // Another transaction created the same row first, which is all that was needed
+        }
+        existentes.add(clave);
+    }
+}
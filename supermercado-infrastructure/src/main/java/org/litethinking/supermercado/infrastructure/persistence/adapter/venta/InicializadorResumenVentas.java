@@ -0,0 +1,45 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaVenta;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds the daily sales rollup from the sales table when the rollup is empty but sales exist,
+ * e.g. on a database created before the rollup was introduced. Runs before any other runner
+ * that writes sales, such as the write-behind journal replay, so no increment is applied twice.
+ */
+@Component
+public class InicializadorResumenVentas implements ApplicationRunner, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(InicializadorResumenVentas.class);
+
+    private final RepositorioJpaVenta repositorioJpaVenta;
+    private final RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario;
+
+    public InicializadorResumenVentas(RepositorioJpaVenta repositorioJpaVenta,
+                                      RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario) {
+        this.repositorioJpaVenta = repositorioJpaVenta;
+        this.repositorioJpaResumenVentaDiario = repositorioJpaResumenVentaDiario;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (repositorioJpaResumenVentaDiario.count() == 0 && repositorioJpaVenta.count() > 0) {
+            int filas = repositorioJpaResumenVentaDiario.reconstruir();
+            logger.info("Daily sales rollup rebuilt from the sales table: {} rows", filas);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
@@ -0,0 +1,74 @@
+package org.litethinking.supermercado.infrastructure.persistence.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders the committed writes of an in-memory index with its initial load from the database.
+ *
+ * <p>A write that commits while the snapshot is being read may or may not be in it, and applying it to an
+ * index that does not hold the record yet is lost once the snapshot is published. So from
+ * {@link #iniciar()} on, writes are kept in arrival order instead of applied, and {@link #terminar()}
+ * replays them on top of the published snapshot before the index is marked as loaded. Writes made before
+ * the load starts, or after it ends, run right away.</p>
+ */
+public final class EscriturasDuranteCarga {
+
+    private final Object bloqueo = new Object();
+    // Not null while a load is in progress; guarded by bloqueo
+    private List<Runnable> aplazadas;
+    private volatile boolean terminada;
+
+    /**
+     * Starts keeping the writes. Call it before reading the snapshot.
+     */
+    public void iniciar() {
+        synchronized (bloqueo) {
+            aplazadas = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Runs a write now, or keeps it for {@link #terminar()} while a load is in progress.
+     *
+     * @param escritura the change to the index
+     */
+    public void escribir(Runnable escritura) {
+        if (!terminada) {
+            synchronized (bloqueo) {
+                if (aplazadas != null) {
+                    aplazadas.add(escritura);
+                    return;
+                }
+            }
+        }
+        escritura.run();
+    }
+
+    /**
+     * Replays the writes kept during the load, including those that arrive while replaying, and marks the
+     * load as finished. Call it once the snapshot is in the index.
+     */
+    public void terminar() {
+        while (true) {
+            List<Runnable> escrituras;
+            synchronized (bloqueo) {
+                if (aplazadas.isEmpty()) {
+                    aplazadas = null;
+                    terminada = true;
+                    return;
+                }
+                escrituras = aplazadas;
+                aplazadas = new ArrayList<>();
+            }
+            escrituras.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * @return true once the snapshot and every write kept during the load are in the index
+     */
+    public boolean terminada() {
+        return terminada;
+    }
+}
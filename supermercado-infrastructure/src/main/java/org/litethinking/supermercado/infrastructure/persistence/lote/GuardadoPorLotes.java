@@ -0,0 +1,113 @@
+package org.litethinking.supermercado.infrastructure.persistence.lote;
+
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes rows in JDBC batches, for the bulk paths that would otherwise insert one row per statement:
+ * the entities use identity ids, which keep Hibernate from batching their inserts.
+ * Runs on the connection of the surrounding transaction, like the rest of the adapter.
+ */
+public final class GuardadoPorLotes {
+
+    private GuardadoPorLotes() {
+    }
+
+    /**
+     * Upserts rows by a unique natural key with two batches: an UPDATE by key of every row, then an INSERT
+     * of the rows the UPDATE did not find. Each row holds the values of the columns followed by the key.
+     *
+     * @param jdbcTemplate the template to run the batches with
+     * @param tabla the table
+     * @param columnas the columns to write, without the key
+     * @param clave the key column
+     * @param tiposSql the {@link java.sql.Types} of the columns followed by the one of the key
+     * @param filas the rows; their keys must not repeat
+     * @return for each row, whether it was inserted rather than updated
+     * @throws IllegalArgumentException if the types or a row do not have one value per column plus the key
+     */
+    public static boolean[] guardarPorClave(JdbcTemplate jdbcTemplate, String tabla, List<String> columnas,
+                                            String clave, int[] tiposSql, List<Object[]> filas) {
+        comprobarAridad(tabla, columnas.size() + 1, tiposSql, filas);
+        boolean[] insertadas = new boolean[filas.size()];
+        if (filas.isEmpty()) {
+            return insertadas;
+        }
+        String sqlActualizar = "UPDATE " + tabla + " SET "
+                + columnas.stream().map(columna -> columna + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + clave + " = ?";
+        int[] actualizadas = jdbcTemplate.batchUpdate(sqlActualizar, filas, tiposSql);
+
+        List<Object[]> nuevas = new ArrayList<>();
+        for (int i = 0; i < actualizadas.length; i++) {
+            if (actualizadas[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("El driver JDBC no informa las filas actualizadas de cada sentencia del lote");
+            }
+            if (actualizadas[i] == 0) {
+                insertadas[i] = true;
+                nuevas.add(filas.get(i));
+            }
+        }
+        List<String> columnasInsertadas = new ArrayList<>(columnas);
+        columnasInsertadas.add(clave);
+        insertar(jdbcTemplate, tabla, columnasInsertadas, tiposSql, nuevas);
+        return insertadas;
+    }
+
+    /**
+     * Inserts rows in one batch, letting the database generate their ids.
+     *
+     * @param jdbcTemplate the template to run the batch with
+     * @param tabla the table
+     * @param columnas the columns to write
+     * @param tiposSql the {@link java.sql.Types} of the columns
+     * @param filas the rows, with one value per column
+     * @throws IllegalArgumentException if the types or a row do not have one value per column
+     */
+    public static void insertar(JdbcTemplate jdbcTemplate, String tabla, List<String> columnas, int[] tiposSql,
+                                List<Object[]> filas) {
+        comprobarAridad(tabla, columnas.size(), tiposSql, filas);
+        if (filas.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ") VALUES ("
+                + "?, ".repeat(columnas.size() - 1) + "?)";
+        jdbcTemplate.batchUpdate(sql, filas, tiposSql);
+    }
+
+    /**
+     * JdbcTemplate leaves the type of a value past the end of the types unknown instead of failing, so a
+     * mismatch would only show up as a wrong conversion; it is checked before anything is written.
+     */
+    private static void comprobarAridad(String tabla, int valores, int[] tiposSql, List<Object[]> filas) {
+        if (tiposSql.length != valores) {
+            throw new IllegalArgumentException("Se esperaban " + valores + " tipos SQL para " + tabla
+                    + " y se recibieron " + tiposSql.length);
+        }
+        for (Object[] fila : filas) {
+            if (fila.length != valores) {
+                throw new IllegalArgumentException("Se esperaban " + valores + " valores por fila para " + tabla
+                        + " y una fila trae " + fila.length);
+            }
+        }
+    }
+
+    /**
+     * @param insertadas what {@link #guardarPorClave} returned
+     * @return how many rows were inserted and how many updated
+     */
+    public static ResultadoLoteImportacion resultado(boolean[] insertadas) {
+        int nuevas = 0;
+        for (boolean insertada : insertadas) {
+            if (insertada) {
+                nuevas++;
+            }
+        }
+        return ResultadoLoteImportacion.de(nuevas, insertadas.length - nuevas);
+    }
+}
@@ -0,0 +1,64 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import org.litethinking.supermercado.domain.model.producto.FiltroProducto;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Specifications for querying EntidadJpaProducto.
+ */
+public final class EspecificacionesProducto {
+
+    private static final char ESCAPE = '\\';
+
+    private EspecificacionesProducto() {
+    }
+
+    /**
+     * Combines every criterion of the filter with AND into a single WHERE clause. Category, price and
+     * barcode are compared as-is so they can use their indexes; the name fragment is a case-insensitive
+     * LIKE with its wildcards escaped.
+     *
+     * @param filtro the criteria to combine
+     * @return the specification; an empty filter matches every product
+     */
+    public static Specification<EntidadJpaProducto> de(FiltroProducto filtro) {
+        return (raiz, consulta, criterios) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtro.categoria() != null) {
+                predicados.add(criterios.equal(raiz.get("categoria"), filtro.categoria()));
+            }
+            if (filtro.precioMinimo() != null) {
+                predicados.add(criterios.greaterThanOrEqualTo(raiz.get("precio"), filtro.precioMinimo()));
+            }
+            if (filtro.precioMaximo() != null) {
+                predicados.add(criterios.lessThanOrEqualTo(raiz.get("precio"), filtro.precioMaximo()));
+            }
+            if (filtro.codigoBarras() != null) {
+                predicados.add(criterios.equal(raiz.get("codigoBarras"), filtro.codigoBarras()));
+            }
+            if (filtro.nombre() != null) {
+                String patron = "%" + escaparComodines(filtro.nombre().toLowerCase(Locale.ROOT)) + "%";
+                predicados.add(criterios.like(criterios.lower(raiz.get("nombre")), patron, ESCAPE));
+            }
+            return criterios.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String escaparComodines(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char caracter = texto.charAt(i);
+            if (caracter == '%' || caracter == '_' || caracter == ESCAPE) {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(caracter);
+        }
+        return escapado.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat projection of a product for exports.
+ * Being a DTO projection, the rows are never attached to the persistence context.
+ */
+public record FilaProductoExportacion(
+        Long id,
+        String nombre,
+        String descripcion,
+        BigDecimal precio,
+        String categoria,
+        String codigoBarras
+) {
+}
@@ -37,5 +37,5 @@ public interface InventoryJpaRepository extends JpaRepository<EntidadJpaInventar
      * @param location the location to search for
      * @return the list of inventory records in the location
      */
-    List<EntidadJpaInventario> findByUbicacion(String location);
+    List<EntidadJpaInventario> findByUbicacionNombre(String location);
 }
@@ -1,18 +1,27 @@
 package org.litethinking.supermercado.infrastructure.persistence.repository;
 
+import jakarta.persistence.QueryHint;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for EntidadJpaProducto.
+ * Combined filters are run through {@link JpaSpecificationExecutor} with {@link EspecificacionesProducto}.
  */
 @Repository
-public interface RepositorioJpaProducto extends JpaRepository<EntidadJpaProducto, Long> {
+public interface RepositorioJpaProducto extends JpaRepository<EntidadJpaProducto, Long>,
+        JpaSpecificationExecutor<EntidadJpaProducto> {
 
     /**
      * Find products by category.
@@ -38,4 +47,40 @@ public interface RepositorioJpaProducto extends JpaRepository<EntidadJpaProducto
      * @return the product if found, empty otherwise
      */
     Optional<EntidadJpaProducto> findByCodigoBarras(String codigoBarras);
+
+    /**
+     * Stream every product as a flat row, ordered by id. Rows are fetched from the driver in chunks of the
+     * fetch size and are read-only projections, so memory use does not grow with the size of the catalog.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the rows of all products
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.FilaProductoExportacion("
+            + "p.id, p.nombre, p.descripcion, p.precio, p.categoria, p.codigoBarras) "
+            + "FROM EntidadJpaProducto p ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<FilaProductoExportacion> streamFilasOrderById();
+
+    /**
+     * Find the products with the given barcodes as flat rows, without loading the entities.
+     *
+     * @param codigosBarras the barcodes to search for
+     * @return the rows of the products found
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.FilaProductoExportacion("
+            + "p.id, p.nombre, p.descripcion, p.precio, p.categoria, p.codigoBarras) "
+            + "FROM EntidadJpaProducto p WHERE p.codigoBarras IN :codigosBarras")
+    List<FilaProductoExportacion> findFilasByCodigoBarrasIn(@Param("codigosBarras") Collection<String> codigosBarras);
+
+    /**
+     * Find which of the given ids belong to a product.
+     *
+     * @param ids the ids to check
+     * @return the ids that exist
+     */
+    @Query("SELECT p.id FROM EntidadJpaProducto p WHERE p.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of an inventory record with what the stock state index keeps of it:
+ * the thresholds, the location id and the product price.
+ * Being a DTO projection, the rows are never attached to the persistence context.
+ */
+public record FilaEstadoStock(
+        Long inventarioId,
+        Long productoId,
+        Integer cantidad,
+        Integer stockMinimo,
+        Integer stockMaximo,
+        Long ubicacionId,
+        BigDecimal precio
+) {
+}
@@ -0,0 +1,25 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat projection of an inventory record joined with its product, for exports.
+ * The location is kept as its id, whose name is resolved from the locations dictionary.
+ * Being a DTO projection, the rows are never attached to the persistence context.
+ */
+public record FilaInventarioExportacion(
+        Long inventarioId,
+        Integer cantidad,
+        Integer stockMinimo,
+        Integer stockMaximo,
+        LocalDate fechaUltimaReposicion,
+        Long ubicacionId,
+        Long productoId,
+        String productoNombre,
+        String productoDescripcion,
+        BigDecimal productoPrecio,
+        String productoCategoria,
+        String productoCodigoBarras
+) {
+}
@@ -0,0 +1,35 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaCorteStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * JPA repository for EntidadJpaCorteStock.
+ */
+@Repository
+public interface RepositorioJpaCorteStock extends JpaRepository<EntidadJpaCorteStock, Long> {
+
+    /**
+     * Find the latest snapshot of a product taken at or before an instant.
+     *
+     * @param productoId the id of the product
+     * @param instante the instant
+     * @return the snapshot if any, empty otherwise
+     */
+    Optional<EntidadJpaCorteStock> findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(
+            Long productoId, LocalDateTime instante);
+
+    /**
+     * Find the first snapshot of a product that covers movements after a given one.
+     *
+     * @param productoId the id of the product
+     * @param movimientoId the id of the movement
+     * @return the snapshot if any, empty otherwise
+     */
+    Optional<EntidadJpaCorteStock> findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(
+            Long productoId, Long movimientoId);
+}
@@ -1,13 +1,23 @@
 package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.litethinking.supermercado.domain.model.inventario.PosicionStock;
+import org.litethinking.supermercado.domain.model.inventario.ResumenUbicacion;
 import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
 import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaInventario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for EntidadJpaInventario.
@@ -23,6 +33,15 @@ public interface RepositorioJpaInventario extends JpaRepository<EntidadJpaInvent
      */
     Optional<EntidadJpaInventario> findByProducto(EntidadJpaProducto producto);
 
+    /**
+     * Find the inventory record of a product by the product id, through the unique index on producto_id.
+     *
+     * @param productoId the id of the product
+     * @return the inventory with its product if found, empty otherwise
+     */
+    @Query("SELECT i FROM EntidadJpaInventario i JOIN FETCH i.producto p WHERE p.id = :productoId")
+    Optional<EntidadJpaInventario> findByProductoId(@Param("productoId") Long productoId);
+
     /**
      * Find inventory records with low stock.
      *
@@ -32,10 +51,133 @@ public interface RepositorioJpaInventario extends JpaRepository<EntidadJpaInvent
     List<EntidadJpaInventario> findBajoStock();
 
     /**
-     * Find inventory records by location.
+     * Find inventory records by id together with their products, in a single query.
+     *
+     * @param ids the ids of the inventory records
+     * @return the inventory records found
+     */
+    @Query("SELECT i FROM EntidadJpaInventario i JOIN FETCH i.producto WHERE i.id IN :ids")
+    List<EntidadJpaInventario> findAllConProductoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find and lock the inventory records of the given products, in product id order so that
+     * concurrent batches always lock the rows in the same order.
+     *
+     * @param productoIds the ids of the products
+     * @return the inventory records found, locked until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM EntidadJpaInventario i JOIN FETCH i.producto p WHERE p.id IN :productoIds ORDER BY p.id")
+    List<EntidadJpaInventario> findParaAjusteByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    /**
+     * Find an inventory record with its product and lock its row until the end of the transaction,
+     * so the quantity read is still current when the change is logged.
+     *
+     * @param id the id of the inventory record
+     * @return the locked inventory if found, empty otherwise
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM EntidadJpaInventario i JOIN FETCH i.producto WHERE i.id = :id")
+    Optional<EntidadJpaInventario> findParaActualizarById(@Param("id") Long id);
+
+    /**
+     * Find inventory records by location, through the index on ubicacion_id.
+     *
+     * @param ubicacionId the id of the location
+     * @return the list of inventory records in the location, with their products
+     */
+    @Query("SELECT i FROM EntidadJpaInventario i JOIN FETCH i.producto WHERE i.ubicacion.id = :ubicacionId")
+    List<EntidadJpaInventario> findByUbicacionId(@Param("ubicacionId") Long ubicacionId);
+
+    /**
+     * Find what the stock state index keeps of every inventory record, in one query and without loading
+     * the entities.
+     *
+     * @return one row per inventory record
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaEstadoStock("
+            + "i.id, p.id, i.cantidad, i.stockMinimo, i.stockMaximo, u.id, p.precio) "
+            + "FROM EntidadJpaInventario i JOIN i.producto p LEFT JOIN i.ubicacion u")
+    List<FilaEstadoStock> findEstadosStock();
+
+    /**
+     * Find what the stock state index keeps of the inventory records of the given products.
+     *
+     * @param productoIds the ids of the products
+     * @return one row per inventory record found
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaEstadoStock("
+            + "i.id, p.id, i.cantidad, i.stockMinimo, i.stockMaximo, u.id, p.precio) "
+            + "FROM EntidadJpaInventario i JOIN i.producto p LEFT JOIN i.ubicacion u WHERE p.id IN :productoIds")
+    List<FilaEstadoStock> findEstadosStockByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    /**
+     * Stream every inventory record joined with its product as a flat row, ordered by id. Rows are fetched
+     * from the driver in chunks of the fetch size and are read-only projections, so memory use does not
+     * grow with the number of records. Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the rows of all inventory records
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaInventarioExportacion("
+            + "i.id, i.cantidad, i.stockMinimo, i.stockMaximo, i.fechaUltimaReposicion, u.id, "
+            + "p.id, p.nombre, p.descripcion, p.precio, p.categoria, p.codigoBarras) "
+            + "FROM EntidadJpaInventario i JOIN i.producto p LEFT JOIN i.ubicacion u ORDER BY i.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<FilaInventarioExportacion> streamFilasOrderById();
+
+    /**
+     * Aggregate the inventory per location with a grouped query over the whole table.
+     *
+     * @return one summary per location, the records without a location under a null name
+     */
+    @Query("SELECT new org.litethinking.supermercado.domain.model.inventario.ResumenUbicacion("
+            + "u.nombre, COUNT(i), SUM(i.cantidad), SUM(i.cantidad * p.precio), "
+            + "SUM(CASE WHEN i.cantidad <= i.stockMinimo THEN 1L ELSE 0L END)) "
+            + "FROM EntidadJpaInventario i JOIN i.producto p LEFT JOIN i.ubicacion u "
+            + "GROUP BY u.nombre ORDER BY u.nombre")
+    List<ResumenUbicacion> findResumenPorUbicacion();
+
+    /**
+     * Find the stock position of every inventory record as a read-only projection, in one query
+     * and without loading the entities.
+     *
+     * @return one position per inventory record
+     */
+    @Query("SELECT new org.litethinking.supermercado.domain.model.inventario.PosicionStock("
+            + "p.id, p.nombre, p.categoria, i.cantidad, i.stockMinimo, i.stockMaximo) "
+            + "FROM EntidadJpaInventario i JOIN i.producto p")
+    List<PosicionStock> findPosicionesStock();
+
+    /**
+     * Decrement the stock of a product in a single conditional statement.
+     * The row is only updated when the current quantity covers the requested units.
+     *
+     * @param productoId the id of the product
+     * @param cantidad the units to decrement
+     * @return the number of updated rows, 0 when the stock is short or there is no inventory
+     */
+    @Modifying
+    @Query("UPDATE EntidadJpaInventario i SET i.cantidad = i.cantidad - :cantidad " +
+           "WHERE i.producto.id = :productoId AND i.cantidad >= :cantidad")
+    int descontarStock(@Param("productoId") Long productoId, @Param("cantidad") int cantidad);
+
+    /**
+     * Decrement the stock of a product in a single conditional statement, leaving the units reserved by
+     * other carts untouched. The row is only updated when the quantity left after the decrement still
+     * covers the reserved units.
      *
-     * @param ubicacion the location to search for
-     * @return the list of inventory records in the location
+     * @param productoId the id of the product
+     * @param cantidad the units to decrement
+     * @param reservadas the units other carts have reserved
+     * @return the number of updated rows, 0 when the unreserved stock is short or there is no inventory
      */
-    List<EntidadJpaInventario> findByUbicacion(String ubicacion);
-}
+    @Modifying
+    @Query("UPDATE EntidadJpaInventario i SET i.cantidad = i.cantidad - :cantidad " +
+           "WHERE i.producto.id = :productoId AND i.cantidad - :reservadas >= :cantidad")
+    int descontarStock(@Param("productoId") Long productoId, @Param("cantidad") int cantidad,
+                       @Param("reservadas") int reservadas);
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaMovimientoStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JPA repository for EntidadJpaMovimientoStock.
+ */
+@Repository
+public interface RepositorioJpaMovimientoStock extends JpaRepository<EntidadJpaMovimientoStock, Long> {
+
+    /**
+     * Sum the movements of a product in an id range that happened at or before an instant.
+     * The range is what separates two snapshots, so the read is bounded by the snapshot interval.
+     *
+     * @param productoId the id of the product
+     * @param desdeId the id after which to start, excluded
+     * @param hastaId the id at which to stop, included
+     * @param instante the instant
+     * @return the sum of the deltas and the number of movements summed
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.inventario.SumaMovimientos("
+            + "COALESCE(SUM(m.delta), 0), COUNT(m)) "
+            + "FROM EntidadJpaMovimientoStock m WHERE m.productoId = :productoId "
+            + "AND m.id > :desdeId AND m.id <= :hastaId AND m.instante <= :instante")
+    SumaMovimientos sumarHasta(@Param("productoId") Long productoId,
+                               @Param("desdeId") Long desdeId,
+                               @Param("hastaId") Long hastaId,
+                               @Param("instante") LocalDateTime instante);
+
+    /**
+     * Find the movements of a product in a time interval, oldest first.
+     *
+     * @param productoId the id of the product
+     * @param desdeId the id after which to start, excluded
+     * @param desde the start of the interval, excluded
+     * @param hasta the end of the interval, included
+     * @param pagina the first page, sized to the maximum number of movements
+     * @return the movements in id order
+     */
+    @Query("SELECT m FROM EntidadJpaMovimientoStock m WHERE m.productoId = :productoId AND m.id > :desdeId "
+            + "AND m.instante > :desde AND m.instante <= :hasta ORDER BY m.id")
+    List<EntidadJpaMovimientoStock> findEntre(@Param("productoId") Long productoId,
+                                              @Param("desdeId") Long desdeId,
+                                              @Param("desde") LocalDateTime desde,
+                                              @Param("hasta") LocalDateTime hasta,
+                                              Pageable pagina);
+}
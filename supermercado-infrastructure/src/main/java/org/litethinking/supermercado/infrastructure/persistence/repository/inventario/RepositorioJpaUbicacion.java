@@ -0,0 +1,22 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaUbicacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * JPA repository for EntidadJpaUbicacion.
+ */
+@Repository
+public interface RepositorioJpaUbicacion extends JpaRepository<EntidadJpaUbicacion, Long> {
+
+    /**
+     * Find a location by its name, through the unique index on nombre.
+     *
+     * @param nombre the name of the location
+     * @return the location if found, empty otherwise
+     */
+    Optional<EntidadJpaUbicacion> findByNombre(String nombre);
+}
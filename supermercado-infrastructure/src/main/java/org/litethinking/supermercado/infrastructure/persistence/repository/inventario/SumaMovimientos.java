@@ -0,0 +1,10 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+/**
+ * Projection of a range of stock movements: the sum of their deltas and how many there were.
+ */
+public record SumaMovimientos(
+        Long delta,
+        Long cantidad
+) {
+}
@@ -0,0 +1,28 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.venta;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a sale joined with one of its items and the item's product.
+ * A sale without items yields a single row whose item and product columns are null.
+ * Being a DTO projection, the rows are never attached to the persistence context.
+ */
+public record FilaVentaExportacion(
+        Long ventaId,
+        LocalDateTime fechaVenta,
+        String nombreCliente,
+        String metodoPago,
+        BigDecimal montoTotal,
+        Long itemId,
+        Integer cantidad,
+        BigDecimal precioUnitario,
+        BigDecimal subtotal,
+        Long productoId,
+        String productoNombre,
+        String productoDescripcion,
+        BigDecimal productoPrecio,
+        String productoCategoria,
+        String productoCodigoBarras
+) {
+}
@@ -0,0 +1,94 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.venta;
+
+import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaResumenVentaDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JPA repository for EntidadJpaResumenVentaDiario.
+ */
+@Repository
+public interface RepositorioJpaResumenVentaDiario
+        extends JpaRepository<EntidadJpaResumenVentaDiario, EntidadJpaResumenVentaDiario.Clave> {
+
+    /**
+     * Create the empty rollup row of a day and payment method unless it already exists.
+     * Two transactions creating the same row at once still collide on the primary key; the loser gets a
+     * duplicate key error and the row is there anyway.
+     *
+     * @param fecha the day
+     * @param metodoPago the payment method, empty for sales without one
+     * @return the number of rows created
+     */
+    @Modifying
+    @Query(value = "MERGE INTO resumen_ventas_diario r "
+            + "USING (VALUES (CAST(:fecha AS DATE), CAST(:metodoPago AS VARCHAR(255)))) AS d(fecha, metodo_pago) "
+            + "ON r.fecha = d.fecha AND r.metodo_pago = d.metodo_pago "
+            + "WHEN NOT MATCHED THEN INSERT (fecha, metodo_pago, cantidad_ventas, monto_total, cantidad_articulos) "
+            + "VALUES (d.fecha, d.metodo_pago, 0, 0, 0)",
+            nativeQuery = true)
+    int crearSiNoExiste(@Param("fecha") LocalDate fecha, @Param("metodoPago") String metodoPago);
+
+    /**
+     * Add a delta to the rollup of a day and payment method, creating the row if it does not exist.
+     * A single MERGE statement, so concurrent sales of the same day never lose an update. Two transactions
+     * inserting the same new row at once would collide on the primary key, so writers create the row
+     * beforehand with {@link #crearSiNoExiste(LocalDate, String)} and this statement only ever updates.
+     *
+     * @param fecha the day
+     * @param metodoPago the payment method, empty for sales without one
+     * @param cantidadVentas the change in number of sales
+     * @param montoTotal the change in total amount
+     * @param cantidadArticulos the change in units sold
+     * @return the number of rows affected
+     */
+    @Modifying
+    @Query(value = "MERGE INTO resumen_ventas_diario r "
+            + "USING (VALUES (CAST(:fecha AS DATE), CAST(:metodoPago AS VARCHAR(255)), CAST(:cantidadVentas AS BIGINT), "
+            + "CAST(:montoTotal AS NUMERIC(38, 2)), CAST(:cantidadArticulos AS BIGINT))) "
+            + "AS d(fecha, metodo_pago, cantidad_ventas, monto_total, cantidad_articulos) "
+            + "ON r.fecha = d.fecha AND r.metodo_pago = d.metodo_pago "
+            + "WHEN MATCHED THEN UPDATE SET cantidad_ventas = r.cantidad_ventas + d.cantidad_ventas, "
+            + "monto_total = r.monto_total + d.monto_total, cantidad_articulos = r.cantidad_articulos + d.cantidad_articulos "
+            + "WHEN NOT MATCHED THEN INSERT (fecha, metodo_pago, cantidad_ventas, monto_total, cantidad_articulos) "
+            + "VALUES (d.fecha, d.metodo_pago, d.cantidad_ventas, d.monto_total, d.cantidad_articulos)",
+            nativeQuery = true)
+    int acumular(@Param("fecha") LocalDate fecha,
+                 @Param("metodoPago") String metodoPago,
+                 @Param("cantidadVentas") long cantidadVentas,
+                 @Param("montoTotal") BigDecimal montoTotal,
+                 @Param("cantidadArticulos") long cantidadArticulos);
+
+    /**
+     * Find the rollups of a date range that still hold sales, ordered by day and payment method.
+     *
+     * @param desde the first day
+     * @param hasta the last day
+     * @return the rollups of the range
+     */
+    @Query("SELECT r FROM EntidadJpaResumenVentaDiario r WHERE r.fecha BETWEEN :desde AND :hasta "
+            + "AND r.cantidadVentas > 0 ORDER BY r.fecha, r.metodoPago")
+    List<EntidadJpaResumenVentaDiario> findEntreFechas(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Rebuild the rollups from the sales table. Meant for an empty rollup table only.
+     *
+     * @return the number of rollup rows created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_diario (fecha, metodo_pago, cantidad_ventas, monto_total, cantidad_articulos) "
+            + "SELECT CAST(v.fecha_venta AS DATE), COALESCE(v.metodo_pago, ''), COUNT(*), SUM(v.monto_total), "
+            + "COALESCE(SUM(a.unidades), 0) "
+            + "FROM ventas v LEFT JOIN (SELECT venta_id, SUM(cantidad) AS unidades FROM items_venta GROUP BY venta_id) a "
+            + "ON a.venta_id = v.id "
+            + "GROUP BY CAST(v.fecha_venta AS DATE), COALESCE(v.metodo_pago, '')",
+            nativeQuery = true)
+    int reconstruir();
+}
@@ -1,12 +1,20 @@
 package org.litethinking.supermercado.infrastructure.persistence.repository.venta;
 
+import jakarta.persistence.QueryHint;
+import org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto;
 import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaVenta;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for EntidadJpaVenta.
@@ -14,6 +22,13 @@ import java.util.List;
 @Repository
 public interface RepositorioJpaVenta extends JpaRepository<EntidadJpaVenta, Long> {
 
+    /**
+     * Keyset predicate: sales strictly after the (fecha, id) position, matching the (fecha_venta, id) indexes.
+     * The leading {@code fechaVenta >= :fecha} is implied by the rest but gives the planner a range to seek
+     * on, which it cannot derive from the OR.
+     */
+    String DESPUES_DEL_CURSOR = "v.fechaVenta >= :fecha AND (v.fechaVenta > :fecha OR (v.fechaVenta = :fecha AND v.id > :id))";
+
     /**
      * Find sales by date range.
      *
@@ -46,4 +61,109 @@ public interface RepositorioJpaVenta extends JpaRepository<EntidadJpaVenta, Long
      * @return the list of sales with the payment method
      */
     List<EntidadJpaVenta> findByMetodoPago(String metodoPago);
+
+    /**
+     * Find the ids of the page of sales after the given position, ordered by (fechaVenta, id).
+     * Only ids are paged, so the limit is applied by the database instead of over a fetched collection.
+     *
+     * @param fecha the date of the last sale of the previous page
+     * @param id the id of the last sale of the previous page
+     * @param pagina the page size, always requested as the first page
+     * @return the ids of the sales in the page
+     */
+    @Query("SELECT v.id FROM EntidadJpaVenta v WHERE " + DESPUES_DEL_CURSOR + " ORDER BY v.fechaVenta, v.id")
+    List<Long> findIdsPagina(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Find the ids of the page of sales in a date range after the given position, ordered by (fechaVenta, id).
+     *
+     * @param fechaInicio the start date
+     * @param fechaFin the end date
+     * @param fecha the date of the last sale of the previous page
+     * @param id the id of the last sale of the previous page
+     * @param pagina the page size, always requested as the first page
+     * @return the ids of the sales in the page
+     */
+    @Query("SELECT v.id FROM EntidadJpaVenta v WHERE v.fechaVenta BETWEEN :fechaInicio AND :fechaFin AND "
+            + DESPUES_DEL_CURSOR + " ORDER BY v.fechaVenta, v.id")
+    List<Long> findIdsPaginaByFechaVentaBetween(@Param("fechaInicio") LocalDateTime fechaInicio,
+                                                @Param("fechaFin") LocalDateTime fechaFin,
+                                                @Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                                Pageable pagina);
+
+    /**
+     * Find the ids of the page of sales of a customer after the given position, ordered by (fechaVenta, id).
+     *
+     * @param nombreCliente the customer name to search for
+     * @param fecha the date of the last sale of the previous page
+     * @param id the id of the last sale of the previous page
+     * @param pagina the page size, always requested as the first page
+     * @return the ids of the sales in the page
+     */
+    @Query("SELECT v.id FROM EntidadJpaVenta v WHERE v.nombreCliente = :nombreCliente AND "
+            + DESPUES_DEL_CURSOR + " ORDER BY v.fechaVenta, v.id")
+    List<Long> findIdsPaginaByNombreCliente(@Param("nombreCliente") String nombreCliente,
+                                            @Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                            Pageable pagina);
+
+    /**
+     * Find the ids of the page of sales with a payment method after the given position, ordered by (fechaVenta, id).
+     *
+     * @param metodoPago the payment method to search for
+     * @param fecha the date of the last sale of the previous page
+     * @param id the id of the last sale of the previous page
+     * @param pagina the page size, always requested as the first page
+     * @return the ids of the sales in the page
+     */
+    @Query("SELECT v.id FROM EntidadJpaVenta v WHERE v.metodoPago = :metodoPago AND "
+            + DESPUES_DEL_CURSOR + " ORDER BY v.fechaVenta, v.id")
+    List<Long> findIdsPaginaByMetodoPago(@Param("metodoPago") String metodoPago,
+                                         @Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                         Pageable pagina);
+
+    /**
+     * Find sales by id with their items and products fetched in the same query, ordered by (fechaVenta, id).
+     *
+     * @param ids the ids of the sales to load
+     * @return the sales with their items
+     */
+    @Query("SELECT DISTINCT v FROM EntidadJpaVenta v LEFT JOIN FETCH v.items i LEFT JOIN FETCH i.producto "
+            + "WHERE v.id IN :ids ORDER BY v.fechaVenta, v.id")
+    List<EntidadJpaVenta> findAllConItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stream the sales of a date range as flat sale-item rows, ordered by (fechaVenta, id) so that the
+     * rows of a sale are consecutive. Rows are fetched from the driver in chunks of the fetch size and
+     * are read-only projections, so memory use does not grow with the number of sales.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param fechaInicio the start date
+     * @param fechaFin the end date
+     * @return the rows of the sales in the date range
+     */
+    @Query("SELECT new org.litethinking.supermercado.infrastructure.persistence.repository.venta.FilaVentaExportacion("
+            + "v.id, v.fechaVenta, v.nombreCliente, v.metodoPago, v.montoTotal, "
+            + "i.id, i.cantidad, i.precioUnitario, i.subtotal, "
+            + "p.id, p.nombre, p.descripcion, p.precio, p.categoria, p.codigoBarras) "
+            + "FROM EntidadJpaVenta v LEFT JOIN v.items i LEFT JOIN i.producto p "
+            + "WHERE v.fechaVenta BETWEEN :fechaInicio AND :fechaFin "
+            + "ORDER BY v.fechaVenta, v.id, i.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<FilaVentaExportacion> streamFilasByFechaVentaBetween(@Param("fechaInicio") LocalDateTime fechaInicio,
+                                                                @Param("fechaFin") LocalDateTime fechaFin);
+
+    /**
+     * Sum the units sold of every product since a date. The aggregation runs in the database, so the
+     * sale lines never leave it.
+     *
+     * @param desde the start of the period
+     * @return the units of every product with sales in the period
+     */
+    @Query("SELECT new org.litethinking.supermercado.domain.model.venta.UnidadesVendidasProducto("
+            + "i.producto.id, SUM(i.cantidad)) "
+            + "FROM EntidadJpaItemVenta i WHERE i.venta.fechaVenta >= :desde GROUP BY i.producto.id")
+    List<UnidadesVendidasProducto> sumUnidadesVendidasPorProductoDesde(@Param("desde") LocalDateTime desde);
 }
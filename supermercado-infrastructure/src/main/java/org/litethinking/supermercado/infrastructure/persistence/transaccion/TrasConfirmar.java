@@ -0,0 +1,32 @@
+package org.litethinking.supermercado.infrastructure.persistence.transaccion;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs side effects only once the surrounding transaction has committed.
+ * In-memory views of the database must not see writes that may still roll back.
+ */
+public final class TrasConfirmar {
+
+    private TrasConfirmar() {
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or right away when there is none.
+     *
+     * @param accion the side effect to run
+     */
+    public static void ejecutar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package org.litethinking.supermercado.infrastructure.busqueda;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.producto.ProductoEncontrado;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceBusquedaProductosTest {
+
+    private RepositorioJpaProducto repositorioJpaProducto;
+    private IndiceBusquedaProductos indice;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaProducto = mock(RepositorioJpaProducto.class);
+        when(repositorioJpaProducto.findAll()).thenReturn(List.of(
+                entidad(1L, "Queso Martínez", "Queso fresco de vaca", "Lácteos"),
+                entidad(2L, "Leche entera", "Leche de vaca", "Lácteos"),
+                entidad(3L, "Pan de molde", "Pan blanco tajado", "Panadería"),
+                entidad(4L, "Yogur natural", "Yogur con leche entera", "Lácteos")));
+        indice = new IndiceBusquedaProductos(repositorioJpaProducto);
+        indice.run(null);
+    }
+
+    @Test
+    void buscar_ShouldIgnoreAccentsAndCase() {
+        assertEquals(List.of(1L), ids(indice.buscar("MARTINEZ", 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("martínez", 10)));
+        assertEquals(List.of(3L), ids(indice.buscar("panaderia", 10)));
+    }
+
+    @Test
+    void buscar_ShouldMatchPrefixes_AndToleranceOneTypo() {
+        assertEquals(List.of(1L), ids(indice.buscar("mart", 10)));
+        assertEquals(List.of(2L, 4L), ids(indice.buscar("lehce", 10)));
+        assertTrue(indice.buscar("lxhcx", 10).isEmpty());
+    }
+
+    @Test
+    void buscar_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        List<ProductoEncontrado> result = indice.buscar("leche", 10);
+
+        // Assert
+        assertEquals(List.of(2L, 4L), ids(result));
+        assertTrue(result.get(0).relevancia() > result.get(1).relevancia());
+    }
+
+    @Test
+    void buscar_ShouldRequireEveryWord_AndRespectTheLimit() {
+        assertEquals(List.of(2L, 4L), ids(indice.buscar("entera leche", 10)));
+        assertTrue(indice.buscar("pan leche", 10).isEmpty());
+        assertEquals(1, indice.buscar("lacteos", 1).size());
+    }
+
+    @Test
+    void registrar_ShouldReplaceTheTermsOfAnUpdatedProduct() {
+        // Act
+        indice.registrar(Producto.builder().id(2L).nombre("Leche deslactosada").categoria("Lácteos").build());
+
+        // Assert
+        assertEquals(List.of(4L), ids(indice.buscar("entera", 10)));
+        assertEquals(List.of(2L), ids(indice.buscar("deslactosada", 10)));
+    }
+
+    @Test
+    void eliminar_ShouldDropTheProduct_AndTheTermsOnlyItUsed() {
+        // Arrange
+        int terminosAntes = indice.cantidadTerminos();
+
+        // Act
+        indice.eliminar(4L);
+
+        // Assert
+        assertTrue(indice.buscar("yogur", 10).isEmpty());
+        assertFalse(indice.buscar("leche", 10).isEmpty());
+        assertEquals(terminosAntes - 3, indice.cantidadTerminos());
+    }
+
+    @Test
+    void run_ShouldApplyTheWritesCommittedWhileTheProductsAreRead() {
+        // Arrange: product 1 is renamed and product 2 deleted while the snapshot is read
+        RepositorioJpaProducto repositorio = mock(RepositorioJpaProducto.class);
+        IndiceBusquedaProductos cargando = new IndiceBusquedaProductos(repositorio);
+        when(repositorio.findAll()).thenAnswer(invocacion -> {
+            cargando.registrar(Producto.builder().id(1L).nombre("Queso campesino").categoria("Lácteos").build());
+            cargando.eliminar(2L);
+            return List.of(
+                    entidad(1L, "Queso Martínez", "Queso fresco de vaca", "Lácteos"),
+                    entidad(2L, "Leche entera", "Leche de vaca", "Lácteos"));
+        });
+
+        // Act
+        cargando.run(null);
+
+        // Assert
+        assertTrue(cargando.buscar("martinez", 10).isEmpty());
+        assertEquals(List.of(1L), ids(cargando.buscar("campesino", 10)));
+        assertTrue(cargando.buscar("leche", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<ProductoEncontrado> encontrados) {
+        return encontrados.stream().map(encontrado -> encontrado.producto().getId()).toList();
+    }
+
+    private static EntidadJpaProducto entidad(Long id, String nombre, String descripcion, String categoria) {
+        return EntidadJpaProducto.builder()
+                .id(id)
+                .nombre(nombre)
+                .descripcion(descripcion)
+                .categoria(categoria)
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package org.litethinking.supermercado.infrastructure.diario;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiarioVentasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperarPendientes_ShouldReturnOnlyUnconfirmedSales_InAcceptanceOrder() throws IOException {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t1", venta("Ana"));
+            diario.anexarVenta("t2", venta("Luis"));
+            diario.anexarVenta("t3", venta(null), "carrito-9");
+            diario.confirmar(List.of("t2"));
+        }
+
+        // Act
+        List<DiarioVentas.Entrada> pendientes;
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            pendientes = diario.recuperarPendientes();
+        }
+
+        // Assert
+        assertEquals(List.of("t1", "t3"), pendientes.stream().map(DiarioVentas.Entrada::ticket).toList());
+        VentaDto recuperada = pendientes.get(0).venta();
+        assertEquals("Ana", recuperada.nombreCliente());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30), recuperada.fechaVenta());
+        assertEquals(new BigDecimal("5.50"), recuperada.montoTotal());
+        assertEquals(7L, recuperada.items().get(0).producto().id());
+        assertEquals(2, recuperada.items().get(0).cantidad());
+        assertNull(pendientes.get(1).venta().nombreCliente());
+        assertNull(pendientes.get(0).carritoId());
+        assertEquals("carrito-9", pendientes.get(1).carritoId());
+    }
+
+    @Test
+    void confirmar_ShouldTruncateTheJournal_WhenEverySaleIsConfirmed() throws IOException {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t1", venta("Ana"));
+            diario.anexarVenta("t2", venta("Luis"));
+
+            // Act
+            diario.confirmar(List.of("t1", "t2"));
+        }
+
+        // Assert
+        assertEquals(0, Files.size(ruta));
+    }
+
+    @Test
+    void recuperarPendientes_ShouldDropATornTail_AndKeepAppendingAfterTheLastValidRecord() throws IOException {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t1", venta("Ana"));
+        }
+        long tamanoValido = Files.size(ruta);
+        Files.write(ruta, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            List<DiarioVentas.Entrada> pendientes = diario.recuperarPendientes();
+            assertEquals(1, pendientes.size());
+            assertEquals(tamanoValido, Files.size(ruta));
+            diario.anexarVenta("t2", venta("Luis"));
+        }
+
+        // Assert
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            List<DiarioVentas.Entrada> pendientes = diario.recuperarPendientes();
+            assertTrue(pendientes.stream().anyMatch(entrada -> entrada.ticket().equals("t2")));
+            assertEquals(2, pendientes.size());
+        }
+    }
+
+    @Test
+    void confirmar_ShouldIgnoreUnknownAndRepeatedTickets_AndStillTruncateOnceAllAreConfirmed() throws IOException {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t1", venta("Ana"));
+            diario.anexarVenta("t2", venta("Luis"));
+
+            // Act
+            diario.confirmar(List.of("t1", "otro"));
+            diario.confirmar(List.of("t1"));
+            assertEquals(1, diario.ventasSinConfirmar());
+            diario.confirmar(List.of("t2"));
+
+            // Assert
+            assertEquals(0, diario.ventasSinConfirmar());
+        }
+        assertEquals(0, Files.size(ruta));
+    }
+
+    @Test
+    void confirmar_ShouldCompactTheJournal_WhileSalesKeepArriving() throws IOException {
+        // Arrange: one sale is always left pending, so the journal never empties out
+        Path ruta = directorio.resolve("diario.log");
+        long umbral = 2_048;
+        int ventas = 500;
+        boolean encogio = false;
+        try (DiarioVentas diario = new DiarioVentas(ruta, umbral)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t0", venta("Ana"));
+
+            // Act
+            for (int i = 1; i < ventas; i++) {
+                diario.anexarVenta("t" + i, venta("Ana"));
+                long antes = Files.size(ruta);
+                diario.confirmar(List.of("t" + (i - 1)));
+                encogio |= Files.size(ruta) < antes;
+            }
+
+            // Assert
+            assertTrue(encogio);
+            assertEquals(diario.tamanoArchivo(), Files.size(ruta));
+            assertTrue(Files.size(ruta) < umbral * 2);
+            diario.anexarVenta("t" + ventas, venta("Luis"));
+        }
+        try (DiarioVentas diario = new DiarioVentas(ruta, umbral)) {
+            assertEquals(List.of("t" + (ventas - 1), "t" + ventas),
+                    diario.recuperarPendientes().stream().map(DiarioVentas.Entrada::ticket).toList());
+        }
+    }
+
+    @Test
+    void anexarVenta_ShouldKeepEveryRecord_WhenManyThreadsAppendAtOnce() throws Exception {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        int hilos = 8;
+        int ventasPorHilo = 50;
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            ExecutorService pool = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+
+            // Act
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(pool.submit(() -> {
+                    for (int i = 0; i < ventasPorHilo; i++) {
+                        diario.anexarVenta(hilo + "-" + i, venta("Ana"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            pool.shutdown();
+        }
+
+        // Assert
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            assertEquals(hilos * ventasPorHilo, diario.recuperarPendientes().size());
+        }
+    }
+
+    private VentaDto venta(String nombreCliente) {
+        ProductoDto producto = new ProductoDto(7L, "Leche", null, new BigDecimal("2.75"), "Lacteos", "770001");
+        ItemVentaDto item = new ItemVentaDto(null, producto, 2, new BigDecimal("2.75"), new BigDecimal("5.50"));
+        return new VentaDto(null, LocalDateTime.of(2024, 5, 1, 10, 30), nombreCliente, List.of(item),
+                new BigDecimal("5.50"), "Efectivo");
+    }
+}
@@ -0,0 +1,133 @@
+package org.litethinking.supermercado.infrastructure.diario;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.litethinking.supermercado.application.service.venta.ServicioVenta;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.EstadoTicketVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoVentaLoteDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EscritorDiferidoVentasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void run_ShouldConfirmPersistedAndRejectedSales_AndRetryTheOnesThatCouldNotBeWritten() throws Exception {
+        // Arrange: three journaled sales; the third, from a cart, hits a database failure the first time
+        Path ruta = directorio.resolve("diario.log");
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            diario.recuperarPendientes();
+            diario.anexarVenta("t1", venta("Ana"));
+            diario.anexarVenta("t2", venta("Luis"));
+            diario.anexarVenta("t3", venta("Eva"), "carrito-3");
+        }
+        ServicioVenta servicioVenta = mock(ServicioVenta.class);
+        when(servicioVenta.crearVentasEnLote(argThat(ventas -> ventas != null && ventas.size() == 3), anyList()))
+                .thenReturn(new ResultadoLoteVentasDto(3, 1, 2, List.of(
+                        new ResultadoVentaLoteDto(0, true, 10L, null, false),
+                        new ResultadoVentaLoteDto(1, false, null, "Stock insuficiente", false),
+                        new ResultadoVentaLoteDto(2, false, null, "Conexión rechazada", true))));
+        when(servicioVenta.crearVentasEnLote(argThat(ventas -> ventas != null && ventas.size() == 1), anyList()))
+                .thenReturn(new ResultadoLoteVentasDto(1, 1, 0, List.of(
+                        new ResultadoVentaLoteDto(0, true, 11L, null, false))));
+        EscritorDiferidoVentas escritor = new EscritorDiferidoVentas(servicioVenta, ruta.toString(), 10, 500, 4_194_304L);
+
+        // Act
+        escritor.run(null);
+        escritor.detener();
+
+        // Assert
+        assertEquals(EstadoTicketVentaDto.PERSISTIDA, escritor.consultarTicket("t1").orElseThrow().estado());
+        assertEquals(EstadoTicketVentaDto.FALLIDA, escritor.consultarTicket("t2").orElseThrow().estado());
+        assertEquals(11L, escritor.consultarTicket("t3").orElseThrow().idVenta());
+        verify(servicioVenta).crearVentasEnLote(argThat(ventas -> ventas.size() == 1), eq(List.of("carrito-3")));
+        assertEquals(0, Files.size(ruta));
+    }
+
+    @Test
+    void run_ShouldKeepTheSalesInTheJournal_WhenStoppedBeforeTheyCouldBeWritten() throws Exception {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        ServicioVenta servicioVenta = mock(ServicioVenta.class);
+        when(servicioVenta.crearVentasEnLote(anyList(), anyList()))
+                .thenReturn(new ResultadoLoteVentasDto(1, 0, 1, List.of(
+                        new ResultadoVentaLoteDto(0, false, null, "Conexión rechazada", true))));
+        EscritorDiferidoVentas escritor = new EscritorDiferidoVentas(servicioVenta, ruta.toString(), 10, 500, 4_194_304L);
+        escritor.run(null);
+
+        // Act
+        String ticket = escritor.aceptar(venta("Ana"), null).orElseThrow().ticket();
+        Thread.sleep(500);
+        escritor.detener();
+
+        // Assert
+        assertEquals(EstadoTicketVentaDto.PENDIENTE, escritor.consultarTicket(ticket).orElseThrow().estado());
+        try (DiarioVentas diario = new DiarioVentas(ruta)) {
+            assertEquals(List.of(ticket), diario.recuperarPendientes().stream().map(DiarioVentas.Entrada::ticket).toList());
+        }
+    }
+
+    @Test
+    void aceptar_ShouldRejectAnInvalidSale_WithoutJournalingIt() throws Exception {
+        // Arrange
+        Path ruta = directorio.resolve("diario.log");
+        ServicioVenta servicioVenta = mock(ServicioVenta.class);
+        doThrow(new IllegalArgumentException("La venta debe tener al menos un item"))
+                .when(servicioVenta).validarVenta(any());
+        EscritorDiferidoVentas escritor = new EscritorDiferidoVentas(servicioVenta, ruta.toString(), 10, 500, 4_194_304L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> escritor.aceptar(venta("Ana"), null));
+        escritor.detener();
+        assertEquals(0, Files.size(ruta));
+    }
+
+    @Test
+    void aceptar_ShouldTurnSalesAway_WhenTheQueueIsFull() throws Exception {
+        // Arrange: the writer is not started, so nothing leaves the queue
+        Path ruta = directorio.resolve("diario.log");
+        ServicioVenta servicioVenta = mock(ServicioVenta.class);
+        EscritorDiferidoVentas escritor = new EscritorDiferidoVentas(servicioVenta, ruta.toString(), 1, 500, 4_194_304L);
+
+        // Act
+        boolean primeraAceptada = escritor.aceptar(venta("Ana"), null).isPresent();
+        boolean segundaAceptada = escritor.aceptar(venta("Luis"), null).isPresent();
+        escritor.detener();
+
+        // Assert
+        assertTrue(primeraAceptada);
+        assertFalse(segundaAceptada);
+        verify(servicioVenta, never()).crearVentasEnLote(anyList(), anyList());
+    }
+
+    private VentaDto venta(String nombreCliente) {
+        ProductoDto producto = new ProductoDto(7L, "Leche", null, new BigDecimal("2.75"), "Lacteos", "770001");
+        ItemVentaDto item = new ItemVentaDto(null, producto, 2, new BigDecimal("2.75"), new BigDecimal("5.50"));
+        return new VentaDto(null, LocalDateTime.of(2024, 5, 1, 10, 30), nombreCliente, List.of(item),
+                new BigDecimal("5.50"), "Efectivo");
+    }
+}
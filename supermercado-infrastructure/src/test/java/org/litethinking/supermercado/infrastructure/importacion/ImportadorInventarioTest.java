@@ -0,0 +1,94 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.domain.ports.output.RepositorioInventarioPort;
+import org.litethinking.supermercado.domain.ports.output.RepositorioProductoPort;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportadorInventarioTest {
+
+    private RepositorioInventarioPort repositorioInventarioPort;
+    private RepositorioProductoPort repositorioProductoPort;
+    private ImportadorInventario importador;
+
+    @BeforeEach
+    void setUp() {
+        repositorioInventarioPort = mock(RepositorioInventarioPort.class);
+        repositorioProductoPort = mock(RepositorioProductoPort.class);
+        importador = new ImportadorInventario(repositorioInventarioPort, repositorioProductoPort);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void guardar_ShouldResolveTheBarcodesWithOneQuery_AndRejectUnknownOnesByRow() {
+        // Arrange: the second row's barcode has no product, the last one's product rejects its row
+        when(repositorioProductoPort.findIdsByCodigosBarras(List.of("770001", "770002")))
+                .thenReturn(Map.of("770001", 11L));
+        when(repositorioInventarioPort.guardarLotePorProducto(anyList())).thenReturn(new ResultadoLoteImportacion(
+                1, 1, List.of(new ResultadoLoteImportacion.Rechazo(2, "No existe el producto 40"))));
+
+        // Act
+        ResultadoLoteImportacion resultado = importador.guardar(List.of(
+                porCodigoBarras("770001"), porCodigoBarras("770002"), porId(30L), porId(40L)));
+
+        // Assert
+        ArgumentCaptor<List<Inventario>> guardados = ArgumentCaptor.forClass(List.class);
+        verify(repositorioProductoPort, times(1)).findIdsByCodigosBarras(any());
+        verify(repositorioProductoPort, never()).findByCodigoBarras(any());
+        verify(repositorioInventarioPort).guardarLotePorProducto(guardados.capture());
+        assertEquals(List.of(11L, 30L, 40L), guardados.getValue().stream()
+                .map(inventario -> inventario.getProducto().getId()).toList());
+        assertEquals(List.of(new ResultadoLoteImportacion.Rechazo(1, "No existe un producto con código de barras 770002"),
+                new ResultadoLoteImportacion.Rechazo(3, "No existe el producto 40")), resultado.rechazados());
+        assertEquals(1, resultado.insertados());
+        assertEquals(1, resultado.actualizados());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void guardar_ShouldKeepTheLaterRow_WhenABarcodeAndAnIdNameTheSameProduct() {
+        // Arrange
+        when(repositorioProductoPort.findIdsByCodigosBarras(List.of("770001"))).thenReturn(Map.of("770001", 11L));
+        when(repositorioInventarioPort.guardarLotePorProducto(anyList())).thenReturn(ResultadoLoteImportacion.de(0, 1));
+        Inventario ultima = porId(11L);
+
+        // Act
+        ResultadoLoteImportacion resultado = importador.guardar(List.of(porCodigoBarras("770001"), ultima));
+
+        // Assert
+        ArgumentCaptor<List<Inventario>> guardados = ArgumentCaptor.forClass(List.class);
+        verify(repositorioInventarioPort).guardarLotePorProducto(guardados.capture());
+        assertEquals(List.of(ultima), guardados.getValue());
+        assertEquals(2, resultado.actualizados());
+    }
+
+    private static Inventario porCodigoBarras(String codigoBarras) {
+        return Inventario.builder()
+                .producto(Producto.builder().codigoBarras(codigoBarras).build())
+                .cantidad(5)
+                .build();
+    }
+
+    private static Inventario porId(Long productoId) {
+        return Inventario.builder()
+                .producto(Producto.builder().id(productoId).build())
+                .cantidad(5)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LectorCsvTest {
+
+    @Test
+    void leer_ShouldSplitQuotedFields_WithCommasQuotesAndLineBreaks() throws IOException {
+        // Arrange
+        LectorCsv lector = new LectorCsv(new StringReader(
+                "nombre,descripcion\r\n\"Leche, entera\",\"Dice \"\"fresca\"\"\nde vaca\"\r\nPan,\n"));
+
+        // Act
+        List<String> encabezado = lector.leer();
+        List<String> leche = lector.leer();
+        long lineaLeche = lector.lineaRegistro();
+        List<String> pan = lector.leer();
+        long lineaPan = lector.lineaRegistro();
+
+        // Assert
+        assertEquals(List.of("nombre", "descripcion"), encabezado);
+        assertEquals(List.of("Leche, entera", "Dice \"fresca\"\nde vaca"), leche);
+        assertEquals(2, lineaLeche);
+        assertEquals(List.of("Pan", ""), pan);
+        assertEquals(4, lineaPan);
+        assertNull(lector.leer());
+    }
+
+    @Test
+    void leer_ShouldSkipTheByteOrderMark_AndBlankLines() throws IOException {
+        // Arrange
+        LectorCsv lector = new LectorCsv(new StringReader("\uFEFFid,nombre\n\n\r\n1,Ana"));
+
+        // Act & Assert
+        assertEquals(List.of("id", "nombre"), lector.leer());
+        assertEquals(List.of("1", "Ana"), lector.leer());
+        assertEquals(4, lector.lineaRegistro());
+        assertNull(lector.leer());
+    }
+
+    @Test
+    void leer_WhenAQuotedFieldIsNotClosed_ShouldThrowNamingItsLine() throws IOException {
+        // Arrange
+        LectorCsv lector = new LectorCsv(new StringReader("a,b\n1,\"sin cerrar\n2,3\n"));
+        lector.leer();
+
+        // Act
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, lector::leer);
+
+        // Assert
+        assertEquals("Falta cerrar las comillas del campo que empieza en la línea 2", error.getMessage());
+    }
+}
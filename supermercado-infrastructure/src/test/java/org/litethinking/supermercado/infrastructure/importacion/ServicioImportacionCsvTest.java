@@ -0,0 +1,124 @@
+package org.litethinking.supermercado.infrastructure.importacion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Cajero;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.ports.output.RepositorioCajeroPort;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ErrorFilaImportacionDto;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ProgresoImportacionDto;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServicioImportacionCsvTest {
+
+    private RepositorioCajeroPort repositorioCajeroPort;
+    private ServicioImportacionCsv servicio;
+
+    @BeforeEach
+    void setUp() {
+        repositorioCajeroPort = mock(RepositorioCajeroPort.class);
+        servicio = new ServicioImportacionCsv(List.of(new ImportadorCajeros(repositorioCajeroPort)), 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servicio.detener();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ejecutar_ShouldWriteChunksInFileOrder_AndReportRowErrorsByLine() {
+        // Arrange
+        when(repositorioCajeroPort.guardarLotePorCodigo(anyList()))
+                .thenAnswer(invocation -> ResultadoLoteImportacion.de(
+                        ((List<Cajero>) invocation.getArgument(0)).size(), 0));
+        String csv = """
+                id,nombre,codigo,turno
+                1,Juan Pérez,CAJ001,Mañana
+                2,María López,,Tarde
+                3,Carlos Ruiz,CAJ003,Noche
+                4,Laura Gómez,CAJ004,Mañana
+                5,Pedro Díaz,CAJ005,Tarde
+                """;
+        List<ProgresoImportacionDto> progresos = new ArrayList<>();
+
+        // Act
+        ProgresoImportacionDto fin = servicio.preparar("cajeros", entrada(csv)).ejecutar(progresos::add);
+
+        // Assert
+        ArgumentCaptor<List<Cajero>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(repositorioCajeroPort, times(3)).guardarLotePorCodigo(lotes.capture());
+        assertEquals(List.of("CAJ001", "CAJ003", "CAJ004", "CAJ005"), lotes.getAllValues().stream()
+                .flatMap(List::stream).map(Cajero::getCodigo).toList());
+        assertEquals(List.of(new ErrorFilaImportacionDto(3, "La columna codigo es obligatoria")),
+                progresos.get(0).errores());
+        assertEquals(4, progresos.size());
+        assertTrue(fin.terminada());
+        assertEquals(5, fin.filasLeidas());
+        assertEquals(4, fin.insertadas());
+        assertEquals(1, fin.rechazadas());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ejecutar_WhenAKeyRepeatsInAChunk_ShouldSaveTheLastRowOnly() {
+        // Arrange
+        when(repositorioCajeroPort.guardarLotePorCodigo(anyList())).thenReturn(ResultadoLoteImportacion.de(1, 0));
+        String csv = "nombre,codigo,turno\nJuan,CAJ001,Mañana\nJuan Pérez,CAJ001,Tarde\n";
+
+        // Act
+        ProgresoImportacionDto fin = servicio.preparar("cajeros", entrada(csv)).ejecutar(progreso -> { });
+
+        // Assert
+        ArgumentCaptor<List<Cajero>> lote = ArgumentCaptor.forClass(List.class);
+        verify(repositorioCajeroPort).guardarLotePorCodigo(lote.capture());
+        assertEquals(1, lote.getValue().size());
+        assertEquals("Tarde", lote.getValue().get(0).getTurno());
+        assertEquals(1, fin.insertadas());
+        assertEquals(1, fin.actualizadas());
+    }
+
+    @Test
+    void ejecutar_WhenAChunkCannotBeSaved_ShouldRejectItsRows_AndGoOn() {
+        // Arrange
+        when(repositorioCajeroPort.guardarLotePorCodigo(anyList()))
+                .thenThrow(new IllegalStateException("base de datos caída"))
+                .thenReturn(ResultadoLoteImportacion.de(1, 0));
+        String csv = "nombre,codigo,turno\nA,C1,Mañana\nB,C2,Tarde\nC,C3,Noche\n";
+
+        // Act
+        ProgresoImportacionDto fin = servicio.preparar("cajeros", entrada(csv)).ejecutar(progreso -> { });
+
+        // Assert
+        assertEquals(1, fin.insertadas());
+        assertEquals(2, fin.rechazadas());
+    }
+
+    @Test
+    void preparar_WithUnknownEntityOrMissingColumn_ShouldThrowBeforeImporting() {
+        assertThrows(IllegalArgumentException.class, () -> servicio.preparar("ventas", entrada("a\n")));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> servicio.preparar("cajeros", entrada("nombre,codigo\nA,C1\n")));
+        assertEquals("Falta la columna turno en el encabezado", error.getMessage());
+    }
+
+    private static InputStream entrada(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package org.litethinking.supermercado.infrastructure.instantanea;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.Columna;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.Tabla;
+import org.litethinking.supermercado.infrastructure.instantanea.FormatoInstantanea.TipoColumna;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FormatoInstantaneaTest {
+
+    private static final Tabla PRODUCTOS = new Tabla("productos", List.of(
+            new Columna("id", TipoColumna.LONG),
+            new Columna("nombre", TipoColumna.TEXTO),
+            new Columna("precio", TipoColumna.DECIMAL)));
+    private static final Tabla INVENTARIOS = new Tabla("inventarios", List.of(
+            new Columna("id", TipoColumna.LONG),
+            new Columna("cantidad", TipoColumna.INT),
+            new Columna("fecha_ultima_reposicion", TipoColumna.FECHA),
+            new Columna("ubicacion", TipoColumna.TEXTO)));
+
+    @Test
+    void lector_ShouldReadBackEveryTableAndRow_IncludingNulls() throws IOException {
+        // Arrange
+        Instant creada = Instant.parse("2026-10-18T10:15:30Z");
+        byte[] bytes = escribir(creada);
+
+        // Act
+        FormatoInstantanea.Lector lector = FormatoInstantanea.Lector.abrir(ByteBuffer.wrap(bytes));
+
+        // Assert
+        assertEquals(creada, lector.creada());
+        assertEquals(PRODUCTOS, lector.siguienteTabla());
+        assertArrayEquals(new Object[]{1L, "Café molido ñ", new BigDecimal("12.50")}, lector.siguienteFila());
+        assertArrayEquals(new Object[]{2L, null, new BigDecimal("-0.001")}, lector.siguienteFila());
+        assertNull(lector.siguienteFila());
+        assertEquals(INVENTARIOS, lector.siguienteTabla());
+        assertArrayEquals(new Object[]{7L, 40, LocalDate.of(2026, 1, 31), null}, lector.siguienteFila());
+        assertNull(lector.siguienteFila());
+        assertNull(lector.siguienteTabla());
+    }
+
+    @Test
+    void abrir_ShouldRejectTheFile_WhenAByteWasChanged() throws IOException {
+        // Arrange
+        byte[] bytes = escribir(Instant.now());
+        bytes[bytes.length / 2] ^= 0x01;
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> FormatoInstantanea.Lector.abrir(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void abrir_ShouldRejectTheFile_WhenItWasCutShort() throws IOException {
+        // Arrange
+        byte[] bytes = escribir(Instant.now());
+        byte[] truncado = Arrays.copyOf(bytes, bytes.length - 3);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> FormatoInstantanea.Lector.abrir(ByteBuffer.wrap(truncado)));
+    }
+
+    @Test
+    void escribirFila_ShouldRejectRows_ThatDoNotMatchTheTable() throws IOException {
+        // Arrange
+        FormatoInstantanea.Escritor escritor = new FormatoInstantanea.Escritor(new ByteArrayOutputStream(), Instant.now());
+        escritor.comenzarTabla(PRODUCTOS);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> escritor.escribirFila(new Object[]{1L}));
+    }
+
+    private static byte[] escribir(Instant creada) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        FormatoInstantanea.Escritor escritor = new FormatoInstantanea.Escritor(salida, creada);
+        escritor.comenzarTabla(PRODUCTOS);
+        escritor.escribirFila(new Object[]{1L, "Café molido ñ", new BigDecimal("12.50")});
+        escritor.escribirFila(new Object[]{2L, null, new BigDecimal("-0.001")});
+        assertEquals(2, escritor.terminarTabla());
+        escritor.comenzarTabla(INVENTARIOS);
+        escritor.escribirFila(new Object[]{7L, 40, LocalDate.of(2026, 1, 31), null});
+        assertEquals(1, escritor.terminarTabla());
+        escritor.terminar();
+        return salida.toByteArray();
+    }
+}
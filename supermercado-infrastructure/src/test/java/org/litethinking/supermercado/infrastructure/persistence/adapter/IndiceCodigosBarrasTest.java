@@ -0,0 +1,170 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceCodigosBarrasTest {
+
+    private RepositorioJpaProducto repositorioJpaProducto;
+    private IndiceCodigosBarras indice;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaProducto = mock(RepositorioJpaProducto.class);
+        indice = new IndiceCodigosBarras(repositorioJpaProducto);
+    }
+
+    @Test
+    void cargado_ShouldBeFalse_UntilTheIndexIsLoaded() {
+        assertFalse(indice.cargado());
+    }
+
+    @Test
+    void run_ShouldIndexNumericAndAlphanumericCodes() {
+        // Arrange
+        when(repositorioJpaProducto.findAll()).thenReturn(List.of(
+                entidad(1L, "7701234567890"),
+                entidad(2L, "SKU-LECHE-1L"),
+                entidad(3L, null)));
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertTrue(indice.cargado());
+        assertEquals(1L, indice.buscar("7701234567890").getId());
+        assertEquals("Producto 1", indice.buscar("7701234567890").getNombre());
+        assertEquals(2L, indice.buscar("SKU-LECHE-1L").getId());
+        assertNull(indice.buscar("7701234567891"));
+        assertEquals(3, indice.tamano());
+    }
+
+    @Test
+    void run_ShouldApplyTheWritesCommittedWhileTheProductsAreRead() {
+        // Arrange: product 1 changes its code and product 2 is deleted while the snapshot is read
+        when(repositorioJpaProducto.findAll()).thenAnswer(invocacion -> {
+            indice.registrar(producto(1L, "0002"));
+            indice.eliminar(2L);
+            return List.of(entidad(1L, "0001"), entidad(2L, "SKU-LECHE-1L"));
+        });
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertNull(indice.buscar("0001"));
+        assertEquals(1L, indice.buscar("0002").getId());
+        assertNull(indice.buscar("SKU-LECHE-1L"));
+        assertEquals(1, indice.tamano());
+    }
+
+    @Test
+    void empaquetar_ShouldKeepLeadingZeros_AndRejectNonNumericOrTooLongCodes() {
+        assertNotEquals(IndiceCodigosBarras.empaquetar("0123"), IndiceCodigosBarras.empaquetar("123"));
+        assertEquals(-1L, IndiceCodigosBarras.empaquetar("12A4"));
+        assertEquals(-1L, IndiceCodigosBarras.empaquetar(""));
+        assertEquals(-1L, IndiceCodigosBarras.empaquetar("123456789012345678"));
+        assertTrue(IndiceCodigosBarras.empaquetar("99999999999999999") > 0);
+    }
+
+    @Test
+    void registrar_ShouldDropThePreviousCode_WhenTheProductChangesIt() {
+        // Arrange
+        indice.run(null);
+        indice.registrar(producto(1L, "0001"));
+
+        // Act
+        indice.registrar(producto(1L, "0002"));
+
+        // Assert
+        assertNull(indice.buscar("0001"));
+        assertEquals(1L, indice.buscar("0002").getId());
+        assertEquals(1, indice.tamano());
+    }
+
+    @Test
+    void buscar_ShouldReturnACopy_ThatCallersCanModify() {
+        // Arrange
+        indice.run(null);
+        indice.registrar(producto(1L, "0001"));
+
+        // Act
+        indice.buscar("0001").setNombre("Cambiado");
+
+        // Assert
+        assertEquals("Producto 1", indice.buscar("0001").getNombre());
+    }
+
+    @Test
+    void eliminar_ShouldKeepTheOtherCodesReachable_AfterManyInsertsAndDeletes() {
+        // Arrange
+        indice.run(null);
+        for (long id = 1; id <= 5000; id++) {
+            indice.registrar(producto(id, String.format("770%010d", id)));
+        }
+
+        // Act
+        for (long id = 1; id <= 5000; id += 2) {
+            indice.eliminar(id);
+        }
+
+        // Assert
+        for (long id = 1; id <= 5000; id++) {
+            Producto encontrado = indice.buscar(String.format("770%010d", id));
+            if (id % 2 == 1) {
+                assertNull(encontrado);
+            } else {
+                assertEquals(id, encontrado.getId());
+            }
+        }
+        assertEquals(2500, indice.tamano());
+    }
+
+    @Test
+    void eliminar_ShouldIgnoreACodeThatBelongsToAnotherProduct() {
+        // Arrange
+        indice.run(null);
+        indice.registrar(producto(1L, "0001"));
+        indice.registrar(producto(2L, "0001"));
+
+        // Act
+        indice.eliminar(1L);
+
+        // Assert
+        assertEquals(2L, indice.buscar("0001").getId());
+    }
+
+    private static EntidadJpaProducto entidad(Long id, String codigoBarras) {
+        return EntidadJpaProducto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal("1000.00"))
+                .categoria("Lácteos")
+                .codigoBarras(codigoBarras)
+                .build();
+    }
+
+    private static Producto producto(Long id, String codigoBarras) {
+        return Producto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal("1000.00"))
+                .categoria("Lácteos")
+                .codigoBarras(codigoBarras)
+                .build();
+    }
+}
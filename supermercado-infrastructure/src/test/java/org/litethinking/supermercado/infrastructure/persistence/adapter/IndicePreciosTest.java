@@ -0,0 +1,134 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndicePreciosTest {
+
+    private RepositorioJpaProducto repositorioJpaProducto;
+    private IndicePrecios indice;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaProducto = mock(RepositorioJpaProducto.class);
+        when(repositorioJpaProducto.findAll()).thenReturn(List.of(
+                entidad(1L, "2500.00", "Alimentos"),
+                entidad(2L, "1200.50", "Alimentos"),
+                entidad(3L, "2500.00", "Alimentos"),
+                entidad(4L, "900.00", "Aseo"),
+                entidad(5L, "4999.99", "Aseo")));
+        indice = new IndicePrecios(repositorioJpaProducto);
+    }
+
+    @Test
+    void run_ShouldLoadTheCatalog_SortedByPriceAndId() {
+        // Arrange
+        assertFalse(indice.cargado());
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertTrue(indice.cargado());
+        assertEquals(5, indice.tamano());
+        assertArrayEquals(new long[]{4L, 2L, 1L, 3L, 5L}, indice.tramo(null, null, null, 0, 10).ids());
+    }
+
+    @Test
+    void run_ShouldApplyTheWritesCommittedWhileTheProductsAreRead() {
+        // Arrange: product 4 is repriced and product 5 deleted while the snapshot is read
+        when(repositorioJpaProducto.findAll()).thenAnswer(invocacion -> {
+            indice.registrar(Producto.builder().id(4L).precio(new BigDecimal("5000")).categoria("Aseo").build());
+            indice.eliminar(5L);
+            return List.of(entidad(4L, "900.00", "Aseo"), entidad(5L, "4999.99", "Aseo"));
+        });
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertArrayEquals(new long[]{4L}, indice.tramo(null, null, "Aseo", 0, 10).ids());
+        assertEquals(0, indice.contar(null, new BigDecimal("1000"), null));
+        assertEquals(1, indice.tamano());
+    }
+
+    @Test
+    void contar_ShouldIncludeBothBounds_AndFilterByCategory() {
+        // Arrange
+        indice.run(null);
+
+        // Act & Assert
+        assertEquals(3, indice.contar(new BigDecimal("1200.50"), new BigDecimal("2500"), null));
+        assertEquals(3, indice.contar(new BigDecimal("1200.51"), null, null));
+        assertEquals(1, indice.contar(null, new BigDecimal("1000"), "Aseo"));
+        assertEquals(0, indice.contar(null, null, "Bebidas"));
+    }
+
+    @Test
+    void tramo_ShouldSliceTheRange_AndKeepTheTotal() {
+        // Arrange
+        indice.run(null);
+
+        // Act
+        IndicePrecios.Tramo segunda = indice.tramo(new BigDecimal("1000"), null, null, 2, 2);
+        IndicePrecios.Tramo fuera = indice.tramo(new BigDecimal("1000"), null, null, 4, 2);
+
+        // Assert
+        assertArrayEquals(new long[]{3L, 5L}, segunda.ids());
+        assertEquals(4, segunda.total());
+        assertEquals(0, fuera.ids().length);
+        assertEquals(4, fuera.total());
+    }
+
+    @Test
+    void registrar_ShouldMoveAProductWhosePriceOrCategoryChanged() {
+        // Arrange
+        indice.run(null);
+
+        // Act
+        indice.registrar(Producto.builder().id(1L).precio(new BigDecimal("500")).categoria("Aseo").build());
+        indice.registrar(Producto.builder().id(6L).precio(new BigDecimal("1500")).categoria("Alimentos").build());
+
+        // Assert
+        assertArrayEquals(new long[]{1L, 4L, 5L}, indice.tramo(null, null, "Aseo", 0, 10).ids());
+        assertArrayEquals(new long[]{2L, 6L, 3L}, indice.tramo(null, null, "Alimentos", 0, 10).ids());
+        assertEquals(6, indice.contar(null, null, null));
+    }
+
+    @Test
+    void eliminar_ShouldDropTheProduct_AndRunShouldNotReaddIt() {
+        // Arrange
+        indice.eliminar(99L);
+        indice.registrar(Producto.builder().id(2L).precio(new BigDecimal("3000")).categoria("Alimentos").build());
+
+        // Act
+        indice.run(null);
+        indice.eliminar(3L);
+
+        // Assert
+        assertArrayEquals(new long[]{1L, 2L}, indice.tramo(null, null, "Alimentos", 0, 10).ids());
+        assertEquals(4, indice.tamano());
+    }
+
+    private static EntidadJpaProducto entidad(Long id, String precio, String categoria) {
+        return EntidadJpaProducto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal(precio))
+                .categoria(categoria)
+                .build();
+    }
+}
@@ -0,0 +1,260 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaInventario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaInventario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Durability test for the stock ledger: a decrement that committed with its sale must reach the inventory
+ * row even if the process dies before the background flush, and one that rolled back must leave no trace.
+ * A sale still open while its record is saved or deleted must end up in both the ledger and the row.
+ */
+@SpringBootTest(
+        classes = AdaptadorInventarioEnMemoriaTest.Configuracion.class,
+        properties = "spring.datasource.url=jdbc:h2:mem:libro;LOCK_TIMEOUT=10000")
+class AdaptadorInventarioEnMemoriaTest {
+
+    // Long enough for the background flush never to run during a test
+    private static final long INTERVALO_VOLCADO_MS = 3_600_000L;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "org.litethinking.supermercado.infrastructure.entity")
+    @EnableJpaRepositories(basePackages = "org.litethinking.supermercado.infrastructure.persistence.repository")
+    @Import({AdaptadorRepositorioInventario.class, DiccionarioUbicaciones.class, IndiceEstadoStock.class,
+            DiarioMovimientosStock.class})
+    static class Configuracion {
+    }
+
+    @Autowired
+    private AdaptadorRepositorioInventario delegado;
+
+    @Autowired
+    private IndiceEstadoStock indiceEstadoStock;
+
+    @Autowired
+    private DiarioMovimientosStock diarioMovimientos;
+
+    @Autowired
+    private RepositorioJpaProducto repositorioJpaProducto;
+
+    @Autowired
+    private RepositorioJpaInventario repositorioJpaInventario;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run_ShouldApplyTheDecrementsCommittedBeforeACrash() {
+        // Arrange: the first instance takes units in a committed sale and dies without flushing
+        Long productoId = inventario("7700000000201", 10);
+        AdaptadorInventarioEnMemoria caido = nuevoAdaptador();
+        caido.run(null);
+        transactionTemplate.executeWithoutResult(status -> assertTrue(caido.descontarStock(productoId, 3)));
+        assertEquals(10, cantidadEnBaseDeDatos(productoId));
+        assertEquals(3, unidadesPendientes(productoId));
+
+        // Act
+        AdaptadorInventarioEnMemoria reiniciado = nuevoAdaptador();
+        reiniciado.run(null);
+
+        // Assert
+        assertEquals(7, cantidadEnBaseDeDatos(productoId));
+        assertEquals(0, unidadesPendientes(productoId));
+        assertEquals(7, reiniciado.findByProductoId(productoId).orElseThrow().getCantidad());
+    }
+
+    @Test
+    void descontarStock_ShouldLeaveNoPendingUnits_WhenTheSaleRollsBack() {
+        // Arrange
+        Long productoId = inventario("7700000000202", 10);
+        AdaptadorInventarioEnMemoria adaptador = nuevoAdaptador();
+        adaptador.run(null);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(adaptador.descontarStock(productoId, 4));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(0, unidadesPendientes(productoId));
+        assertEquals(10, adaptador.findByProductoId(productoId).orElseThrow().getCantidad());
+    }
+
+    @Test
+    void volcar_ShouldApplyEveryDecrementOfATransaction_AndDeleteThePendingRows() {
+        // Arrange: one sale takes units of two products, one of them twice
+        Long arroz = inventario("7700000000203", 20);
+        Long azucar = inventario("7700000000204", 20);
+        AdaptadorInventarioEnMemoria adaptador = nuevoAdaptador();
+        adaptador.run(null);
+        transactionTemplate.executeWithoutResult(status -> {
+            adaptador.descontarStock(arroz, 2);
+            adaptador.descontarStock(azucar, 5);
+            adaptador.descontarStock(arroz, 1);
+        });
+
+        // Act
+        adaptador.volcar();
+
+        // Assert
+        assertEquals(17, cantidadEnBaseDeDatos(arroz));
+        assertEquals(15, cantidadEnBaseDeDatos(azucar));
+        assertEquals(0, unidadesPendientes(arroz) + unidadesPendientes(azucar));
+        assertEquals(17, adaptador.findByProductoId(arroz).orElseThrow().getCantidad());
+    }
+
+    @Test
+    void save_ShouldKeepASaleInFlight_WhenItCommitsAfterTheSave() throws Exception {
+        // Arrange
+        Long productoId = inventario("7700000000205", 10);
+        AdaptadorInventarioEnMemoria adaptador = nuevoAdaptador();
+        adaptador.run(null);
+
+        // Act: the sale takes 3 units, the record is saved with 50 and then the sale commits
+        ventaAbiertaDuranteGuardado(adaptador, productoId, 3, 50, false);
+        adaptador.volcar();
+
+        // Assert
+        assertEquals(47, cantidadEnBaseDeDatos(productoId));
+        assertEquals(47, adaptador.findByProductoId(productoId).orElseThrow().getCantidad());
+    }
+
+    @Test
+    void save_ShouldGiveBackASaleInFlight_WhenItRollsBackAfterTheSave() throws Exception {
+        // Arrange
+        Long productoId = inventario("7700000000206", 10);
+        AdaptadorInventarioEnMemoria adaptador = nuevoAdaptador();
+        adaptador.run(null);
+
+        // Act
+        ventaAbiertaDuranteGuardado(adaptador, productoId, 3, 50, true);
+        adaptador.volcar();
+
+        // Assert
+        assertEquals(50, cantidadEnBaseDeDatos(productoId));
+        assertEquals(50, adaptador.findByProductoId(productoId).orElseThrow().getCantidad());
+    }
+
+    @Test
+    void deleteById_ShouldKeepASaleInFlight_WhenTheDeleteRollsBack() throws Exception {
+        // Arrange
+        Long productoId = inventario("7700000000207", 10);
+        AdaptadorInventarioEnMemoria adaptador = nuevoAdaptador();
+        adaptador.run(null);
+        Long inventarioId = adaptador.findByProductoId(productoId).orElseThrow().getId();
+        CountDownLatch descontado = new CountDownLatch(1);
+        CountDownLatch borrado = new CountDownLatch(1);
+        CompletableFuture<Void> venta = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(adaptador.descontarStock(productoId, 3));
+            descontado.countDown();
+            esperar(borrado);
+        }));
+        descontado.await(10, TimeUnit.SECONDS);
+
+        // Act: the delete rolls back while the sale is open, then the sale commits
+        transactionTemplate.executeWithoutResult(status -> {
+            adaptador.deleteById(inventarioId);
+            status.setRollbackOnly();
+        });
+        borrado.countDown();
+        venta.get(10, TimeUnit.SECONDS);
+        adaptador.volcar();
+
+        // Assert
+        assertEquals(7, cantidadEnBaseDeDatos(productoId));
+        assertEquals(7, adaptador.findByProductoId(productoId).orElseThrow().getCantidad());
+    }
+
+    /**
+     * Takes units in a sale on another thread, saves the record with a new quantity while that sale is still
+     * open, and then lets the sale commit or roll back.
+     */
+    private void ventaAbiertaDuranteGuardado(AdaptadorInventarioEnMemoria adaptador, Long productoId, int unidades,
+                                             int cantidadGuardada, boolean revertir) throws Exception {
+        CountDownLatch descontado = new CountDownLatch(1);
+        CountDownLatch guardado = new CountDownLatch(1);
+        CompletableFuture<Void> venta = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(adaptador.descontarStock(productoId, unidades));
+            descontado.countDown();
+            esperar(guardado);
+            if (revertir) {
+                status.setRollbackOnly();
+            }
+        }));
+        descontado.await(10, TimeUnit.SECONDS);
+        Inventario inventario = delegado.findByProductoId(productoId).orElseThrow();
+        inventario.setCantidad(cantidadGuardada);
+        adaptador.save(inventario);
+        guardado.countDown();
+        venta.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AdaptadorInventarioEnMemoria nuevoAdaptador() {
+        return new AdaptadorInventarioEnMemoria(delegado, indiceEstadoStock, diarioMovimientos, jdbcTemplate,
+                transactionManager, 4, INTERVALO_VOLCADO_MS);
+    }
+
+    private Long inventario(String codigoBarras, int cantidad) {
+        EntidadJpaProducto producto = repositorioJpaProducto.save(EntidadJpaProducto.builder()
+                .nombre("Producto " + codigoBarras)
+                .precio(new BigDecimal("1.50"))
+                .codigoBarras(codigoBarras)
+                .build());
+        repositorioJpaInventario.save(EntidadJpaInventario.builder()
+                .producto(producto)
+                .cantidad(cantidad)
+                .stockMinimo(1)
+                .stockMaximo(100)
+                .build());
+        return producto.getId();
+    }
+
+    private int cantidadEnBaseDeDatos(Long productoId) {
+        return jdbcTemplate.queryForObject("SELECT cantidad FROM inventarios WHERE producto_id = ?", Integer.class,
+                productoId);
+    }
+
+    private int unidadesPendientes(Long productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(unidades), 0) FROM descuentos_stock_pendientes WHERE producto_id = ?",
+                Integer.class, productoId);
+    }
+}
@@ -0,0 +1,136 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.inventario.HistorialStock;
+import org.litethinking.supermercado.domain.model.inventario.TipoMovimientoStock;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaCorteStock;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaMovimientoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaCorteStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaMovimientoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.SumaMovimientos;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptadorRepositorioMovimientoStockTest {
+
+    private static final LocalDateTime DIEZ = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    private RepositorioJpaCorteStock repositorioJpaCorteStock;
+    private RepositorioJpaMovimientoStock repositorioJpaMovimientoStock;
+    private AdaptadorRepositorioMovimientoStock adaptador;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaCorteStock = mock(RepositorioJpaCorteStock.class);
+        repositorioJpaMovimientoStock = mock(RepositorioJpaMovimientoStock.class);
+        adaptador = new AdaptadorRepositorioMovimientoStock(repositorioJpaCorteStock, repositorioJpaMovimientoStock);
+    }
+
+    @Test
+    void findCantidadEn_ShouldAddTheTailUpToTheNextSnapshot_ToTheLatestSnapshotBeforeTheInstant() {
+        // Arrange: snapshot at movement 100 with 40 units, next snapshot at movement 200
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(1L, DIEZ))
+                .thenReturn(Optional.of(corte(100L, 40, DIEZ.minusHours(1))));
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(1L, 100L))
+                .thenReturn(Optional.of(corte(200L, 10, DIEZ.plusHours(1))));
+        when(repositorioJpaMovimientoStock.sumarHasta(1L, 100L, 200L, DIEZ)).thenReturn(new SumaMovimientos(-7L, 3L));
+
+        // Act
+        Optional<Integer> cantidad = adaptador.findCantidadEn(1L, DIEZ);
+
+        // Assert
+        assertEquals(Optional.of(33), cantidad);
+    }
+
+    @Test
+    void findCantidadEn_ShouldBeEmpty_WhenTheProductHadNoMovementsYet() {
+        // Arrange
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(1L, DIEZ))
+                .thenReturn(Optional.empty());
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(1L, 0L))
+                .thenReturn(Optional.empty());
+        when(repositorioJpaMovimientoStock.sumarHasta(1L, 0L, Long.MAX_VALUE, DIEZ)).thenReturn(new SumaMovimientos(0L, 0L));
+
+        // Act & Assert
+        assertTrue(adaptador.findCantidadEn(1L, DIEZ).isEmpty());
+    }
+
+    @Test
+    void findHistorial_ShouldCarryTheRunningQuantity_AndFlagATruncatedInterval() {
+        // Arrange: 20 units at the start, three movements in the interval and a limit of two
+        LocalDateTime hasta = DIEZ.plusHours(8);
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(1L, DIEZ))
+                .thenReturn(Optional.of(corte(100L, 20, DIEZ.minusHours(1))));
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(1L, 100L))
+                .thenReturn(Optional.empty());
+        when(repositorioJpaMovimientoStock.sumarHasta(1L, 100L, Long.MAX_VALUE, DIEZ)).thenReturn(new SumaMovimientos(0L, 0L));
+        when(repositorioJpaMovimientoStock.findEntre(eq(1L), eq(100L), eq(DIEZ), eq(hasta), any()))
+                .thenReturn(List.of(
+                        movimiento(101L, TipoMovimientoStock.VENTA, -5, DIEZ.plusHours(1)),
+                        movimiento(102L, TipoMovimientoStock.RECEPCION, 30, DIEZ.plusHours(2)),
+                        movimiento(103L, TipoMovimientoStock.VENTA, -1, DIEZ.plusHours(3))));
+
+        // Act
+        HistorialStock historial = adaptador.findHistorial(1L, DIEZ, hasta, 2);
+
+        // Assert
+        assertEquals(20, historial.cantidadInicial());
+        assertEquals(2, historial.movimientos().size());
+        assertEquals(15, historial.movimientos().get(0).cantidadResultante());
+        assertEquals(45, historial.movimientos().get(1).cantidadResultante());
+        assertTrue(historial.truncado());
+    }
+
+    @Test
+    void findHistorial_ShouldAskForOneMoreRowThanTheLimit() {
+        // Arrange
+        LocalDateTime hasta = DIEZ.plusHours(1);
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndInstanteLessThanEqualOrderByMovimientoIdDesc(1L, DIEZ))
+                .thenReturn(Optional.empty());
+        when(repositorioJpaCorteStock.findFirstByProductoIdAndMovimientoIdGreaterThanOrderByMovimientoIdAsc(1L, 0L))
+                .thenReturn(Optional.empty());
+        when(repositorioJpaMovimientoStock.sumarHasta(1L, 0L, Long.MAX_VALUE, DIEZ)).thenReturn(new SumaMovimientos(12L, 1L));
+        when(repositorioJpaMovimientoStock.findEntre(1L, 0L, DIEZ, hasta, PageRequest.of(0, 11)))
+                .thenReturn(List.of(movimiento(5L, TipoMovimientoStock.AJUSTE, -2, DIEZ.plusMinutes(5))));
+
+        // Act
+        HistorialStock historial = adaptador.findHistorial(1L, DIEZ, hasta, 10);
+
+        // Assert
+        assertEquals(12, historial.cantidadInicial());
+        assertEquals(10, historial.movimientos().get(0).cantidadResultante());
+        assertFalse(historial.truncado());
+    }
+
+    private static EntidadJpaCorteStock corte(Long movimientoId, int cantidad, LocalDateTime instante) {
+        return EntidadJpaCorteStock.builder()
+                .productoId(1L)
+                .movimientoId(movimientoId)
+                .cantidad(cantidad)
+                .instante(instante)
+                .build();
+    }
+
+    private static EntidadJpaMovimientoStock movimiento(Long id, TipoMovimientoStock tipo, int delta, LocalDateTime instante) {
+        return EntidadJpaMovimientoStock.builder()
+                .id(id)
+                .productoId(1L)
+                .tipo(tipo)
+                .delta(delta)
+                .instante(instante)
+                .motivo("prueba")
+                .build();
+    }
+}
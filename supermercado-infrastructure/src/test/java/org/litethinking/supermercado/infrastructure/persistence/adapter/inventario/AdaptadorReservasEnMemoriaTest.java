@@ -0,0 +1,150 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.inventario.ReservaStock;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptadorReservasEnMemoriaTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private AdaptadorReservasEnMemoria adaptador;
+
+    @BeforeEach
+    void setUp() {
+        Clock reloj = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+        adaptador = new AdaptadorReservasEnMemoria(1000, 8, nanos::get, reloj);
+    }
+
+    @Test
+    void reservar_ShouldOnlyHandOutTheStockOtherCartsHaveNotReserved() {
+        // Arrange
+        adaptador.reservar("carrito-1", 1L, 7, () -> 10, Duration.ofMinutes(5));
+
+        // Act
+        Optional<ReservaStock> demasiado = adaptador.reservar("carrito-2", 1L, 4, () -> 10, Duration.ofMinutes(5));
+        Optional<ReservaStock> justo = adaptador.reservar("carrito-2", 1L, 3, () -> 10, Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(demasiado.isEmpty());
+        assertTrue(justo.isPresent());
+        assertEquals(10, adaptador.unidadesReservadas(1L));
+        assertEquals(7, adaptador.unidadesReservadasExcepto(1L, "carrito-2"));
+    }
+
+    @Test
+    void reservar_ShouldReplaceTheCartsPreviousReservationOfTheProduct() {
+        // Arrange
+        adaptador.reservar("carrito-1", 1L, 7, () -> 10, Duration.ofMinutes(5));
+
+        // Act: the cart's own 7 units do not count against it
+        Optional<ReservaStock> reemplazo = adaptador.reservar("carrito-1", 1L, 9, () -> 10, Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(reemplazo.isPresent());
+        assertEquals(9, adaptador.unidadesReservadas(1L));
+        assertEquals(List.of(new ReservaStock("carrito-1", 1L, 9, reemplazo.get().vence())),
+                adaptador.findByCarritoId("carrito-1"));
+    }
+
+    @Test
+    void expirar_ShouldReleaseAReservation_OnceItsDurationIsOver() {
+        // Arrange
+        adaptador.reservar("carrito-1", 1L, 5, () -> 10, Duration.ofSeconds(3));
+        adaptador.reservar("carrito-2", 1L, 2, () -> 10, Duration.ofSeconds(30));
+
+        // Act
+        nanos.set(TimeUnit.SECONDS.toNanos(2));
+        int antes = adaptador.expirar();
+        nanos.set(TimeUnit.SECONDS.toNanos(3));
+        int despues = adaptador.expirar();
+
+        // Assert
+        assertEquals(0, antes);
+        assertEquals(1, despues);
+        assertEquals(2, adaptador.unidadesReservadas(1L));
+        assertTrue(adaptador.findByCarritoId("carrito-1").isEmpty());
+    }
+
+    @Test
+    void unidadesReservadas_ShouldNotCountExpiredReservations_WhenTheBackgroundTickIsLate() {
+        // Arrange
+        adaptador.reservar("carrito-1", 1L, 5, () -> 10, Duration.ofSeconds(3));
+
+        // Act: nobody called expirar, the read itself processes the due ticks
+        nanos.set(TimeUnit.SECONDS.toNanos(60));
+
+        // Assert
+        assertEquals(0, adaptador.unidadesReservadas(1L));
+        assertTrue(adaptador.reservar("carrito-2", 1L, 10, () -> 10, Duration.ofSeconds(3)).isPresent());
+    }
+
+    @Test
+    void reservar_ShouldNotHandOutTheUnitsOfASaleInFlight_UntilItsTransactionEnds() {
+        // Arrange: a sale of 6 units decremented the stock but has not committed, so reads still see 10
+        adaptador.reservar("carrito-1", 1L, 1, () -> 10, Duration.ofMinutes(5));
+        TransactionSynchronizationManager.initSynchronization();
+        int reservadasPorOtros;
+        Optional<ReservaStock> demasiado;
+        Optional<ReservaStock> justo;
+        try {
+            reservadasPorOtros = adaptador.apartarParaVenta(1L, null, 6);
+
+            // Act
+            demasiado = adaptador.reservar("carrito-2", 1L, 4, () -> 10, Duration.ofMinutes(5));
+            justo = adaptador.reservar("carrito-2", 1L, 3, () -> 10, Duration.ofMinutes(5));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert: once the sale rolled back, its units can be reserved again
+        assertEquals(1, reservadasPorOtros);
+        assertTrue(demasiado.isEmpty());
+        assertTrue(justo.isPresent());
+        assertTrue(adaptador.reservar("carrito-3", 1L, 6, () -> 10, Duration.ofMinutes(5)).isPresent());
+    }
+
+    @Test
+    void liberar_ShouldReturnTheCartsReservations_AndGiveTheUnitsBack() {
+        // Arrange
+        adaptador.reservar("carrito-1", 2L, 1, () -> 10, Duration.ofMinutes(5));
+        adaptador.reservar("carrito-1", 1L, 4, () -> 10, Duration.ofMinutes(5));
+        adaptador.reservar("carrito-2", 1L, 2, () -> 10, Duration.ofMinutes(5));
+
+        // Act
+        List<ReservaStock> liberadas = adaptador.liberar("carrito-1");
+
+        // Assert
+        assertEquals(List.of(1L, 2L), liberadas.stream().map(ReservaStock::productoId).toList());
+        assertEquals(Map.of(1L, 2), adaptador.unidadesReservadas(List.of(1L, 2L)));
+        assertEquals(0, adaptador.expirar());
+    }
+
+    @Test
+    void confirmar_ShouldReleaseRightAway_WhenThereIsNoTransaction() {
+        // Arrange
+        adaptador.reservar("carrito-1", 1L, 4, () -> 10, Duration.ofMinutes(5));
+
+        // Act
+        adaptador.confirmar("carrito-1");
+
+        // Assert
+        assertEquals(0, adaptador.unidadesReservadas(1L));
+    }
+}
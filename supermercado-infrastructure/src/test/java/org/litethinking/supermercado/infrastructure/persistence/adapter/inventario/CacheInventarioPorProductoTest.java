@@ -0,0 +1,107 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheInventarioPorProductoTest {
+
+    @Test
+    void obtener_ShouldReadTheDatabaseOnce_AndHandOutCopies() {
+        // Arrange
+        CacheInventarioPorProducto cache = new CacheInventarioPorProducto(100);
+        AtomicInteger lecturas = new AtomicInteger();
+
+        // Act
+        Inventario primero = cache.obtener(1L, id -> {
+            lecturas.incrementAndGet();
+            return Optional.of(inventario(10L, id, 50));
+        }).orElseThrow();
+        primero.setCantidad(0);
+        Inventario segundo = cache.obtener(1L, id -> {
+            lecturas.incrementAndGet();
+            return Optional.empty();
+        }).orElseThrow();
+
+        // Assert
+        assertEquals(1, lecturas.get());
+        assertEquals(50, segundo.getCantidad());
+    }
+
+    @Test
+    void invalidar_ShouldForceTheNextLookupToReadTheDatabase() {
+        // Arrange
+        CacheInventarioPorProducto cache = new CacheInventarioPorProducto(100);
+        cache.obtener(1L, id -> Optional.of(inventario(10L, id, 50)));
+
+        // Act
+        cache.invalidar(1L);
+        Inventario leido = cache.obtener(1L, id -> Optional.of(inventario(10L, id, 49))).orElseThrow();
+
+        // Assert
+        assertEquals(49, leido.getCantidad());
+    }
+
+    @Test
+    void invalidarInventario_ShouldDropTheRecordByItsInventoryId() {
+        // Arrange
+        CacheInventarioPorProducto cache = new CacheInventarioPorProducto(100);
+        cache.obtener(1L, id -> Optional.of(inventario(10L, id, 50)));
+
+        // Act
+        cache.invalidarInventario(10L);
+
+        // Assert
+        assertTrue(cache.obtener(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void obtener_ShouldNotCacheARead_ThatOverlappedAnInvalidation() {
+        // Arrange
+        CacheInventarioPorProducto cache = new CacheInventarioPorProducto(100);
+
+        // Act: the write commits and invalidates while the miss is still reading the old row
+        cache.obtener(1L, id -> {
+            cache.invalidar(id);
+            return Optional.of(inventario(10L, id, 50));
+        });
+        Inventario leido = cache.obtener(1L, id -> Optional.of(inventario(10L, id, 45))).orElseThrow();
+
+        // Assert
+        assertEquals(45, leido.getCantidad());
+    }
+
+    @Test
+    void obtener_ShouldEvictTheLeastRecentlyUsedRecord_WhenASegmentIsFull() {
+        // Arrange: capacity 16 leaves one entry per segment; ids 1 and 17 share a segment
+        CacheInventarioPorProducto cache = new CacheInventarioPorProducto(16);
+        cache.obtener(1L, id -> Optional.of(inventario(10L, id, 50)));
+        cache.obtener(17L, id -> Optional.of(inventario(20L, id, 70)));
+        AtomicInteger lecturas = new AtomicInteger();
+
+        // Act
+        cache.obtener(1L, id -> {
+            lecturas.incrementAndGet();
+            return Optional.of(inventario(10L, id, 50));
+        });
+
+        // Assert
+        assertEquals(1, lecturas.get());
+    }
+
+    private static Inventario inventario(Long id, Long productoId, int cantidad) {
+        return Inventario.builder()
+                .id(id)
+                .producto(Producto.builder().id(productoId).nombre("Producto " + productoId).build())
+                .cantidad(cantidad)
+                .stockMinimo(5)
+                .stockMaximo(100)
+                .build();
+    }
+}
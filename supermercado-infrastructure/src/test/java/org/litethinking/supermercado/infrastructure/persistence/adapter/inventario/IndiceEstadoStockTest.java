@@ -0,0 +1,169 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.FilaEstadoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaInventario;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.EventoUmbralStockDto;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndiceEstadoStockTest {
+
+    private RepositorioJpaInventario repositorioJpaInventario;
+    private ApplicationEventPublisher publicador;
+    private IndiceEstadoStock indice;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaInventario = mock(RepositorioJpaInventario.class);
+        publicador = mock(ApplicationEventPublisher.class);
+        indice = new IndiceEstadoStock(repositorioJpaInventario, publicador);
+    }
+
+    @Test
+    void inventariosBajoStock_ShouldBeEmpty_UntilTheIndexIsLoaded() {
+        assertTrue(indice.inventariosBajoStock().isEmpty());
+    }
+
+    @Test
+    void run_ShouldIndexTheRecordsAtOrBelowTheirMinimum() {
+        // Arrange
+        when(repositorioJpaInventario.findEstadosStock()).thenReturn(List.of(
+                inventario(1L, 10L, 5, 5, 100),
+                inventario(2L, 20L, 50, 5, 100),
+                inventario(3L, 30L, 0, null, null)));
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertEquals(List.of(1L), indice.inventariosBajoStock().orElseThrow());
+        verify(publicador, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void descontar_ShouldPublishOneEvent_WhenTheMinimumIsCrossed() {
+        // Arrange
+        when(repositorioJpaInventario.findEstadosStock()).thenReturn(List.of(inventario(1L, 10L, 8, 5, 100)));
+        indice.run(null);
+
+        // Act
+        indice.descontar(10L, 2);
+        indice.descontar(10L, 1);
+        indice.descontar(10L, 1);
+
+        // Assert
+        ArgumentCaptor<EventoUmbralStockDto> evento = ArgumentCaptor.forClass(EventoUmbralStockDto.class);
+        verify(publicador, times(1)).publishEvent(evento.capture());
+        assertEquals(EventoUmbralStockDto.NORMAL, evento.getValue().zonaAnterior());
+        assertEquals(EventoUmbralStockDto.BAJO, evento.getValue().zonaNueva());
+        assertEquals(5, evento.getValue().cantidad());
+        assertEquals(List.of(1L), indice.inventariosBajoStock().orElseThrow());
+    }
+
+    @Test
+    void registrar_ShouldLeaveTheLowStockSetAndPublish_WhenRestockedAboveTheMaximum() {
+        // Arrange
+        when(repositorioJpaInventario.findEstadosStock()).thenReturn(List.of(inventario(1L, 10L, 2, 5, 100)));
+        indice.run(null);
+
+        // Act
+        indice.registrar(inventario(1L, 10L, 150, 5, 100));
+
+        // Assert
+        ArgumentCaptor<EventoUmbralStockDto> evento = ArgumentCaptor.forClass(EventoUmbralStockDto.class);
+        verify(publicador).publishEvent(evento.capture());
+        assertEquals(EventoUmbralStockDto.BAJO, evento.getValue().zonaAnterior());
+        assertEquals(EventoUmbralStockDto.SOBRE, evento.getValue().zonaNueva());
+        assertTrue(indice.inventariosBajoStock().orElseThrow().isEmpty());
+    }
+
+    @Test
+    void eliminar_ShouldDropTheRecordFromTheLowStockSet() {
+        // Arrange
+        when(repositorioJpaInventario.findEstadosStock()).thenReturn(List.of(inventario(1L, 10L, 2, 5, 100)));
+        indice.run(null);
+
+        // Act
+        indice.eliminar(1L);
+
+        // Assert
+        assertTrue(indice.inventariosBajoStock().orElseThrow().isEmpty());
+        ArgumentCaptor<EventoUmbralStockDto> evento = ArgumentCaptor.forClass(EventoUmbralStockDto.class);
+        verify(publicador).publishEvent(evento.capture());
+        assertEquals(EventoUmbralStockDto.SIN_REGISTRO, evento.getValue().zonaNueva());
+    }
+
+    @Test
+    void totalesPorUbicacion_ShouldFollowSalesMovesAndPriceChanges() {
+        // Arrange: two records in location 7 at 2.50, one below its minimum; one without location
+        when(repositorioJpaInventario.findEstadosStock()).thenReturn(List.of(
+                inventario(1L, 10L, 8, 5, 100, 7L, "2.50"),
+                inventario(2L, 20L, 3, 5, 100, 7L, "2.50"),
+                inventario(3L, 30L, 40, 5, 100, null, "1.00")));
+        indice.run(null);
+
+        // Act: sell 4 of product 10, move product 20 to location 9, raise the price of product 10
+        indice.descontar(10L, 4);
+        indice.registrar(inventario(2L, 20L, 3, 5, 100, 9L, "2.50"));
+        indice.actualizarPrecio(10L, new BigDecimal("3.00"));
+
+        // Assert
+        List<IndiceEstadoStock.TotalesUbicacion> totales = indice.totalesPorUbicacion().orElseThrow().stream()
+                .sorted(Comparator.comparing(IndiceEstadoStock.TotalesUbicacion::ubicacionId,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        assertEquals(List.of(
+                new IndiceEstadoStock.TotalesUbicacion(7L, 1, 4, 1200, 1),
+                new IndiceEstadoStock.TotalesUbicacion(9L, 1, 3, 750, 1),
+                new IndiceEstadoStock.TotalesUbicacion(null, 1, 40, 4000, 0)), totales);
+    }
+
+    @Test
+    void run_ShouldApplyTheChangesCommittedWhileTheSnapshotIsRead() {
+        // Arrange: a sale and a delete commit while the snapshot is read, and the snapshot misses both
+        when(repositorioJpaInventario.findEstadosStock()).thenAnswer(invocacion -> {
+            indice.descontar(10L, 4);
+            indice.eliminar(2L);
+            assertTrue(indice.inventariosBajoStock().isEmpty());
+            return List.of(inventario(1L, 10L, 8, 5, 100), inventario(2L, 20L, 3, 5, 100));
+        });
+
+        // Act
+        indice.run(null);
+
+        // Assert
+        assertEquals(List.of(1L), indice.inventariosBajoStock().orElseThrow());
+        assertEquals(List.of(new IndiceEstadoStock.TotalesUbicacion(null, 1, 4, 0, 1)),
+                indice.totalesPorUbicacion().orElseThrow());
+    }
+
+    @Test
+    void totalesPorUbicacion_ShouldBeEmpty_UntilTheIndexIsLoaded() {
+        assertTrue(indice.totalesPorUbicacion().isEmpty());
+    }
+
+    private static FilaEstadoStock inventario(Long id, Long productoId, Integer cantidad,
+                                              Integer stockMinimo, Integer stockMaximo) {
+        return new FilaEstadoStock(id, productoId, cantidad, stockMinimo, stockMaximo, null, null);
+    }
+
+    private static FilaEstadoStock inventario(Long id, Long productoId, Integer cantidad, Integer stockMinimo,
+                                              Integer stockMaximo, Long ubicacionId, String precio) {
+        return new FilaEstadoStock(id, productoId, cantidad, stockMinimo, stockMaximo, ubicacionId, new BigDecimal(precio));
+    }
+}
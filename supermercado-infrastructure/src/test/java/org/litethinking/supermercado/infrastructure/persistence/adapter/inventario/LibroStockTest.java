@@ -0,0 +1,128 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibroStockTest {
+
+    @Test
+    void descontar_ShouldRequireLoading_WhenProductIsUnknown() {
+        // Arrange
+        LibroStock libro = new LibroStock(4);
+
+        // Act & Assert
+        assertEquals(LibroStock.SIN_CARGAR, libro.descontar(7L, 1));
+        libro.cargar(7L, 10);
+        assertEquals(LibroStock.DESCONTADO, libro.descontar(7L, 4));
+        assertEquals(LibroStock.INSUFICIENTE, libro.descontar(7L, 7));
+        assertEquals(6, libro.cantidad(7L));
+    }
+
+    @Test
+    void cargar_ShouldNotOverwriteALoadedQuantity() {
+        // Arrange
+        LibroStock libro = new LibroStock(4);
+
+        // Act
+        libro.cargar(3L, 20);
+        libro.cargar(3L, 99);
+
+        // Assert
+        assertEquals(20, libro.cantidad(3L));
+    }
+
+    @Test
+    void reponer_ShouldGiveBackUnits_WhenTheTransactionDidNotCommit() {
+        // Arrange
+        LibroStock libro = new LibroStock(4);
+        libro.cargar(1L, 10);
+        libro.descontar(1L, 3);
+
+        // Act
+        libro.reponer(1L, 3);
+
+        // Assert
+        assertEquals(10, libro.cantidad(1L));
+    }
+
+    @Test
+    void cargar_ShouldKeepEveryProduct_WhenTheStripesGrow() {
+        // Arrange
+        LibroStock libro = new LibroStock(2);
+
+        // Act
+        for (long id = 1; id <= 100; id++) {
+            libro.cargar(id, 50);
+            libro.descontar(id, 2);
+        }
+
+        // Assert
+        for (long id = 1; id <= 100; id++) {
+            assertEquals(48, libro.cantidad(id));
+        }
+    }
+
+    @Test
+    void olvidar_ShouldRequireLoadingAgain() {
+        // Arrange
+        LibroStock libro = new LibroStock(4);
+        libro.cargar(9L, 10);
+        libro.descontar(9L, 4);
+
+        // Act
+        libro.olvidar(9L);
+
+        // Assert
+        assertEquals(LibroStock.SIN_CARGAR, libro.descontar(9L, 1));
+        libro.cargar(9L, 6);
+        assertEquals(6, libro.cantidad(9L));
+    }
+
+    @Test
+    void descontar_ShouldRejectNonPositiveIds() {
+        LibroStock libro = new LibroStock(4);
+
+        assertThrows(IllegalArgumentException.class, () -> libro.descontar(0L, 1));
+    }
+
+    @Test
+    void descontar_ShouldNotLoseUpdates_WhenManyThreadsHitTheSameProducts() throws Exception {
+        // Arrange
+        LibroStock libro = new LibroStock(8);
+        int productos = 10;
+        int stockInicial = 1000;
+        for (long id = 1; id <= productos; id++) {
+            libro.cargar(id, stockInicial);
+        }
+        AtomicInteger exitosos = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(16);
+
+        // Act
+        for (int hilo = 0; hilo < 16; hilo++) {
+            ejecutor.submit(() -> {
+                for (int intento = 0; intento < 1000; intento++) {
+                    long id = 1 + intento % productos;
+                    if (libro.descontar(id, 1) == LibroStock.DESCONTADO) {
+                        exitosos.incrementAndGet();
+                    }
+                }
+            });
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(productos * stockInicial, exitosos.get());
+        for (long id = 1; id <= productos; id++) {
+            assertEquals(0, libro.cantidad(id));
+        }
+    }
+}
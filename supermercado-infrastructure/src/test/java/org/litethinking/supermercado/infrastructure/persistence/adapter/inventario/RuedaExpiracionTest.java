@@ -0,0 +1,87 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.inventario;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuedaExpiracionTest {
+
+    @Test
+    void avanzar_ShouldExpireEntriesOnTheirTick_EvenWhenTheyAreMoreThanATurnAway() {
+        // Arrange: 8 slots, so ticks 3 and 11 share a slot
+        RuedaExpiracion<String> rueda = new RuedaExpiracion<>(8, 0);
+        rueda.programar("a", 3);
+        rueda.programar("b", 11);
+        List<String> vencidas = new ArrayList<>();
+
+        // Act
+        rueda.avanzar(3, vencidas::add);
+        List<String> alTick3 = List.copyOf(vencidas);
+        rueda.avanzar(10, vencidas::add);
+        List<String> alTick10 = List.copyOf(vencidas);
+        rueda.avanzar(11, vencidas::add);
+
+        // Assert
+        assertEquals(List.of("a"), alTick3);
+        assertEquals(List.of("a"), alTick10);
+        assertEquals(List.of("a", "b"), vencidas);
+        assertEquals(0, rueda.tamano());
+    }
+
+    @Test
+    void cancelar_ShouldRemoveTheEntry_WithoutTouchingTheOthersInItsSlot() {
+        // Arrange
+        RuedaExpiracion<String> rueda = new RuedaExpiracion<>(8, 0);
+        rueda.programar("a", 5);
+        RuedaExpiracion.Entrada<String> b = rueda.programar("b", 5);
+        rueda.programar("c", 5);
+        List<String> vencidas = new ArrayList<>();
+
+        // Act
+        rueda.cancelar(b);
+        rueda.cancelar(b);
+        rueda.avanzar(5, vencidas::add);
+
+        // Assert
+        assertEquals(2, vencidas.size());
+        assertTrue(vencidas.containsAll(List.of("a", "c")));
+    }
+
+    @Test
+    void avanzar_ShouldExpireEverythingDue_AfterAStallLongerThanATurn() {
+        // Arrange
+        RuedaExpiracion<Integer> rueda = new RuedaExpiracion<>(4, 0);
+        for (int tick = 1; tick <= 20; tick++) {
+            rueda.programar(tick, tick);
+        }
+        List<Integer> vencidas = new ArrayList<>();
+
+        // Act
+        int cantidad = rueda.avanzar(15, vencidas::add);
+
+        // Assert
+        assertEquals(15, cantidad);
+        assertEquals(5, rueda.tamano());
+        assertEquals(15, rueda.tickActual());
+    }
+
+    @Test
+    void programar_ShouldMoveATickAlreadyProcessed_ToTheNextOne() {
+        // Arrange
+        RuedaExpiracion<String> rueda = new RuedaExpiracion<>(8, 0);
+        rueda.avanzar(6, valor -> { });
+
+        // Act
+        RuedaExpiracion.Entrada<String> entrada = rueda.programar("tarde", 2);
+        List<String> vencidas = new ArrayList<>();
+        rueda.avanzar(7, vencidas::add);
+
+        // Assert
+        assertEquals(7, entrada.vence());
+        assertEquals(List.of("tarde"), vencidas);
+    }
+}
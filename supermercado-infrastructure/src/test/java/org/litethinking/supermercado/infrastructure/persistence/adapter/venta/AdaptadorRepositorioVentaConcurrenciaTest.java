@@ -0,0 +1,111 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.venta.ItemVenta;
+import org.litethinking.supermercado.domain.model.venta.Venta;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaResumenVentaDiario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention test for the daily rollup: the first sales of a new day, written at once, must all go
+ * through and all be counted, although none of them finds the rollup row of the day.
+ */
+@SpringBootTest(
+        classes = AdaptadorRepositorioVentaConcurrenciaTest.Configuracion.class,
+        properties = "spring.datasource.url=jdbc:h2:mem:resumen;LOCK_TIMEOUT=10000")
+class AdaptadorRepositorioVentaConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final LocalDateTime DIA_NUEVO = LocalDateTime.of(2030, 1, 15, 9, 0);
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "org.litethinking.supermercado.infrastructure.entity")
+    @EnableJpaRepositories(basePackages = "org.litethinking.supermercado.infrastructure.persistence.repository")
+    @Import({AdaptadorRepositorioVenta.class, FilasResumenVentas.class})
+    static class Configuracion {
+    }
+
+    @Autowired
+    private AdaptadorRepositorioVenta adaptador;
+
+    @Autowired
+    private RepositorioJpaProducto repositorioJpaProducto;
+
+    @Autowired
+    private RepositorioJpaResumenVentaDiario repositorioJpaResumenVentaDiario;
+
+    @Test
+    void save_ShouldCountEverySale_WhenTheFirstSalesOfADayArriveAtOnce() throws Exception {
+        // Arrange
+        EntidadJpaProducto producto = repositorioJpaProducto.save(EntidadJpaProducto.builder()
+                .nombre("Pan")
+                .precio(new BigDecimal("1.20"))
+                .codigoBarras("7700000000101")
+                .build());
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Act: every thread writes the first sale of the day, all released at once
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                adaptador.save(venta(producto.getId()));
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert
+        EntidadJpaResumenVentaDiario resumen = repositorioJpaResumenVentaDiario
+                .findEntreFechas(LocalDate.of(2030, 1, 15), LocalDate.of(2030, 1, 15)).get(0);
+        assertEquals(HILOS, resumen.getCantidadVentas());
+        assertEquals(HILOS * 2L, resumen.getCantidadArticulos());
+        assertEquals(new BigDecimal("2.40").multiply(BigDecimal.valueOf(HILOS)), resumen.getMontoTotal());
+    }
+
+    private static Venta venta(Long productoId) {
+        List<ItemVenta> items = new ArrayList<>();
+        items.add(ItemVenta.builder()
+                .producto(Producto.builder().id(productoId).build())
+                .cantidad(2)
+                .precioUnitario(new BigDecimal("1.20"))
+                .subtotal(new BigDecimal("2.40"))
+                .build());
+        return Venta.builder()
+                .fechaVenta(DIA_NUEVO)
+                .nombreCliente("Cliente")
+                .items(items)
+                .montoTotal(new BigDecimal("2.40"))
+                .metodoPago("Efectivo")
+                .build();
+    }
+}
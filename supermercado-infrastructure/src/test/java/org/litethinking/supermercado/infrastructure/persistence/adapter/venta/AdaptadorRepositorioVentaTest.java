@@ -0,0 +1,148 @@
+package org.litethinking.supermercado.infrastructure.persistence.adapter.venta;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.venta.ItemVenta;
+import org.litethinking.supermercado.domain.model.venta.Venta;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.entity.venta.EntidadJpaVenta;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaResumenVentaDiario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.venta.RepositorioJpaVenta;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptadorRepositorioVentaTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    private RepositorioJpaVenta repositorioJpaVenta;
+    private RepositorioJpaProducto repositorioJpaProducto;
+    private AdaptadorRepositorioVenta adaptador;
+
+    @BeforeEach
+    void setUp() {
+        repositorioJpaVenta = mock(RepositorioJpaVenta.class);
+        repositorioJpaProducto = mock(RepositorioJpaProducto.class);
+        adaptador = new AdaptadorRepositorioVenta(repositorioJpaVenta, repositorioJpaProducto,
+                mock(RepositorioJpaResumenVentaDiario.class), mock(FilasResumenVentas.class));
+
+        when(repositorioJpaProducto.findAllById(anyIterable())).thenAnswer(invocacion -> {
+            List<EntidadJpaProducto> productos = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocacion.getArgument(0)) {
+                if ((Long) id <= 3L) {
+                    productos.add(producto((Long) id));
+                }
+            }
+            return productos;
+        });
+        when(repositorioJpaVenta.save(any(EntidadJpaVenta.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(repositorioJpaVenta.saveAll(anyList())).thenAnswer(invocacion -> invocacion.getArgument(0));
+    }
+
+    @Test
+    void save_ShouldLoadTheProductsWithOneQuery_HoweverManyItemsTheSaleHas() {
+        // Arrange: eight items over three products
+        Venta venta = venta(1L, 2L, 3L, 1L, 2L, 3L, 1L, 2L);
+
+        // Act
+        Venta guardada = adaptador.save(venta);
+
+        // Assert
+        assertEquals(8, guardada.getItems().size());
+        verify(repositorioJpaProducto, times(1)).findAllById(argThat(ids -> conjunto(ids).equals(Set.of(1L, 2L, 3L))));
+        verify(repositorioJpaProducto, never()).findById(any());
+    }
+
+    @Test
+    void save_ShouldLoadTheProductsWithOneQuery_WhenTheSaleHasASingleItem() {
+        // Arrange
+        Venta venta = venta(1L);
+
+        // Act
+        adaptador.save(venta);
+
+        // Assert
+        verify(repositorioJpaProducto, times(1)).findAllById(argThat(ids -> conjunto(ids).equals(Set.of(1L))));
+        verify(repositorioJpaProducto, never()).findById(any());
+    }
+
+    @Test
+    void saveAll_ShouldLoadTheProductsOfEverySaleWithOneQuery() {
+        // Arrange
+        List<Venta> ventas = List.of(venta(1L, 2L), venta(2L, 3L, 3L), venta(1L, 1L, 1L, 1L));
+
+        // Act
+        List<Venta> guardadas = adaptador.saveAll(ventas);
+
+        // Assert
+        assertEquals(3, guardadas.size());
+        verify(repositorioJpaProducto, times(1)).findAllById(argThat(ids -> conjunto(ids).equals(Set.of(1L, 2L, 3L))));
+        verify(repositorioJpaProducto, never()).findById(any());
+    }
+
+    @Test
+    void save_ShouldThrowException_WhenAProductDoesNotExist() {
+        // Arrange
+        Venta venta = venta(1L, 99L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> adaptador.save(venta));
+        verify(repositorioJpaVenta, never()).save(any(EntidadJpaVenta.class));
+    }
+
+    private static Venta venta(Long... productos) {
+        List<ItemVenta> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long productoId : productos) {
+            BigDecimal precio = new BigDecimal("2.50");
+            items.add(ItemVenta.builder()
+                    .producto(Producto.builder().id(productoId).build())
+                    .cantidad(1)
+                    .precioUnitario(precio)
+                    .subtotal(precio)
+                    .build());
+            total = total.add(precio);
+        }
+        return Venta.builder()
+                .fechaVenta(FECHA)
+                .nombreCliente("Cliente")
+                .items(items)
+                .montoTotal(total)
+                .metodoPago("EFECTIVO")
+                .build();
+    }
+
+    private static EntidadJpaProducto producto(Long id) {
+        return EntidadJpaProducto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal("2.50"))
+                .codigoBarras("77000000000" + id)
+                .build();
+    }
+
+    private static Set<Long> conjunto(Iterable<Long> ids) {
+        Set<Long> conjunto = new HashSet<>();
+        ids.forEach(conjunto::add);
+        return conjunto;
+    }
+}
@@ -0,0 +1,198 @@
+package org.litethinking.supermercado.infrastructure.persistence.lote;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.domain.model.Cajero;
+import org.litethinking.supermercado.domain.model.Producto;
+import org.litethinking.supermercado.domain.model.importacion.ResultadoLoteImportacion;
+import org.litethinking.supermercado.domain.model.inventario.Inventario;
+import org.litethinking.supermercado.infrastructure.busqueda.IndiceBusquedaProductos;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaInventario;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.AdaptadorRepositorioCajero;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.AdaptadorRepositorioProducto;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.IndiceCodigosBarras;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.IndicePrecios;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.AdaptadorRepositorioInventario;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.DiarioMovimientosStock;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.DiccionarioUbicaciones;
+import org.litethinking.supermercado.infrastructure.persistence.adapter.inventario.IndiceEstadoStock;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.litethinking.supermercado.infrastructure.persistence.repository.inventario.RepositorioJpaInventario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the batch upserts against a real database: the UPDATE by key must find the rows that exist, the
+ * INSERT must write the rest with the key, and the column lists and SQL types of each adapter must line up.
+ */
+@SpringBootTest(
+        classes = GuardadoPorLotesTest.Configuracion.class,
+        properties = "spring.datasource.url=jdbc:h2:mem:lotes;LOCK_TIMEOUT=10000")
+class GuardadoPorLotesTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "org.litethinking.supermercado.infrastructure.entity")
+    @EnableJpaRepositories(basePackages = "org.litethinking.supermercado.infrastructure.persistence.repository")
+    @Import({AdaptadorRepositorioCajero.class, AdaptadorRepositorioProducto.class, AdaptadorRepositorioInventario.class,
+            IndiceCodigosBarras.class, IndiceBusquedaProductos.class, IndicePrecios.class, IndiceEstadoStock.class,
+            DiccionarioUbicaciones.class, DiarioMovimientosStock.class})
+    static class Configuracion {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AdaptadorRepositorioCajero adaptadorCajero;
+
+    @Autowired
+    private AdaptadorRepositorioProducto adaptadorProducto;
+
+    @Autowired
+    private AdaptadorRepositorioInventario adaptadorInventario;
+
+    @Autowired
+    private RepositorioJpaProducto repositorioJpaProducto;
+
+    @Autowired
+    private RepositorioJpaInventario repositorioJpaInventario;
+
+    @Test
+    void guardarPorClave_ShouldUpdateTheRowsItFinds_AndInsertTheOthersWithTheirKey() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO cajeros (nombre, codigo, turno) VALUES ('Juan', 'LOT001', 'Mañana')");
+        int[] tipos = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+
+        // Act
+        boolean[] insertadas = GuardadoPorLotes.guardarPorClave(jdbcTemplate, "cajeros", List.of("nombre", "turno"),
+                "codigo", tipos, List.of(
+                        new Object[]{"Juan Pérez", "Tarde", "LOT001"},
+                        new Object[]{"Laura Gómez", "Noche", "LOT002"}));
+
+        // Assert
+        assertArrayEquals(new boolean[]{false, true}, insertadas);
+        assertEquals(Map.of("NOMBRE", "Juan Pérez", "TURNO", "Tarde"), jdbcTemplate.queryForMap(
+                "SELECT nombre, turno FROM cajeros WHERE codigo = 'LOT001'"));
+        assertEquals(Map.of("NOMBRE", "Laura Gómez", "TURNO", "Noche"), jdbcTemplate.queryForMap(
+                "SELECT nombre, turno FROM cajeros WHERE codigo = 'LOT002'"));
+    }
+
+    @Test
+    void guardarPorClave_ShouldThrowBeforeWriting_WhenTheTypesDoNotCoverTheKey() {
+        // Arrange: one type per column, the key's is missing
+        int[] tipos = {Types.VARCHAR, Types.VARCHAR};
+        List<Object[]> filas = List.<Object[]>of(new Object[]{"Pedro Díaz", "Tarde", "LOT003"});
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> GuardadoPorLotes.guardarPorClave(jdbcTemplate,
+                "cajeros", List.of("nombre", "turno"), "codigo", tipos, filas));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cajeros WHERE codigo = 'LOT003'",
+                Integer.class));
+    }
+
+    @Test
+    void guardarLotePorCodigo_ShouldUpsertTheCashiersByCode() {
+        // Arrange
+        adaptadorCajero.guardarLotePorCodigo(List.of(new Cajero(null, "Ana", "LOT101", "Mañana")));
+
+        // Act
+        ResultadoLoteImportacion resultado = adaptadorCajero.guardarLotePorCodigo(List.of(
+                new Cajero(null, "Ana Ruiz", "LOT101", "Tarde"),
+                new Cajero(null, "Luis", "LOT102", "Noche")));
+
+        // Assert
+        assertEquals(1, resultado.insertados());
+        assertEquals(1, resultado.actualizados());
+        assertEquals("Tarde", adaptadorCajero.findByCodigo("LOT101").orElseThrow().getTurno());
+        assertEquals("Luis", adaptadorCajero.findByCodigo("LOT102").orElseThrow().getNombre());
+    }
+
+    @Test
+    void guardarLotePorCodigoBarras_ShouldUpsertTheProductsByBarcode() {
+        // Arrange
+        Long existente = producto("7700000000301", "Arroz", "2.50");
+
+        // Act
+        ResultadoLoteImportacion resultado = adaptadorProducto.guardarLotePorCodigoBarras(List.of(
+                Producto.builder().nombre("Arroz integral").descripcion("1 kg").precio(new BigDecimal("3.10"))
+                        .categoria("Granos").codigoBarras("7700000000301").build(),
+                Producto.builder().nombre("Lentejas").precio(new BigDecimal("1.75"))
+                        .categoria("Granos").codigoBarras("7700000000302").build()));
+
+        // Assert
+        assertEquals(1, resultado.insertados());
+        assertEquals(1, resultado.actualizados());
+        Producto actualizado = adaptadorProducto.findById(existente).orElseThrow();
+        assertEquals("Arroz integral", actualizado.getNombre());
+        assertEquals(0, new BigDecimal("3.10").compareTo(actualizado.getPrecio()));
+        assertEquals("Lentejas", adaptadorProducto.findByCodigoBarras("7700000000302").orElseThrow().getNombre());
+        assertEquals(Map.of("7700000000301", existente),
+                adaptadorProducto.findIdsByCodigosBarras(List.of("7700000000301", "7700000000399")));
+    }
+
+    @Test
+    void guardarLotePorProducto_ShouldUpsertTheInventoryByProduct_AndRejectUnknownProducts() {
+        // Arrange: one product already has inventory, the other has none yet
+        Long conInventario = producto("7700000000401", "Azúcar", "1.80");
+        Long sinInventario = producto("7700000000402", "Sal", "0.90");
+        repositorioJpaInventario.save(EntidadJpaInventario.builder()
+                .producto(repositorioJpaProducto.findById(conInventario).orElseThrow())
+                .cantidad(5)
+                .stockMinimo(1)
+                .stockMaximo(50)
+                .build());
+
+        // Act
+        ResultadoLoteImportacion resultado = adaptadorInventario.guardarLotePorProducto(List.of(
+                inventario(conInventario, 8),
+                inventario(999_999L, 4),
+                inventario(sinInventario, 3)));
+
+        // Assert
+        assertEquals(1, resultado.insertados());
+        assertEquals(1, resultado.actualizados());
+        assertEquals(List.of(1), resultado.rechazados().stream().map(ResultadoLoteImportacion.Rechazo::indice).toList());
+        assertEquals(8, cantidadEnBaseDeDatos(conInventario));
+        assertEquals(3, cantidadEnBaseDeDatos(sinInventario));
+    }
+
+    private Long producto(String codigoBarras, String nombre, String precio) {
+        return repositorioJpaProducto.save(EntidadJpaProducto.builder()
+                .nombre(nombre)
+                .precio(new BigDecimal(precio))
+                .categoria("Granos")
+                .codigoBarras(codigoBarras)
+                .build()).getId();
+    }
+
+    private static Inventario inventario(Long productoId, int cantidad) {
+        return Inventario.builder()
+                .producto(Producto.builder().id(productoId).build())
+                .cantidad(cantidad)
+                .stockMinimo(1)
+                .stockMaximo(50)
+                .ubicacion("Pasillo 3")
+                .build();
+    }
+
+    private int cantidadEnBaseDeDatos(Long productoId) {
+        return jdbcTemplate.queryForObject("SELECT cantidad FROM inventarios WHERE producto_id = ?", Integer.class,
+                productoId);
+    }
+}
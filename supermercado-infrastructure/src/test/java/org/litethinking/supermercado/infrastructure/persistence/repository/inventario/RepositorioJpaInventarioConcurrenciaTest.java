@@ -0,0 +1,101 @@
+package org.litethinking.supermercado.infrastructure.persistence.repository.inventario;
+
+import org.junit.jupiter.api.Test;
+import org.litethinking.supermercado.infrastructure.entity.EntidadJpaProducto;
+import org.litethinking.supermercado.infrastructure.entity.inventario.EntidadJpaInventario;
+import org.litethinking.supermercado.infrastructure.persistence.repository.RepositorioJpaProducto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention test for the conditional stock decrement: many threads hit the same product
+ * and every successful decrement must be reflected in the final quantity.
+ */
+@SpringBootTest(
+        classes = RepositorioJpaInventarioConcurrenciaTest.Configuracion.class,
+        properties = "spring.datasource.url=jdbc:h2:mem:contencion;LOCK_TIMEOUT=10000")
+class RepositorioJpaInventarioConcurrenciaTest {
+
+    private static final int STOCK_INICIAL = 1000;
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 80;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "org.litethinking.supermercado.infrastructure.entity")
+    @EnableJpaRepositories(basePackages = "org.litethinking.supermercado.infrastructure.persistence.repository")
+    static class Configuracion {
+    }
+
+    @Autowired
+    private RepositorioJpaInventario repositorioJpaInventario;
+
+    @Autowired
+    private RepositorioJpaProducto repositorioJpaProducto;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void descontarStock_ShouldNotLoseUpdates_WhenManyThreadsHitTheSameProduct() throws Exception {
+        // Arrange
+        EntidadJpaProducto producto = repositorioJpaProducto.save(EntidadJpaProducto.builder()
+                .nombre("Arroz")
+                .precio(new BigDecimal("2.50"))
+                .codigoBarras("7700000000001")
+                .build());
+        EntidadJpaInventario inventario = repositorioJpaInventario.save(EntidadJpaInventario.builder()
+                .producto(producto)
+                .cantidad(STOCK_INICIAL)
+                .stockMinimo(0)
+                .stockMaximo(STOCK_INICIAL)
+                .build());
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger descuentosExitosos = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Act: more attempts than units in stock, all threads released at once
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    Integer filas = transactionTemplate.execute(
+                            status -> repositorioJpaInventario.descontarStock(producto.getId(), 1));
+                    if (filas != null && filas == 1) {
+                        descuentosExitosos.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert: exactly the initial stock was sold and the quantity never went negative
+        int cantidadFinal = repositorioJpaInventario.findById(inventario.getId()).orElseThrow().getCantidad();
+        assertEquals(STOCK_INICIAL, descuentosExitosos.get());
+        assertEquals(0, cantidadFinal);
+    }
+}
@@ -0,0 +1,135 @@
+package org.litethinking.supermercado.restapi.catalogo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.ServicioProducto;
+import org.litethinking.supermercado.shareddto.supermercado.EventoProductoModificadoDto;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, versioned snapshot of the whole product list served by {@code GET /api/productos}.
+ *
+ * <p>The list is read and serialized to JSON once per version, and its strong ETag is a hash of those
+ * bytes, so it stays the same across restarts while the catalog does not change. Every committed product
+ * change bumps the generation; the next request builds the new snapshot and swaps it in, and requests that
+ * arrive meanwhile keep reading the previous one. A burst of changes, like an import, costs one rebuild.</p>
+ *
+ * <p>A request whose {@code If-None-Match} carries the current ETag is answered with a 304 after a single
+ * string comparison, without touching the database.</p>
+ */
+@Component
+public class CatalogoProductosVersionado {
+
+    private static final Logger logger = LogManager.getLogger(CatalogoProductosVersionado.class);
+
+    private final ServicioProducto servicioProducto;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong generacion = new AtomicLong();
+    private final Object construccion = new Object();
+    private volatile Version actual;
+
+    public CatalogoProductosVersionado(ServicioProducto servicioProducto, ObjectMapper objectMapper) {
+        this.servicioProducto = servicioProducto;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the snapshot of the current generation, building it if a product changed since the last one
+     */
+    public Version obtener() {
+        Version version = actual;
+        if (version != null && version.generacion() == generacion.get()) {
+            return version;
+        }
+        synchronized (construccion) {
+            // The generation is read before the products, so a change committed while they are read
+            // leaves this snapshot stale and the next request builds another one
+            long leida = generacion.get();
+            version = actual;
+            if (version != null && version.generacion() == leida) {
+                return version;
+            }
+            List<ProductoDto> productos = servicioProducto.obtenerTodosLosProductos();
+            byte[] cuerpo = serializar(productos);
+            version = new Version(leida, etiqueta(cuerpo), cuerpo, productos.size());
+            actual = version;
+            logger.debug("Catalog snapshot {} built with {} products, {} bytes, ETag {}",
+                    leida, productos.size(), cuerpo.length, version.etag());
+            return version;
+        }
+    }
+
+    @EventListener
+    public void alModificarProducto(EventoProductoModificadoDto evento) {
+        generacion.incrementAndGet();
+    }
+
+    /**
+     * The startup runners load sample data or restore a snapshot without going through product commands,
+     * so whatever was built before the application was ready is discarded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alEstarLista() {
+        generacion.incrementAndGet();
+    }
+
+    private byte[] serializar(List<ProductoDto> productos) {
+        try {
+            return objectMapper.writeValueAsBytes(productos);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("No se pudo serializar el catálogo de productos", e);
+        }
+    }
+
+    private static String etiqueta(byte[] cuerpo) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "\"" + HexFormat.of().formatHex(resumen, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    /**
+     * One version of the catalog. The body must not be modified.
+     *
+     * @param generacion the generation it was built for
+     * @param etag the strong ETag, quotes included
+     * @param cuerpo the JSON array of products
+     * @param cantidad how many products it has
+     */
+    public record Version(long generacion, String etag, byte[] cuerpo, int cantidad) {
+
+        /**
+         * Whether an {@code If-None-Match} header names this version. Weak tags are compared by their value,
+         * as the weak comparison HTTP asks for with this header.
+         */
+        public boolean coincide(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidata : ifNoneMatch.split(",")) {
+                String etiqueta = candidata.trim();
+                if (etiqueta.startsWith("W/")) {
+                    etiqueta = etiqueta.substring(2);
+                }
+                if (etiqueta.equals("*") || etiqueta.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
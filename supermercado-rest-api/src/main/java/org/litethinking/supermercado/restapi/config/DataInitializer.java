@@ -1,206 +1,110 @@
 package org.litethinking.supermercado.restapi.config;
 
 
-import org.litethinking.supermercado.application.ServicioCajero;
-import org.litethinking.supermercado.application.ServicioCliente;
-import org.litethinking.supermercado.application.ServicioProducto;
-import org.litethinking.supermercado.application.service.inventario.ServicioInventario;
+import org.litethinking.supermercado.application.service.importacion.ServicioImportacion;
+import org.litethinking.supermercado.application.service.instantanea.ServicioInstantanea;
 
-import org.litethinking.supermercado.application.mapper.InventarioMapper;
-import org.litethinking.supermercado.shareddto.supermercado.CajeroDto;
-import org.litethinking.supermercado.shareddto.supermercado.ClienteDto;
-import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
-import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ProgresoImportacionDto;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.util.Optional;
 
 /**
- * Configuration class to initialize data from CSV files.
+ * Configuration class to initialize data from CSV files, or from the catalog snapshot when there is one.
  */
 @Configuration
 public class DataInitializer {
 
-    private final ServicioCajero servicioCajero;
-    private final ServicioCliente servicioCliente;
-    private final ServicioProducto servicioProducto;
-    private final ServicioInventario servicioInventario;
-
-    public DataInitializer(ServicioCajero servicioCajero, 
-                          ServicioCliente servicioCliente,
-                          ServicioProducto servicioProducto,
-                          ServicioInventario servicioInventario) {
-        this.servicioCajero = servicioCajero;
-        this.servicioCliente = servicioCliente;
-        this.servicioProducto = servicioProducto;
-        this.servicioInventario = servicioInventario;
+    private final ServicioImportacion servicioImportacion;
+    private final ServicioInstantanea servicioInstantanea;
+    private final boolean restaurarInstantanea;
+    private final boolean crearInstantaneaTrasCargaCsv;
+
+    public DataInitializer(ServicioImportacion servicioImportacion,
+                          ServicioInstantanea servicioInstantanea,
+                          @Value("${supermercado.instantanea.restaurar-al-arrancar:true}") boolean restaurarInstantanea,
+                          @Value("${supermercado.instantanea.crear-tras-carga-csv:false}") boolean crearInstantaneaTrasCargaCsv) {
+        this.servicioImportacion = servicioImportacion;
+        this.servicioInstantanea = servicioInstantanea;
+        this.restaurarInstantanea = restaurarInstantanea;
+        this.crearInstantaneaTrasCargaCsv = crearInstantaneaTrasCargaCsv;
     }
 
+    /**
+     * Runs first, so that runners depending on the catalog (like the write-behind journal replay) find it loaded.
+     */
     @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public CommandLineRunner initData() {
         return args -> {
-            loadCajeros();
-            loadClientes();
-            loadProductos();
-            loadInventario();
-        };
-    }
-
-    private void loadCajeros() {
-        try {
-            ClassPathResource resource = new ClassPathResource("data/cajeros.csv");
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
-
-            // Skip header
-            String line = reader.readLine();
-            List<CajeroDto> cajeros = new ArrayList<>();
-
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                CajeroDto cajero = CajeroDto.builder()
-                        .nombre(data[1])
-                        .codigo(data[2])
-                        .turno(data[3])
-                        .build();
-                cajeros.add(cajero);
+            if (restaurarInstantanea && restoreSnapshot()) {
+                return;
             }
-
-            reader.close();
-
-            // Save all cajeros
-            for (CajeroDto cajero : cajeros) {
-                servicioCajero.crearCajero(cajero);
+            importar("cajeros");
+            importar("clientes");
+            importar("productos");
+            importar("inventario");
+            if (crearInstantaneaTrasCargaCsv) {
+                createSnapshot();
             }
-
-            System.out.println("Loaded " + cajeros.size() + " cajeros from CSV file");
-        } catch (Exception e) {
-            System.err.println("Error loading cajeros: " + e.getMessage());
-            e.printStackTrace();
-        }
+        };
     }
 
-    private void loadClientes() {
+    /**
+     * Restores the catalog from the snapshot with bulk inserts. A missing or damaged snapshot
+     * falls back to the CSV files; the restore runs in one transaction, so nothing is left half loaded.
+     *
+     * @return true if the catalog was restored
+     */
+    private boolean restoreSnapshot() {
         try {
-            ClassPathResource resource = new ClassPathResource("data/clientes.csv");
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
-
-            // Skip header
-            String line = reader.readLine();
-            List<ClienteDto> clientes = new ArrayList<>();
-
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                ClienteDto cliente = new ClienteDto(
-                        null,
-                        data[1],
-                        data[2],
-                        data[3],
-                        data[4]
-                );
-                clientes.add(cliente);
-            }
-
-            reader.close();
-
-            // Save all clientes
-            for (ClienteDto cliente : clientes) {
-                servicioCliente.crearCliente(cliente);
-            }
-
-            System.out.println("Loaded " + clientes.size() + " clientes from CSV file");
+            Optional<InstantaneaDto> restaurada = servicioInstantanea.restaurar();
+            restaurada.ifPresent(instantanea -> System.out.println("Restored catalog snapshot " + instantanea.ruta()
+                    + " in " + instantanea.duracionMs() + " ms: " + instantanea.filasPorTabla()));
+            return restaurada.isPresent();
         } catch (Exception e) {
-            System.err.println("Error loading clientes: " + e.getMessage());
+            System.err.println("Error restoring catalog snapshot, loading CSV files instead: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
-    private void loadProductos() {
+    private void createSnapshot() {
         try {
-            ClassPathResource resource = new ClassPathResource("data/productos.csv");
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
-
-            // Skip header
-            String line = reader.readLine();
-            List<ProductoDto> productos = new ArrayList<>();
-
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                ProductoDto producto = new ProductoDto(
-                        null,
-                        data[1],
-                        data[2],
-                        new BigDecimal(data[3]),
-                        data[4],
-                        data[5]
-                );
-                productos.add(producto);
-            }
-
-            reader.close();
-
-            // Save all productos
-            for (ProductoDto producto : productos) {
-                servicioProducto.crearProducto(producto);
-            }
-
-            System.out.println("Loaded " + productos.size() + " productos from CSV file");
+            InstantaneaDto instantanea = servicioInstantanea.crear();
+            System.out.println("Wrote catalog snapshot " + instantanea.ruta() + " (" + instantanea.bytes() + " bytes)");
         } catch (Exception e) {
-            System.err.println("Error loading productos: " + e.getMessage());
+            System.err.println("Error writing catalog snapshot: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private void loadInventario() {
-        try {
-            ClassPathResource resource = new ClassPathResource("data/inventario.csv");
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
-
-            // Skip header
-            String line = reader.readLine();
-            List<InventarioDto> inventarios = new ArrayList<>();
-
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                Long productoId = Long.parseLong(data[1]);
-                ProductoDto producto = servicioProducto.obtenerProductoPorId(productoId)
-                        .orElseThrow(() -> new RuntimeException("Producto not found with id: " + productoId));
-
-                InventarioDto inventario = new InventarioDto(
-                        null,
-                        producto,
-                        Integer.parseInt(data[2]),
-                        Integer.parseInt(data[3]),
-                        Integer.parseInt(data[4]),
-                        LocalDate.parse(data[5]),
-                        data[6]
-                );
-                inventarios.add(inventario);
-            }
-
-            reader.close();
-
-            // Save all inventarios
-            for (InventarioDto inventario : inventarios) {
-                servicioInventario.crearInventario(InventarioMapper.toDomain(inventario));
-            }
-
-            System.out.println("Loaded " + inventarios.size() + " inventarios from CSV file");
+    /**
+     * Imports a seed file from the classpath through the same pipeline as {@code POST /api/importar},
+     * so the rows are upserted in batches and a bad row is reported without stopping the rest.
+     *
+     * @param entidad the entity, which is also the name of the file under data/
+     */
+    private void importar(String entidad) {
+        ClassPathResource resource = new ClassPathResource("data/" + entidad + ".csv");
+        try (InputStream entrada = resource.getInputStream()) {
+            ProgresoImportacionDto resultado = servicioImportacion.preparar(entidad, entrada)
+                    .ejecutar(progreso -> progreso.errores().forEach(error -> System.err.println(
+                            "Error importing " + entidad + " line " + error.fila() + ": " + error.mensaje())));
+            System.out.println("Loaded " + entidad + " from CSV file: " + resultado.insertadas() + " inserted, "
+                    + resultado.actualizadas() + " updated, " + resultado.rechazadas() + " rejected in "
+                    + resultado.duracionMs() + " ms");
         } catch (Exception e) {
-            System.err.println("Error loading inventarios: " + e.getMessage());
+            System.err.println("Error loading " + entidad + ": " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -0,0 +1,32 @@
+package org.litethinking.supermercado.restapi.controller;
+
+import org.litethinking.supermercado.restapi.idempotencia.AlmacenIdempotencia;
+import org.litethinking.supermercado.shareddto.supermercado.EstadisticasIdempotenciaDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the counters of the idempotency store.
+ */
+@RestController
+@RequestMapping("/api/idempotencia")
+public class ControladorIdempotencia {
+
+    private final AlmacenIdempotencia almacenIdempotencia;
+
+    public ControladorIdempotencia(AlmacenIdempotencia almacenIdempotencia) {
+        this.almacenIdempotencia = almacenIdempotencia;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counters of the idempotency store.
+     *
+     * @return the store counters
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasIdempotenciaDto> obtenerEstadisticas() {
+        return ResponseEntity.ok(almacenIdempotencia.obtenerEstadisticas());
+    }
+}
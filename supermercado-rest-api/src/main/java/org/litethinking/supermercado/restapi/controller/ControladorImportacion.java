@@ -0,0 +1,89 @@
+package org.litethinking.supermercado.restapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.service.importacion.ServicioImportacion;
+import org.litethinking.supermercado.shareddto.supermercado.importacion.ProgresoImportacionDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * REST Controller for bulk CSV imports of products, customers, cashiers and inventory records.
+ */
+@RestController
+@RequestMapping("/api/importar")
+public class ControladorImportacion {
+
+    private static final Logger logger = LogManager.getLogger(ControladorImportacion.class);
+
+    private final ServicioImportacion servicioImportacion;
+    private final ObjectWriter escritorProgreso;
+
+    public ControladorImportacion(ServicioImportacion servicioImportacion, ObjectMapper objectMapper) {
+        this.servicioImportacion = servicioImportacion;
+        this.escritorProgreso = objectMapper.writerFor(ProgresoImportacionDto.class);
+    }
+
+    /**
+     * Imports a CSV file with a header row, saving each row by its natural key: products by codigoBarras,
+     * customers by email, cashiers by codigo and inventory records by product (producto_id or codigoBarras).
+     * The header is checked before answering; then the progress is streamed as NDJSON, one line per chunk
+     * of rows written with the running totals and the errors of the rows of that chunk, and a last line
+     * with terminada set to true.
+     *
+     * @param entidad productos, clientes, cajeros or inventario
+     * @param archivo the CSV file, in UTF-8
+     * @return the stream of progress lines, or a 400 if the entity or the header is not valid
+     */
+    @PostMapping(value = "/{entidad}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importar(@PathVariable String entidad, @RequestParam("archivo") MultipartFile archivo)
+            throws IOException {
+        InputStream entrada = archivo.getInputStream();
+        ServicioImportacion.Importacion importacion;
+        try {
+            importacion = servicioImportacion.preparar(entidad, entrada);
+        } catch (IllegalArgumentException e) {
+            entrada.close();
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Importación inválida");
+            return ResponseEntity.badRequest().body(problema);
+        }
+        logger.info("Importing {} from {} ({} bytes)", entidad, archivo.getOriginalFilename(), archivo.getSize());
+        StreamingResponseBody cuerpo = salida -> {
+            try (entrada) {
+                importacion.ejecutar(progreso -> escribirProgreso(progreso, salida));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(cuerpo);
+    }
+
+    private void escribirProgreso(ProgresoImportacionDto progreso, OutputStream salida) {
+        try {
+            salida.write(escritorProgreso.writeValueAsBytes(progreso));
+            salida.write('\n');
+            salida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.litethinking.supermercado.restapi.controller;
+
+import org.litethinking.supermercado.application.service.instantanea.ServicioInstantanea;
+import org.litethinking.supermercado.shareddto.supermercado.InstantaneaDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for binary snapshots of the catalog.
+ */
+@RestController
+@RequestMapping("/api/instantaneas")
+public class ControladorInstantanea {
+
+    private final ServicioInstantanea servicioInstantanea;
+
+    public ControladorInstantanea(ServicioInstantanea servicioInstantanea) {
+        this.servicioInstantanea = servicioInstantanea;
+    }
+
+    /**
+     * Writes a snapshot of products, inventory, cashiers and customers, replacing the previous one.
+     * The next node that starts with an empty database restores from it.
+     *
+     * @return the summary of the snapshot written
+     */
+    @PostMapping
+    public ResponseEntity<InstantaneaDto> crearInstantanea() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(servicioInstantanea.crear());
+    }
+}
@@ -1,8 +1,11 @@
 package org.litethinking.supermercado.restapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,16 +14,33 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.litethinking.supermercado.application.ServicioProducto;
+import org.litethinking.supermercado.restapi.catalogo.CatalogoProductosVersionado;
+import org.litethinking.supermercado.restapi.exportacion.EscritorCsv;
+import org.litethinking.supermercado.restapi.exportacion.ExportacionCsv;
+import org.litethinking.supermercado.shareddto.supermercado.PaginaProductosDto;
+import org.litethinking.supermercado.shareddto.supermercado.PrecioConImpuestoDto;
 import org.litethinking.supermercado.shareddto.supermercado.ProductoDto;
+import org.litethinking.supermercado.shareddto.supermercado.ProductoEncontradoDto;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Controlador REST pa' las operaciones de Producto, ¡con to'!
@@ -31,10 +51,18 @@ import java.util.stream.Collectors;
 public class ControladorProducto {
 
     private static final Logger logger = LogManager.getLogger(ControladorProducto.class);
+    private static final int TAMANO_BUFFER_EXPORTACION = 64 * 1024;
+    private static final String[] ENCABEZADO_CSV = {"id", "nombre", "descripcion", "precio", "categoria", "codigoBarras"};
     private final ServicioProducto servicioProducto;
+    private final CatalogoProductosVersionado catalogoProductosVersionado;
+    private final ObjectWriter escritorPrecio;
 
-    public ControladorProducto(ServicioProducto servicioProducto) {
+    public ControladorProducto(ServicioProducto servicioProducto,
+                               CatalogoProductosVersionado catalogoProductosVersionado,
+                               ObjectMapper objectMapper) {
         this.servicioProducto = servicioProducto;
+        this.catalogoProductosVersionado = catalogoProductosVersionado;
+        this.escritorPrecio = objectMapper.writerFor(PrecioConImpuestoDto.class);
         logger.info("ControladorProducto inicializado");
     }
 
@@ -172,9 +200,17 @@ public class ControladorProducto {
         }
     }
 
+    /**
+     * Trae to' los productos. La lista sale de una versión ya serializada del catálogo con su ETag; si el
+     * cliente manda If-None-Match con esa misma ETag, se le contesta un 304 sin cuerpo y sin ir a la base.
+     *
+     * @param ifNoneMatch la ETag de la lista que el cliente ya tiene, si tiene alguna
+     * @return la lista en JSON con su ETag, o un 304 si el cliente ya la tiene al día
+     */
     @Operation(
         summary = "Traer to' los productos, ¡completo!",
-        description = "Te busca la lista completa de to' los productos que hay en el sistema"
+        description = "Te busca la lista completa de to' los productos que hay en el sistema. "
+                + "Manda If-None-Match con la ETag que te dimo' y si na' ha cambiao' te llega un 304"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -182,9 +218,14 @@ public class ControladorProducto {
             description = "¡Ahí te van to' los productos, manín!",
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(implementation = ProductoDto.class)
+                array = @ArraySchema(schema = @Schema(implementation = ProductoDto.class))
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Tu lista 'tá al día, no hay na' nuevo",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "500", 
             description = "El servidor se fue a dormir, ¡despiértalo!",
@@ -192,26 +233,23 @@ public class ControladorProducto {
         )
     })
     @GetMapping
-    public ResponseEntity<List<ProductoDto>> obtenerTodosLosProductos() {
-        logger.debug("Obteniendo lista de todos los productos");
-        try {
-            List<ProductoDto> productos = servicioProducto.obtenerTodosLosProductos();
-            logger.info("Se encontraron {} productos en total", productos.size());
-
-            // Si es necesario, podemos loguear más detalles a nivel de debug
-            if (logger.isDebugEnabled() && !productos.isEmpty()) {
-                logger.debug("Categorías encontradas: {}", 
-                    productos.stream()
-                        .map(ProductoDto::categoria)
-                        .distinct()
-                        .collect(Collectors.joining(", ")));
-            }
-
-            return ResponseEntity.ok(productos);
-        } catch (Exception e) {
-            logger.error("Error al obtener la lista de productos", e);
-            throw e;
+    public ResponseEntity<byte[]> obtenerTodosLosProductos(
+            @Parameter(description = "ETag de la lista que ya tienes")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CatalogoProductosVersionado.Version version = catalogoProductosVersionado.obtener();
+        if (version.coincide(ifNoneMatch)) {
+            logger.debug("Catálogo sin cambios para ETag {}", version.etag());
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(version.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
         }
+        logger.info("Se encontraron {} productos en total", version.cantidad());
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(version.cuerpo());
     }
 
     /**
@@ -330,50 +368,311 @@ public class ControladorProducto {
     }
 
     /**
-     * Genera un archivo CSV con todos los productos.
+     * Busca productos mezclando to' los filtros que le pases, de una vez en la base de datos y por páginas.
      *
-     * @return un archivo CSV con todos los productos
+     * @param nombre un pedacito del nombre, sin importar mayúsculas
+     * @param categoria la categoría exacta
+     * @param precioMinimo el precio mínimo, incluido
+     * @param precioMaximo el precio máximo, incluido
+     * @param codigoBarras el código de barras exacto
+     * @param pagina el número de página, empezando en 0
+     * @param tamano cuántos productos por página
+     * @param ordenarPor por cuál campo se ordena: id, nombre, precio o categoria
+     * @param direccion asc o desc
+     * @return la página de productos con los totales, o un 400 si algún parámetro 'tá malo
      */
     @Operation(
-        summary = "Hacer un CSV con to' los productos, ¡pa' llevártelo!",
-        description = "Te prepara un archivo CSV con to' los productos que hay, pa' que lo descargues"
+        summary = "Filtrar productos con to' los criterios juntos, ¡por páginas!",
+        description = "Combina nombre, categoría, rango de precio y código de barras en una sola consulta, con paginación y orden"
     )
     @ApiResponses(value = {
         @ApiResponse(
-            responseCode = "200", 
-            description = "¡CSV listo, manín! Ya te lo puedes bajar",
+            responseCode = "200",
+            description = "¡Aquí 'tá tu página de productos, manín!",
             content = @Content(
-                mediaType = "text/plain"
+                mediaType = "application/json",
+                schema = @Schema(implementation = PaginaProductosDto.class)
             )
         ),
         @ApiResponse(
-            responseCode = "500", 
-            description = "El servidor se enredó, ¡qué lío!",
+            responseCode = "400",
+            description = "El rango de precio 'tá al revés, la página o el tamaño no sirven, o ese orden no existe",
             content = @Content
         )
     })
-    @GetMapping("/csv")
-    public ResponseEntity<String> generarCsvProductos() {
-        List<ProductoDto> productos = servicioProducto.obtenerTodosLosProductos();
+    @GetMapping("/filtro")
+    public ResponseEntity<?> filtrarProductos(
+            @Parameter(description = "Pedazo del nombre") @RequestParam(required = false) String nombre,
+            @Parameter(description = "Categoría exacta") @RequestParam(required = false) String categoria,
+            @Parameter(description = "Precio mínimo, incluido") @RequestParam(required = false) BigDecimal precioMinimo,
+            @Parameter(description = "Precio máximo, incluido") @RequestParam(required = false) BigDecimal precioMaximo,
+            @Parameter(description = "Código de barras exacto") @RequestParam(required = false) String codigoBarras,
+            @Parameter(description = "Número de página, desde 0") @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Productos por página, de 1 a 1000") @RequestParam(defaultValue = "20") int tamano,
+            @Parameter(description = "Campo de orden: id, nombre, precio o categoria") @RequestParam(defaultValue = "id") String ordenarPor,
+            @Parameter(description = "Dirección del orden: asc o desc") @RequestParam(defaultValue = "asc") String direccion) {
+        try {
+            return ResponseEntity.ok(servicioProducto.obtenerPaginaDeProductos(nombre, categoria, precioMinimo,
+                    precioMaximo, codigoBarras, pagina, tamano, ordenarPor, direccion));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Filtro de productos inválido");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * Busca productos por texto libre en el nombre, la descripción y la categoría. No le importan las tildes
+     * ni las mayúsculas, entiende palabras a medio escribir y te perdona una letra mal puesta.
+     *
+     * @param q las palabras a buscar; tienen que estar todas
+     * @param limite cuántos productos devolver como máximo
+     * @return los productos, del que más pega al que menos, o un 400 si no mandaste na'
+     */
+    @Operation(
+        summary = "Buscar productos por texto, ¡como en Google!",
+        description = "Busca en nombre, descripción y categoría sin importar tildes ni mayúsculas, con palabras incompletas y alguna errata"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Aquí 'tá lo que encontramo', lo mejor primero!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ProductoEncontradoDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No mandaste texto o el límite no va de 1 a 100",
+            content = @Content
+        )
+    })
+    @GetMapping("/buscar")
+    public ResponseEntity<?> buscarProductos(
+            @Parameter(description = "Palabras a buscar", required = true) @RequestParam String q,
+            @Parameter(description = "Máximo de productos, de 1 a 100") @RequestParam(defaultValue = "20") int limite) {
+        try {
+            List<ProductoEncontradoDto> encontrados = servicioProducto.buscarProductos(q, limite);
+            return ResponseEntity.ok(encontrados);
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Búsqueda inválida");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * Trae los productos de un rango de precio por páginas, del más barato al más caro. Si no le pones
+     * rango, la primera página de una categoría son sus N productos más baratos.
+     *
+     * @param precioMinimo el precio mínimo, incluido
+     * @param precioMaximo el precio máximo, incluido
+     * @param categoria la categoría exacta
+     * @param pagina el número de página, empezando en 0
+     * @param tamano cuántos productos por página
+     * @return la página de productos con los totales, o un 400 si algún parámetro 'tá malo
+     */
+    @Operation(
+        summary = "Productos por precio, ¡del más barato pa' arriba!",
+        description = "Pagina los productos de un rango de precio, opcionalmente de una categoría, ordenados por precio"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Aquí 'tán, los más baratos primero!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PaginaProductosDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "El rango de precio 'tá al revés o es negativo, o la página o el tamaño no sirven",
+            content = @Content
+        )
+    })
+    @GetMapping("/precio")
+    public ResponseEntity<?> obtenerProductosPorPrecio(
+            @Parameter(description = "Precio mínimo, incluido") @RequestParam(required = false) BigDecimal precioMinimo,
+            @Parameter(description = "Precio máximo, incluido") @RequestParam(required = false) BigDecimal precioMaximo,
+            @Parameter(description = "Categoría exacta") @RequestParam(required = false) String categoria,
+            @Parameter(description = "Número de página, desde 0") @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Productos por página, de 1 a 1000") @RequestParam(defaultValue = "20") int tamano) {
+        try {
+            return ResponseEntity.ok(servicioProducto.obtenerPaginaPorPrecio(precioMinimo, precioMaximo, categoria,
+                    pagina, tamano));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Rango de precio inválido");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
 
-        // Crear el contenido del CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("id,nombre,descripcion,precio,categoria,codigoBarras\n");
+    /**
+     * Cuenta cuántos productos hay en un rango de precio, sin traer ninguno. Sirve pa' las franjas de precio.
+     *
+     * @param precioMinimo el precio mínimo, incluido
+     * @param precioMaximo el precio máximo, incluido
+     * @param categoria la categoría exacta
+     * @return cuántos productos hay, o un 400 si el rango 'tá malo
+     */
+    @Operation(
+        summary = "Contar productos por rango de precio, ¡rapidito!",
+        description = "Dice cuántos productos caen en un rango de precio, opcionalmente de una categoría"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Ahí 'tá la cuenta!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = Long.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "El rango de precio 'tá al revés o es negativo",
+            content = @Content
+        )
+    })
+    @GetMapping("/precio/conteo")
+    public ResponseEntity<?> contarProductosPorPrecio(
+            @Parameter(description = "Precio mínimo, incluido") @RequestParam(required = false) BigDecimal precioMinimo,
+            @Parameter(description = "Precio máximo, incluido") @RequestParam(required = false) BigDecimal precioMaximo,
+            @Parameter(description = "Categoría exacta") @RequestParam(required = false) String categoria) {
+        try {
+            return ResponseEntity.ok(servicioProducto.contarProductosPorPrecio(precioMinimo, precioMaximo, categoria));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Rango de precio inválido");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * Calcula el precio con impuesto de muchos productos de una vez: los de una lista de IDs, los de una
+     * categoría, o to' el catálogo si no le pones ninguna. Los precios salen uno por línea mientras se
+     * calculan, en NDJSON o en CSV, y redondean igualito que el cálculo de un solo producto (HALF_UP).
+     *
+     * @param tasa la tasa de impuesto, por ejemplo 0.19
+     * @param categoria la categoría exacta
+     * @param ids los IDs de los productos, separados por coma
+     * @param formato ndjson (por defecto) o csv
+     * @return los precios en streaming, o un 400 si algún parámetro 'tá malo
+     */
+    @Operation(
+        summary = "Precios con impuesto por lote, ¡pa' las etiquetas!",
+        description = "Calcula el precio con impuesto de una lista de IDs, de una categoría o de to' el catálogo en una sola llamada"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Ahí van los precios, uno por línea!",
+            content = {
+                @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = PrecioConImpuestoDto.class)),
+                @Content(mediaType = "text/csv")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "La tasa falta o es negativa, mandaste categoría e IDs juntos, o el formato no existe",
+            content = @Content
+        )
+    })
+    @GetMapping("/precio-con-impuesto")
+    public ResponseEntity<?> calcularPreciosConImpuesto(
+            @Parameter(description = "Tasa de impuesto, ej. 0.19", required = true) @RequestParam BigDecimal tasa,
+            @Parameter(description = "Categoría exacta") @RequestParam(required = false) String categoria,
+            @Parameter(description = "IDs de productos separados por coma") @RequestParam(required = false) List<Long> ids,
+            @Parameter(description = "Formato: ndjson o csv") @RequestParam(defaultValue = "ndjson") String formato) {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        try {
+            if (!csv && !"ndjson".equalsIgnoreCase(formato)) {
+                throw new IllegalArgumentException("Formato no soportado: " + formato + ". Use ndjson o csv");
+            }
+            Stream<PrecioConImpuestoDto> precios = servicioProducto.calcularPreciosConImpuesto(tasa, categoria, ids);
+            if (csv) {
+                return ResponseEntity.ok()
+                        .contentType(ExportacionCsv.TEXT_CSV)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"precios-con-impuesto.csv\"")
+                        .body((StreamingResponseBody) salida -> escribirPreciosCsv(precios, salida));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body((StreamingResponseBody) salida -> escribirPreciosNdjson(precios, salida));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Cálculo de impuesto inválido");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
 
-        for (ProductoDto producto : productos) {
-            csv.append(producto.id()).append(",")
-               .append(producto.nombre()).append(",")
-               .append(producto.descripcion()).append(",")
-               .append(producto.precio()).append(",")
-               .append(producto.categoria()).append(",")
-               .append(producto.codigoBarras()).append("\n");
+    private void escribirPreciosNdjson(Stream<PrecioConImpuestoDto> precios, OutputStream salida) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(salida, TAMANO_BUFFER_EXPORTACION);
+        try (precios) {
+            Iterator<PrecioConImpuestoDto> iterador = precios.iterator();
+            while (iterador.hasNext()) {
+                buffer.write(escritorPrecio.writeValueAsBytes(iterador.next()));
+                buffer.write('\n');
+            }
         }
+        buffer.flush();
+    }
 
-        // Configurar las cabeceras para la descarga del archivo
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "productos.csv");
+    private void escribirPreciosCsv(Stream<PrecioConImpuestoDto> precios, OutputStream salida) throws IOException {
+        EscritorCsv csv = new EscritorCsv(new BufferedWriter(
+                new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER_EXPORTACION));
+        csv.escribirFila("producto_id", "precio", "precio_con_impuesto");
+        try (precios) {
+            Iterator<PrecioConImpuestoDto> iterador = precios.iterator();
+            while (iterador.hasNext()) {
+                PrecioConImpuestoDto precio = iterador.next();
+                csv.escribirFila(precio.productoId(), precio.precio().toPlainString(),
+                        precio.precioConImpuesto().toPlainString());
+            }
+        }
+        csv.flush();
+    }
 
-        return new ResponseEntity<>(csv.toString(), headers, HttpStatus.OK);
+    /**
+     * Genera un archivo CSV con todos los productos, en orden de ID. Las filas se escriben mientras se leen
+     * de la base de datos, así que la memoria no crece con el catálogo, y los campos con comas, comillas
+     * o saltos de línea van entre comillas (RFC 4180).
+     *
+     * @param gzip si el archivo se manda comprimido
+     * @return un archivo CSV con todos los productos
+     */
+    @Operation(
+        summary = "Hacer un CSV con to' los productos, ¡pa' llevártelo!",
+        description = "Te manda un archivo CSV con to' los productos que hay, fila por fila, y comprimido si le pides gzip"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "¡CSV listo, manín! Ya te lo puedes bajar",
+            content = {
+                @Content(mediaType = "text/csv"),
+                @Content(mediaType = "application/gzip")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "500", 
+            description = "El servidor se enredó, ¡qué lío!",
+            content = @Content
+        )
+    })
+    @GetMapping("/csv")
+    public ResponseEntity<StreamingResponseBody> generarCsvProductos(
+            @Parameter(description = "Comprimir el archivo con gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        return ExportacionCsv.responder("productos", gzip, ENCABEZADO_CSV, csv -> {
+            long[] exportados = {0};
+            servicioProducto.exportarProductos(producto -> {
+                csv.escribirFilaEnConsumidor(producto.id(), producto.nombre(), producto.descripcion(),
+                        producto.precio(), producto.categoria(), producto.codigoBarras());
+                exportados[0]++;
+            });
+            logger.info("Exported {} products as CSV", exportados[0]);
+        });
     }
 }
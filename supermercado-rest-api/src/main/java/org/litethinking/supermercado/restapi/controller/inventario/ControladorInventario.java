@@ -10,16 +10,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.litethinking.supermercado.application.cqrs.handlers.commands.*;
 import org.litethinking.supermercado.application.cqrs.handlers.queries.*;
+import org.litethinking.supermercado.domain.exception.StockInsuficienteException;
+import org.litethinking.supermercado.restapi.eventos.DifusorEventosStock;
+import org.litethinking.supermercado.restapi.exportacion.ExportacionCsv;
+import org.litethinking.supermercado.restapi.idempotencia.AlmacenIdempotencia;
 import org.litethinking.supermercado.shareddto.cqrs.commands.*;
 import org.litethinking.supermercado.shareddto.cqrs.queries.*;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.AjusteInventarioDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.HistorialStockDto;
 import org.litethinking.supermercado.shareddto.supermercado.inventario.InventarioDto;
-import org.springframework.http.HttpHeaders;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.PlanReposicionDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ReservaStockDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResultadoLoteAjustesDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.ResumenUbicacionDto;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.StockEnInstanteDto;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,40 +45,76 @@ import java.util.Optional;
 @Tag(name = "Inventario", description = "API pa' manejar to' el inventario del supermercado, ¡tú 'ta claro!")
 public class ControladorInventario {
 
+    private static final String[] ENCABEZADO_CSV = {"id", "producto_id", "cantidad", "stockMinimo", "stockMaximo",
+        "fechaUltimaReposicion", "ubicacion"};
+
     private final CreateInventarioCommandHandler createInventarioCommandHandler;
     private final UpdateInventarioCommandHandler updateInventarioCommandHandler;
     private final DeleteInventarioCommandHandler deleteInventarioCommandHandler;
     private final UpdateInventarioCantidadCommandHandler updateInventarioCantidadCommandHandler;
+    private final AjustarInventarioLoteCommandHandler ajustarInventarioLoteCommandHandler;
     private final GetInventarioByIdQueryHandler getInventarioByIdQueryHandler;
     private final GetAllInventariosQueryHandler getAllInventariosQueryHandler;
     private final GetInventarioByProductoIdQueryHandler getInventarioByProductoIdQueryHandler;
     private final GetInventariosConBajoStockQueryHandler getInventariosConBajoStockQueryHandler;
     private final GetInventariosByUbicacionQueryHandler getInventariosByUbicacionQueryHandler;
+    private final GetPlanReposicionQueryHandler getPlanReposicionQueryHandler;
+    private final GetResumenUbicacionesQueryHandler getResumenUbicacionesQueryHandler;
+    private final GetStockEnInstanteQueryHandler getStockEnInstanteQueryHandler;
+    private final GetHistorialStockQueryHandler getHistorialStockQueryHandler;
+    private final ReservarStockCommandHandler reservarStockCommandHandler;
+    private final LiberarReservasCommandHandler liberarReservasCommandHandler;
+    private final GetReservasByCarritoQueryHandler getReservasByCarritoQueryHandler;
+    private final AlmacenIdempotencia almacenIdempotencia;
+    private final DifusorEventosStock difusorEventosStock;
 
     public ControladorInventario(
             CreateInventarioCommandHandler createInventarioCommandHandler,
             UpdateInventarioCommandHandler updateInventarioCommandHandler,
             DeleteInventarioCommandHandler deleteInventarioCommandHandler,
             UpdateInventarioCantidadCommandHandler updateInventarioCantidadCommandHandler,
+            AjustarInventarioLoteCommandHandler ajustarInventarioLoteCommandHandler,
             GetInventarioByIdQueryHandler getInventarioByIdQueryHandler,
             GetAllInventariosQueryHandler getAllInventariosQueryHandler,
             GetInventarioByProductoIdQueryHandler getInventarioByProductoIdQueryHandler,
             GetInventariosConBajoStockQueryHandler getInventariosConBajoStockQueryHandler,
-            GetInventariosByUbicacionQueryHandler getInventariosByUbicacionQueryHandler) {
+            GetInventariosByUbicacionQueryHandler getInventariosByUbicacionQueryHandler,
+            GetPlanReposicionQueryHandler getPlanReposicionQueryHandler,
+            GetResumenUbicacionesQueryHandler getResumenUbicacionesQueryHandler,
+            GetStockEnInstanteQueryHandler getStockEnInstanteQueryHandler,
+            GetHistorialStockQueryHandler getHistorialStockQueryHandler,
+            ReservarStockCommandHandler reservarStockCommandHandler,
+            LiberarReservasCommandHandler liberarReservasCommandHandler,
+            GetReservasByCarritoQueryHandler getReservasByCarritoQueryHandler,
+            AlmacenIdempotencia almacenIdempotencia,
+            DifusorEventosStock difusorEventosStock) {
         this.createInventarioCommandHandler = createInventarioCommandHandler;
         this.updateInventarioCommandHandler = updateInventarioCommandHandler;
         this.deleteInventarioCommandHandler = deleteInventarioCommandHandler;
         this.updateInventarioCantidadCommandHandler = updateInventarioCantidadCommandHandler;
+        this.ajustarInventarioLoteCommandHandler = ajustarInventarioLoteCommandHandler;
         this.getInventarioByIdQueryHandler = getInventarioByIdQueryHandler;
         this.getAllInventariosQueryHandler = getAllInventariosQueryHandler;
         this.getInventarioByProductoIdQueryHandler = getInventarioByProductoIdQueryHandler;
         this.getInventariosConBajoStockQueryHandler = getInventariosConBajoStockQueryHandler;
         this.getInventariosByUbicacionQueryHandler = getInventariosByUbicacionQueryHandler;
+        this.getPlanReposicionQueryHandler = getPlanReposicionQueryHandler;
+        this.getResumenUbicacionesQueryHandler = getResumenUbicacionesQueryHandler;
+        this.getStockEnInstanteQueryHandler = getStockEnInstanteQueryHandler;
+        this.getHistorialStockQueryHandler = getHistorialStockQueryHandler;
+        this.reservarStockCommandHandler = reservarStockCommandHandler;
+        this.liberarReservasCommandHandler = liberarReservasCommandHandler;
+        this.getReservasByCarritoQueryHandler = getReservasByCarritoQueryHandler;
+        this.almacenIdempotencia = almacenIdempotencia;
+        this.difusorEventosStock = difusorEventosStock;
     }
 
     /**
      * Crea un nuevo registro de inventario, ¡pa' tener to' controladito!
      *
+     * Si repiten la petición con el mismo {@code Idempotency-Key}, se devuelve la respuesta guardá' sin crear otro.
+     *
+     * @param claveIdempotencia la clave opcional pa' reconocer los reintentos
      * @param command el comando pa' crear un inventario
      * @return el inventario ya creao'
      */
@@ -93,14 +143,19 @@ public class ControladorInventario {
         )
     })
     @PostMapping
-    public ResponseEntity<InventarioDto> crearInventario(@Parameter(description = "Datos del inventario a crear", required = true) @RequestBody CreateInventarioCommand command) {
-        InventarioDto inventarioCreado = createInventarioCommandHandler.handle(command);
-        return new ResponseEntity<>(inventarioCreado, HttpStatus.CREATED);
+    public ResponseEntity<InventarioDto> crearInventario(
+            @Parameter(description = "Clave pa' que los reintentos no creen duplicados") @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @Parameter(description = "Datos del inventario a crear", required = true) @RequestBody CreateInventarioCommand command) {
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "POST /api/inventario", () -> {
+            InventarioDto inventarioCreado = createInventarioCommandHandler.handle(command);
+            return new ResponseEntity<>(inventarioCreado, HttpStatus.CREATED);
+        }, command);
     }
 
     /**
      * Actualiza un inventario que ya ta' en el sistema.
      *
+     * @param claveIdempotencia la clave opcional pa' reconocer los reintentos
      * @param id el ID del inventario que vamo' a actualizar
      * @param command el comando con los datos nuevecitos del inventario
      * @return el inventario ya actualizao'
@@ -136,6 +191,7 @@ public class ControladorInventario {
     })
     @PutMapping("/{id}")
     public ResponseEntity<InventarioDto> actualizarInventario(
+            @Parameter(description = "Clave pa' que los reintentos no se apliquen dos vece'") @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
             @Parameter(description = "ID del inventario a actualizar", required = true) @PathVariable Long id, 
             @Parameter(description = "Datos actualizados del inventario", required = true) @RequestBody UpdateInventarioCommand command) {
         // Ensure the ID in the path matches the ID in the command
@@ -148,8 +204,57 @@ public class ControladorInventario {
             command.fechaUltimaReposicion(),
             command.ubicacion()
         );
-        InventarioDto inventarioActualizado = updateInventarioCommandHandler.handle(commandWithId);
-        return ResponseEntity.ok(inventarioActualizado);
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "PUT /api/inventario/" + id,
+            () -> ResponseEntity.ok(updateInventarioCommandHandler.handle(commandWithId)), commandWithId);
+    }
+
+    /**
+     * Ajusta el stock de muchos productos de un solo golpe, ¡pa' cuando llega el camión!
+     *
+     * Cada línea suma su delta (o resta si es negativo) a la cantidad del producto y, si trae fechaReposicion,
+     * actualiza la fechaUltimaReposicion; si suma sin fecha, se pone la de hoy. To' va en una sola transacción
+     * y cada línea dice si se aplicó o por qué no.
+     *
+     * @param claveIdempotencia la clave opcional pa' reconocer los reintentos
+     * @param ajustes las líneas de (productoId, delta, fechaReposicion)
+     * @return el resultado de cada línea y los totales
+     */
+    @Operation(
+        summary = "Ajustar el inventario en lote",
+        description = "Aplica una recepción de mercancía completa en una sola transacción, con resultado por línea"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Lote procesao'! Cada línea dice si entró o no",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ResultadoLoteAjustesDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "El lote viene vacío o es demasiao' grande",
+            content = @Content
+        )
+    })
+    @PatchMapping("/ajustes")
+    public ResponseEntity<?> ajustarInventarioEnLote(
+            @Parameter(description = "Clave pa' que los reintentos no se apliquen dos vece'") @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @Parameter(description = "Las líneas de ajuste", required = true) @RequestBody List<AjusteInventarioDto> ajustes) {
+        AjustarInventarioLoteCommand command = new AjustarInventarioLoteCommand(ajustes);
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "PATCH /api/inventario/ajustes",
+            () -> aplicarAjustes(command), command);
+    }
+
+    private ResponseEntity<?> aplicarAjustes(AjustarInventarioLoteCommand command) {
+        try {
+            return ResponseEntity.ok(ajustarInventarioLoteCommandHandler.handle(command));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Lote de ajustes inválido");
+            return ResponseEntity.badRequest().body(problema);
+        }
     }
 
     /**
@@ -249,6 +354,162 @@ public class ControladorInventario {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * ¿Cuánto había a esa hora? El stock de un producto en un instante, sacao' del historial de movimientos.
+     *
+     * @param productoId el ID del producto
+     * @param en el instante a consultar
+     * @return el stock en ese instante, o un 404 si el producto no tenía movimientos todavía
+     */
+    @Operation(
+        summary = "Stock de un producto en un instante",
+        description = "Reconstruye el stock desde el último corte anterior al instante más los movimientos que le siguen"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Esto era lo que había!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = StockEnInstanteDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "El producto no tenía movimientos pa' ese instante",
+            content = @Content
+        )
+    })
+    @GetMapping("/producto/{productoId}/stock")
+    public ResponseEntity<StockEnInstanteDto> obtenerStockEnInstante(
+            @Parameter(description = "ID del producto") @PathVariable Long productoId,
+            @Parameter(description = "Instante a consultar, ej. 2024-06-01T10:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime en) {
+        return getStockEnInstanteQueryHandler.handle(new GetStockEnInstanteQuery(productoId, en))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * ¿Quién lo movió? Los movimientos de stock de un producto en un rango, con el stock que dejó cada uno.
+     *
+     * @param productoId el ID del producto
+     * @param desde el comienzo del rango, sin incluir
+     * @param hasta el final del rango, incluido; si no viene, ahora mismo
+     * @param limite cuántos movimientos devolver como máximo
+     * @return el historial, del movimiento más viejo al más nuevo
+     */
+    @Operation(
+        summary = "Historial de movimientos de stock de un producto",
+        description = "Ventas, recepciones, ajustes y devoluciones del rango, con el stock inicial y el que dejó cada movimiento"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Aquí 'tá to' lo que se movió!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = HistorialStockDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Las fechas 'tán al revés o el límite no va de 1 a 1000",
+            content = @Content
+        )
+    })
+    @GetMapping("/producto/{productoId}/movimientos")
+    public ResponseEntity<?> obtenerHistorialStock(
+            @Parameter(description = "ID del producto") @PathVariable Long productoId,
+            @Parameter(description = "Comienzo del rango, sin incluir") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Final del rango, incluido; por defecto ahora") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Máximo de movimientos a devolver") @RequestParam(defaultValue = "100") int limite) {
+        try {
+            GetHistorialStockQuery query = new GetHistorialStockQuery(productoId, desde,
+                    hasta != null ? hasta : LocalDateTime.now(), limite);
+            return ResponseEntity.ok(getHistorialStockQueryHandler.handle(query));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Consulta de historial inválida");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * ¡Apártamelo! Reserva unidades de un producto pa' un carrito mientras se cobra, así otra caja no se las lleva.
+     *
+     * Si el carrito ya tenía reservado ese producto, la reserva nueva reemplaza la vieja. La reserva se libera
+     * sola cuando vence, al borrar el carrito, o cuando se guarda la venta con {@code POST /api/ventas?carrito=}.
+     *
+     * @param command el carrito, el producto, las unidades y cuántos segundos dura la reserva
+     * @return la reserva creá'
+     */
+    @Operation(
+        summary = "Reservar stock pa' un carrito",
+        description = "Aparta unidades de un producto durante el cobro; vencen solas si la venta no se confirma"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "¡Apartao'! Nadie más se lo lleva",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ReservaStockDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Falta el carrito o el producto, o las unidades o la duración no sirven",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "No queda stock libre pa' tanto",
+            content = @Content
+        )
+    })
+    @PostMapping("/reservas")
+    public ResponseEntity<?> reservarStock(
+            @Parameter(description = "Datos de la reserva", required = true) @RequestBody ReservarStockCommand command) {
+        try {
+            return new ResponseEntity<>(reservarStockCommandHandler.handle(command), HttpStatus.CREATED);
+        } catch (StockInsuficienteException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+            problema.setTitle("Stock insuficiente");
+            problema.setProperty("productoId", e.getProductoId());
+            problema.setProperty("cantidadSolicitada", e.getCantidadSolicitada());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(problema);
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Reserva inválida");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * Las reservas vivas de un carrito, ¿qué tiene apartao'?
+     *
+     * @param carritoId el ID del carrito
+     * @return las reservas del carrito, vacío si no tiene
+     */
+    @GetMapping("/reservas/{carritoId}")
+    public ResponseEntity<List<ReservaStockDto>> obtenerReservasDeCarrito(
+            @Parameter(description = "ID del carrito") @PathVariable String carritoId) {
+        return ResponseEntity.ok(getReservasByCarritoQueryHandler.handle(new GetReservasByCarritoQuery(carritoId)));
+    }
+
+    /**
+     * El cliente se fue: suelta to' lo que el carrito tenía apartao'.
+     *
+     * @param carritoId el ID del carrito
+     * @return 204 siempre, aunque el carrito no tuviera reservas
+     */
+    @DeleteMapping("/reservas/{carritoId}")
+    public ResponseEntity<Void> liberarReservas(
+            @Parameter(description = "ID del carrito") @PathVariable String carritoId) {
+        liberarReservasCommandHandler.handle(new LiberarReservasCommand(carritoId));
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Get inventory records with low stock.
      *
@@ -261,6 +522,94 @@ public class ControladorInventario {
         return ResponseEntity.ok(listaInventario);
     }
 
+    /**
+     * Plan de reposición: cuánto pedir de cada producto según lo que se ha vendío', ¡sin hoja de cálculo!
+     *
+     * La velocidad de venta sale de los items de venta de los últimos {@code diasVentana} días; con ella se
+     * proyectan los días de cobertura del stock actual y se sugiere pedir lo que falta pa' cubrir
+     * {@code diasCobertura} días, sin pasarse del stockMaximo.
+     *
+     * @param diasVentana los días de ventas que se miran
+     * @param diasCobertura los días que debe aguantar el stock después del pedido
+     * @return el plan, con lo más urgente primero
+     */
+    @Operation(
+        summary = "Plan de reposición por velocidad de venta",
+        description = "Sugiere cantidades a pedir por producto según las ventas recientes, topadas en el stock máximo"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Aquí 'tá el plan! Lo más urgente va primero",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PlanReposicionDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Los días tienen que ir de 1 a 365",
+            content = @Content
+        )
+    })
+    @GetMapping("/reposicion")
+    public ResponseEntity<?> obtenerPlanReposicion(
+            @Parameter(description = "Días de ventas pa' medir la velocidad") @RequestParam(defaultValue = "${supermercado.inventario.reposicion.dias-ventana:28}") int diasVentana,
+            @Parameter(description = "Días que debe cubrir el stock tras el pedido") @RequestParam(defaultValue = "${supermercado.inventario.reposicion.dias-cobertura:14}") int diasCobertura) {
+        try {
+            return ResponseEntity.ok(getPlanReposicionQueryHandler.handle(new GetPlanReposicionQuery(diasVentana, diasCobertura)));
+        } catch (IllegalArgumentException e) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+            problema.setTitle("Parámetros de reposición inválidos");
+            return ResponseEntity.badRequest().body(problema);
+        }
+    }
+
+    /**
+     * Suscripción a los cruces de umbral de stock por Server-Sent Events, ¡sin tener que estar preguntando!
+     *
+     * Cada vez que un inventario baja de su stockMinimo, se pasa de su stockMaximo o vuelve a lo normal,
+     * llega un evento {@code umbral-stock}. Pa' saber cómo 'tá la cosa al conectarse, se llama primero a
+     * {@code GET /api/inventario/bajo-stock}.
+     *
+     * @return el flujo de eventos
+     */
+    @Operation(
+        summary = "Escuchar los cruces de umbral de stock",
+        description = "Flujo text/event-stream que avisa cuando un inventario cruza su stock mínimo o máximo"
+    )
+    @GetMapping(value = "/bajo-stock/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirEventosDeStock() {
+        return difusorEventosStock.suscribir();
+    }
+
+    /**
+     * Totales por ubicación: registros, unidades, valor del stock y cuántos 'tán en bajo stock, ¡pasillo por pasillo!
+     *
+     * Los totales se llevan al día con cada escritura del inventario, así que la respuesta no recorre
+     * el inventario completo; los registros sin ubicación salen al final con ubicación null.
+     *
+     * @return un resumen por ubicación, ordenao' por nombre
+     */
+    @Operation(
+        summary = "Resumen del inventario por ubicación",
+        description = "Unidades, valor y registros con bajo stock de cada pasillo o estante"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "¡Aquí 'tán los totales de cada ubicación!",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ResumenUbicacionDto.class)
+            )
+        )
+    })
+    @GetMapping("/ubicaciones/resumen")
+    public ResponseEntity<List<ResumenUbicacionDto>> obtenerResumenPorUbicacion() {
+        return ResponseEntity.ok(getResumenUbicacionesQueryHandler.handle(new GetResumenUbicacionesQuery()));
+    }
+
     /**
      * Get inventory records by location.
      *
@@ -289,36 +638,20 @@ public class ControladorInventario {
     }
 
     /**
-     * Genera un archivo CSV con todo el inventario.
+     * Genera un archivo CSV con todo el inventario, en orden de ID. Las filas se escriben mientras se leen
+     * de la base de datos, así que la memoria no crece con el inventario, y los campos con comas, comillas
+     * o saltos de línea van entre comillas (RFC 4180).
      *
+     * @param gzip si el archivo se manda comprimido
      * @return un archivo CSV con todo el inventario
      */
     @GetMapping("/csv")
-    public ResponseEntity<String> generarCsvInventario() {
+    public ResponseEntity<StreamingResponseBody> generarCsvInventario(@RequestParam(defaultValue = "false") boolean gzip) {
         GetAllInventariosQuery query = new GetAllInventariosQuery();
-        List<InventarioDto> inventarios = getAllInventariosQueryHandler.handle(query);
-
-        // Crear el contenido del CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("id,producto_id,cantidad,stockMinimo,stockMaximo,fechaUltimaReposicion,ubicacion\n");
-
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-
-        for (InventarioDto inventario : inventarios) {
-            csv.append(inventario.id()).append(",")
-               .append(inventario.producto().id()).append(",")
-               .append(inventario.cantidad()).append(",")
-               .append(inventario.stockMinimo()).append(",")
-               .append(inventario.stockMaximo()).append(",")
-               .append(inventario.fechaUltimaReposicion().format(formatter)).append(",")
-               .append(inventario.ubicacion()).append("\n");
-        }
-
-        // Configurar las cabeceras para la descarga del archivo
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "inventario.csv");
-
-        return new ResponseEntity<>(csv.toString(), headers, HttpStatus.OK);
+        return ExportacionCsv.responder("inventario", gzip, ENCABEZADO_CSV, csv ->
+            getAllInventariosQueryHandler.handle(query, inventario ->
+                csv.escribirFilaEnConsumidor(inventario.id(), inventario.producto().id(), inventario.cantidad(),
+                    inventario.stockMinimo(), inventario.stockMaximo(), inventario.fechaUltimaReposicion(),
+                    inventario.ubicacion())));
     }
 }
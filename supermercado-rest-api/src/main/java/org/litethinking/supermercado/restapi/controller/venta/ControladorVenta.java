@@ -1,18 +1,43 @@
 package org.litethinking.supermercado.restapi.controller.venta;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Hidden;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.application.service.venta.RegistroDiferidoVentas;
 import org.litethinking.supermercado.application.service.venta.ServicioVenta;
+import org.litethinking.supermercado.domain.exception.StockInsuficienteException;
+import org.litethinking.supermercado.restapi.exportacion.EscritorCsv;
+import org.litethinking.supermercado.restapi.exportacion.ExportacionCsv;
+import org.litethinking.supermercado.restapi.idempotencia.AlmacenIdempotencia;
+import org.litethinking.supermercado.shareddto.supermercado.venta.EstadoTicketVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ItemVentaDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.PaginaVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResultadoLoteVentasDto;
+import org.litethinking.supermercado.shareddto.supermercado.venta.ResumenVentasDto;
 import org.litethinking.supermercado.shareddto.supermercado.venta.VentaDto;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 /**
  * REST Controller for Sale operations.
@@ -22,42 +47,135 @@ import java.util.Optional;
 public class ControladorVenta {
 
     private static final Logger logger = LogManager.getLogger(ControladorVenta.class);
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final String CABECERA_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+    private static final int TAMANO_BUFFER_EXPORTACION = 64 * 1024;
+    private static final String[] ENCABEZADO_CSV = {"venta_id", "fecha_venta", "nombre_cliente", "metodo_pago",
+        "monto_total", "producto_id", "producto_nombre", "cantidad", "precio_unitario", "subtotal"};
     private final ServicioVenta servicioVenta;
+    private final ObjectProvider<RegistroDiferidoVentas> registroDiferidoVentas;
+    private final AlmacenIdempotencia almacenIdempotencia;
+    private final ObjectWriter escritorVenta;
 
-    public ControladorVenta(ServicioVenta servicioVenta) {
+    public ControladorVenta(ServicioVenta servicioVenta,
+                            ObjectProvider<RegistroDiferidoVentas> registroDiferidoVentas,
+                            AlmacenIdempotencia almacenIdempotencia,
+                            ObjectMapper objectMapper) {
         this.servicioVenta = servicioVenta;
+        this.registroDiferidoVentas = registroDiferidoVentas;
+        this.almacenIdempotencia = almacenIdempotencia;
+        this.escritorVenta = objectMapper.writerFor(VentaDto.class);
         logger.info("Sale Controller initialized and ready to work");
     }
 
     /**
      * Creates a new sale.
+     * In write-behind mode the sale is only journaled and a 202 with its ticket is returned instead.
      *
+     * A retry sent with the same {@code Idempotency-Key} gets the stored response instead of a second sale.
+     *
+     * When the sale comes from a cart that reserved stock, the cart id lets it take the reserved units and
+     * releases the reservations once it is saved (in write-behind mode, once the flush that persists it commits).
+     *
+     * @param claveIdempotencia optional key identifying retries of the same request
+     * @param carritoId optional id of the cart whose reservations the sale confirms
      * @param ventaDto the sale to create
-     * @return the created sale
+     * @return the created sale, or the ticket of the accepted sale in write-behind mode
      */
     @PostMapping
-    public ResponseEntity<VentaDto> crearVenta(@RequestBody VentaDto ventaDto) {
+    public ResponseEntity<?> crearVenta(
+            @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @RequestParam(value = "carrito", required = false) String carritoId,
+            @RequestBody VentaDto ventaDto) {
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "POST /api/ventas",
+            () -> registrarVenta(ventaDto, carritoId), carritoId, ventaDto);
+    }
+
+    private ResponseEntity<?> registrarVenta(VentaDto ventaDto, String carritoId) {
         logger.info("Creating new sale for customer: {}", ventaDto.nombreCliente());
+        RegistroDiferidoVentas registroDiferido = registroDiferidoVentas.getIfAvailable();
+        if (registroDiferido != null) {
+            return aceptarVentaDiferida(registroDiferido, ventaDto, carritoId);
+        }
         try {
-            VentaDto ventaCreada = servicioVenta.crearVenta(ventaDto);
+            VentaDto ventaCreada = servicioVenta.crearVenta(ventaDto, carritoId);
             logger.info("Sale created successfully! ID: {}, Customer: {}, Total: ${}", 
                 ventaCreada.id(), ventaCreada.nombreCliente(), ventaCreada.montoTotal());
             return new ResponseEntity<>(ventaCreada, HttpStatus.CREATED);
+        } catch (StockInsuficienteException | IllegalArgumentException e) {
+            logger.warn("Sale rejected for customer {}: {}", ventaDto.nombreCliente(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error creating sale for customer: {}", ventaDto.nombreCliente(), e);
             throw e;
         }
     }
 
+    /**
+     * Gets the status of a sale accepted in write-behind mode.
+     *
+     * @param ticket the ticket returned when the sale was accepted
+     * @return the ticket status if found, 404 otherwise
+     */
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<EstadoTicketVentaDto> obtenerEstadoTicket(@PathVariable String ticket) {
+        logger.debug("Finding status of sale ticket: {}", ticket);
+        RegistroDiferidoVentas registroDiferido = registroDiferidoVentas.getIfAvailable();
+        if (registroDiferido == null) {
+            logger.warn("Ticket {} requested but write-behind mode is disabled", ticket);
+            return ResponseEntity.notFound().build();
+        }
+        return registroDiferido.consultarTicket(ticket)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Creates a batch of sales, typically the offline sales a store replays at end of shift.
+     * The sales are written with batched inserts and each one is reported as succeeded or failed.
+     *
+     * @param claveIdempotencia optional key identifying retries of the same request
+     * @param ventasDto the sales to create
+     * @return the per-sale result of the batch
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteVentasDto> crearVentasEnLote(
+            @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @RequestBody List<VentaDto> ventasDto) {
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "POST /api/ventas/lote",
+            () -> registrarVentasEnLote(ventasDto), ventasDto);
+    }
+
+    private ResponseEntity<ResultadoLoteVentasDto> registrarVentasEnLote(List<VentaDto> ventasDto) {
+        logger.info("Creating batch of {} sales", ventasDto.size());
+        try {
+            ResultadoLoteVentasDto resultado = servicioVenta.crearVentasEnLote(ventasDto);
+            logger.info("Sale batch processed! Received: {}, Succeeded: {}, Failed: {}",
+                resultado.totalRecibidas(), resultado.totalExitosas(), resultado.totalFallidas());
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            logger.error("Error processing batch of {} sales", ventasDto.size(), e);
+            throw e;
+        }
+    }
+
     /**
      * Updates an existing sale.
      *
+     * @param claveIdempotencia optional key identifying retries of the same request
      * @param id the ID of the sale to update
      * @param ventaDto the updated sale data
      * @return the updated sale
      */
     @PutMapping("/{id}")
-    public ResponseEntity<VentaDto> actualizarVenta(@PathVariable Long id, @RequestBody VentaDto ventaDto) {
+    public ResponseEntity<VentaDto> actualizarVenta(
+            @RequestHeader(value = AlmacenIdempotencia.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @PathVariable Long id, @RequestBody VentaDto ventaDto) {
+        return almacenIdempotencia.ejecutar(claveIdempotencia, "PUT /api/ventas/" + id,
+            () -> modificarVenta(id, ventaDto), id, ventaDto);
+    }
+
+    private ResponseEntity<VentaDto> modificarVenta(Long id, VentaDto ventaDto) {
         logger.info("Updating sale with ID: {}, Customer: {}", id, ventaDto.nombreCliente());
         try {
             VentaDto ventaActualizada = servicioVenta.actualizarVenta(id, ventaDto);
@@ -96,27 +214,33 @@ public class ControladorVenta {
     }
 
     /**
-     * Gets all sales.
+     * Gets a page of sales ordered by date and id.
+     * When more sales follow, the cursor of the next page is returned in the X-Siguiente-Cursor header
+     * and as a Link header with rel="next".
      *
-     * @return the list of all sales
+     * @param limit the maximum number of sales in the page, 100 when absent
+     * @param after the cursor returned with the previous page, absent for the first page
+     * @return the sales of the page
      */
     @GetMapping
-    public ResponseEntity<List<VentaDto>> obtenerTodasLasVentas() {
-        logger.debug("Finding all sales");
+    public ResponseEntity<List<VentaDto>> obtenerTodasLasVentas(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        logger.debug("Finding page of sales, limit: {}, after: {}", limit, after);
         try {
-            List<VentaDto> ventas = servicioVenta.obtenerTodasLasVentas();
-            logger.info("Found {} sales in total", ventas.size());
+            PaginaVentasDto pagina = leerPagina(limit, after, servicioVenta::obtenerPaginaDeVentas);
+            logger.info("Found {} sales in this page, more pages: {}", pagina.ventas().size(), pagina.siguienteCursor() != null);
 
             // If there are few sales, we can show more details at debug level
-            if (logger.isDebugEnabled() && ventas.size() < 10) {
-                for (VentaDto venta : ventas) {
+            if (logger.isDebugEnabled() && pagina.ventas().size() < 10) {
+                for (VentaDto venta : pagina.ventas()) {
                     logger.debug("Sale ID: {}, Customer: {}, Total: ${}, Date: {}", 
                         venta.id(), venta.nombreCliente(), 
                         venta.montoTotal(), venta.fechaVenta());
                 }
             }
 
-            return ResponseEntity.ok(ventas);
+            return responderPagina(pagina, limit);
         } catch (Exception e) {
             logger.error("Error retrieving the list of sales", e);
             throw e;
@@ -151,27 +275,33 @@ public class ControladorVenta {
     }
 
     /**
-     * Gets sales by customer name.
+     * Gets a page of sales by customer name, ordered by date and id.
      *
      * @param nombreCliente the customer name to search for
-     * @return the list of sales for the customer
+     * @param limit the maximum number of sales in the page, 100 when absent
+     * @param after the cursor returned with the previous page, absent for the first page
+     * @return the sales of the page for the customer
      */
     @GetMapping("/cliente/{nombreCliente}")
-    public ResponseEntity<List<VentaDto>> obtenerVentasPorNombreCliente(@PathVariable String nombreCliente) {
+    public ResponseEntity<List<VentaDto>> obtenerVentasPorNombreCliente(
+            @PathVariable String nombreCliente,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         logger.info("Finding sales for customer: {}", nombreCliente);
         try {
-            List<VentaDto> ventas = servicioVenta.obtenerVentasPorNombreCliente(nombreCliente);
-            logger.info("Found {} sales for customer: {}", ventas.size(), nombreCliente);
+            PaginaVentasDto pagina = leerPagina(limit, after,
+                (cursor, limite) -> servicioVenta.obtenerPaginaDeVentasPorNombreCliente(nombreCliente, cursor, limite));
+            logger.info("Found {} sales in this page for customer: {}", pagina.ventas().size(), nombreCliente);
 
             // Log sale details at debug level
-            if (logger.isDebugEnabled() && !ventas.isEmpty()) {
-                for (VentaDto venta : ventas) {
+            if (logger.isDebugEnabled() && !pagina.ventas().isEmpty()) {
+                for (VentaDto venta : pagina.ventas()) {
                     logger.debug("Sale ID: {}, Customer: {}, Total: ${}, Date: {}", 
                         venta.id(), nombreCliente, venta.montoTotal(), venta.fechaVenta());
                 }
             }
 
-            return ResponseEntity.ok(ventas);
+            return responderPagina(pagina, limit);
         } catch (Exception e) {
             logger.error("Error finding sales for customer: {}", nombreCliente, e);
             throw e;
@@ -179,39 +309,37 @@ public class ControladorVenta {
     }
 
     /**
-     * Gets sales between two dates.
+     * Gets a page of sales between two dates, ordered by date and id.
      *
      * @param fechaInicio the start date
      * @param fechaFin the end date
-     * @return the list of sales between the dates
+     * @param limit the maximum number of sales in the page, 100 when absent
+     * @param after the cursor returned with the previous page, absent for the first page
+     * @return the sales of the page between the dates
      */
     @GetMapping("/fechas")
     public ResponseEntity<List<VentaDto>> obtenerVentasEntreFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         logger.info("Finding sales between {} and {}", fechaInicio, fechaFin);
         try {
-            List<VentaDto> ventas = servicioVenta.obtenerVentasEntreFechas(fechaInicio, fechaFin);
-            logger.info("Found {} sales between those dates", ventas.size());
-
-            // Calculate the total sold to show in the log
-            if (!ventas.isEmpty()) {
-                double totalVendido = ventas.stream()
-                    .mapToDouble(v -> v.montoTotal().doubleValue())
-                    .sum();
-                logger.info("Total sold in that period: ${}", totalVendido);
-
-                // Log sale IDs at debug level
-                if (logger.isDebugEnabled()) {
-                    String ventasIds = ventas.stream()
-                        .map(v -> v.id().toString())
-                        .reduce((a, b) -> a + ", " + b)
-                        .orElse("");
-                    logger.debug("Sale IDs found: {}", ventasIds);
-                }
+            PaginaVentasDto pagina = leerPagina(limit, after,
+                (cursor, limite) -> servicioVenta.obtenerPaginaDeVentasEntreFechas(fechaInicio, fechaFin, cursor, limite));
+            List<VentaDto> ventas = pagina.ventas();
+            logger.info("Found {} sales in this page between those dates", ventas.size());
+
+            // Log sale IDs at debug level
+            if (logger.isDebugEnabled() && !ventas.isEmpty()) {
+                String ventasIds = ventas.stream()
+                    .map(v -> v.id().toString())
+                    .reduce((a, b) -> a + ", " + b)
+                    .orElse("");
+                logger.debug("Sale IDs found: {}", ventasIds);
             }
 
-            return ResponseEntity.ok(ventas);
+            return responderPagina(pagina, limit);
         } catch (Exception e) {
             logger.error("Error finding sales between {} and {}", fechaInicio, fechaFin, e);
             throw e;
@@ -219,39 +347,202 @@ public class ControladorVenta {
     }
 
     /**
-     * Gets sales by payment method.
+     * Gets the sales totals of a range of days, per day and payment method.
+     * Answered from the daily rollups, so the cost grows with the number of days, not of sales.
+     *
+     * @param fechaInicio the first day, open-ended if absent
+     * @param fechaFin the last day, open-ended if absent
+     * @return the totals of the range
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<ResumenVentasDto> obtenerResumenVentas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        logger.info("Finding sales summary between {} and {}", fechaInicio, fechaFin);
+        try {
+            ResumenVentasDto resumen = servicioVenta.obtenerResumenVentas(fechaInicio, fechaFin);
+            logger.info("Sales summary: {} sales, total: ${}, over {} day/payment method rows",
+                resumen.cantidadVentas(), resumen.montoTotal(), resumen.dias().size());
+            return ResponseEntity.ok(resumen);
+        } catch (Exception e) {
+            logger.error("Error finding sales summary between {} and {}", fechaInicio, fechaFin, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports the sales between two dates as NDJSON (one sale per line) or as CSV (one item per line).
+     * The sales are written while they are read from the database, so memory use does not depend on
+     * the size of the range and the first sale is sent as soon as it is read.
+     *
+     * @param fechaInicio the start date
+     * @param fechaFin the end date
+     * @param formato ndjson (default) or csv
+     * @param gzip whether to compress the CSV file; ignored for NDJSON
+     * @return the streamed export
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarVentasEntreFechas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("Exporting sales between {} and {} as {}", fechaInicio, fechaFin, formato);
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ExportacionCsv.responder("ventas", gzip, ENCABEZADO_CSV,
+                csv -> exportarCsv(fechaInicio, fechaFin, csv));
+        }
+        if (!"ndjson".equalsIgnoreCase(formato)) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(salida -> exportarNdjson(fechaInicio, fechaFin, salida));
+    }
+
+    /**
+     * Gets a page of sales by payment method, ordered by date and id.
      *
      * @param metodoPago the payment method to search for
-     * @return the list of sales with the payment method
+     * @param limit the maximum number of sales in the page, 100 when absent
+     * @param after the cursor returned with the previous page, absent for the first page
+     * @return the sales of the page with the payment method
      */
     @GetMapping("/metodo-pago/{metodoPago}")
-    public ResponseEntity<List<VentaDto>> obtenerVentasPorMetodoPago(@PathVariable String metodoPago) {
+    public ResponseEntity<List<VentaDto>> obtenerVentasPorMetodoPago(
+            @PathVariable String metodoPago,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         logger.info("Finding sales with payment method: {}", metodoPago);
         try {
-            List<VentaDto> ventas = servicioVenta.obtenerVentasPorMetodoPago(metodoPago);
-            logger.info("Found {} sales with payment method '{}'", ventas.size(), metodoPago);
-
-            // Calculate the total sold with this payment method
-            if (!ventas.isEmpty()) {
-                double totalVendido = ventas.stream()
-                    .mapToDouble(v -> v.montoTotal().doubleValue())
-                    .sum();
-                logger.info("Total sold with {}: ${}", metodoPago, totalVendido);
-
-                // Log sale details at debug level
-                if (logger.isDebugEnabled()) {
-                    for (VentaDto venta : ventas) {
-                        logger.debug("Sale ID: {}, Customer: {}, Total: ${}, Date: {}", 
-                            venta.id(), venta.nombreCliente(), 
-                            venta.montoTotal(), venta.fechaVenta());
-                    }
+            PaginaVentasDto pagina = leerPagina(limit, after,
+                (cursor, limite) -> servicioVenta.obtenerPaginaDeVentasPorMetodoPago(metodoPago, cursor, limite));
+            List<VentaDto> ventas = pagina.ventas();
+            logger.info("Found {} sales in this page with payment method '{}'", ventas.size(), metodoPago);
+
+            // Log sale details at debug level
+            if (logger.isDebugEnabled() && !ventas.isEmpty()) {
+                for (VentaDto venta : ventas) {
+                    logger.debug("Sale ID: {}, Customer: {}, Total: ${}, Date: {}", 
+                        venta.id(), venta.nombreCliente(), 
+                        venta.montoTotal(), venta.fechaVenta());
                 }
             }
 
-            return ResponseEntity.ok(ventas);
+            return responderPagina(pagina, limit);
         } catch (Exception e) {
             logger.error("Error finding sales with payment method: {}", metodoPago, e);
             throw e;
         }
     }
+
+    private void exportarNdjson(LocalDateTime fechaInicio, LocalDateTime fechaFin, OutputStream salida) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(salida, TAMANO_BUFFER_EXPORTACION);
+        long[] exportadas = {0};
+        try {
+            servicioVenta.exportarVentasEntreFechas(fechaInicio, fechaFin, venta -> {
+                try {
+                    buffer.write(escritorVenta.writeValueAsBytes(venta));
+                    buffer.write('\n');
+                    if (++exportadas[0] == 1) {
+                        buffer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffer.flush();
+        logger.info("Exported {} sales between {} and {} as NDJSON", exportadas[0], fechaInicio, fechaFin);
+    }
+
+    private void exportarCsv(LocalDateTime fechaInicio, LocalDateTime fechaFin, EscritorCsv csv) {
+        long[] exportadas = {0};
+        servicioVenta.exportarVentasEntreFechas(fechaInicio, fechaFin, venta -> {
+            if (venta.items() == null || venta.items().isEmpty()) {
+                csv.escribirFilaEnConsumidor(venta.id(), venta.fechaVenta(), venta.nombreCliente(), venta.metodoPago(),
+                    venta.montoTotal(), null, null, null, null, null);
+            } else {
+                for (ItemVentaDto item : venta.items()) {
+                    csv.escribirFilaEnConsumidor(venta.id(), venta.fechaVenta(), venta.nombreCliente(), venta.metodoPago(),
+                        venta.montoTotal(), item.producto().id(), item.producto().nombre(), item.cantidad(),
+                        item.precioUnitario(), item.subtotal());
+                }
+            }
+            exportadas[0]++;
+        });
+        logger.info("Exported {} sales between {} and {} as CSV", exportadas[0], fechaInicio, fechaFin);
+    }
+
+    /**
+     * Reads the page the client asked for, 100 sales when it sends no limit. A listing is never returned
+     * whole: a client that ignores the cursor still learns from the headers that more sales follow.
+     */
+    private PaginaVentasDto leerPagina(Integer limit, String after, BiFunction<String, Integer, PaginaVentasDto> pagina) {
+        return pagina.apply(after, limit != null ? limit : LIMITE_POR_DEFECTO);
+    }
+
+    /**
+     * Builds the response of a page: the sales as a JSON array and, when more sales follow,
+     * the next cursor in the X-Siguiente-Cursor header plus a Link header to the next page.
+     */
+    private ResponseEntity<List<VentaDto>> responderPagina(PaginaVentasDto pagina, Integer limit) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.siguienteCursor() != null) {
+            String siguientePagina = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", pagina.siguienteCursor())
+                .replaceQueryParam("limit", limit != null ? limit : LIMITE_POR_DEFECTO)
+                .build()
+                .toUriString();
+            respuesta.header(CABECERA_SIGUIENTE_CURSOR, pagina.siguienteCursor())
+                .header(HttpHeaders.LINK, "<" + siguientePagina + ">; rel=\"next\"");
+        }
+        return respuesta.body(pagina.ventas());
+    }
+
+    private ResponseEntity<EstadoTicketVentaDto> aceptarVentaDiferida(RegistroDiferidoVentas registroDiferido,
+                                                                      VentaDto ventaDto, String carritoId) {
+        Optional<EstadoTicketVentaDto> ticket = registroDiferido.aceptar(ventaDto, carritoId);
+        if (ticket.isEmpty()) {
+            logger.warn("Write-behind queue is full, rejecting sale for customer: {}", ventaDto.nombreCliente());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+        }
+        logger.info("Sale accepted for customer: {}, Ticket: {}", ventaDto.nombreCliente(), ticket.get().ticket());
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/ventas/tickets/" + ticket.get().ticket()))
+            .body(ticket.get());
+    }
+
+    /**
+     * Turns a stock shortage during checkout into a 409 Conflict response.
+     * The sale was rolled back, so no stock was decremented.
+     *
+     * @param e the exception raised by the checkout
+     * @return the problem detail describing the shortage
+     */
+    @ExceptionHandler(StockInsuficienteException.class)
+    public ResponseEntity<ProblemDetail> manejarStockInsuficiente(StockInsuficienteException e) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problema.setTitle("Stock insuficiente");
+        problema.setProperty("productoId", e.getProductoId());
+        problema.setProperty("cantidadSolicitada", e.getCantidadSolicitada());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problema);
+    }
+
+    /**
+     * Turns an invalid pagination cursor or a reference to a missing product into a 400 Bad Request.
+     *
+     * @param e the exception raised by the service
+     * @return the problem detail describing the invalid request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ProblemDetail> manejarArgumentoInvalido(IllegalArgumentException e) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+        problema.setTitle("Petición inválida");
+        return ResponseEntity.badRequest().body(problema);
+    }
 }
@@ -0,0 +1,85 @@
+package org.litethinking.supermercado.restapi.eventos;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.shareddto.supermercado.inventario.EventoUmbralStockDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes stock threshold crossings to the Server-Sent Events subscribers of
+ * {@code GET /api/inventario/bajo-stock/eventos}.
+ * Events arrive on the thread that committed the change, so they are handed to a single sender thread:
+ * a slow subscriber never holds up a till, and every subscriber sees the events in publication order.
+ */
+@Component
+public class DifusorEventosStock {
+
+    public static final String NOMBRE_EVENTO = "umbral-stock";
+
+    private static final Logger logger = LogManager.getLogger(DifusorEventosStock.class);
+
+    private final List<SseEmitter> suscriptores = new CopyOnWriteArrayList<>();
+    private final ExecutorService emisor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "difusor-eventos-stock");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final long tiempoEsperaMs;
+
+    public DifusorEventosStock(@Value("${supermercado.inventario.eventos.tiempo-espera:PT30M}") Duration tiempoEspera) {
+        this.tiempoEsperaMs = tiempoEspera.toMillis();
+    }
+
+    /**
+     * Registers a new subscriber; it is dropped when it times out, disconnects or fails to receive.
+     *
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(tiempoEsperaMs);
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(error -> suscriptores.remove(emitter));
+        suscriptores.add(emitter);
+        logger.debug("New stock event subscriber, {} connected", suscriptores.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void alCruzarUmbral(EventoUmbralStockDto evento) {
+        if (!suscriptores.isEmpty()) {
+            emisor.execute(() -> difundir(evento));
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        emisor.shutdownNow();
+        suscriptores.forEach(SseEmitter::complete);
+    }
+
+    private void difundir(EventoUmbralStockDto evento) {
+        for (SseEmitter emitter : suscriptores) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(NOMBRE_EVENTO)
+                        .id(evento.inventarioId() + "-" + evento.instante().toEpochMilli())
+                        .data(evento));
+            } catch (IOException | IllegalStateException e) {
+                suscriptores.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
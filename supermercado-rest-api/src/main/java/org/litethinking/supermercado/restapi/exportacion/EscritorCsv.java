@@ -0,0 +1,85 @@
+package org.litethinking.supermercado.restapi.exportacion;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Minimal RFC 4180 CSV writer: fields containing commas, quotes or line breaks are quoted,
+ * embedded quotes are doubled and every record ends in CRLF. Null fields are written empty.
+ * Writes straight to the underlying writer, so rows can be streamed as they are produced.
+ */
+public class EscritorCsv implements Flushable {
+
+    private static final String FIN_DE_REGISTRO = "\r\n";
+
+    private final Writer salida;
+
+    public EscritorCsv(Writer salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @param campos the values of the record; each one is written with {@code toString()}
+     * @throws IOException if the record cannot be written
+     */
+    public void escribirFila(Object... campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                salida.write(',');
+            }
+            if (campos[i] != null) {
+                escribirCampo(campos[i].toString());
+            }
+        }
+        salida.write(FIN_DE_REGISTRO);
+    }
+
+    /**
+     * Writes one record from a callback that cannot throw checked exceptions, like a row consumer.
+     *
+     * @param campos the values of the record
+     * @throws UncheckedIOException wrapping the error if the record cannot be written
+     */
+    public void escribirFilaEnConsumidor(Object... campos) {
+        try {
+            escribirFila(campos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        salida.flush();
+    }
+
+    private void escribirCampo(String valor) throws IOException {
+        if (!requiereComillas(valor)) {
+            salida.write(valor);
+            return;
+        }
+        salida.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char caracter = valor.charAt(i);
+            if (caracter == '"') {
+                salida.write('"');
+            }
+            salida.write(caracter);
+        }
+        salida.write('"');
+    }
+
+    private static boolean requiereComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char caracter = valor.charAt(i);
+            if (caracter == ',' || caracter == '"' || caracter == '\r' || caracter == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
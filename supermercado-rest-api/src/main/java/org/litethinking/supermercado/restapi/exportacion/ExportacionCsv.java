@@ -0,0 +1,77 @@
+package org.litethinking.supermercado.restapi.exportacion;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds streamed CSV downloads. The rows are written to the response while they are produced, through
+ * a fixed-size buffer and optionally a gzip stream, so heap use does not depend on how many rows there are.
+ *
+ * <p>Plain exports are sent as {@code text/csv}; gzip exports as {@code application/gzip} with a
+ * {@code .csv.gz} file name, so they are saved compressed instead of being decoded by the client.</p>
+ */
+public final class ExportacionCsv {
+
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private ExportacionCsv() {
+    }
+
+    /**
+     * Writes the rows of an export. Rows written from a consumer with
+     * {@link EscritorCsv#escribirFilaEnConsumidor} may throw {@link UncheckedIOException}; it is unwrapped.
+     */
+    @FunctionalInterface
+    public interface Filas {
+        void escribir(EscritorCsv csv) throws IOException;
+    }
+
+    /**
+     * @param nombreArchivo the file name without extension
+     * @param gzip whether to compress the file
+     * @param encabezado the names of the columns, written and flushed before the first row
+     * @param filas writes the rows
+     * @return the streamed download
+     */
+    public static ResponseEntity<StreamingResponseBody> responder(String nombreArchivo, boolean gzip,
+                                                                  String[] encabezado, Filas filas) {
+        String archivo = gzip ? nombreArchivo + ".csv.gz" : nombreArchivo + ".csv";
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archivo).build().toString())
+                .body(salida -> escribir(salida, gzip, encabezado, filas));
+    }
+
+    private static void escribir(OutputStream salida, boolean gzip, String[] encabezado, Filas filas)
+            throws IOException {
+        GZIPOutputStream comprimida = gzip ? new GZIPOutputStream(salida, TAMANO_BUFFER) : null;
+        EscritorCsv csv = new EscritorCsv(new BufferedWriter(new OutputStreamWriter(
+                comprimida != null ? comprimida : salida, StandardCharsets.UTF_8), TAMANO_BUFFER));
+        csv.escribirFila((Object[]) encabezado);
+        csv.flush();
+        try {
+            filas.escribir(csv);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+        if (comprimida != null) {
+            // Writes the gzip trailer; the servlet container owns the response stream and closes it
+            comprimida.finish();
+        }
+    }
+}
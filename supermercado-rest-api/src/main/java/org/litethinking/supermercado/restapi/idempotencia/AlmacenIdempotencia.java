@@ -0,0 +1,267 @@
+package org.litethinking.supermercado.restapi.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.litethinking.supermercado.shareddto.supermercado.EstadisticasIdempotenciaDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicted store of the responses to write requests sent with an {@code Idempotency-Key} header.
+ * The keys are spread over lock-striped segments; each segment keeps its entries in insertion order, so
+ * expired entries are purged from the head and the oldest entry is evicted when the segment is full.
+ *
+ * <p>The first request for a key runs the command and publishes its response through a future; duplicates
+ * that arrive while it is in flight wait on that same future instead of running the command again, so an
+ * entry is never evicted while its command runs. A duplicate waits at most
+ * {@code supermercado.idempotencia.espera-maxima}; past that it gets a 409 Conflict with {@code Retry-After},
+ * and the command keeps running for the first request. Only successful (2xx) responses are kept: errors are
+ * not cached, so the client can retry them.</p>
+ *
+ * <p>A key is bound to its request by the SHA-256 of the request values serialized as JSON with sorted
+ * properties, so a reused key is told apart from a retry without keeping the body.</p>
+ */
+@Component
+public class AlmacenIdempotencia {
+
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final Logger logger = LogManager.getLogger(AlmacenIdempotencia.class);
+    private static final int CANTIDAD_SEGMENTOS = 16;
+    private static final String SEGUNDOS_REINTENTO = "1";
+
+    private final Segmento[] segmentos = new Segmento[CANTIDAD_SEGMENTOS];
+    private final long ttlNanos;
+    private final long esperaMaximaNanos;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+    private final ObjectMapper mapeadorCanonico = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    public AlmacenIdempotencia(@Value("${supermercado.idempotencia.capacidad:10000}") int capacidad,
+                               @Value("${supermercado.idempotencia.ttl:PT24H}") Duration ttl,
+                               @Value("${supermercado.idempotencia.espera-maxima:PT30S}") Duration esperaMaxima) {
+        int capacidadSegmento = Math.max(1, capacidad / CANTIDAD_SEGMENTOS);
+        for (int i = 0; i < CANTIDAD_SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(capacidadSegmento);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    /**
+     * Runs the command once per idempotency key and returns its stored response on every repetition.
+     *
+     * @param clave the {@code Idempotency-Key} header, or null to run the command without idempotency
+     * @param alcance the operation the key belongs to, e.g. {@code POST /api/ventas}
+     * @param accion the command to run
+     * @param peticion the request values (path variables, query parameters and body) used to detect a reused key
+     * @return the response of the first execution for this key, or 409 Conflict with {@code Retry-After} when
+     * it is still running after the maximum wait
+     * @throws ClaveIdempotenciaReutilizadaException if the key was used with a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends ResponseEntity<?>> R ejecutar(String clave, String alcance, Supplier<R> accion, Object... peticion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        String claveCompleta = alcance + '|' + clave;
+        byte[] huella = huella(peticion);
+        Segmento segmento = segmentos[(claveCompleta.hashCode() & 0x7fffffff) % CANTIDAD_SEGMENTOS];
+
+        Entrada entrada;
+        boolean propietario = false;
+        segmento.bloqueo.lock();
+        try {
+            long ahora = System.nanoTime();
+            segmento.purgarExpiradas(ahora);
+            entrada = segmento.entradas.get(claveCompleta);
+            if (entrada != null) {
+                if (!MessageDigest.isEqual(entrada.huella, huella)) {
+                    throw new ClaveIdempotenciaReutilizadaException(clave);
+                }
+                aciertos.increment();
+            } else {
+                fallos.increment();
+                entrada = new Entrada(huella, ahora + ttlNanos);
+                segmento.entradas.put(claveCompleta, entrada);
+                segmento.recortar();
+                propietario = true;
+            }
+        } finally {
+            segmento.bloqueo.unlock();
+        }
+
+        if (!propietario) {
+            logger.debug("Replaying stored response for idempotency key {} on {}", clave, alcance);
+            ResponseEntity<?> respuesta = esperar(entrada.respuesta);
+            if (respuesta == null) {
+                logger.info("Idempotency key {} on {} is still in flight, asking the client to retry", clave, alcance);
+                return (R) enCurso(clave);
+            }
+            return (R) ResponseEntity.status(respuesta.getStatusCode())
+                    .headers(respuesta.getHeaders())
+                    .header(CABECERA_REPETIDA, "true")
+                    .body(respuesta.getBody());
+        }
+
+        try {
+            R respuesta = accion.get();
+            if (!respuesta.getStatusCode().is2xxSuccessful()) {
+                segmento.eliminar(claveCompleta, entrada);
+            }
+            entrada.respuesta.complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException e) {
+            segmento.eliminar(claveCompleta, entrada);
+            entrada.respuesta.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the store counters.
+     *
+     * @return the hits, misses, evictions and current number of entries
+     */
+    public EstadisticasIdempotenciaDto obtenerEstadisticas() {
+        int totalEntradas = 0;
+        for (Segmento segmento : segmentos) {
+            segmento.bloqueo.lock();
+            try {
+                totalEntradas += segmento.entradas.size();
+            } finally {
+                segmento.bloqueo.unlock();
+            }
+        }
+        return new EstadisticasIdempotenciaDto(aciertos.sum(), fallos.sum(), expulsiones.sum(), totalEntradas);
+    }
+
+    private byte[] huella(Object[] peticion) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(mapeadorCanonico.writeValueAsBytes(peticion));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo leer la petición asociada a la clave de idempotencia", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    /**
+     * Waits for the response of the request in flight, at most the configured time.
+     *
+     * @return the response, or null if it is not ready in time
+     */
+    private ResponseEntity<?> esperar(CompletableFuture<ResponseEntity<?>> respuesta) {
+        try {
+            return respuesta.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ResponseEntity<ProblemDetail> enCurso(String clave) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "La petición con la clave de idempotencia " + clave + " todavía está en curso");
+        problema.setTitle("Petición en curso");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO)
+                .body(problema);
+    }
+
+    private static final class Entrada {
+        private final byte[] huella;
+        private final long expiraEn;
+        private final CompletableFuture<ResponseEntity<?>> respuesta = new CompletableFuture<>();
+
+        private Entrada(byte[] huella, long expiraEn) {
+            this.huella = huella;
+            this.expiraEn = expiraEn;
+        }
+    }
+
+    private final class Segmento {
+        private final ReentrantLock bloqueo = new ReentrantLock();
+        private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+        private final int capacidad;
+
+        private Segmento(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        /**
+         * Removes the expired entries from the head, skipping the ones whose command is still running.
+         */
+        private void purgarExpiradas(long ahora) {
+            Iterator<Entrada> iterador = entradas.values().iterator();
+            while (iterador.hasNext()) {
+                Entrada entrada = iterador.next();
+                if (entrada.expiraEn - ahora > 0) {
+                    return;
+                }
+                if (entrada.respuesta.isDone()) {
+                    iterador.remove();
+                    expulsiones.increment();
+                }
+            }
+        }
+
+        /**
+         * Evicts the oldest completed entries until the segment fits its capacity. Entries in flight are kept,
+         * so a segment may go over capacity by the number of commands running on it.
+         */
+        private void recortar() {
+            Iterator<Entrada> iterador = entradas.values().iterator();
+            while (entradas.size() > capacidad && iterador.hasNext()) {
+                if (iterador.next().respuesta.isDone()) {
+                    iterador.remove();
+                    expulsiones.increment();
+                }
+            }
+        }
+
+        private void eliminar(String clave, Entrada entrada) {
+            bloqueo.lock();
+            try {
+                entradas.remove(clave, entrada);
+            } finally {
+                bloqueo.unlock();
+            }
+        }
+    }
+}
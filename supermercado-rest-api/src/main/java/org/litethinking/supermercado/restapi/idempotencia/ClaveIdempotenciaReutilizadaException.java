@@ -0,0 +1,15 @@
+package org.litethinking.supermercado.restapi.idempotencia;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Raised when an idempotency key is sent again with a different request body.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ClaveIdempotenciaReutilizadaException(String clave) {
+        super("La clave de idempotencia " + clave + " ya se usó con una petición diferente");
+    }
+}
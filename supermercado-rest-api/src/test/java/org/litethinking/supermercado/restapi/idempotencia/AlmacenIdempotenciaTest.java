@@ -0,0 +1,203 @@
+package org.litethinking.supermercado.restapi.idempotencia;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlmacenIdempotenciaTest {
+
+    private static final String ALCANCE = "POST /api/ventas";
+
+    private final AlmacenIdempotencia almacen = new AlmacenIdempotencia(10_000, Duration.ofHours(24),
+            Duration.ofSeconds(5));
+
+    @Test
+    void ejecutar_ShouldReplayTheStoredResponse_WithoutRunningTheCommandAgain() {
+        // Arrange
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Act
+        ResponseEntity<String> primera = almacen.ejecutar("clave-1", ALCANCE,
+                () -> creada("venta-" + ejecuciones.incrementAndGet()), null, Map.of("total", 10));
+        ResponseEntity<String> repetida = almacen.ejecutar("clave-1", ALCANCE,
+                () -> creada("venta-" + ejecuciones.incrementAndGet()), null, Map.of("total", 10));
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+        assertEquals(primera.getBody(), repetida.getBody());
+        assertNull(primera.getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA));
+        assertEquals("true", repetida.getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA));
+    }
+
+    @Test
+    void ejecutar_ShouldReject_WhenTheKeyIsReusedWithADifferentBody() {
+        // Arrange
+        almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-1"), null, Map.of("total", 10));
+
+        // Act & Assert
+        assertThrows(ClaveIdempotenciaReutilizadaException.class,
+                () -> almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-2"), null, Map.of("total", 11)));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                ClaveIdempotenciaReutilizadaException.class.getAnnotation(ResponseStatus.class).value());
+    }
+
+    @Test
+    void ejecutar_ShouldReject_WhenTheKeyIsReusedForAnotherCart() {
+        // Arrange
+        almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-1"), "carrito-1", Map.of("total", 10));
+
+        // Act & Assert
+        assertThrows(ClaveIdempotenciaReutilizadaException.class,
+                () -> almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-2"), "carrito-2", Map.of("total", 10)));
+    }
+
+    @Test
+    void ejecutar_ShouldMatchTheSameBody_WhateverTheOrderOfItsProperties() {
+        // Arrange
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Map<String, Object> cuerpo = Map.of("cliente", "Ana", "total", 10, "metodoPago", "Efectivo");
+
+        // Act
+        almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-" + ejecuciones.incrementAndGet()), cuerpo);
+        almacen.ejecutar("clave-1", ALCANCE, () -> creada("venta-" + ejecuciones.incrementAndGet()),
+                Map.of("total", 10, "metodoPago", "Efectivo", "cliente", "Ana"));
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_ShouldRunTheCommandOnce_WhenDuplicatesArriveWhileItIsInFlight() throws Exception {
+        // Arrange
+        int duplicados = 8;
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(duplicados + 1);
+
+        // Act
+        Future<ResponseEntity<String>> primera = pool.submit(() -> almacen.ejecutar("clave-1", ALCANCE, () -> {
+            ejecuciones.incrementAndGet();
+            enCurso.countDown();
+            esperar(liberar);
+            return creada("venta-1");
+        }, Map.of("total", 10)));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        List<Future<ResponseEntity<String>>> repetidas = new ArrayList<>();
+        for (int i = 0; i < duplicados; i++) {
+            repetidas.add(pool.submit(() -> almacen.ejecutar("clave-1", ALCANCE, () -> {
+                ejecuciones.incrementAndGet();
+                return creada("otra");
+            }, Map.of("total", 10))));
+        }
+        liberar.countDown();
+
+        // Assert
+        assertEquals("venta-1", primera.get(5, TimeUnit.SECONDS).getBody());
+        for (Future<ResponseEntity<String>> repetida : repetidas) {
+            assertEquals("venta-1", repetida.get(5, TimeUnit.SECONDS).getBody());
+        }
+        assertEquals(1, ejecuciones.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void ejecutar_ShouldNeverEvictAnEntryInFlight_WhenTheStoreIsFull() throws Exception {
+        // Arrange: one place per segment, so every other key competes with the one in flight
+        AlmacenIdempotencia pequeno = new AlmacenIdempotencia(1, Duration.ofHours(24), Duration.ofSeconds(5));
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<ResponseEntity<String>> primera = pool.submit(() -> pequeno.ejecutar("lenta", ALCANCE, () -> {
+            ejecuciones.incrementAndGet();
+            enCurso.countDown();
+            esperar(liberar);
+            return creada("venta-lenta");
+        }, Map.of("total", 10)));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Act: fill every segment many times over, then repeat the key still in flight
+        for (int i = 0; i < 500; i++) {
+            int numero = i;
+            pequeno.ejecutar("rapida-" + i, ALCANCE, () -> creada("venta-" + numero), Map.of("total", i));
+        }
+        Future<ResponseEntity<String>> repetida = pool.submit(() -> pequeno.ejecutar("lenta", ALCANCE, () -> {
+            ejecuciones.incrementAndGet();
+            return creada("duplicada");
+        }, Map.of("total", 10)));
+        liberar.countDown();
+
+        // Assert
+        assertEquals("venta-lenta", primera.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("venta-lenta", repetida.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, ejecuciones.get());
+        assertTrue(pequeno.obtenerEstadisticas().expulsiones() > 0);
+        pool.shutdown();
+    }
+
+    @Test
+    void ejecutar_ShouldAnswerConflictWithRetryAfter_WhenTheFirstRequestOutlastsTheMaximumWait() throws Exception {
+        // Arrange
+        AlmacenIdempotencia impaciente = new AlmacenIdempotencia(10_000, Duration.ofHours(24), Duration.ofMillis(50));
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<ResponseEntity<String>> primera = pool.submit(() -> impaciente.ejecutar("clave-1", ALCANCE, () -> {
+            ejecuciones.incrementAndGet();
+            enCurso.countDown();
+            esperar(liberar);
+            return creada("venta-1");
+        }, Map.of("total", 10)));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Act
+        ResponseEntity<?> repetida = impaciente.ejecutar("clave-1", ALCANCE, () -> {
+            ejecuciones.incrementAndGet();
+            return creada("otra");
+        }, Map.of("total", 10));
+        liberar.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, repetida.getStatusCode());
+        assertEquals("1", repetida.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Petición en curso", ((ProblemDetail) repetida.getBody()).getTitle());
+        assertEquals("venta-1", primera.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("venta-1", impaciente.ejecutar("clave-1", ALCANCE, () -> creada("otra"), Map.of("total", 10)).getBody());
+        assertEquals(1, ejecuciones.get());
+        pool.shutdown();
+    }
+
+    private static ResponseEntity<String> creada(String cuerpo) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(cuerpo);
+    }
+
+    private static void esperar(CountDownLatch liberar) {
+        try {
+            liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.litethinking.supermercado.shareddto.cqrs.commands;
+
+import org.litethinking.supermercado.shareddto.supermercado.inventario.AjusteInventarioDto;
+
+import java.util.List;
+
+/**
+ * Command for applying a batch of relative stock adjustments, e.g. a goods receipt.
+ * This is an immutable record class that represents the command to adjust many inventory records at once.
+ */
+public record AjustarInventarioLoteCommand(
+    List<AjusteInventarioDto> ajustes
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,11 @@
+package org.litethinking.supermercado.shareddto.cqrs.commands;
+
+/**
+ * Command for releasing every stock reservation of a cart, e.g. when the customer abandons it.
+ * This is an immutable record class that represents the command to release a cart.
+ */
+public record LiberarReservasCommand(
+    String carritoId
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,14 @@
+package org.litethinking.supermercado.shareddto.cqrs.commands;
+
+/**
+ * Command for reserving units of a product for a cart.
+ * This is an immutable record class; segundos is how long the reservation lives, the default when missing.
+ */
+public record ReservarStockCommand(
+    String carritoId,
+    Long productoId,
+    Integer unidades,
+    Integer segundos
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,17 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query for getting the stock movements of a product in a time interval.
+ * This is an immutable record class that represents the stock history query; desde is excluded,
+ * hasta included, and at most limite movements are returned.
+ */
+public record GetHistorialStockQuery(
+    Long productoId,
+    LocalDateTime desde,
+    LocalDateTime hasta,
+    int limite
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
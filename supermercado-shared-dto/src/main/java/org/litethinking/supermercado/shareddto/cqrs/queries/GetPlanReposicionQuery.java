@@ -0,0 +1,13 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+/**
+ * Query for getting the replenishment plan.
+ * This is an immutable record class with the sales window used to measure velocity
+ * and the days of cover the suggested orders should reach.
+ */
+public record GetPlanReposicionQuery(
+    int diasVentana,
+    int diasCobertura
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -5,13 +5,24 @@ import java.math.BigDecimal;
 /**
  * Query DTO for retrieving products by various filters.
  * This is an immutable record class that represents a query to get products by filter.
- * All fields are optional and can be null, indicating that the filter should not be applied.
+ * All fields are optional and can be null, indicating that the filter should not be applied;
+ * the filters that are given are combined. pagina, tamano, ordenarPor and direccion only apply to paged queries.
  */
 public record GetProductsByFilterQuery(
     String categoria,
     BigDecimal precioMinimo,
     BigDecimal precioMaximo,
-    String codigoBarras
+    String codigoBarras,
+    String nombre,
+    Integer pagina,
+    Integer tamano,
+    String ordenarPor,
+    String direccion
 ) {
     // Records automatically provide getters, equals, hashCode, and toString methods
-}
\ No newline at end of file
+
+    public GetProductsByFilterQuery(String categoria, BigDecimal precioMinimo, BigDecimal precioMaximo,
+                                    String codigoBarras) {
+        this(categoria, precioMinimo, precioMaximo, codigoBarras, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,18 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+import java.math.BigDecimal;
+
+/**
+ * Query DTO for retrieving products by price, cheapest first.
+ * This is an immutable record class that represents a query to get one page of the products in a price range.
+ * Both bounds and the category are optional; the page defaults to the first one and the size to 20.
+ */
+public record GetProductsByPriceQuery(
+    BigDecimal precioMinimo,
+    BigDecimal precioMaximo,
+    String categoria,
+    Integer pagina,
+    Integer tamano
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
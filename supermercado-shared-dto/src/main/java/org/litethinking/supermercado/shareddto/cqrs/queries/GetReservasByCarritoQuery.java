@@ -0,0 +1,11 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+/**
+ * Query for getting the live stock reservations of a cart.
+ * This is an immutable record class that represents the query to get the reservations by cart id.
+ */
+public record GetReservasByCarritoQuery(
+    String carritoId
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
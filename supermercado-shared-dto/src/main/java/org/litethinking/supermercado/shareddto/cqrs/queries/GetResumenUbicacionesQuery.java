@@ -0,0 +1,9 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+/**
+ * Query for getting the inventory totals of every location.
+ * This is an immutable record class that represents the query to get the per-location summary.
+ */
+public record GetResumenUbicacionesQuery() {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
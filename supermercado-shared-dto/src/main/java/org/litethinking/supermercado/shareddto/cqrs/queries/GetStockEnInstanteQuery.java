@@ -0,0 +1,14 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query for getting the stock a product had at a given instant.
+ * This is an immutable record class that represents the point-in-time stock query.
+ */
+public record GetStockEnInstanteQuery(
+    Long productoId,
+    LocalDateTime instante
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
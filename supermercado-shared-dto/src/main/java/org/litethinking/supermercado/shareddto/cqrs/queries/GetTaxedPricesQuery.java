@@ -0,0 +1,17 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Query DTO for computing tax-inclusive prices in batch.
+ * This is an immutable record class that represents a query over a list of product IDs, a category,
+ * or the whole catalog when neither is given. At most one of them can be given.
+ */
+public record GetTaxedPricesQuery(
+    BigDecimal tasaImpuesto,
+    String categoria,
+    List<Long> productoIds
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
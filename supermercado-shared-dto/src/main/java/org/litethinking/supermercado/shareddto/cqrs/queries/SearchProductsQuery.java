@@ -0,0 +1,13 @@
+package org.litethinking.supermercado.shareddto.cqrs.queries;
+
+/**
+ * Query DTO for a free-text product search.
+ * This is an immutable record class that represents a query to search products by name, description and category.
+ * limite is optional and defaults to 20.
+ */
+public record SearchProductsQuery(
+    String texto,
+    Integer limite
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,14 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+/**
+ * DTO for the idempotency store counters.
+ * This is an immutable record class with the hits, misses and evictions since startup.
+ */
+public record EstadisticasIdempotenciaDto(
+    long aciertos,
+    long fallos,
+    long expulsiones,
+    int entradas
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+import java.time.Instant;
+
+/**
+ * DTO for a committed change to the product catalog.
+ * This is an immutable record class published after a product is created, updated or deleted,
+ * so that anything derived from the whole catalog knows it is stale.
+ */
+public record EventoProductoModificadoDto(
+    Long productoId,
+    boolean eliminado,
+    Instant instante
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,20 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DTO for a binary snapshot of the catalog.
+ * This is an immutable record class with the file written or restored, its format version,
+ * the rows per table and how long the operation took.
+ */
+public record InstantaneaDto(
+    String ruta,
+    int version,
+    Instant creada,
+    long bytes,
+    Map<String, Long> filasPorTabla,
+    long duracionMs
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
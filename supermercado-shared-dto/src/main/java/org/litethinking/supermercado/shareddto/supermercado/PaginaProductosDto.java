@@ -0,0 +1,18 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+import java.util.List;
+
+/**
+ * DTO for a page of products.
+ * This is an immutable record class with the products of the page, its position and size, and the totals
+ * over every product matching the filter.
+ */
+public record PaginaProductosDto(
+    List<ProductoDto> productos,
+    int pagina,
+    int tamano,
+    long totalElementos,
+    int totalPaginas
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the tax-inclusive price of a product.
+ * This is an immutable record class: precioConImpuesto is precio plus tax at the requested rate,
+ * rounded to two decimals with HALF_UP.
+ */
+public record PrecioConImpuestoDto(
+    Long productoId,
+    BigDecimal precio,
+    BigDecimal precioConImpuesto
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,12 @@
+package org.litethinking.supermercado.shareddto.supermercado;
+
+/**
+ * DTO for a product search result.
+ * This is an immutable record class with the product found and its relevance to the search, higher is better.
+ */
+public record ProductoEncontradoDto(
+    ProductoDto producto,
+    double relevancia
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,12 @@
+package org.litethinking.supermercado.shareddto.supermercado.importacion;
+
+/**
+ * DTO for a row of an imported file that was not saved.
+ * This is an immutable record class with the line of the file where the row starts and why it was rejected.
+ */
+public record ErrorFilaImportacionDto(
+    long fila,
+    String mensaje
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.shareddto.supermercado.importacion;
+
+import java.util.List;
+
+/**
+ * DTO for the progress of a CSV import, sent after each chunk of rows is written.
+ * This is an immutable record class with the running totals of the import, the rows rejected in the
+ * last chunk, whether the import is over and how long it has taken so far.
+ */
+public record ProgresoImportacionDto(
+    String entidad,
+    long filasLeidas,
+    long insertadas,
+    long actualizadas,
+    long rechazadas,
+    List<ErrorFilaImportacionDto> errores,
+    boolean terminada,
+    long duracionMs
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,23 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for a relative stock adjustment of a product, e.g. one line of a goods receipt.
+ * This is an immutable record class: delta is added to the current quantity (negative to remove units)
+ * and fechaReposicion, when present, becomes the new fechaUltimaReposicion. tipo is the cause logged in
+ * the stock movement history (RECEPCION, AJUSTE or DEVOLUCION); when missing, a positive delta is a
+ * receipt and a negative one an adjustment.
+ */
+public record AjusteInventarioDto(
+    Long productoId,
+    Integer delta,
+    LocalDate fechaReposicion,
+    String tipo
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+
+    public AjusteInventarioDto(Long productoId, Integer delta, LocalDate fechaReposicion) {
+        this(productoId, delta, fechaReposicion, null);
+    }
+}
@@ -0,0 +1,25 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.Instant;
+
+/**
+ * DTO for an inventory record whose quantity crossed its stockMinimo or stockMaximo.
+ * This is an immutable record class: the zone is BAJO when cantidad <= stockMinimo,
+ * SOBRE when cantidad > stockMaximo and NORMAL otherwise. A new record enters from SIN_REGISTRO
+ * and a deleted one leaves to it.
+ */
+public record EventoUmbralStockDto(
+    Long inventarioId,
+    Long productoId,
+    Integer cantidad,
+    Integer stockMinimo,
+    Integer stockMaximo,
+    String zonaAnterior,
+    String zonaNueva,
+    Instant instante
+) {
+    public static final String BAJO = "BAJO";
+    public static final String NORMAL = "NORMAL";
+    public static final String SOBRE = "SOBRE";
+    public static final String SIN_REGISTRO = "SIN_REGISTRO";
+}
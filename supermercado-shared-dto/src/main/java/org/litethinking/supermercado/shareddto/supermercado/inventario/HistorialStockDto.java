@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the stock history of a product in a time interval.
+ * This is an immutable record class with the stock at the start and at the end of the interval and the
+ * movements in between, oldest first; truncado is true when the interval has more movements than returned.
+ */
+public record HistorialStockDto(
+    Long productoId,
+    LocalDateTime desde,
+    LocalDateTime hasta,
+    Integer cantidadInicial,
+    Integer cantidadFinal,
+    boolean truncado,
+    List<MovimientoStockDto> movimientos
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
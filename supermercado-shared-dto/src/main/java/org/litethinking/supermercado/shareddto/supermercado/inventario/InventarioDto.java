@@ -7,6 +7,8 @@ import java.time.LocalDate;
 /**
  * DTO for Inventario entity.
  * This is an immutable record class that represents inventory in the system.
+ * unidadesReservadas are the units carts hold during checkout and disponible the units still free to sell
+ * (cantidad - unidadesReservadas); both are ignored when the DTO is used to write a record.
  */
 public record InventarioDto(
     Long id,
@@ -15,7 +17,14 @@ public record InventarioDto(
     Integer stockMinimo,
     Integer stockMaximo,
     LocalDate fechaUltimaReposicion,
-    String ubicacion
+    String ubicacion,
+    Integer unidadesReservadas,
+    Integer disponible
 ) {
     // Records automatically provide getters, equals, hashCode, and toString methods
-}
\ No newline at end of file
+
+    public InventarioDto(Long id, ProductoDto producto, Integer cantidad, Integer stockMinimo, Integer stockMaximo,
+                         LocalDate fechaUltimaReposicion, String ubicacion) {
+        this(id, producto, cantidad, stockMinimo, stockMaximo, fechaUltimaReposicion, ubicacion, 0, cantidad);
+    }
+}
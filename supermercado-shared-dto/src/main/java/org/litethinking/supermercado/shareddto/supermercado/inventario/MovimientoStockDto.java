@@ -0,0 +1,19 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one stock movement.
+ * This is an immutable record class: tipo is VENTA, RECEPCION, AJUSTE or DEVOLUCION, delta the units added
+ * (negative when removed), cantidadResultante the stock right after it and motivo the operation that made it.
+ */
+public record MovimientoStockDto(
+    Long id,
+    String tipo,
+    Integer delta,
+    Integer cantidadResultante,
+    LocalDateTime instante,
+    String motivo
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a replenishment plan.
+ * This is an immutable record class with the sales window, the target days of cover and
+ * the reorder suggestions, most urgent first.
+ */
+public record PlanReposicionDto(
+    LocalDateTime desde,
+    LocalDateTime hasta,
+    int diasVentana,
+    int diasCobertura,
+    int productosAnalizados,
+    long unidadesSugeridas,
+    List<SugerenciaReposicionDto> sugerencias
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the units of a product reserved for a cart during checkout.
+ * This is an immutable record class; the reservation is released at vence unless the sale confirms it first.
+ */
+public record ReservaStockDto(
+    String carritoId,
+    Long productoId,
+    Integer unidades,
+    LocalDateTime vence
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+/**
+ * DTO for the outcome of a single stock adjustment inside a batch.
+ * This is an immutable record class that tells whether the adjustment at the given position was applied
+ * and, if so, the resulting quantity.
+ */
+public record ResultadoAjusteInventarioDto(
+    int indice,
+    boolean exitoso,
+    Long productoId,
+    Integer cantidad,
+    String error
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a batch of stock adjustments.
+ * This is an immutable record class with the totals and the per-line results of the batch.
+ */
+public record ResultadoLoteAjustesDto(
+    int totalRecibidos,
+    int totalExitosos,
+    int totalFallidos,
+    List<ResultadoAjusteInventarioDto> resultados
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,19 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the inventory totals of one location.
+ * This is an immutable record class with the number of records, the units in stock, the stock value
+ * at current prices and the records at or below their minimum. The location is null for the records
+ * stored without one.
+ */
+public record ResumenUbicacionDto(
+    String ubicacion,
+    Long registros,
+    Long unidades,
+    BigDecimal valor,
+    Long bajoStock
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
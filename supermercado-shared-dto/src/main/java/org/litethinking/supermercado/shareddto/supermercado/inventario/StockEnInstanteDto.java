@@ -0,0 +1,15 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the stock of a product at an instant.
+ * This is an immutable record class with the quantity rebuilt from the stock movement log.
+ */
+public record StockEnInstanteDto(
+    Long productoId,
+    LocalDateTime instante,
+    Integer cantidad
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.shareddto.supermercado.inventario;
+
+/**
+ * DTO for the reorder suggestion of one product.
+ * This is an immutable record class with the current stock, the sales velocity over the window,
+ * the projected days of cover (null when the product did not sell) and the units to order.
+ */
+public record SugerenciaReposicionDto(
+    Long productoId,
+    String nombreProducto,
+    String categoria,
+    Integer cantidad,
+    Integer stockMinimo,
+    Integer stockMaximo,
+    long unidadesVendidas,
+    double ventaDiaria,
+    Double diasCobertura,
+    int cantidadSugerida
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,17 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+/**
+ * DTO for the status of a sale accepted in write-behind mode.
+ * This is an immutable record class: the sale stays PENDIENTE while it only lives in the journal,
+ * and becomes PERSISTIDA (with its id) or FALLIDA (with the error) once it is flushed to the database.
+ */
+public record EstadoTicketVentaDto(
+    String ticket,
+    String estado,
+    Long idVenta,
+    String error
+) {
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String PERSISTIDA = "PERSISTIDA";
+    public static final String FALLIDA = "FALLIDA";
+}
@@ -0,0 +1,15 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+import java.util.List;
+
+/**
+ * DTO for a keyset page of sales.
+ * This is an immutable record class with the sales of the page and the opaque cursor of the next one,
+ * which is null on the last page.
+ */
+public record PaginaVentasDto(
+    List<VentaDto> ventas,
+    String siguienteCursor
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,16 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a batch of sales.
+ * This is an immutable record class with the totals and the per-sale results of the batch.
+ */
+public record ResultadoLoteVentasDto(
+    int totalRecibidas,
+    int totalExitosas,
+    int totalFallidas,
+    List<ResultadoVentaLoteDto> resultados
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,17 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+/**
+ * DTO for the outcome of a single sale inside a batch.
+ * This is an immutable record class that tells whether the sale at the given position was saved.
+ * A failed sale is retryable when it was not rejected for its content but could not be written,
+ * e.g. because the database was unavailable, so sending it again may succeed.
+ */
+public record ResultadoVentaLoteDto(
+    int indice,
+    boolean exitosa,
+    Long idVenta,
+    String error,
+    boolean reintentable
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,18 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for the sales totals of one day and payment method.
+ * This is an immutable record class; metodoPago is empty for sales without payment method.
+ */
+public record ResumenVentaDiarioDto(
+    LocalDate fecha,
+    String metodoPago,
+    long cantidadVentas,
+    BigDecimal montoTotal,
+    long cantidadArticulos
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}
@@ -0,0 +1,21 @@
+package org.litethinking.supermercado.shareddto.supermercado.venta;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the sales totals of a date range.
+ * This is an immutable record class with the totals of the whole range and the per-day,
+ * per-payment-method breakdown they were computed from.
+ */
+public record ResumenVentasDto(
+    LocalDate fechaInicio,
+    LocalDate fechaFin,
+    long cantidadVentas,
+    BigDecimal montoTotal,
+    long cantidadArticulos,
+    List<ResumenVentaDiarioDto> dias
+) {
+    // Records automatically provide getters, equals, hashCode, and toString methods
+}